@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link ExecutionContextCodec} to the java serialization of the {@link HashMap} entries store used before the codec.
+ * <p>The encoded sizes are printed on setup.
+ *
+ * @author Nadim Benabdenbi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutionContextCodecBenchmark {
+    /**
+     * The number of context entries.
+     */
+    @Param({"4", "16"})
+    private int size;
+
+    /**
+     * The context to encode.
+     */
+    private final ExecutionContext context = new DefaultExecutionContext();
+
+    /**
+     * The entries map serialized the legacy way.
+     */
+    private HashMap<String, String> entries;
+
+    /**
+     * The reusable encoding buffer.
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+    /**
+     * The encoded context.
+     */
+    private byte[] encoded;
+
+    /**
+     * The java serialized entries.
+     */
+    private byte[] serialized;
+
+    /**
+     * Initializes the context with registered keys and request id like values.
+     *
+     * @throws IOException on serialization failure.
+     */
+    @Setup
+    public void setup() throws IOException {
+        for (int i = 0; i < size; i++) {
+            String key = "x-benchmark-key-" + i;
+            ExecutionContextKeys.register(key);
+            context.put(key, "c0a8010a-" + Integer.toHexString(0x10000 * (i + 1)) + "-zone" + i);
+        }
+        entries = new HashMap<>();
+        context.entrySet().forEach(x -> entries.put(x.getKey(), x.getValue()));
+        encoded = ExecutionContextCodec.encode(context);
+        serialized = javaSerialize();
+        System.out.printf("%nentries=%d codec=%dB codec-key-ids=%dB java=%dB%n",
+                size, encoded.length, ExecutionContextCodec.encodedLength(context, true), serialized.length);
+    }
+
+    /**
+     * @return the java serialized entries.
+     * @throws IOException on serialization failure.
+     */
+    @Benchmark
+    public byte[] javaSerialize() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream stream = new ObjectOutputStream(out)) {
+            stream.writeObject(entries);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @return the java deserialized entries.
+     * @throws IOException            on deserialization failure.
+     * @throws ClassNotFoundException on deserialization failure.
+     */
+    @Benchmark
+    public Object javaDeserialize() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return stream.readObject();
+        }
+    }
+
+    /**
+     * @return the encoded context.
+     */
+    @Benchmark
+    public byte[] encode() {
+        return ExecutionContextCodec.encode(context);
+    }
+
+    /**
+     * @return the buffer holding the encoded context.
+     */
+    @Benchmark
+    public ByteBuffer encodeToBuffer() {
+        buffer.clear();
+        ExecutionContextCodec.encode(context, buffer, false);
+        return buffer;
+    }
+
+    /**
+     * @return the buffer holding the encoded context with key ids references.
+     */
+    @Benchmark
+    public ByteBuffer encodeToBufferWithKeyIds() {
+        buffer.clear();
+        ExecutionContextCodec.encode(context, buffer, true);
+        return buffer;
+    }
+
+    /**
+     * @return the decoded context.
+     */
+    @Benchmark
+    public ExecutionContext decode() {
+        return ExecutionContextCodec.decode(ByteBuffer.wrap(encoded), new DefaultExecutionContext());
+    }
+}
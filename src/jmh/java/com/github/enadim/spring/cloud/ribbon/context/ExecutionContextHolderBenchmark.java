@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of {@link ExecutionContextHolder#current()} and of a scoped attachment across the {@link ExecutionContextStorage}s.
+ * <p>The benchmark threads are {@link ExecutionContextThread}s (see {@link ExecutionContextThreadExecutor}) so that the
+ * {@link ExecutionContextStorage#INDEXED} storage uses its field slot.
+ *
+ * @author Nadim Benabdenbi
+ */
+@State(org.openjdk.jmh.annotations.Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djmh.executor=CUSTOM",
+        "-Djmh.executor.class=com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolderBenchmark$ExecutionContextThreadExecutor"})
+public class ExecutionContextHolderBenchmark {
+    /**
+     * The storage under test.
+     */
+    @Param({"THREAD_LOCAL", "INHERITABLE", "INDEXED"})
+    private ExecutionContextStorage storage;
+
+    /**
+     * The context to attach.
+     */
+    private final ExecutionContext context = new PersistentExecutionContext();
+
+    /**
+     * Selects the storage and initializes the current context.
+     */
+    @Setup
+    public void setup() {
+        ExecutionContextHolder.setStorage(storage);
+        ExecutionContextHolder.current();
+    }
+
+    /**
+     * Removes the current context.
+     */
+    @TearDown
+    public void tearDown() {
+        ExecutionContextHolder.remove();
+    }
+
+    /**
+     * @return the current context.
+     */
+    @Benchmark
+    public ExecutionContext current() {
+        return ExecutionContextHolder.current();
+    }
+
+    /**
+     * @return the attached context.
+     */
+    @Benchmark
+    @SuppressWarnings("try")
+    public ExecutionContext attach() {
+        try (Scope scope = ExecutionContextHolder.attach(context)) {
+            return ExecutionContextHolder.current();
+        }
+    }
+
+    /**
+     * Benchmark executor running on {@link ExecutionContextThread}s.
+     */
+    public static class ExecutionContextThreadExecutor extends ThreadPoolExecutor {
+        /**
+         * @param threads the thread count.
+         * @param prefix  the thread name prefix.
+         */
+        public ExecutionContextThreadExecutor(int threads, String prefix) {
+            super(threads, threads, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), new ExecutionContextThreadFactory(prefix + "-", true));
+        }
+    }
+}
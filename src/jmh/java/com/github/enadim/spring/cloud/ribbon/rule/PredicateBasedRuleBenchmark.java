@@ -0,0 +1,414 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder;
+import com.github.enadim.spring.cloud.ribbon.support.DynamicMetadataMatcherConfig;
+import com.github.enadim.spring.cloud.ribbon.support.EurekaInstanceProperties;
+import com.github.enadim.spring.cloud.ribbon.support.FavoriteZoneConfig;
+import com.github.enadim.spring.cloud.ribbon.support.FavoriteZoneConfig.FavoriteZoneProperties;
+import com.github.enadim.spring.cloud.ribbon.support.PropagationProperties;
+import com.github.enadim.spring.cloud.ribbon.support.RuleBaseConfig;
+import com.github.enadim.spring.cloud.ribbon.support.StrictMetadataMatcherConfig;
+import com.github.enadim.spring.cloud.ribbon.support.ZoneAffinityConfig;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.client.config.DefaultClientConfigImpl;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.DummyPing;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerList;
+import com.netflix.loadbalancer.ServerListUpdater;
+import com.netflix.niws.loadbalancer.DiscoveryEnabledServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.enadim.spring.cloud.ribbon.support.RibbonExtensionsConstants.EUREKA_ZONE_PROPERTY;
+
+/**
+ * Measures {@link PredicateBasedRuleSupport#choose(Object)} for each shipped rule configuration in steady state
+ * on the {@link DynamicServerListLoadBalancerSupport} defined by the {@link RuleBaseConfig}.
+ * <p>Each invocation switches to the next of {@value #CONTEXTS} prebuilt contexts when {@link #freshContext} is set:
+ * the predicates memoized per context version are prepared again as with a new context per request.
+ * <p>Run with the GC profiler ({@code -prof gc}): {@code gc.alloc.rate.norm} is expected to be 0 B/op with a reused context.
+ * With a fresh context, only the zone affinity, the favorite zone and the indexed dynamic metadata matcher are expected to be 0 B/op.
+ *
+ * @author Nadim Benabdenbi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PredicateBasedRuleBenchmark {
+    /**
+     * The number of servers per zone.
+     */
+    private static final int SERVERS_PER_ZONE = 4;
+
+    /**
+     * The zones.
+     */
+    private static final String[] ZONES = {"zone1", "zone2", "zone3"};
+
+    /**
+     * The number of prebuilt contexts: a power of two.
+     */
+    private static final int CONTEXTS = 1024;
+
+    /**
+     * The rule configuration under test.
+     */
+    @Param({"ZONE_AFFINITY", "FAVORITE_ZONE", "DYNAMIC_METADATA", "DYNAMIC_METADATA_INDEXED", "STRICT_METADATA", "STRICT_METADATA_INDEXED"})
+    private RuleConfiguration configuration;
+
+    /**
+     * Whether each invocation chooses with a new context version.
+     */
+    @Param({"false", "true"})
+    private boolean freshContext;
+
+    /**
+     * The prebuilt contexts.
+     */
+    private final ExecutionContext[] contexts = new ExecutionContext[CONTEXTS];
+
+    /**
+     * The invocation count.
+     */
+    private int invocation;
+
+    /**
+     * The rule under test.
+     */
+    private PredicateBasedRuleSupport rule;
+
+    /**
+     * Configures the rule on a load balancer and initializes the contexts.
+     *
+     * @throws ReflectiveOperationException on configuration injection failure.
+     */
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        rule = new PredicateBasedRuleSupport();
+        List<Server> servers = servers();
+        DynamicServerListLoadBalancerSupport<Server> loadBalancer = new DynamicServerListLoadBalancerSupport<>(clientConfig(), rule, new DummyPing(),
+                new StaticServerList(servers), x -> x, new StaticServerListUpdater());
+        configuration.configure(rule);
+        loadBalancer.updateListOfServers();
+        for (int i = 0; i < CONTEXTS; i++) {
+            contexts[i] = ExecutionContextHolder.create();
+            configuration.initialize(contexts[i]);
+        }
+        ExecutionContextHolder.switchTo(contexts[0]);
+    }
+
+    /**
+     * Removes the current context.
+     */
+    @TearDown
+    public void tearDown() {
+        ExecutionContextHolder.remove();
+    }
+
+    /**
+     * @return the chosen server.
+     */
+    @Benchmark
+    public Server choose() {
+        if (freshContext) {
+            ExecutionContextHolder.switchTo(contexts[invocation++ & (CONTEXTS - 1)]);
+        }
+        return rule.choose(null);
+    }
+
+    /**
+     * @return the discovered servers spread over the zones with alternating versions.
+     */
+    private static List<Server> servers() {
+        List<Server> servers = new ArrayList<>();
+        for (String zone : ZONES) {
+            for (int i = 0; i < SERVERS_PER_ZONE; i++) {
+                Map<String, String> metadata = new HashMap<>();
+                metadata.put("version", String.valueOf(i % 2));
+                metadata.put(EUREKA_ZONE_PROPERTY, zone);
+                InstanceInfo instanceInfo = InstanceInfo.Builder.newBuilder()
+                        .setAppName("application")
+                        .setInstanceId(zone + "-" + i)
+                        .setHostName(zone + "-" + i)
+                        .setMetadata(metadata)
+                        .build();
+                DiscoveryEnabledServer server = new DiscoveryEnabledServer(instanceInfo, false);
+                server.setZone(zone);
+                servers.add(server);
+            }
+        }
+        return servers;
+    }
+
+    /**
+     * Injects a configuration field value.
+     *
+     * @param target the configuration.
+     * @param name   the field name.
+     * @param value  the field value.
+     * @throws ReflectiveOperationException on injection failure.
+     */
+    private static void inject(Object target, String name, Object value) throws ReflectiveOperationException {
+        Class<?> type = target.getClass();
+        while (true) {
+            try {
+                Field field = type.getDeclaredField(name);
+                field.setAccessible(true);
+                field.set(target, value);
+                return;
+            } catch (NoSuchFieldException e) {
+                type = type.getSuperclass();
+                if (type == null) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param config the rule configuration.
+     * @return the rule configuration with the eureka instance properties of an instance in the second zone.
+     * @throws ReflectiveOperationException on injection failure.
+     */
+    private static <T extends RuleBaseConfig> T eureka(T config) throws ReflectiveOperationException {
+        EurekaInstanceProperties properties = new EurekaInstanceProperties();
+        properties.getMetadataMap().put(EUREKA_ZONE_PROPERTY, ZONES[1]);
+        inject(config, "eurekaInstanceProperties", properties);
+        return config;
+    }
+
+    /**
+     * @return the client config.
+     */
+    private static IClientConfig clientConfig() {
+        DefaultClientConfigImpl clientConfig = new DefaultClientConfigImpl();
+        clientConfig.loadDefaultValues();
+        clientConfig.setClientName("application");
+        return clientConfig;
+    }
+
+    /**
+     * Static server list.
+     */
+    private static final class StaticServerList implements ServerList<Server> {
+        /**
+         * The servers.
+         */
+        private final List<Server> servers;
+
+        /**
+         * @param servers the servers.
+         */
+        private StaticServerList(List<Server> servers) {
+            this.servers = servers;
+        }
+
+        @Override
+        public List<Server> getInitialListOfServers() {
+            return servers;
+        }
+
+        @Override
+        public List<Server> getUpdatedListOfServers() {
+            return servers;
+        }
+    }
+
+    /**
+     * Server list updater that never updates.
+     */
+    private static final class StaticServerListUpdater implements ServerListUpdater {
+        @Override
+        public void start(UpdateAction updateAction) {
+            // the server list is updated by the setup.
+        }
+
+        @Override
+        public void stop() {
+            // nothing to stop.
+        }
+
+        @Override
+        public String getLastUpdate() {
+            return null;
+        }
+
+        @Override
+        public long getDurationSinceLastUpdateMs() {
+            return 0;
+        }
+
+        @Override
+        public int getNumberMissedCycles() {
+            return 0;
+        }
+
+        @Override
+        public int getCoreThreads() {
+            return 0;
+        }
+    }
+
+    /**
+     * The shipped rule configurations.
+     */
+    public enum RuleConfiguration {
+        /**
+         * {@link ZoneAffinityConfig}.
+         */
+        ZONE_AFFINITY {
+            @Override
+            void configure(PredicateBasedRuleSupport rule) throws ReflectiveOperationException {
+                eureka(new ZoneAffinityConfig()).zoneAffinity(clientConfig(), rule);
+            }
+        },
+        /**
+         * {@link FavoriteZoneConfig} with the favorite zone defined.
+         */
+        FAVORITE_ZONE {
+            @Override
+            void configure(PredicateBasedRuleSupport rule) throws ReflectiveOperationException {
+                eureka(new FavoriteZoneConfig()).favoriteZone(clientConfig(), rule, new FavoriteZoneProperties(), new PropagationProperties());
+            }
+
+            @Override
+            void initialize(ExecutionContext context) {
+                context.put("favorite-zone", ZONES[2]);
+            }
+        },
+        /**
+         * {@link DynamicMetadataMatcherConfig}.
+         */
+        DYNAMIC_METADATA {
+            @Override
+            void configure(PredicateBasedRuleSupport rule) throws ReflectiveOperationException {
+                dynamic(false).dynamicMetadaMatcher(clientConfig(), rule);
+            }
+
+            @Override
+            void initialize(ExecutionContext context) {
+                context.put("dynamic-matcher-key", "version").put("version", "1");
+            }
+        },
+        /**
+         * {@link DynamicMetadataMatcherConfig} with the metadata index.
+         */
+        DYNAMIC_METADATA_INDEXED {
+            @Override
+            void configure(PredicateBasedRuleSupport rule) throws ReflectiveOperationException {
+                dynamic(true).dynamicMetadaMatcher(clientConfig(), rule);
+            }
+
+            @Override
+            void initialize(ExecutionContext context) {
+                DYNAMIC_METADATA.initialize(context);
+            }
+        },
+        /**
+         * {@link StrictMetadataMatcherConfig}.
+         */
+        STRICT_METADATA {
+            @Override
+            void configure(PredicateBasedRuleSupport rule) throws ReflectiveOperationException {
+                strict(false).strictMetadataMatcher(clientConfig(), rule);
+            }
+
+            @Override
+            void initialize(ExecutionContext context) {
+                context.put("version", "1").put(EUREKA_ZONE_PROPERTY, ZONES[0]);
+            }
+        },
+        /**
+         * {@link StrictMetadataMatcherConfig} with the metadata index.
+         */
+        STRICT_METADATA_INDEXED {
+            @Override
+            void configure(PredicateBasedRuleSupport rule) throws ReflectiveOperationException {
+                strict(true).strictMetadataMatcher(clientConfig(), rule);
+            }
+
+            @Override
+            void initialize(ExecutionContext context) {
+                STRICT_METADATA.initialize(context);
+            }
+        };
+
+        /**
+         * Configures the rule predicate.
+         *
+         * @param rule the rule.
+         * @throws ReflectiveOperationException on configuration injection failure.
+         */
+        abstract void configure(PredicateBasedRuleSupport rule) throws ReflectiveOperationException;
+
+        /**
+         * Initializes a context.
+         *
+         * @param context the context.
+         */
+        void initialize(ExecutionContext context) {
+            // the rule reads no context entry.
+        }
+
+        /**
+         * @param indexed whether the metadata index is enabled.
+         * @return the dynamic metadata matcher configuration.
+         * @throws ReflectiveOperationException on injection failure.
+         */
+        private static DynamicMetadataMatcherConfig dynamic(boolean indexed) throws ReflectiveOperationException {
+            DynamicMetadataMatcherConfig config = new DynamicMetadataMatcherConfig();
+            inject(config, "key", "dynamic-matcher-key");
+            inject(config, "matchIfMissing", true);
+            inject(config, "indexed", indexed);
+            return config;
+        }
+
+        /**
+         * @param indexed whether the metadata index is enabled.
+         * @return the strict metadata matcher configuration.
+         * @throws ReflectiveOperationException on injection failure.
+         */
+        private static StrictMetadataMatcherConfig strict(boolean indexed) throws ReflectiveOperationException {
+            StrictMetadataMatcherConfig config = new StrictMetadataMatcherConfig();
+            inject(config, "indexed", indexed);
+            return config;
+        }
+    }
+}
@@ -0,0 +1,464 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import javax.validation.constraints.NotNull;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.util.Collections.emptyIterator;
+
+/**
+ * Execution context that stores the entries of the keys registered within {@link ExecutionContextKeys} on an array indexed by key id.
+ * Entries of unregistered keys are spilled to a {@link ConcurrentHashMap}.
+ * <p>{@code null} values are not retained: putting a {@code null} value removes the entry.
+ * <p>The reads are lock free while the writes are synchronized. The writes update the entries in place until the context is copied:
+ * a copy shares the entries of the copied context and the first write of either context copies them (copy on write).
+ * The context is always safe for concurrent access and {@link #enableConcurrency()} has no effect.
+ * <p>The {@link #entrySet()} is a weakly consistent view of the entries.
+ *
+ * @author Nadim Benabdenbi
+ */
+public class ArrayExecutionContext implements ExecutionContext, Externalizable {
+    /**
+     * The serial version UID
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The current entries.
+     */
+    private transient volatile State state;
+
+    /**
+     * Constructs a new context with an empty entries.
+     */
+    public ArrayExecutionContext() {
+        this(new State(ExecutionContextKeys.size()));
+    }
+
+    /**
+     * Constructs a new context with the given entries.
+     *
+     * @param entries the entries to starts with.
+     */
+    public ArrayExecutionContext(@NotNull Map<String, String> entries) {
+        this();
+        entries.forEach(this::put);
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param state the entries of the copied context.
+     */
+    private ArrayExecutionContext(State state) {
+        this.state = state;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized ExecutionContext put(String key, String value) {
+        ExecutionContextKey registered = ExecutionContextKeys.find(key);
+        if (registered != null) {
+            return put(registered, value);
+        }
+        State current = writable(0);
+        if (current.spill(key, value)) {
+            current.version = ExecutionContextVersions.next();
+        }
+        return this;
+    }
+
+    /**
+     * Writes the value at the key id without looking the key up.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public synchronized ExecutionContext put(ExecutionContextKey key, String value) {
+        State current = writable(key.getId() + 1);
+        boolean changed = current.set(key.getId(), value);
+        if (current.spill(key.getName(), null) || changed) {
+            current.version = ExecutionContextVersions.next();
+        }
+        return this;
+    }
+
+    /**
+     * @param length the minimum length of the values.
+     * @return the entries owned by this context: copied when shared with a copy or too short.
+     */
+    private State writable(int length) {
+        State current = state;
+        if (current.shared || length > current.values.length()) {
+            current = new State(current, Math.max(current.values.length(), Math.max(length, ExecutionContextKeys.size())));
+            state = current;
+        }
+        return current;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized ExecutionContext putIfAbsent(String key, String value) {
+        if (get(key) == null) {
+            put(key, value);
+        }
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(String key) {
+        return get(key) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String get(String key) {
+        State current = state;
+        ExecutionContextKey registered = ExecutionContextKeys.find(key);
+        String value = registered == null ? null : current.get(registered.getId());
+        return value == null ? current.spilled(key) : value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String get(ExecutionContextKey key) {
+        State current = state;
+        String value = current.get(key.getId());
+        return value == null ? current.spilled(key.getName()) : value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ExecutionContext remove(String key) {
+        return put(key, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ExecutionContext enableConcurrency() {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new Entries(state);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return state.size == 0;
+    }
+
+    /**
+     * Shares the entries with the copy until either context writes.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public synchronized ArrayExecutionContext copy() {
+        State current = state;
+        current.shared = true;
+        return new ArrayExecutionContext(current);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long version() {
+        return state.version;
+    }
+
+    /**
+     * Writes the entries by key names with the {@link ExecutionContextCodec}: key ids are not stable across JVMs.
+     *
+     * @param out the object output.
+     * @throws IOException on write failure.
+     */
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        ExecutionContextCodec.write(this, out);
+    }
+
+    /**
+     * Reads the entries with the {@link ExecutionContextCodec}.
+     *
+     * @param in the object input.
+     * @throws IOException on read failure.
+     */
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        ExecutionContextCodec.read(in, this);
+    }
+
+    /**
+     * Entries of the context: updated in place by the owning context until shared with a copy, never modified afterwards.
+     */
+    private static final class State {
+        /**
+         * The values of the registered keys indexed by key id.
+         */
+        private final AtomicReferenceArray<String> values;
+
+        /**
+         * The entries of the unregistered keys: {@code null} until the first one.
+         */
+        private volatile ConcurrentMap<String, String> spill;
+
+        /**
+         * The number of entries.
+         */
+        private volatile int size;
+
+        /**
+         * The version stamp.
+         */
+        private volatile long version = ExecutionContextVersions.EMPTY;
+
+        /**
+         * Whether the entries are shared with a copy.
+         */
+        private volatile boolean shared;
+
+        /**
+         * @param length the values length.
+         */
+        private State(int length) {
+            values = new AtomicReferenceArray<>(length);
+        }
+
+        /**
+         * @param source the entries to copy.
+         * @param length the values length: not less than the source one.
+         */
+        private State(State source, int length) {
+            this(length);
+            for (int i = 0; i < source.values.length(); i++) {
+                values.set(i, source.values.get(i));
+            }
+            ConcurrentMap<String, String> spilled = source.spill;
+            spill = spilled == null ? null : new ConcurrentHashMap<>(spilled);
+            size = source.size;
+            version = source.version;
+        }
+
+        /**
+         * @param id the key id.
+         * @return the value of the key id.
+         */
+        private String get(int id) {
+            return id < values.length() ? values.get(id) : null;
+        }
+
+        /**
+         * @param key the unregistered key.
+         * @return the spilled value of the key.
+         */
+        private String spilled(String key) {
+            ConcurrentMap<String, String> spilled = spill;
+            return spilled == null ? null : spilled.get(key);
+        }
+
+        /**
+         * @param id    the key id: within the values.
+         * @param value the value of the key id: {@code null} to remove the entry.
+         * @return {@code true} when the value changed.
+         */
+        private boolean set(int id, String value) {
+            String previous = values.getAndSet(id, value);
+            return changed(previous, value);
+        }
+
+        /**
+         * @param key   the unregistered key.
+         * @param value the value of the key: {@code null} to remove the entry.
+         * @return {@code true} when the value changed.
+         */
+        private boolean spill(String key, String value) {
+            ConcurrentMap<String, String> spilled = spill;
+            if (spilled == null) {
+                if (value == null) {
+                    return false;
+                }
+                spilled = new ConcurrentHashMap<>();
+                spill = spilled;
+            }
+            return changed(value == null ? spilled.remove(key) : spilled.put(key, value), value);
+        }
+
+        /**
+         * Counts the added or removed entry.
+         *
+         * @param previous the previous value.
+         * @param value    the new value.
+         * @return {@code true} when the value changed.
+         */
+        private boolean changed(String previous, String value) {
+            if (previous == null) {
+                if (value == null) {
+                    return false;
+                }
+                size++;
+                return true;
+            } else if (value == null) {
+                size--;
+                return true;
+            }
+            return !previous.equals(value);
+        }
+    }
+
+    /**
+     * Weakly consistent view of the entries.
+     */
+    private static final class Entries extends AbstractSet<Entry<String, String>> {
+        /**
+         * The entries.
+         */
+        private final State state;
+
+        /**
+         * @param state the entries.
+         */
+        private Entries(State state) {
+            this.state = state;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Iterator<Entry<String, String>> iterator() {
+            return new EntryIterator(state);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            return state.size;
+        }
+    }
+
+    /**
+     * Iterates the values of the registered keys then the spilled entries.
+     */
+    private static final class EntryIterator implements Iterator<Entry<String, String>> {
+        /**
+         * The entries.
+         */
+        private final State state;
+
+        /**
+         * The next key id to visit.
+         */
+        private int id;
+
+        /**
+         * The spilled entries iterator: {@code null} until the values are visited.
+         */
+        private Iterator<Entry<String, String>> spilled;
+
+        /**
+         * The next entry: {@code null} when none.
+         */
+        private Entry<String, String> next;
+
+        /**
+         * @param state the entries.
+         */
+        private EntryIterator(State state) {
+            this.state = state;
+            advance();
+        }
+
+        /**
+         * Moves to the next entry.
+         */
+        private void advance() {
+            next = null;
+            while (id < state.values.length()) {
+                String value = state.values.get(id++);
+                if (value != null) {
+                    next = new SimpleImmutableEntry<>(ExecutionContextKeys.get(id - 1).getName(), value);
+                    return;
+                }
+            }
+            if (spilled == null) {
+                ConcurrentMap<String, String> spill = state.spill;
+                spilled = spill == null ? emptyIterator() : spill.entrySet().iterator();
+            }
+            if (spilled.hasNext()) {
+                next = new SimpleImmutableEntry<>(spilled.next());
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Entry<String, String> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<String, String> result = next;
+            advance();
+            return result;
+        }
+    }
+}
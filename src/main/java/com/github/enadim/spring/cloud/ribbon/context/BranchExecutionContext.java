@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * Execution context of a forked branch: a branch local delta over a frozen parent context.
+ * <p>The parent is never modified: writes are recorded in the delta, a {@code null} delta value standing for a removal.
+ * The delta is a {@link PersistentExecutionContext}: reads are lock free and the branch is always safe for concurrent access.
+ *
+ * @author Nadim Benabdenbi
+ * @see ExecutionContextFork
+ */
+final class BranchExecutionContext implements ExecutionContext {
+    /**
+     * The serial version UID
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The frozen parent context.
+     */
+    private final ExecutionContext parent;
+
+    /**
+     * The branch local writes.
+     */
+    private final PersistentExecutionContext delta;
+
+    /**
+     * The version stamp.
+     */
+    private volatile long version;
+
+    /**
+     * @param parent the frozen parent context.
+     * @param delta  the empty branch local writes.
+     */
+    BranchExecutionContext(ExecutionContext parent, PersistentExecutionContext delta) {
+        this(parent, delta, parent.version());
+    }
+
+    /**
+     * @param parent  the frozen parent context.
+     * @param delta   the branch local writes.
+     * @param version the version stamp.
+     */
+    private BranchExecutionContext(ExecutionContext parent, PersistentExecutionContext delta, long version) {
+        this.parent = parent;
+        this.delta = delta;
+        this.version = version;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ExecutionContext put(String key, String value) {
+        delta.put(key, value);
+        version = ExecutionContextVersions.next();
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ExecutionContext putIfAbsent(String key, String value) {
+        if (get(key) == null) {
+            put(key, value);
+        }
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(String key) {
+        return delta.containsKey(key) ? delta.get(key) != null : parent.containsKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String get(String key) {
+        String value = delta.get(key);
+        return value != null || delta.containsKey(key) ? value : parent.get(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ExecutionContext remove(String key) {
+        if (containsKey(key)) {
+            put(key, null);
+        }
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ExecutionContext enableConcurrency() {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        Map<String, String> entries = new HashMap<>();
+        parent.entrySet().forEach(x -> entries.put(x.getKey(), x.getValue()));
+        delta.entrySet().forEach(x -> {
+            if (x.getValue() == null) {
+                entries.remove(x.getKey());
+            } else {
+                entries.put(x.getKey(), x.getValue());
+            }
+        });
+        return unmodifiableMap(entries).entrySet();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The copy shares the frozen parent and is not merged on join.
+     */
+    @Override
+    public ExecutionContext copy() {
+        return new BranchExecutionContext(parent, delta.copy(), version);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long version() {
+        return version;
+    }
+
+    /**
+     * @return the branch local writes: a {@code null} value stands for a removal.
+     */
+    Set<Entry<String, String>> delta() {
+        return delta.entrySet();
+    }
+}
@@ -16,6 +16,10 @@
 package com.github.enadim.spring.cloud.ribbon.context;
 
 import javax.validation.constraints.NotNull;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -27,10 +31,13 @@ import static java.util.Collections.unmodifiableMap;
 
 /**
  * Execution context that stores entries on a {@link HashMap}. Switches the {@link HashMap} store to {@link ConcurrentHashMap} store on {@link #enableConcurrency()}.
+ * <p>Serialized with the {@link ExecutionContextCodec}: a deserialized context stores its entries on a {@link HashMap}.
+ * <p>The version is stamped on the mutations changing the entries until the concurrency is enabled:
+ * a concurrent context is {@link #UNVERSIONED unversioned} since its stamps could not follow the concurrent writes atomically.
  *
  * @author Nadim Benabdenbi
  */
-public class DefaultExecutionContext implements ExecutionContext {
+public class DefaultExecutionContext implements ExecutionContext, Externalizable {
     /**
      * The serial version UID
      */
@@ -41,6 +48,11 @@ public class DefaultExecutionContext implements ExecutionContext {
      */
     private Map<String, String> entries;
 
+    /**
+     * The version stamp.
+     */
+    private transient volatile long version = ExecutionContextVersions.EMPTY;
+
     /**
      * Constructs a new context with an empty entries.
      */
@@ -55,6 +67,18 @@ public class DefaultExecutionContext implements ExecutionContext {
      */
     public DefaultExecutionContext(@NotNull Map<String, String> entries) {
         this.entries = new HashMap<>(entries);
+        version = ExecutionContextVersions.next();
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param entries the entries to copy.
+     * @param version the version stamp of the copied entries.
+     */
+    private DefaultExecutionContext(Map<String, String> entries, long version) {
+        this.entries = new HashMap<>(entries);
+        this.version = version;
     }
 
     /**
@@ -62,7 +86,10 @@ public class DefaultExecutionContext implements ExecutionContext {
      */
     @Override
     public ExecutionContext put(String key, String value) {
-        entries.put(key, value);
+        String previous = entries.put(key, value);
+        if (previous == null || !previous.equals(value)) {
+            changed();
+        }
         return this;
     }
 
@@ -71,7 +98,9 @@ public class DefaultExecutionContext implements ExecutionContext {
      */
     @Override
     public ExecutionContext putIfAbsent(String key, String value) {
-        entries.putIfAbsent(key, value);
+        if (entries.putIfAbsent(key, value) == null) {
+            changed();
+        }
         return this;
     }
 
@@ -95,10 +124,22 @@ public class DefaultExecutionContext implements ExecutionContext {
      */
     @Override
     public ExecutionContext remove(String key) {
-        entries.remove(key);
+        if (entries.containsKey(key)) {
+            entries.remove(key);
+            changed();
+        }
         return this;
     }
 
+    /**
+     * Stamps a new version unless the concurrency is enabled.
+     */
+    private void changed() {
+        if (!(entries instanceof ConcurrentMap)) {
+            version = ExecutionContextVersions.next();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -119,10 +160,42 @@ public class DefaultExecutionContext implements ExecutionContext {
     }
 
     /**
-     * {@inheritDoc}
+     * Unversioned once the concurrency is enabled.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public long version() {
+        return entries instanceof ConcurrentMap ? UNVERSIONED : version;
+    }
+
+    /**
+     * The copy of a concurrent context is stamped with a new version.
+     * <p>{@inheritDoc}
      */
     @Override
     public DefaultExecutionContext copy() {
-        return new DefaultExecutionContext(entries);
+        return entries instanceof ConcurrentMap ? new DefaultExecutionContext(entries) : new DefaultExecutionContext(entries, version);
+    }
+
+    /**
+     * Writes the entries with the {@link ExecutionContextCodec}.
+     *
+     * @param out the object output.
+     * @throws IOException on write failure.
+     */
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        ExecutionContextCodec.write(this, out);
+    }
+
+    /**
+     * Reads the entries with the {@link ExecutionContextCodec}.
+     *
+     * @param in the object input.
+     * @throws IOException on read failure.
+     */
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        ExecutionContextCodec.read(in, this);
     }
 }
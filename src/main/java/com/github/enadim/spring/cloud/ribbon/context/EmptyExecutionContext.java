@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import java.util.Map.Entry;
+import java.util.Set;
+
+import static java.util.Collections.emptySet;
+
+/**
+ * Shared immutable empty context returned by {@link ExecutionContextHolder#peek()} and {@link ExecutionContextHolder#capture()}
+ * when there is no context to read.
+ * <p>Writes are rejected: {@link ExecutionContextHolder#current()} replaces the shared instance by a new context of the configured type.
+ *
+ * @author Nadim Benabdenbi
+ */
+final class EmptyExecutionContext implements ExecutionContext {
+    /**
+     * The shared instance.
+     */
+    static final EmptyExecutionContext INSTANCE = new EmptyExecutionContext();
+
+    /**
+     * The serial version UID
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Singleton.
+     */
+    private EmptyExecutionContext() {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long version() {
+        return ExecutionContextVersions.EMPTY;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public ExecutionContext put(String key, String value) {
+        throw new UnsupportedOperationException("The empty execution context is immutable.");
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public ExecutionContext putIfAbsent(String key, String value) {
+        throw new UnsupportedOperationException("The empty execution context is immutable.");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(String key) {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String get(String key) {
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String get(ExecutionContextKey key) {
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ExecutionContext remove(String key) {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ExecutionContext enableConcurrency() {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return emptySet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ExecutionContext copy() {
+        return this;
+    }
+
+    /**
+     * @return the shared instance.
+     */
+    private Object readResolve() {
+        return INSTANCE;
+    }
+}
@@ -27,6 +27,10 @@ import java.util.Set;
  * @author Nadim Benabdenbi
  */
 public interface ExecutionContext extends Serializable {
+    /**
+     * The version of the contexts that do not track their mutations.
+     */
+    long UNVERSIONED = -1;
 
     /**
      * Associates the specified value with the specified key in this context.
@@ -39,6 +43,17 @@ public interface ExecutionContext extends Serializable {
      */
     ExecutionContext put(String key, String value);
 
+    /**
+     * Associates the specified value with the specified registered key in this context.
+     *
+     * @param key   the registered entry key
+     * @param value the entry value
+     * @return the context instance
+     */
+    default ExecutionContext put(ExecutionContextKey key, String value) {
+        return put(key.getName(), value);
+    }
+
     /**
      * If the specified key is not already associated with a value (or is mapped to null) associates it with the given value.
      *
@@ -64,6 +79,16 @@ public interface ExecutionContext extends Serializable {
      */
     String get(String key);
 
+    /**
+     * Retrieves the entry value matching the given registered key.
+     *
+     * @param key the registered entry key
+     * @return the entry value
+     */
+    default String get(ExecutionContextKey key) {
+        return get(key.getName());
+    }
+
     /**
      * Removes the context entry.
      *
@@ -87,6 +112,26 @@ public interface ExecutionContext extends Serializable {
      */
     Set<Entry<String, String>> entrySet();
 
+    /**
+     * Checks if the context has no entry.
+     *
+     * @return {@code true} when the context has no entry otherwise {@code false}.
+     */
+    default boolean isEmpty() {
+        return entrySet().isEmpty();
+    }
+
+    /**
+     * Retrieves the version stamp of the entries: a process wide stamp changing on every mutation and kept by the copies until modified.
+     * <p>Two equal stamps other than {@link #UNVERSIONED} guarantee equal entries: the stamp can key the caches of values derived from the entries.
+     * The stamp changes after the mutation is visible.
+     *
+     * @return the version stamp or {@link #UNVERSIONED} when mutations are not tracked.
+     */
+    default long version() {
+        return UNVERSIONED;
+    }
+
     /**
      * Copies the current instance.
      *
@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compact versioned binary codec of the {@link ExecutionContext} entries.
+ * <p>Layout: a version byte, a flags byte, the entries count then the entries.
+ * Counts and lengths are unsigned varints. A key is either a reference to a {@link ExecutionContextKeys} id tagged {@code (id << 1) | 1}
+ * or a literal tagged {@code length << 1} followed by its UTF-8 bytes. A value is its UTF-8 length plus one followed by its bytes, {@code 0} standing for {@code null}.
+ * <p>ASCII strings are copied char by char without going through a charset encoder.
+ * <p>Key ids references are optional as they are only meaningful between processes registering the same keys in the same order.
+ *
+ * @author Nadim Benabdenbi
+ */
+public final class ExecutionContextCodec {
+    /**
+     * The codec version.
+     */
+    public static final byte VERSION = 1;
+
+    /**
+     * The flag indicating that registered keys are encoded as id references.
+     */
+    private static final byte KEY_IDS = 1;
+
+    /**
+     * utility class should not be instantiated
+     */
+    private ExecutionContextCodec() {
+    }
+
+    /**
+     * Computes the encoded length of a context.
+     *
+     * @param context the context to encode.
+     * @param keyIds  whether the registered keys are encoded as id references.
+     * @return the encoded length in bytes.
+     */
+    public static int encodedLength(@NotNull ExecutionContext context, boolean keyIds) {
+        return encodedLength(entries(context), keyIds);
+    }
+
+    /**
+     * Encodes a context to a new array without key ids references.
+     *
+     * @param context the context to encode.
+     * @return the encoded context.
+     */
+    public static byte[] encode(@NotNull ExecutionContext context) {
+        List<Entry<String, String>> entries = entries(context);
+        ByteBuffer buffer = ByteBuffer.allocate(encodedLength(entries, false));
+        encode(entries, buffer, false);
+        return buffer.array();
+    }
+
+    /**
+     * Encodes a context to a buffer from its current position.
+     *
+     * @param context the context to encode.
+     * @param buffer  the target buffer.
+     * @param keyIds  whether the registered keys are encoded as id references.
+     * @throws BufferOverflowException when the buffer remaining is lower than the {@link #encodedLength(ExecutionContext, boolean)}.
+     */
+    public static void encode(@NotNull ExecutionContext context, @NotNull ByteBuffer buffer, boolean keyIds) {
+        encode(entries(context), buffer, keyIds);
+    }
+
+    /**
+     * Decodes a context of the configured type from a buffer current position.
+     *
+     * @param buffer the source buffer.
+     * @return the decoded context.
+     * @throws IllegalArgumentException on unsupported version, malformed varint or unknown key id.
+     * @see ExecutionContextHolder#create()
+     */
+    public static ExecutionContext decode(@NotNull ByteBuffer buffer) {
+        return decode(buffer, ExecutionContextHolder.create());
+    }
+
+    /**
+     * Decodes the entries from a buffer current position into a context.
+     *
+     * @param buffer the source buffer.
+     * @param target the context receiving the entries.
+     * @param <T>    the context type.
+     * @return the target context.
+     * @throws IllegalArgumentException on unsupported version, malformed varint or unknown key id.
+     */
+    public static <T extends ExecutionContext> T decode(@NotNull ByteBuffer buffer, @NotNull T target) {
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException(String.format("Unsupported execution context codec version [%d].", version));
+        }
+        buffer.get();
+        int count = readVarint(buffer);
+        for (int i = 0; i < count; i++) {
+            int tag = readVarint(buffer);
+            String key = (tag & 1) == 1 ? key(tag >>> 1) : readString(buffer, tag >>> 1);
+            int length = readVarint(buffer);
+            target.put(key, length == 0 ? null : readString(buffer, length - 1));
+        }
+        return target;
+    }
+
+    /**
+     * Writes a context to an object output: used by the {@link java.io.Externalizable} contexts.
+     *
+     * @param context the context to write.
+     * @param out     the object output.
+     * @throws IOException on write failure.
+     */
+    static void write(ExecutionContext context, ObjectOutput out) throws IOException {
+        byte[] bytes = encode(context);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads the entries from an object input into a context: used by the {@link java.io.Externalizable} contexts.
+     *
+     * @param in     the object input.
+     * @param target the context receiving the entries.
+     * @throws IOException on read failure.
+     */
+    static void read(ObjectInput in, ExecutionContext target) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        decode(ByteBuffer.wrap(bytes), target);
+    }
+
+    /**
+     * @param context the context.
+     * @return a stable copy of the context entries.
+     */
+    private static List<Entry<String, String>> entries(ExecutionContext context) {
+        return new ArrayList<>(context.entrySet());
+    }
+
+    /**
+     * @param entries the entries to encode.
+     * @param keyIds  whether the registered keys are encoded as id references.
+     * @return the encoded length in bytes.
+     */
+    private static int encodedLength(List<Entry<String, String>> entries, boolean keyIds) {
+        int length = 2 + varintLength(entries.size());
+        for (Entry<String, String> entry : entries) {
+            ExecutionContextKey key = keyIds ? ExecutionContextKeys.find(entry.getKey()) : null;
+            if (key == null) {
+                int keyLength = utf8Length(entry.getKey());
+                length += varintLength(keyLength << 1) + keyLength;
+            } else {
+                length += varintLength(key.getId() << 1 | 1);
+            }
+            if (entry.getValue() == null) {
+                length++;
+            } else {
+                int valueLength = utf8Length(entry.getValue());
+                length += varintLength(valueLength + 1) + valueLength;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * @param entries the entries to encode.
+     * @param buffer  the target buffer.
+     * @param keyIds  whether the registered keys are encoded as id references.
+     */
+    private static void encode(List<Entry<String, String>> entries, ByteBuffer buffer, boolean keyIds) {
+        buffer.put(VERSION);
+        buffer.put(keyIds ? KEY_IDS : 0);
+        writeVarint(buffer, entries.size());
+        for (Entry<String, String> entry : entries) {
+            ExecutionContextKey key = keyIds ? ExecutionContextKeys.find(entry.getKey()) : null;
+            if (key == null) {
+                writeString(buffer, entry.getKey(), 0, 1);
+            } else {
+                writeVarint(buffer, key.getId() << 1 | 1);
+            }
+            if (entry.getValue() == null) {
+                buffer.put((byte) 0);
+            } else {
+                writeString(buffer, entry.getValue(), 1, 0);
+            }
+        }
+    }
+
+    /**
+     * @param id the key id.
+     * @return the registered key name.
+     * @throws IllegalArgumentException when the id is not registered.
+     */
+    private static String key(int id) {
+        if (id >= ExecutionContextKeys.size()) {
+            throw new IllegalArgumentException(String.format("Unknown execution context key id [%d].", id));
+        }
+        return ExecutionContextKeys.get(id).getName();
+    }
+
+    /**
+     * @param value the string.
+     * @return {@code true} when all the chars are ASCII.
+     */
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param value the string.
+     * @return the UTF-8 encoded length.
+     */
+    private static int utf8Length(String value) {
+        return isAscii(value) ? value.length() : value.getBytes(UTF_8).length;
+    }
+
+    /**
+     * Writes a string prefixed by its tagged UTF-8 length {@code (length << shift) + offset}.
+     *
+     * @param buffer the target buffer.
+     * @param value  the string.
+     * @param offset the length tag offset.
+     * @param shift  the length tag shift.
+     */
+    private static void writeString(ByteBuffer buffer, String value, int offset, int shift) {
+        if (isAscii(value)) {
+            int length = value.length();
+            writeVarint(buffer, (length << shift) + offset);
+            if (buffer.remaining() < length) {
+                throw new BufferOverflowException();
+            }
+            for (int i = 0; i < length; i++) {
+                buffer.put((byte) value.charAt(i));
+            }
+        } else {
+            byte[] bytes = value.getBytes(UTF_8);
+            writeVarint(buffer, (bytes.length << shift) + offset);
+            buffer.put(bytes);
+        }
+    }
+
+    /**
+     * Reads a UTF-8 string.
+     *
+     * @param buffer the source buffer.
+     * @param length the UTF-8 length.
+     * @return the string.
+     */
+    private static String readString(ByteBuffer buffer, int length) {
+        byte[] bytes;
+        int offset;
+        if (buffer.hasArray()) {
+            bytes = buffer.array();
+            offset = buffer.arrayOffset() + buffer.position();
+            buffer.position(buffer.position() + length);
+        } else {
+            bytes = new byte[length];
+            offset = 0;
+            buffer.get(bytes);
+        }
+        for (int i = offset; i < offset + length; i++) {
+            if (bytes[i] < 0) {
+                return new String(bytes, offset, length, UTF_8);
+            }
+        }
+        return new String(bytes, offset, length, ISO_8859_1);
+    }
+
+    /**
+     * @param value the unsigned value.
+     * @return the varint length of the value.
+     */
+    private static int varintLength(int value) {
+        int length = 1;
+        for (int remaining = value >>> 7; remaining != 0; remaining >>>= 7) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Writes an unsigned varint: 7 bits per byte, the high bit indicating a following byte.
+     *
+     * @param buffer the target buffer.
+     * @param value  the unsigned value.
+     */
+    private static void writeVarint(ByteBuffer buffer, int value) {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            buffer.put((byte) (remaining & 0x7F | 0x80));
+            remaining >>>= 7;
+        }
+        buffer.put((byte) remaining);
+    }
+
+    /**
+     * Reads an unsigned varint: at most 5 bytes, the last one holding the 3 upper bits of a non negative int.
+     *
+     * @param buffer the source buffer.
+     * @return the unsigned value.
+     * @throws IllegalArgumentException on a varint longer than 5 bytes or exceeding {@link Integer#MAX_VALUE}.
+     */
+    private static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 28; shift += 7) {
+            byte current = buffer.get();
+            value |= (current & 0x7F) << shift;
+            if (current >= 0) {
+                return value;
+            }
+        }
+        byte last = buffer.get();
+        if ((last & 0xF8) != 0) {
+            throw new IllegalArgumentException(String.format("Malformed execution context varint: last byte [0x%02X].", last & 0xFF));
+        }
+        return value | last << 28;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+/**
+ * Fork of the current {@link ExecutionContext} into parallel branches merged back on join.
+ * <p>Each branch is a branch local delta over a frozen copy of the forking context: branches never contend on a shared map.
+ * {@link #join()} applies the branches deltas to the forking context in the branches creation order,
+ * the {@link ExecutionContextMergePolicy} resolving the keys written with different values by several branches.
+ * <pre>
+ * ExecutionContextFork fork = ExecutionContextHolder.fork();
+ * CompletableFuture.allOf(
+ *         runAsync(ContextAwareRunnable.wrap(task1, fork.branch())),
+ *         runAsync(ContextAwareRunnable.wrap(task2, fork.branch()))).join();
+ * fork.join();
+ * </pre>
+ * The join is expected to be invoked by the forking thread once all the branches completed.
+ *
+ * @author Nadim Benabdenbi
+ * @see ExecutionContextHolder#fork()
+ */
+public final class ExecutionContextFork {
+    /**
+     * The forking context receiving the merged writes.
+     */
+    private final ExecutionContext target;
+    /**
+     * The frozen copy of the forking context shared by the branches.
+     */
+    private final ExecutionContext parent;
+    /**
+     * The conflict resolution policy.
+     */
+    private final ExecutionContextMergePolicy policy;
+    /**
+     * The branches in creation order.
+     */
+    private final List<BranchExecutionContext> branches = new ArrayList<>();
+
+    /**
+     * @param target the forking context receiving the merged writes.
+     * @param parent the frozen copy of the forking context.
+     * @param policy the conflict resolution policy.
+     */
+    ExecutionContextFork(ExecutionContext target, ExecutionContext parent, ExecutionContextMergePolicy policy) {
+        this.target = target;
+        this.parent = parent;
+        this.policy = policy;
+    }
+
+    /**
+     * Creates a new branch to be attached to a forked task.
+     *
+     * @return the new branch context.
+     */
+    public synchronized ExecutionContext branch() {
+        BranchExecutionContext branch = new BranchExecutionContext(parent, new PersistentExecutionContext());
+        branches.add(branch);
+        return branch;
+    }
+
+    /**
+     * Discards a branch: its writes will not be merged on join.
+     *
+     * @param branch the branch to discard.
+     */
+    public synchronized void discard(@NotNull ExecutionContext branch) {
+        branches.removeIf(x -> x == branch);
+    }
+
+    /**
+     * Merges the branches writes into the forking context.
+     *
+     * @return the forking context.
+     * @throws IllegalStateException when the policy rejects a conflict: the forking context is left unchanged.
+     */
+    public synchronized ExecutionContext join() {
+        Map<String, String> merged = new HashMap<>();
+        for (BranchExecutionContext branch : branches) {
+            for (Entry<String, String> entry : branch.delta()) {
+                String key = entry.getKey();
+                String value = entry.getValue();
+                if (merged.containsKey(key) && !Objects.equals(merged.get(key), value)) {
+                    value = policy.resolve(key, merged.get(key), value);
+                }
+                merged.put(key, value);
+            }
+        }
+        branches.clear();
+        ExecutionContext context = target;
+        for (Entry<String, String> entry : merged.entrySet()) {
+            context = entry.getValue() == null ? context.remove(entry.getKey()) : context.put(entry.getKey(), entry.getValue());
+        }
+        return context;
+    }
+}
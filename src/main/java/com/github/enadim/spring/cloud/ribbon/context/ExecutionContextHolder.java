@@ -15,6 +15,8 @@
  */
 package com.github.enadim.spring.cloud.ribbon.context;
 
+import javax.validation.constraints.NotNull;
+
 /**
  * Execution CONTEXT holder.
  *
@@ -23,15 +25,20 @@ package com.github.enadim.spring.cloud.ribbon.context;
 public final class ExecutionContextHolder {
 
 
+    /**
+     * The type of the contexts created by the holder.
+     */
+    private static volatile ExecutionContextType type = ExecutionContextType.DEFAULT;
+
     /**
      * Stores the {@link ExecutionContext} for current thread.
      */
-    private static final ThreadLocal<ExecutionContext> CONTEXT = new InheritableThreadLocal<ExecutionContext>() {
-        @Override
-        protected ExecutionContext initialValue() {
-            return new DefaultExecutionContext();
-        }
-    };
+    private static volatile ExecutionContextStorage storage = ExecutionContextStorage.INHERITABLE;
+
+    /**
+     * The default conflict resolution policy of the forks.
+     */
+    private static volatile ExecutionContextMergePolicy mergePolicy = ExecutionContextMergePolicy.LAST_WINS;
 
 
     /**
@@ -41,12 +48,32 @@ public final class ExecutionContextHolder {
     }
 
     /**
-     * Retrieves the current CONTEXT.
+     * Retrieves the current CONTEXT: installs a new CONTEXT on the current thread when none is set.
      *
      * @return the current CONTEXT.
      */
     public static ExecutionContext current() {
-        return CONTEXT.get();
+        return storage.slot().writable();
+    }
+
+    /**
+     * Retrieves the current CONTEXT for reading without installing one.
+     * <p>Returns the shared immutable empty CONTEXT when none is set: writing to it throws {@link UnsupportedOperationException}.
+     *
+     * @return the current CONTEXT or the shared empty CONTEXT.
+     */
+    public static ExecutionContext peek() {
+        return storage.slot().get();
+    }
+
+    /**
+     * Captures the current CONTEXT to be attached later on another thread.
+     *
+     * @return a copy of the current CONTEXT or the shared empty CONTEXT when the current one is empty.
+     */
+    public static ExecutionContext capture() {
+        ExecutionContext current = peek();
+        return current.isEmpty() ? EmptyExecutionContext.INSTANCE : current.copy();
     }
 
     /**
@@ -56,18 +83,131 @@ public final class ExecutionContextHolder {
      * @return the current CONTEXT.
      */
     public static ExecutionContext switchTo(ExecutionContext context) {
-        ExecutionContextHolder.CONTEXT.set(context);
+        storage.slot().set(context);
         return context;
     }
 
+    /**
+     * Attaches the provided CONTEXT to the current thread until the returned scope is closed.
+     * <p>Closing the scope restores the CONTEXT that was current before the attachment.
+     * Scopes must be closed in the reverse order of their attachment on the same thread: use try-with-resources.
+     * A double, out of order or foreign thread close throws an {@link IllegalStateException} leaving the scopes unchanged.
+     * <p>Attaching and closing do not allocate.
+     *
+     * @param context the CONTEXT to attach.
+     * @return the attachment scope.
+     */
+    public static Scope attach(@NotNull ExecutionContext context) {
+        return storage.slot().attach(context);
+    }
+
+    /**
+     * Attaches the shared empty CONTEXT to the current thread until the returned scope is closed: {@link #current()} installs a new CONTEXT within the scope.
+     *
+     * @return the attachment scope.
+     * @see #attach(ExecutionContext)
+     */
+    public static Scope attachEmpty() {
+        return attach(EmptyExecutionContext.INSTANCE);
+    }
+
+    /**
+     * Forks the current CONTEXT into parallel branches merged with the configured policy.
+     *
+     * @return the CONTEXT fork.
+     * @see ExecutionContextFork
+     */
+    public static ExecutionContextFork fork() {
+        return fork(mergePolicy);
+    }
+
+    /**
+     * Forks the current CONTEXT into parallel branches.
+     *
+     * @param policy the conflict resolution policy.
+     * @return the CONTEXT fork.
+     * @see ExecutionContextFork
+     */
+    public static ExecutionContextFork fork(@NotNull ExecutionContextMergePolicy policy) {
+        return new ExecutionContextFork(current(), capture(), policy);
+    }
+
+    /**
+     * Creates a new empty CONTEXT of the configured type.
+     *
+     * @return a new empty CONTEXT.
+     */
+    public static ExecutionContext create() {
+        return type.create();
+    }
+
+    /**
+     * Retrieves the type of the contexts created by the holder.
+     *
+     * @return the CONTEXT type.
+     */
+    public static ExecutionContextType getType() {
+        return type;
+    }
+
+    /**
+     * Sets the type of the contexts created by the holder: already created contexts are not affected.
+     *
+     * @param type the CONTEXT type.
+     */
+    public static void setType(@NotNull ExecutionContextType type) {
+        ExecutionContextHolder.type = type;
+    }
+
+    /**
+     * Retrieves the storage of the contexts.
+     *
+     * @return the CONTEXT storage.
+     */
+    public static ExecutionContextStorage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Sets the storage of the contexts: to be set on startup as the contexts held by the previous storage are not migrated.
+     *
+     * @param storage the CONTEXT storage.
+     */
+    public static void setStorage(@NotNull ExecutionContextStorage storage) {
+        ExecutionContextHolder.storage = storage;
+    }
+
+    /**
+     * Retrieves the default conflict resolution policy of the forks.
+     *
+     * @return the merge policy.
+     */
+    public static ExecutionContextMergePolicy getMergePolicy() {
+        return mergePolicy;
+    }
+
+    /**
+     * Sets the default conflict resolution policy of the forks.
+     *
+     * @param mergePolicy the merge policy.
+     */
+    public static void setMergePolicy(@NotNull ExecutionContextMergePolicy mergePolicy) {
+        ExecutionContextHolder.mergePolicy = mergePolicy;
+    }
+
     /**
      * removes the current CONTEXT.
      *
      * @return the CONTEXT that have been removed.
      */
     public static ExecutionContext remove() {
-        ExecutionContext current = CONTEXT.get();
-        CONTEXT.remove();
+        ExecutionContextSlot slot = storage.slot();
+        ExecutionContext current = slot.get();
+        if (slot.isDetached()) {
+            storage.clear();
+        } else {
+            slot.set(null);
+        }
         return current;
     }
 }
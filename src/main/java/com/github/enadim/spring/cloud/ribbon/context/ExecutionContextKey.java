@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import lombok.Getter;
+
+import java.io.Serializable;
+
+/**
+ * Execution context entry key registered within the {@link ExecutionContextKeys} with a dense integer id.
+ * <p>Ids are only meaningful within the current JVM: they should never be propagated.
+ *
+ * @author Nadim Benabdenbi
+ * @see ExecutionContextKeys#register(String)
+ */
+@Getter
+public final class ExecutionContextKey implements Serializable {
+    /**
+     * The serial version UID
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The entry key name.
+     */
+    private final String name;
+
+    /**
+     * The entry key id.
+     */
+    private final int id;
+
+    /**
+     * @param name the entry key name.
+     * @param id   the entry key id.
+     */
+    ExecutionContextKey(String name, int id) {
+        this.name = name;
+        this.id = id;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
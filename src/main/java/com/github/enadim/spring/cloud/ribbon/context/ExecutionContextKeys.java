@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import javax.validation.constraints.NotNull;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry assigning dense integer ids to the execution context entry keys known at startup
+ * (propagated keys, favorite zone, upstream zone and dynamic matcher keys).
+ * <p>Registration is copy on write: lookups never lock.
+ * Registration is expected at startup or predicate construction only.
+ *
+ * @author Nadim Benabdenbi
+ * @see ArrayExecutionContext
+ */
+public final class ExecutionContextKeys {
+    /**
+     * The registered keys by name.
+     */
+    private static volatile Map<String, ExecutionContextKey> keys = new HashMap<>();
+
+    /**
+     * The registered keys by id.
+     */
+    private static volatile ExecutionContextKey[] ids = new ExecutionContextKey[0];
+
+    /**
+     * utility class should not be instantiated
+     */
+    private ExecutionContextKeys() {
+    }
+
+    /**
+     * Registers a key name: registering an already registered name returns the existing key.
+     *
+     * @param name the key name.
+     * @return the registered key.
+     */
+    public static synchronized ExecutionContextKey register(@NotNull String name) {
+        ExecutionContextKey key = keys.get(name);
+        if (key == null) {
+            key = new ExecutionContextKey(name, ids.length);
+            Map<String, ExecutionContextKey> newKeys = new HashMap<>(keys);
+            newKeys.put(name, key);
+            ExecutionContextKey[] newIds = Arrays.copyOf(ids, ids.length + 1);
+            newIds[key.getId()] = key;
+            ids = newIds;
+            keys = newKeys;
+        }
+        return key;
+    }
+
+    /**
+     * Retrieves a registered key by name.
+     *
+     * @param name the key name.
+     * @return the registered key or {@code null} when the name is not registered.
+     */
+    public static ExecutionContextKey find(String name) {
+        return keys.get(name);
+    }
+
+    /**
+     * Retrieves a registered key by id.
+     *
+     * @param id the key id.
+     * @return the registered key.
+     */
+    public static ExecutionContextKey get(int id) {
+        return ids[id];
+    }
+
+    /**
+     * @return the registered keys count.
+     */
+    public static int size() {
+        return ids.length;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import javax.validation.constraints.NotNull;
+import java.util.function.Function;
+
+/**
+ * Caches the last value derived from a context keyed by the context {@link ExecutionContext#version()}.
+ * <p>The value is computed once per context state and reused as long as the entries are unchanged:
+ * across all the servers evaluated by a predicate within one choice and across the choices of unchanged or copied contexts.
+ * <p>The cache holds a single value: threads evaluating different contexts concurrently recompute it. Unversioned contexts are never cached.
+ *
+ * @param <T> the derived value type.
+ * @author Nadim Benabdenbi
+ */
+public final class ExecutionContextMemo<T> {
+    /**
+     * The derivation function.
+     */
+    private final Function<ExecutionContext, T> function;
+
+    /**
+     * The last derived value.
+     */
+    private volatile Derived<T> last;
+
+    /**
+     * Sole constructor.
+     *
+     * @param function the derivation function: must depend only on the context entries.
+     */
+    public ExecutionContextMemo(@NotNull Function<ExecutionContext, T> function) {
+        this.function = function;
+    }
+
+    /**
+     * Retrieves the value derived from a context.
+     *
+     * @param context the context.
+     * @return the cached value when the context version is unchanged otherwise the newly derived value.
+     */
+    public T get(@NotNull ExecutionContext context) {
+        long version = context.version();
+        Derived<T> derived = last;
+        if (derived != null && derived.version == version) {
+            return derived.value;
+        }
+        T value = function.apply(context);
+        if (version != ExecutionContext.UNVERSIONED) {
+            last = new Derived<>(version, value);
+        }
+        return value;
+    }
+
+    /**
+     * Derived value stamped with the context version.
+     *
+     * @param <T> the derived value type.
+     */
+    private static final class Derived<T> {
+        /**
+         * The context version.
+         */
+        private final long version;
+        /**
+         * The derived value.
+         */
+        private final T value;
+
+        /**
+         * @param version the context version.
+         * @param value   the derived value.
+         */
+        private Derived(long version, T value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+/**
+ * Resolves the conflicts between forked branches that wrote different values for the same key.
+ * <p>A {@code null} value stands for a removal.
+ *
+ * @author Nadim Benabdenbi
+ * @see ExecutionContextFork
+ */
+public enum ExecutionContextMergePolicy {
+    /**
+     * The value written by the first forked branch is kept.
+     */
+    FIRST_WINS {
+        @Override
+        public String resolve(String key, String first, String second) {
+            return first;
+        }
+    },
+    /**
+     * The value written by the last forked branch is kept.
+     */
+    LAST_WINS {
+        @Override
+        public String resolve(String key, String first, String second) {
+            return second;
+        }
+    },
+    /**
+     * Conflicts fail the join with an {@link IllegalStateException}.
+     */
+    FAIL {
+        @Override
+        public String resolve(String key, String first, String second) {
+            throw new IllegalStateException(String.format("Conflicting values [%s] and [%s] for the execution context key [%s].", first, second, key));
+        }
+    };
+
+    /**
+     * Resolves a conflict.
+     *
+     * @param key    the entry key.
+     * @param first  the value written by the branch forked first.
+     * @param second the value written by the branch forked later.
+     * @return the value to keep.
+     */
+    public abstract String resolve(String key, String first, String second);
+}
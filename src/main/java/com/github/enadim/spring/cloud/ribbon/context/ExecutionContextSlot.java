@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import java.util.Arrays;
+
+import static java.lang.String.format;
+
+/**
+ * Per thread holder of the current {@link ExecutionContext} and of the contexts to restore on {@link Scope#close()}.
+ * <p>Each attachment returns the scope of its nesting depth: the scopes are allocated once per depth and reused so that
+ * attaching and restoring do not allocate (the restore stack grows only when the nesting depth exceeds its capacity).
+ * <p>Closing a scope fails fast when it is not the innermost open scope (double or out of order close) or when closed
+ * from another thread than the attaching one. A stale scope closed again once its depth is attached anew can not be told apart.
+ * <p>Not thread safe: a slot is accessed only by its owner thread.
+ *
+ * @author Nadim Benabdenbi
+ */
+final class ExecutionContextSlot {
+    /**
+     * The initial restore stack capacity.
+     */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * The current context: {@code null} until set or first written.
+     */
+    private ExecutionContext context;
+
+    /**
+     * The contexts to restore.
+     */
+    private ExecutionContext[] previous = new ExecutionContext[INITIAL_CAPACITY];
+
+    /**
+     * The scopes per nesting depth: created on the first attachment at their depth.
+     */
+    private DepthScope[] scopes = new DepthScope[INITIAL_CAPACITY];
+
+    /**
+     * The attachment nesting depth.
+     */
+    private int depth;
+
+    /**
+     * The thread holding the open scopes.
+     */
+    private Thread owner;
+
+    /**
+     * @param context the initial context (may be {@code null}).
+     */
+    ExecutionContextSlot(ExecutionContext context) {
+        this.context = context;
+    }
+
+    /**
+     * @return the current context or the shared empty context when not set.
+     */
+    ExecutionContext get() {
+        return context == null ? EmptyExecutionContext.INSTANCE : context;
+    }
+
+    /**
+     * @return the current context, replacing the shared empty context by a new one.
+     */
+    ExecutionContext writable() {
+        if (context == null || context == EmptyExecutionContext.INSTANCE) {
+            context = ExecutionContextHolder.create();
+        }
+        return context;
+    }
+
+    /**
+     * @return the current context without creating it.
+     */
+    ExecutionContext peek() {
+        return context;
+    }
+
+    /**
+     * @param context the current context replacement.
+     */
+    void set(ExecutionContext context) {
+        this.context = context;
+    }
+
+    /**
+     * @return {@code true} when the slot is not within an attachment scope.
+     */
+    boolean isDetached() {
+        return depth == 0;
+    }
+
+    /**
+     * Attaches a context saving the current one.
+     *
+     * @param context the context to attach.
+     * @return the scope of the attachment depth.
+     */
+    Scope attach(ExecutionContext context) {
+        if (depth == previous.length) {
+            previous = Arrays.copyOf(previous, depth << 1);
+            scopes = Arrays.copyOf(scopes, depth << 1);
+        }
+        if (depth == 0) {
+            owner = Thread.currentThread();
+        }
+        DepthScope scope = scopes[depth];
+        if (scope == null) {
+            scope = new DepthScope(depth);
+            scopes[depth] = scope;
+        }
+        scope.open = true;
+        previous[depth++] = this.context;
+        this.context = context;
+        return scope;
+    }
+
+    /**
+     * Restores the context saved by the scope attachment.
+     *
+     * @param scope the scope to close.
+     * @throws IllegalStateException when the scope is not the innermost open scope of the current thread.
+     */
+    private void close(DepthScope scope) {
+        if (!scope.open) {
+            throw new IllegalStateException("The execution context scope is already closed.");
+        }
+        if (owner != Thread.currentThread()) {
+            throw new IllegalStateException(format("The execution context scope is closed by %s instead of %s.", Thread.currentThread(), owner));
+        }
+        if (scope.depth != depth - 1) {
+            throw new IllegalStateException(format("The execution context scope at depth [%d] is closed before the inner scopes: "
+                    + "the innermost scope depth is [%d].", scope.depth, depth - 1));
+        }
+        scope.open = false;
+        context = previous[--depth];
+        previous[depth] = null;
+        if (depth == 0) {
+            owner = null;
+        }
+    }
+
+    /**
+     * The scope of an attachment depth.
+     */
+    private final class DepthScope implements Scope {
+        /**
+         * The attachment depth.
+         */
+        private final int depth;
+
+        /**
+         * Whether the scope is open.
+         */
+        private boolean open;
+
+        /**
+         * @param depth the attachment depth.
+         */
+        private DepthScope(int depth) {
+            this.depth = depth;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() {
+            ExecutionContextSlot.this.close(this);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+/**
+ * The per thread storages of the {@link ExecutionContext} used by the {@link ExecutionContextHolder}.
+ *
+ * @author Nadim Benabdenbi
+ */
+public enum ExecutionContextStorage {
+    /**
+     * {@link ThreadLocal} storage: child threads start with an empty context.
+     */
+    THREAD_LOCAL {
+        /**
+         * The thread slots.
+         */
+        private final ThreadLocal<ExecutionContextSlot> slots = ThreadLocal.withInitial(() -> new ExecutionContextSlot(null));
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        ExecutionContextSlot slot() {
+            return slots.get();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        void clear() {
+            slots.remove();
+        }
+    },
+    /**
+     * {@link InheritableThreadLocal} storage: child threads start with a copy of their parent thread context.
+     */
+    INHERITABLE {
+        /**
+         * The thread slots.
+         */
+        private final ThreadLocal<ExecutionContextSlot> slots = new InheritableThreadLocal<ExecutionContextSlot>() {
+            @Override
+            protected ExecutionContextSlot initialValue() {
+                return new ExecutionContextSlot(null);
+            }
+
+            @Override
+            protected ExecutionContextSlot childValue(ExecutionContextSlot parentValue) {
+                ExecutionContext context = parentValue.peek();
+                return new ExecutionContextSlot(context == null ? null : context.copy());
+            }
+        };
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        ExecutionContextSlot slot() {
+            return slots.get();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        void clear() {
+            slots.remove();
+        }
+    },
+    /**
+     * Field storage on {@link ExecutionContextThread} (see {@link ExecutionContextThreadFactory}) avoiding the thread local lookup.
+     * <p>Falls back to the {@link #THREAD_LOCAL} storage on other threads.
+     */
+    INDEXED {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        ExecutionContextSlot slot() {
+            Thread thread = Thread.currentThread();
+            return thread instanceof ExecutionContextThread ? ((ExecutionContextThread) thread).getSlot() : THREAD_LOCAL.slot();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        void clear() {
+            Thread thread = Thread.currentThread();
+            if (thread instanceof ExecutionContextThread) {
+                ((ExecutionContextThread) thread).getSlot().set(null);
+            } else {
+                THREAD_LOCAL.clear();
+            }
+        }
+    };
+
+    /**
+     * Retrieves the current thread slot.
+     *
+     * @return the current thread slot.
+     */
+    abstract ExecutionContextSlot slot();
+
+    /**
+     * Clears the current thread slot.
+     */
+    abstract void clear();
+}
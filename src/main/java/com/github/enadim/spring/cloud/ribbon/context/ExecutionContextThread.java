@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+/**
+ * Thread holding its {@link ExecutionContext} on a field for the {@link ExecutionContextStorage#INDEXED} storage.
+ *
+ * @author Nadim Benabdenbi
+ * @see ExecutionContextThreadFactory
+ */
+public class ExecutionContextThread extends Thread {
+    /**
+     * The thread execution context slot.
+     */
+    private final ExecutionContextSlot slot = new ExecutionContextSlot(null);
+
+    /**
+     * @param target the runnable to execute.
+     */
+    public ExecutionContextThread(Runnable target) {
+        super(target);
+    }
+
+    /**
+     * @param group  the thread group.
+     * @param target the runnable to execute.
+     * @param name   the thread name.
+     */
+    public ExecutionContextThread(ThreadGroup group, Runnable target, String name) {
+        super(group, target, name);
+    }
+
+    /**
+     * @return the thread execution context slot.
+     */
+    ExecutionContextSlot getSlot() {
+        return slot;
+    }
+}
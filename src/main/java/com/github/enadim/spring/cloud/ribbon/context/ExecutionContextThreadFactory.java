@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import javax.validation.constraints.NotNull;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread factory creating {@link ExecutionContextThread}s: to be provided to the executors when using the {@link ExecutionContextStorage#INDEXED} storage.
+ *
+ * @author Nadim Benabdenbi
+ */
+public class ExecutionContextThreadFactory implements ThreadFactory {
+    /**
+     * The thread name prefix.
+     */
+    private final String prefix;
+
+    /**
+     * The daemon indicator.
+     */
+    private final boolean daemon;
+
+    /**
+     * The created threads count.
+     */
+    private final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * @param prefix the thread name prefix.
+     * @param daemon {@code true} to create daemon threads otherwise {@code false}.
+     */
+    public ExecutionContextThreadFactory(@NotNull String prefix, boolean daemon) {
+        this.prefix = prefix;
+        this.daemon = daemon;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new ExecutionContextThread(null, runnable, prefix + count.incrementAndGet());
+        thread.setDaemon(daemon);
+        return thread;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import java.util.function.Supplier;
+
+/**
+ * The {@link ExecutionContext} implementations created by the {@link ExecutionContextHolder}.
+ *
+ * @author Nadim Benabdenbi
+ */
+public enum ExecutionContextType {
+    /**
+     * {@link DefaultExecutionContext}: hash map store copied on {@link ExecutionContext#copy()}.
+     */
+    DEFAULT(DefaultExecutionContext::new),
+    /**
+     * {@link PersistentExecutionContext}: structurally shared store with a constant time {@link ExecutionContext#copy()}.
+     */
+    PERSISTENT(PersistentExecutionContext::new),
+    /**
+     * {@link ArrayExecutionContext}: array store indexed by the ids of the keys registered within {@link ExecutionContextKeys}.
+     */
+    ARRAY(ArrayExecutionContext::new);
+
+    /**
+     * The context factory.
+     */
+    private final Supplier<ExecutionContext> factory;
+
+    /**
+     * @param factory the context factory.
+     */
+    ExecutionContextType(Supplier<ExecutionContext> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Creates a new empty context.
+     *
+     * @return a new empty context.
+     */
+    public ExecutionContext create() {
+        return factory.get();
+    }
+}
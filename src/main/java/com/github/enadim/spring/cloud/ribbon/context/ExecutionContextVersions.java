@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process wide source of the {@link ExecutionContext#version()} stamps.
+ * <p>Each mutation draws a new stamp: two contexts share a stamp only when one is an unmodified copy of the other or when both are empty.
+ *
+ * @author Nadim Benabdenbi
+ */
+final class ExecutionContextVersions {
+    /**
+     * The stamp of the empty contexts.
+     */
+    static final long EMPTY = 0;
+
+    /**
+     * The last drawn stamp.
+     */
+    private static final AtomicLong LAST = new AtomicLong(EMPTY);
+
+    /**
+     * utility class should not be instantiated
+     */
+    private ExecutionContextVersions() {
+    }
+
+    /**
+     * @return a new stamp.
+     */
+    static long next() {
+        return LAST.incrementAndGet();
+    }
+}
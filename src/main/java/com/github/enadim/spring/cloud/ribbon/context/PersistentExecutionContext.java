@@ -0,0 +1,351 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import javax.validation.constraints.NotNull;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Execution context that stores entries on an immutable sorted array snapshot shared between copies.
+ * <p>{@link #copy()} is a pointer copy: the copy and the original share the same snapshot until one of them is modified.
+ * Modifications replace the snapshot with a new one and never alter a snapshot that may be shared.
+ * <p>Snapshot replacement is atomic: the context is always safe for concurrent access and {@link #enableConcurrency()} has no effect.
+ * <p>Serialized with the {@link ExecutionContextCodec}.
+ *
+ * @author Nadim Benabdenbi
+ */
+public class PersistentExecutionContext implements ExecutionContext, Externalizable {
+    /**
+     * The serial version UID
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The entries atomic updater.
+     */
+    private static final AtomicReferenceFieldUpdater<PersistentExecutionContext, Snapshot> ENTRIES =
+            AtomicReferenceFieldUpdater.newUpdater(PersistentExecutionContext.class, Snapshot.class, "entries");
+
+    /**
+     * The context entries.
+     */
+    private volatile Snapshot entries;
+
+    /**
+     * Constructs a new context with an empty entries.
+     */
+    public PersistentExecutionContext() {
+        this(Snapshot.EMPTY);
+    }
+
+    /**
+     * Constructs a new context with the given entries.
+     *
+     * @param entries the entries to starts with.
+     */
+    public PersistentExecutionContext(@NotNull Map<String, String> entries) {
+        this(Snapshot.of(entries));
+    }
+
+    /**
+     * Constructs a new context sharing the given snapshot.
+     *
+     * @param entries the entries snapshot.
+     */
+    private PersistentExecutionContext(Snapshot entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ExecutionContext put(String key, String value) {
+        ENTRIES.updateAndGet(this, x -> x.put(key, value, true));
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ExecutionContext putIfAbsent(String key, String value) {
+        ENTRIES.updateAndGet(this, x -> x.put(key, value, false));
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(String key) {
+        return entries.indexOf(key) >= 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String get(String key) {
+        Snapshot current = entries;
+        int index = current.indexOf(key);
+        return index < 0 ? null : current.values[index];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ExecutionContext remove(String key) {
+        ENTRIES.updateAndGet(this, x -> x.remove(key));
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ExecutionContext enableConcurrency() {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return entries.entrySet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return entries.keys.length == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long version() {
+        return entries.version;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PersistentExecutionContext copy() {
+        return new PersistentExecutionContext(entries);
+    }
+
+    /**
+     * Writes the entries with the {@link ExecutionContextCodec}.
+     *
+     * @param out the object output.
+     * @throws IOException on write failure.
+     */
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        ExecutionContextCodec.write(this, out);
+    }
+
+    /**
+     * Reads the entries with the {@link ExecutionContextCodec}.
+     *
+     * @param in the object input.
+     * @throws IOException on read failure.
+     */
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        ExecutionContextCodec.read(in, this);
+    }
+
+    /**
+     * Immutable snapshot of entries sorted by key.
+     */
+    private static final class Snapshot implements Serializable {
+        /**
+         * The serial version UID
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The empty snapshot.
+         */
+        private static final Snapshot EMPTY = new Snapshot(new String[0], new String[0], ExecutionContextVersions.EMPTY);
+
+        /**
+         * The sorted keys.
+         */
+        private final String[] keys;
+
+        /**
+         * The values matching the keys positions.
+         */
+        private final String[] values;
+
+        /**
+         * The version stamp.
+         */
+        private final long version;
+
+        /**
+         * @param keys   the sorted keys.
+         * @param values the values.
+         */
+        private Snapshot(String[] keys, String[] values) {
+            this(keys, values, ExecutionContextVersions.next());
+        }
+
+        /**
+         * @param keys    the sorted keys.
+         * @param values  the values.
+         * @param version the version stamp.
+         */
+        private Snapshot(String[] keys, String[] values, long version) {
+            this.keys = keys;
+            this.values = values;
+            this.version = version;
+        }
+
+        /**
+         * Builds a snapshot from a map.
+         *
+         * @param entries the entries.
+         * @return the entries snapshot.
+         */
+        private static Snapshot of(Map<String, String> entries) {
+            String[] keys = entries.keySet().toArray(new String[entries.size()]);
+            Arrays.sort(keys);
+            String[] values = new String[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                values[i] = entries.get(keys[i]);
+            }
+            return new Snapshot(keys, values);
+        }
+
+        /**
+         * @param key the entry key.
+         * @return the key index when found otherwise {@code -(insertion point) - 1}.
+         */
+        private int indexOf(String key) {
+            return Arrays.binarySearch(keys, key);
+        }
+
+        /**
+         * Associates a value to a key.
+         *
+         * @param key     the entry key.
+         * @param value   the entry value.
+         * @param replace whether an existing non null value should be replaced.
+         * @return the new snapshot or {@code this} when unchanged.
+         */
+        private Snapshot put(String key, String value, boolean replace) {
+            int index = indexOf(key);
+            if (index >= 0) {
+                String previous = values[index];
+                if (previous != null && (!replace || previous.equals(value))) {
+                    return this;
+                }
+                String[] newValues = values.clone();
+                newValues[index] = value;
+                return new Snapshot(keys, newValues);
+            }
+            int insertion = -index - 1;
+            int length = keys.length;
+            String[] newKeys = new String[length + 1];
+            String[] newValues = new String[length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertion);
+            System.arraycopy(values, 0, newValues, 0, insertion);
+            newKeys[insertion] = key;
+            newValues[insertion] = value;
+            System.arraycopy(keys, insertion, newKeys, insertion + 1, length - insertion);
+            System.arraycopy(values, insertion, newValues, insertion + 1, length - insertion);
+            return new Snapshot(newKeys, newValues);
+        }
+
+        /**
+         * Removes a key.
+         *
+         * @param key the entry key.
+         * @return the new snapshot or {@code this} when unchanged.
+         */
+        private Snapshot remove(String key) {
+            int index = indexOf(key);
+            if (index < 0) {
+                return this;
+            }
+            int length = keys.length - 1;
+            String[] newKeys = new String[length];
+            String[] newValues = new String[length];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(values, 0, newValues, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, length - index);
+            System.arraycopy(values, index + 1, newValues, index, length - index);
+            return new Snapshot(newKeys, newValues);
+        }
+
+        /**
+         * @return an unmodifiable entry set view of this snapshot.
+         */
+        private Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<Entry<String, String>>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    return new Iterator<Entry<String, String>>() {
+                        private int index;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < keys.length;
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<String, String> entry = new SimpleImmutableEntry<>(keys[index], values[index]);
+                            index++;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+            };
+        }
+    }
+}
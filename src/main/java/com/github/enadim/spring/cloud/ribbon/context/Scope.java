@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+/**
+ * Execution context attachment scope: closing the scope restores the context that was current before the attachment.
+ * <p>To be used with try-with-resources. For example:
+ * <blockquote><pre>
+ * try (Scope scope = ExecutionContextHolder.attach(context)) {
+ *     ...
+ * }
+ * </pre></blockquote>
+ *
+ * @author Nadim Benabdenbi
+ * @see ExecutionContextHolder#attach(ExecutionContext)
+ */
+public interface Scope extends AutoCloseable {
+
+    /**
+     * Restores the context that was current before the attachment.
+     */
+    @Override
+    void close();
+}
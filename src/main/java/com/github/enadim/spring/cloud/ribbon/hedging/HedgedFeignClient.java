@@ -0,0 +1,479 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.hedging;
+
+import com.github.enadim.spring.cloud.ribbon.propagator.feign.PreservesHttpHeadersFeignInterceptor;
+import com.github.enadim.spring.cloud.ribbon.rule.PredicateBasedRuleSupport;
+import com.netflix.client.DefaultLoadBalancerRetryHandler;
+import com.netflix.client.RequestSpecificRetryHandler;
+import com.netflix.client.config.DefaultClientConfigImpl;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerStats;
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.netflix.ribbon.RibbonLoadBalancerContext;
+import org.springframework.cloud.netflix.ribbon.RibbonProperties;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.cloud.openfeign.ribbon.CachingSpringLoadBalancerFactory;
+import org.springframework.cloud.openfeign.ribbon.LoadBalancerFeignClient;
+import org.springframework.util.ReflectionUtils;
+
+import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Feign load balancing client hedging the read requests of the ribbon clients enabling their {@link HedgingPolicy}.
+ * <p>The first attempt goes to the server chosen by the load balancer. When it has not completed within the hedge delay,
+ * a second attempt goes to another server chosen by the same {@link PredicateBasedRuleSupport} predicates excluding the first one.
+ * The first successful response wins: the other attempt is cancelled and its late response closed.
+ * <p>The request runs on the calling thread while the policy does not hedge. The hedges are bounded by the policy budget,
+ * and the executor may be bounded too: a first attempt rejected by the executor runs on the calling thread and a rejected hedge is skipped.
+ * <p>Both attempts send the same request: the execution context entries copied to the headers by the
+ * {@link PreservesHttpHeadersFeignInterceptor} are propagated to both servers. The attempts run on a context aware executor
+ * and note their outcome in the load balancer statistics.
+ * <p>Like the {@link LoadBalancerFeignClient}, the default feign options are replaced by the ribbon client
+ * {@code ConnectTimeout} and {@code ReadTimeout}, and each attempt is retried according to the ribbon client
+ * {@code MaxAutoRetries} and {@code MaxAutoRetriesNextServer}: the next server retries exclude the failed server.
+ * <p>A cancelled attempt is interrupted: it stops retrying, but the interruption does not abort a blocking read of the
+ * default feign client, which goes on until the response or the read timeout. Its late response is closed.
+ * <p>The other requests go through the default ribbon load balancing.
+ *
+ * @author Nadim Benabdenbi
+ */
+@Slf4j
+public class HedgedFeignClient extends LoadBalancerFeignClient {
+    /**
+     * The read request methods.
+     */
+    private static final List<String> READ_METHODS = asList("GET", "HEAD");
+
+    /**
+     * The hedging target of the ribbon clients without hedging.
+     */
+    private static final Target DISABLED = new Target(null, null, null, new DefaultClientConfigImpl());
+
+    /**
+     * The feign options standing for the ribbon client timeouts.
+     */
+    private static final Options DEFAULT_OPTIONS = defaultOptions();
+
+    /**
+     * The ribbon clients factory.
+     */
+    private final SpringClientFactory clientFactory;
+
+    /**
+     * The attempts executor.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The hedging targets by ribbon client name.
+     */
+    private final Map<String, Target> targets = new ConcurrentHashMap<>();
+
+    /**
+     * Sole constructor.
+     *
+     * @param delegate            the http client.
+     * @param loadBalancerFactory the feign load balancer factory.
+     * @param clientFactory       the ribbon clients factory.
+     * @param executor            the attempts executor.
+     */
+    public HedgedFeignClient(@NotNull Client delegate,
+                             @NotNull CachingSpringLoadBalancerFactory loadBalancerFactory,
+                             @NotNull SpringClientFactory clientFactory,
+                             @NotNull ExecutorService executor) {
+        super(delegate, loadBalancerFactory, clientFactory);
+        this.clientFactory = clientFactory;
+        this.executor = executor;
+    }
+
+    /**
+     * Hedges the read requests of the ribbon clients enabling the hedging.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public Response execute(Request request, Options options) throws IOException {
+        Target target = READ_METHODS.contains(request.method()) ? target(URI.create(request.url()).getHost()) : DISABLED;
+        Server first = target == DISABLED ? null : target.rule.getLoadBalancer().chooseServer(null);
+        return first == null ? super.execute(request, options) : hedge(target, first, request, options);
+    }
+
+    /**
+     * @param clientName the ribbon client name.
+     * @return the hedging target of the ribbon client.
+     */
+    private Target target(String clientName) {
+        return targets.computeIfAbsent(clientName, name -> {
+            HedgingPolicy policy = clientFactory.getInstance(name, HedgingPolicy.class);
+            if (policy == null || !policy.isEnabled() || !(policy.getRule() instanceof PredicateBasedRuleSupport)) {
+                return DISABLED;
+            }
+            log.info("Hedging enabled for client [{}] at the [{}] latency percentile.", name, policy.getPercentile());
+            return new Target(policy, (PredicateBasedRuleSupport) policy.getRule(), clientFactory.getLoadBalancerContext(name), clientFactory.getClientConfig(name));
+        });
+    }
+
+    /**
+     * @return the default options of the {@link LoadBalancerFeignClient}: not exposed.
+     */
+    private static Options defaultOptions() {
+        Field field = ReflectionUtils.findField(LoadBalancerFeignClient.class, "DEFAULT_OPTIONS");
+        ReflectionUtils.makeAccessible(field);
+        return (Options) ReflectionUtils.getField(field, null);
+    }
+
+    /**
+     * @param target  the hedging target.
+     * @param first   the first attempt server.
+     * @param request the request.
+     * @param options the request options.
+     * @return the first successful response.
+     * @throws IOException when both attempts failed or on interruption.
+     */
+    private Response hedge(Target target, Server first, Request request, Options options) throws IOException {
+        target.policy.request();
+        long delay = target.policy.delay();
+        if (delay == HedgingPolicy.NO_HEDGE) {
+            return inline(target, first, request, options);
+        }
+        Attempt primary;
+        try {
+            primary = attempt(target, first, request, options, true);
+        } catch (RejectedExecutionException e) {
+            log.debug("Hedging executor saturated: request [{}] not hedged.", request.url());
+            return inline(target, first, request, options);
+        }
+        Attempt hedge = null;
+        try {
+            try {
+                return primary.response.get(delay, MILLISECONDS);
+            } catch (TimeoutException e) {
+                hedge = hedge(target, first, request, options, delay);
+                return hedge == null ? primary.response.get() : race(primary, hedge, target.policy).get();
+            }
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(request.url());
+        } finally {
+            if (primary.cancel()) {
+                target.policy.record(primary.elapsed());
+            }
+            if (hedge != null) {
+                hedge.cancel();
+            }
+        }
+    }
+
+    /**
+     * Submits the hedge attempt when another server is eligible within the hedge budget.
+     *
+     * @param target  the hedging target.
+     * @param first   the first attempt server.
+     * @param request the request.
+     * @param options the request options.
+     * @param delay   the hedge delay.
+     * @return the hedge attempt or {@code null} when not hedged.
+     */
+    private Attempt hedge(Target target, Server first, Request request, Options options, long delay) {
+        Server second = target.rule.choose(null, first);
+        if (second == null || !target.policy.tryHedge()) {
+            return null;
+        }
+        log.trace("Hedging request [{}] on server [{}] after [{}] ms.", request.url(), second, delay);
+        try {
+            return attempt(target, second, request, options, false);
+        } catch (RejectedExecutionException e) {
+            log.debug("Hedging executor saturated: request [{}] not hedged.", request.url());
+            return null;
+        }
+    }
+
+    /**
+     * @param primary the first attempt.
+     * @param hedge   the hedge attempt.
+     * @param policy  the hedging policy counting the hedge wins.
+     * @return the first successful response or the last failure.
+     */
+    private static CompletableFuture<Response> race(Attempt primary, Attempt hedge, HedgingPolicy policy) {
+        CompletableFuture<Response> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        primary.response.whenComplete((response, error) -> settle(winner, response, error, failures, () -> {
+        }));
+        hedge.response.whenComplete((response, error) -> settle(winner, response, error, failures, policy::win));
+        return winner;
+    }
+
+    /**
+     * @param winner   the winner response.
+     * @param response the attempt response.
+     * @param error    the attempt error.
+     * @param failures the failed attempts count.
+     * @param onWin    the action to run when the attempt wins.
+     */
+    private static void settle(CompletableFuture<Response> winner, Response response, Throwable error, AtomicInteger failures, Runnable onWin) {
+        if (error != null) {
+            if (failures.incrementAndGet() == 2) {
+                winner.completeExceptionally(error);
+            }
+        } else if (winner.complete(response)) {
+            onWin.run();
+        } else {
+            response.close();
+        }
+    }
+
+    /**
+     * @param cause the attempt failure.
+     * @return the io exception to throw.
+     */
+    private static IOException unwrap(Throwable cause) {
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        return new IOException(cause);
+    }
+
+    /**
+     * Runs the request on the calling thread and records its latency.
+     *
+     * @param target  the hedging target.
+     * @param server  the server.
+     * @param request the request.
+     * @param options the request options.
+     * @return the response.
+     * @throws IOException on request failure.
+     */
+    private Response inline(Target target, Server server, Request request, Options options) throws IOException {
+        long start = System.nanoTime();
+        Response response = call(target, server, request, options);
+        target.policy.record(NANOSECONDS.toMillis(System.nanoTime() - start));
+        return response;
+    }
+
+    /**
+     * Submits an attempt on a server.
+     *
+     * @param target  the hedging target.
+     * @param server  the server.
+     * @param request the request.
+     * @param options the request options.
+     * @param first   whether the latency of the attempt is recorded when it wins.
+     * @return the attempt.
+     * @throws RejectedExecutionException when the executor is saturated.
+     */
+    private Attempt attempt(Target target, Server server, Request request, Options options, boolean first) {
+        Attempt attempt = new Attempt();
+        attempt.task = executor.submit(() -> {
+            try {
+                Response result = call(target, server, request, options);
+                if (!attempt.response.complete(result)) {
+                    result.close();
+                } else if (first) {
+                    target.policy.record(attempt.elapsed());
+                }
+            } catch (Throwable e) {
+                attempt.response.completeExceptionally(e);
+            }
+        });
+        return attempt;
+    }
+
+    /**
+     * Sends the request to a server and notes the outcome in the load balancer statistics.
+     *
+     * @param target  the hedging target.
+     * @param server  the server.
+     * @param request the request.
+     * @param options the request options.
+     * @return the response.
+     * @throws IOException on request failure.
+     */
+    private Response call(Target target, Server server, Request request, Options options) throws IOException {
+        RequestSpecificRetryHandler retries = "GET".equals(request.method()) ? target.getRetries : target.headRetries;
+        Options effective = options == DEFAULT_OPTIONS ? target.options : options;
+        Server current = server;
+        int sameServer = 0;
+        int nextServer = 0;
+        while (true) {
+            try {
+                return send(target, current, request, effective, retries);
+            } catch (IOException | RuntimeException e) {
+                Server next = null;
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                } else if (sameServer < retries.getMaxRetriesOnSameServer() && retries.isRetriableException(e, true)) {
+                    sameServer++;
+                } else if (nextServer < retries.getMaxRetriesOnNextServer() && retries.isRetriableException(e, false)
+                        && (next = target.rule.choose(null, current)) != null) {
+                    sameServer = 0;
+                    nextServer++;
+                    current = next;
+                } else {
+                    throw e;
+                }
+                log.debug("Retrying request [{}] on server [{}].", request.url(), current, e);
+            }
+        }
+    }
+
+    /**
+     * Sends the request to a server and notes the outcome in the load balancer statistics.
+     *
+     * @param target  the hedging target.
+     * @param server  the server.
+     * @param request the request.
+     * @param options the request options.
+     * @param retries the retry handler telling the circuit tripping failures.
+     * @return the response.
+     * @throws IOException on request failure.
+     */
+    private Response send(Target target, Server server, Request request, Options options, RequestSpecificRetryHandler retries) throws IOException {
+        URI uri = target.context.reconstructURIWithServer(server, URI.create(request.url()));
+        Request attempt = Request.create(request.method(), uri.toString(), request.headers(), request.body(), request.charset());
+        ServerStats stats = target.context.getServerStats(server);
+        target.context.noteOpenConnection(stats);
+        long start = System.nanoTime();
+        try {
+            Response result = getDelegate().execute(attempt, options);
+            target.context.noteRequestCompletion(stats, result, null, NANOSECONDS.toMillis(System.nanoTime() - start), retries);
+            return result;
+        } catch (Throwable e) {
+            target.context.noteRequestCompletion(stats, null, e, NANOSECONDS.toMillis(System.nanoTime() - start), retries);
+            throw e;
+        }
+    }
+
+    /**
+     * The hedging target of a ribbon client.
+     */
+    private static final class Target {
+        /**
+         * The hedging policy.
+         */
+        private final HedgingPolicy policy;
+
+        /**
+         * The rule choosing the servers.
+         */
+        private final PredicateBasedRuleSupport rule;
+
+        /**
+         * The load balancer context.
+         */
+        private final RibbonLoadBalancerContext context;
+
+        /**
+         * The ribbon client timeouts.
+         */
+        private final Options options;
+
+        /**
+         * The retry handler of the GET requests.
+         */
+        private final RequestSpecificRetryHandler getRetries;
+
+        /**
+         * The retry handler of the HEAD requests: retrying the connection failures only unless all operations are retried.
+         */
+        private final RequestSpecificRetryHandler headRetries;
+
+        /**
+         * @param policy       the hedging policy.
+         * @param rule         the rule choosing the servers.
+         * @param context      the load balancer context.
+         * @param clientConfig the ribbon client config.
+         */
+        private Target(HedgingPolicy policy, PredicateBasedRuleSupport rule, RibbonLoadBalancerContext context, @NotNull IClientConfig clientConfig) {
+            this.policy = policy;
+            this.rule = rule;
+            this.context = context;
+            RibbonProperties ribbon = RibbonProperties.from(clientConfig);
+            options = new Options(ribbon.connectTimeout(DefaultClientConfigImpl.DEFAULT_CONNECT_TIMEOUT),
+                    ribbon.readTimeout(DefaultClientConfigImpl.DEFAULT_READ_TIMEOUT));
+            DefaultLoadBalancerRetryHandler retryHandler = new DefaultLoadBalancerRetryHandler(clientConfig);
+            getRetries = new RequestSpecificRetryHandler(true, true, retryHandler, clientConfig);
+            headRetries = new RequestSpecificRetryHandler(true, ribbon.isOkToRetryOnAllOperations(), retryHandler, clientConfig);
+        }
+    }
+
+    /**
+     * An attempt on a server.
+     */
+    private static final class Attempt {
+        /**
+         * The attempt response.
+         */
+        private final CompletableFuture<Response> response = new CompletableFuture<>();
+
+        /**
+         * The attempt start in nanoseconds.
+         */
+        private final long start = System.nanoTime();
+
+        /**
+         * The attempt task: set by the submitting thread.
+         */
+        private Future<?> task;
+
+        /**
+         * @return the elapsed time since the attempt start in milliseconds.
+         */
+        private long elapsed() {
+            return NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+
+        /**
+         * Cancels the attempt unless completed: a late response is closed.
+         * <p>The attempt thread is interrupted, which does not abort a blocking read of the default feign client.
+         *
+         * @return {@code true} when the attempt was cancelled.
+         */
+        private boolean cancel() {
+            if (response.cancel(false)) {
+                task.cancel(true);
+                return true;
+            }
+            return false;
+        }
+    }
+}
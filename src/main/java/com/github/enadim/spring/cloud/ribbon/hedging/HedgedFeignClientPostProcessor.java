@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.hedging;
+
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextThreadFactory;
+import com.github.enadim.spring.cloud.ribbon.propagator.concurrent.ContextAwareExecutorService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.cloud.openfeign.ribbon.CachingSpringLoadBalancerFactory;
+import org.springframework.cloud.openfeign.ribbon.LoadBalancerFeignClient;
+
+import javax.validation.constraints.NotNull;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Replaces the {@link LoadBalancerFeignClient} beans with {@link HedgedFeignClient}s sharing the same http client.
+ * <p>Owns the context aware attempts executor: shut down with the application context.
+ * The executor runs at most the maximum threads without queueing: the attempts it rejects fall back as described by the {@link HedgedFeignClient}.
+ *
+ * @author Nadim Benabdenbi
+ */
+@Slf4j
+public class HedgedFeignClientPostProcessor implements BeanPostProcessor, DisposableBean {
+    /**
+     * The feign load balancer factory provider.
+     */
+    private final ObjectProvider<CachingSpringLoadBalancerFactory> loadBalancerFactory;
+
+    /**
+     * The ribbon clients factory provider.
+     */
+    private final ObjectProvider<SpringClientFactory> clientFactory;
+
+    /**
+     * The attempts executor.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Sole constructor.
+     *
+     * @param loadBalancerFactory the feign load balancer factory provider.
+     * @param clientFactory       the ribbon clients factory provider.
+     * @param maxThreads          the maximum attempts executor threads: positive.
+     */
+    public HedgedFeignClientPostProcessor(@NotNull ObjectProvider<CachingSpringLoadBalancerFactory> loadBalancerFactory,
+                                          @NotNull ObjectProvider<SpringClientFactory> clientFactory,
+                                          int maxThreads) {
+        this.loadBalancerFactory = loadBalancerFactory;
+        this.clientFactory = clientFactory;
+        ThreadPoolExecutor threads = new ThreadPoolExecutor(maxThreads, maxThreads, 60, SECONDS, new SynchronousQueue<>(),
+                new ExecutionContextThreadFactory("feign-hedging-", true));
+        threads.allowCoreThreadTimeOut(true);
+        this.executor = new ContextAwareExecutorService(threads);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof LoadBalancerFeignClient && !(bean instanceof HedgedFeignClient)) {
+            log.info("Feign hedging enabled on client [{}].", beanName);
+            return new HedgedFeignClient(((LoadBalancerFeignClient) bean).getDelegate(), loadBalancerFactory.getObject(), clientFactory.getObject(), executor);
+        }
+        return bean;
+    }
+
+    /**
+     * Shuts down the attempts executor.
+     */
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
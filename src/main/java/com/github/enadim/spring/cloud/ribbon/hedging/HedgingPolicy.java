@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.hedging;
+
+import com.netflix.loadbalancer.IRule;
+import lombok.Getter;
+
+import javax.validation.constraints.NotNull;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.String.format;
+
+/**
+ * The hedging policy of a ribbon client: when to send a second request and the hedging statistics.
+ * <p>The hedge delay is a percentile of the recent latencies of the first attempts, at least the minimum delay.
+ * A first attempt cancelled because the hedge won records its elapsed time: the slow attempts are not left out of the window.
+ * It is recomputed every tenth of the latency window and no request is hedged until the minimum samples are recorded.
+ * <p>The hedges are bounded by a budget: each request earns the maximum hedge rate of a hedge, up to the hedges earned over a latency window,
+ * and each hedge spends one.
+ *
+ * @author Nadim Benabdenbi
+ */
+public class HedgingPolicy {
+    /**
+     * The delay returned when the request should not be hedged.
+     */
+    public static final long NO_HEDGE = -1;
+
+    /**
+     * The budget of one hedge in millionths.
+     */
+    private static final long HEDGE = 1_000_000;
+
+    /**
+     * Whether the hedging is enabled.
+     */
+    @Getter
+    private final boolean enabled;
+
+    /**
+     * The rule choosing the servers.
+     */
+    @Getter
+    private final IRule rule;
+
+    /**
+     * The latency percentile triggering the hedge.
+     */
+    @Getter
+    private final double percentile;
+
+    /**
+     * The minimum hedge delay in milliseconds.
+     */
+    @Getter
+    private final long minDelay;
+
+    /**
+     * The minimum recorded latencies before hedging.
+     */
+    @Getter
+    private final int minSamples;
+
+    /**
+     * The maximum share of the requests hedged.
+     */
+    @Getter
+    private final double maxRate;
+
+    /**
+     * The recent latencies in milliseconds.
+     */
+    private final AtomicLongArray window;
+
+    /**
+     * The recorded latencies count.
+     */
+    private final AtomicLong samples = new AtomicLong();
+
+    /**
+     * The recorded latencies count between two delay computations.
+     */
+    private final int refresh;
+
+    /**
+     * The requests count.
+     */
+    private final LongAdder requests = new LongAdder();
+
+    /**
+     * The hedged requests count.
+     */
+    private final LongAdder hedges = new LongAdder();
+
+    /**
+     * The hedged requests won by the hedge.
+     */
+    private final LongAdder wins = new LongAdder();
+
+    /**
+     * The hedge budget earned per request in millionths of a hedge.
+     */
+    private final long earning;
+
+    /**
+     * The hedge budget ceiling in millionths of a hedge.
+     */
+    private final long ceiling;
+
+    /**
+     * The hedge budget in millionths of a hedge.
+     */
+    private final AtomicLong budget = new AtomicLong();
+
+    /**
+     * The last computed delay.
+     */
+    private volatile Delay delay = new Delay(-1, NO_HEDGE);
+
+    /**
+     * Sole constructor.
+     *
+     * @param enabled    whether the hedging is enabled.
+     * @param rule       the rule choosing the servers.
+     * @param percentile the latency percentile triggering the hedge: within (0, 100].
+     * @param minDelay   the minimum hedge delay in milliseconds: not negative.
+     * @param minSamples the minimum recorded latencies before hedging: not negative.
+     * @param windowSize the recent latencies window size: positive.
+     * @param maxRate    the maximum share of the requests hedged: within [0, 1].
+     * @throws IllegalArgumentException on a setting out of range.
+     */
+    public HedgingPolicy(boolean enabled, @NotNull IRule rule, double percentile, long minDelay, int minSamples, int windowSize, double maxRate) {
+        if (!(percentile > 0 && percentile <= 100) || minDelay < 0 || minSamples < 0 || windowSize <= 0 || !(maxRate >= 0 && maxRate <= 1)) {
+            throw new IllegalArgumentException(format("Invalid hedging policy: percentile [%s], min delay [%s], min samples [%s], window size [%s], max rate [%s].",
+                    percentile, minDelay, minSamples, windowSize, maxRate));
+        }
+        this.enabled = enabled;
+        this.rule = rule;
+        this.percentile = percentile;
+        this.minDelay = minDelay;
+        this.minSamples = minSamples;
+        this.window = new AtomicLongArray(windowSize);
+        this.refresh = Math.max(1, windowSize / 10);
+        this.maxRate = maxRate;
+        this.earning = Math.round(maxRate * HEDGE);
+        this.ceiling = Math.max(HEDGE, earning * windowSize);
+    }
+
+    /**
+     * Records the latency of a first attempt.
+     *
+     * @param latency the latency in milliseconds: the elapsed time when cancelled.
+     */
+    public void record(long latency) {
+        long index = samples.getAndIncrement();
+        window.set((int) (index % window.length()), latency);
+    }
+
+    /**
+     * @return the hedge delay in milliseconds or {@link #NO_HEDGE} until the minimum samples are recorded.
+     */
+    public long delay() {
+        long count = samples.get();
+        if (count < minSamples) {
+            return NO_HEDGE;
+        }
+        Delay current = delay;
+        if (current.samples < 0 || count - current.samples >= refresh) {
+            current = new Delay(count, compute(count));
+            delay = current;
+        }
+        return current.value;
+    }
+
+    /**
+     * @param count the recorded latencies count.
+     * @return the latency percentile of the window, at least the minimum delay.
+     */
+    private long compute(long count) {
+        int size = (int) Math.min(count, window.length());
+        if (size == 0) {
+            return minDelay;
+        }
+        long[] latencies = new long[size];
+        for (int i = 0; i < size; i++) {
+            latencies[i] = window.get(i);
+        }
+        Arrays.sort(latencies);
+        int index = Math.max(0, (int) Math.ceil(percentile / 100 * size) - 1);
+        return Math.max(minDelay, latencies[index]);
+    }
+
+    /**
+     * Counts a request and earns its share of hedge budget.
+     */
+    public void request() {
+        requests.increment();
+        budget.updateAndGet(current -> Math.min(ceiling, current + earning));
+    }
+
+    /**
+     * Spends a hedge of the budget.
+     *
+     * @return {@code true} when the request can be hedged and is counted as hedged otherwise {@code false}.
+     */
+    public boolean tryHedge() {
+        if (budget.getAndUpdate(current -> current < HEDGE ? current : current - HEDGE) < HEDGE) {
+            return false;
+        }
+        hedges.increment();
+        return true;
+    }
+
+    /**
+     * Counts a hedged request won by the hedge.
+     */
+    public void win() {
+        wins.increment();
+    }
+
+    /**
+     * @return the requests count.
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * @return the hedged requests count.
+     */
+    public long getHedges() {
+        return hedges.sum();
+    }
+
+    /**
+     * @return the hedged requests won by the hedge.
+     */
+    public long getWins() {
+        return wins.sum();
+    }
+
+    /**
+     * @return the share of the requests hedged: 0 without request.
+     */
+    public double getHedgeRate() {
+        long count = getRequests();
+        return count == 0 ? 0 : (double) getHedges() / count;
+    }
+
+    /**
+     * A computed delay.
+     */
+    private static final class Delay {
+        /**
+         * The recorded latencies count when computed: negative when never computed.
+         */
+        private final long samples;
+
+        /**
+         * The delay in milliseconds.
+         */
+        private final long value;
+
+        /**
+         * @param samples the recorded latencies count when computed.
+         * @param value   the delay in milliseconds.
+         */
+        private Delay(long samples, long value) {
+            this.samples = samples;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.predicate;
+
+import com.github.enadim.spring.cloud.ribbon.rule.DynamicServerListLoadBalancerSupport;
+import com.github.enadim.spring.cloud.ribbon.rule.ServerListDelta;
+import com.github.enadim.spring.cloud.ribbon.rule.ServerListDeltaListener;
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerListChangeListener;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Server list index updated with the {@link DynamicServerListLoadBalancerSupport} server list deltas
+ * or rebuilt on the {@link BaseLoadBalancer} server list changes.
+ * <p>A delta updates only the index entries of the added, removed and changed servers: the unchanged servers keep their indexed instance.
+ * <p>The load balancer notifies only membership changes: a snapshot is also rebuilt when the servers to filter are not the indexed instances
+ * (the discovery refresh creates new server instances on changes).
+ * <p>A selection of the indexed instances, like the servers left once a hedged server is excluded, gets a transient snapshot:
+ * it replaces the shared snapshot only when the same list instance is filtered again, like a {@link com.github.enadim.spring.cloud.ribbon.rule.ServerSubset}.
+ *
+ * @param <T> the snapshot type.
+ * @author Nadim Benabdenbi
+ */
+@Slf4j
+public abstract class AbstractServerListIndex<T extends ServerListSnapshot> implements ServerListChangeListener, ServerListDeltaListener {
+    /**
+     * The current snapshot.
+     */
+    private volatile T snapshot;
+
+    /**
+     * The snapshot of the last server list delta: {@code null} until the first delta.
+     */
+    private volatile T updated;
+
+    /**
+     * The last transient snapshot: promoted to the shared snapshot when its list is filtered again.
+     */
+    private volatile T candidate;
+
+    /**
+     * Sole constructor.
+     */
+    protected AbstractServerListIndex() {
+        snapshot = build(emptyList());
+    }
+
+    /**
+     * Builds a new snapshot.
+     *
+     * @param servers the servers to index.
+     * @return the snapshot indexing the servers.
+     */
+    protected abstract T build(List<Server> servers);
+
+    /**
+     * Applies a delta to the snapshot of the previous server list.
+     *
+     * @param previous the snapshot of the previous server list.
+     * @param delta    the server list delta.
+     * @return the snapshot indexing the new server list.
+     */
+    protected abstract T update(T previous, ServerListDelta delta);
+
+    /**
+     * Updates the snapshot of the previous delta unless already indexing the new list: an index shared by several listeners is updated once.
+     * <p>The initial delta rebuilds the snapshot.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public void serverListUpdated(ServerListDelta delta) {
+        T previous = updated;
+        if (previous != null && previous.isSource(delta.getServers())) {
+            return;
+        }
+        T next = previous == null || delta.isInitial() ? build(delta.getServers()) : update(previous, delta);
+        updated = next;
+        snapshot = next;
+        log.debug("{} updated on {}.", getClass().getSimpleName(), delta);
+    }
+
+    /**
+     * Rebuilds the snapshot unless already indexing the new list: an index shared by several listeners is rebuilt once.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public void serverListChanged(List<Server> oldList, List<Server> newList) {
+        if (!snapshot.indexes(newList)) {
+            snapshot = build(newList);
+            log.debug("{} rebuilt on server list change: {} servers.", getClass().getSimpleName(), newList.size());
+        }
+    }
+
+    /**
+     * Retrieves the snapshot indexing the given servers: rebuilds it when stale.
+     * <p>A selection of the indexed instances does not replace the shared snapshot unless filtered again.
+     *
+     * @param servers the servers to filter.
+     * @return the snapshot indexing the servers.
+     */
+    public T snapshot(@NotNull List<Server> servers) {
+        T current = snapshot;
+        if (current.indexes(servers)) {
+            return current;
+        }
+        T last = candidate;
+        if (last != null && last.isSource(servers)) {
+            snapshot = last;
+            candidate = null;
+            log.debug("{} promoted on filtered servers: {} servers.", getClass().getSimpleName(), servers.size());
+            return last;
+        }
+        T built = build(servers);
+        if (current.covers(servers)) {
+            candidate = built;
+        } else {
+            snapshot = built;
+            log.debug("{} rebuilt on stale servers: {} servers.", getClass().getSimpleName(), servers.size());
+        }
+        return built;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.predicate;
+
+import com.github.enadim.spring.cloud.ribbon.rule.ServerListDelta;
+import com.github.enadim.spring.cloud.ribbon.rule.ServerListDeltaListener;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerListChangeListener;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Zone matcher selecting the eligible servers from the {@link ServerZoneIndex} partition of the expected zone.
+ * <p>The per server evaluation is kept for {@link #apply} and for the {@link #prepare(Object) prepared} predicate compositions.
+ *
+ * @author Nadim Benabdenbi
+ */
+@Slf4j
+public abstract class AbstractZoneMatcher extends NullSafeServerPredicate implements ServerListChangeListener, ServerListDeltaListener {
+    /**
+     * The server zone index.
+     */
+    private final ServerZoneIndex index;
+
+    /**
+     * Sole constructor.
+     *
+     * @param index the server zone index.
+     */
+    protected AbstractZoneMatcher(@NotNull ServerZoneIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * @return the expected zone (nullable).
+     */
+    protected abstract String expectedZone();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void serverListChanged(List<Server> oldList, List<Server> newList) {
+        index.serverListChanged(oldList, newList);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void serverListUpdated(ServerListDelta delta) {
+        index.serverListUpdated(delta);
+    }
+
+    /**
+     * Selects the expected zone partition: no server is eligible when the expected zone is not defined.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public List<Server> getEligibleServers(List<Server> servers, Object loadBalancerKey, List<Server> buffer) {
+        String zone = expectedZone();
+        List<Server> result = zone == null ? emptyList() : index.snapshot(servers).partition(zone);
+        if (log.isTraceEnabled()) {
+            log.trace("{} => {} eligible servers.", this, result.size());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,534 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.predicate;
+
+import com.github.enadim.spring.cloud.ribbon.rule.ServerListDelta;
+import com.github.enadim.spring.cloud.ribbon.rule.ServerListDeltaListener;
+import com.netflix.loadbalancer.AbstractServerPredicate;
+import com.netflix.loadbalancer.CompositePredicate;
+import com.netflix.loadbalancer.PredicateKey;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerListChangeListener;
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Preparable equivalent of the ribbon {@link CompositePredicate}.
+ * <p>The primary predicates are combined with a logical AND and prepared once per server selection.
+ * The fallback predicates are evaluated in order when no server satisfies the previous predicates.
+ * <p>The fallback tiers are evaluated in a single pass over the servers: each server is ranked with the best tier it satisfies
+ * and the servers of the best non empty tier are eligible. Nested composite fallbacks are flattened into tiers of conjuncts.
+ * <p>The leading zone matcher tiers select their {@link ServerZoneIndex} partition in tier order: the single pass is run
+ * for the remaining tiers only when all the indexed partitions are empty.
+ * <p>The fallback pass does not allocate in steady state: the preparable conjuncts are prepared on first use into a per thread array
+ * and the ribbon predicates are tested with the {@link PredicateKey}s built once per server list.
+ * <p>With a {@link SpilloverPolicy}, a share of the choices moves from the primary servers to the best fallback tier
+ * excluding the primary servers.
+ *
+ * @author Nadim Benabdenbi
+ */
+public final class CompositeServerPredicate extends AbstractServerPredicate implements PreparableServerPredicate, ServerListChangeListener, ServerListDeltaListener {
+    /**
+     * The primary predicates.
+     */
+    private final List<AbstractServerPredicate> predicates;
+
+    /**
+     * The flattened fallback tiers.
+     */
+    private final List<AbstractServerPredicate> fallbacks;
+
+    /**
+     * The fallback tiers conjuncts in tier order: a composite tier without fallbacks contributes its primary predicates.
+     */
+    private final AbstractServerPredicate[] conjuncts;
+
+    /**
+     * The end offset of each fallback tier in the {@link #conjuncts}.
+     */
+    private final int[] tierEnds;
+
+    /**
+     * The number of leading fallback tiers made of a single {@link AbstractZoneMatcher}: resolved from the zone partitions.
+     */
+    private final int indexedTiers;
+
+    /**
+     * The per thread fallback evaluations.
+     */
+    private final ThreadLocal<Evaluation> evaluations = ThreadLocal.withInitial(Evaluation::new);
+
+    /**
+     * The predicate keys of the last server list tested by a ribbon predicate: {@code null} until then.
+     */
+    private volatile PredicateKeys keys;
+
+    /**
+     * The primary servers spillover policy: {@code null} when disabled.
+     */
+    @Getter
+    private final SpilloverPolicy spillover;
+
+    /**
+     * @param predicates the primary predicates.
+     * @param fallbacks  the fallback predicates.
+     * @param spillover  the primary servers spillover policy.
+     */
+    private CompositeServerPredicate(List<AbstractServerPredicate> predicates, List<AbstractServerPredicate> fallbacks, SpilloverPolicy spillover) {
+        this.predicates = unmodifiableList(predicates);
+        this.spillover = spillover;
+        List<AbstractServerPredicate> tiers = new ArrayList<>();
+        for (AbstractServerPredicate fallback : fallbacks) {
+            if (fallback instanceof CompositeServerPredicate && !((CompositeServerPredicate) fallback).fallbacks.isEmpty()) {
+                CompositeServerPredicate composite = (CompositeServerPredicate) fallback;
+                tiers.add(new CompositeServerPredicate(composite.predicates, emptyList(), null));
+                tiers.addAll(composite.fallbacks);
+            } else {
+                tiers.add(fallback);
+            }
+        }
+        this.fallbacks = unmodifiableList(tiers);
+        List<AbstractServerPredicate> flattened = new ArrayList<>();
+        tierEnds = new int[tiers.size()];
+        for (int i = 0; i < tierEnds.length; i++) {
+            AbstractServerPredicate tier = tiers.get(i);
+            if (tier instanceof CompositeServerPredicate) {
+                flattened.addAll(((CompositeServerPredicate) tier).predicates);
+            } else {
+                flattened.add(tier);
+            }
+            tierEnds[i] = flattened.size();
+        }
+        conjuncts = flattened.toArray(new AbstractServerPredicate[flattened.size()]);
+        int indexed = 0;
+        while (indexed < tierEnds.length && tierEnds[indexed] - start(indexed) == 1 && conjuncts[start(indexed)] instanceof AbstractZoneMatcher) {
+            indexed++;
+        }
+        indexedTiers = indexed;
+    }
+
+    /**
+     * @param tier the fallback tier.
+     * @return the start offset of the tier in the {@link #conjuncts}.
+     */
+    private int start(int tier) {
+        return tier == 0 ? 0 : tierEnds[tier - 1];
+    }
+
+    /**
+     * Starts a composite predicate definition.
+     *
+     * @param predicates the primary predicates.
+     * @return the composite predicate builder.
+     */
+    public static Builder withPredicates(@NotNull AbstractServerPredicate... predicates) {
+        return new Builder(asList(predicates));
+    }
+
+    /**
+     * Tests the primary predicates only.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public boolean apply(@Nullable PredicateKey input) {
+        return input != null && input.getServer() != null && prepare(input.getLoadBalancerKey()).test(input.getServer());
+    }
+
+    /**
+     * Prepares the primary predicates.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public PreparedServerPredicate prepare(Object loadBalancerKey) {
+        Iterator<AbstractServerPredicate> iterator = predicates.iterator();
+        PreparedServerPredicate result = PreparedServerPredicate.of(iterator.next(), loadBalancerKey);
+        while (iterator.hasNext()) {
+            result = result.and(PreparedServerPredicate.of(iterator.next(), loadBalancerKey));
+        }
+        return result;
+    }
+
+    /**
+     * Forwards the server list changes to the predicates listening to them.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public void serverListChanged(List<Server> oldList, List<Server> newList) {
+        forward(predicates, oldList, newList);
+        forward(fallbacks, oldList, newList);
+    }
+
+    /**
+     * @param listeners the predicates to notify when listening to the server list changes.
+     * @param oldList   the old server list.
+     * @param newList   the new server list.
+     */
+    private static void forward(List<AbstractServerPredicate> listeners, List<Server> oldList, List<Server> newList) {
+        for (AbstractServerPredicate listener : listeners) {
+            if (listener instanceof ServerListChangeListener) {
+                ((ServerListChangeListener) listener).serverListChanged(oldList, newList);
+            }
+        }
+    }
+
+    /**
+     * Forwards the server list deltas to the predicates listening to them.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public void serverListUpdated(ServerListDelta delta) {
+        forward(predicates, delta);
+        forward(fallbacks, delta);
+    }
+
+    /**
+     * @param listeners the predicates to notify when listening to the server list deltas.
+     * @param delta     the server list delta.
+     */
+    private static void forward(List<AbstractServerPredicate> listeners, ServerListDelta delta) {
+        for (AbstractServerPredicate listener : listeners) {
+            if (listener instanceof ServerListDeltaListener) {
+                ((ServerListDeltaListener) listener).serverListUpdated(delta);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Server> getEligibleServers(List<Server> servers, Object loadBalancerKey) {
+        return getEligibleServers(servers, loadBalancerKey, new ArrayList<>(servers.size()));
+    }
+
+    /**
+     * Filters the servers with the primary predicates then with the fallbacks in order until one server is eligible.
+     * <p>A single primary predicate filters the servers on its own (e.g. selecting an indexed partition).
+     * <p>When the spillover policy spills, the primary servers are excluded from the fallback tiers.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public List<Server> getEligibleServers(List<Server> servers, Object loadBalancerKey, List<Server> buffer) {
+        List<Server> result = primary(servers, loadBalancerKey, buffer);
+        if (fallbacks.isEmpty()) {
+            return result;
+        } else if (result.isEmpty()) {
+            return fallback(servers, loadBalancerKey, buffer, null);
+        } else if (spillover != null && spillover.spill(result)) {
+            List<Server> spilled = fallback(servers, loadBalancerKey, buffer, prepare(loadBalancerKey));
+            return spilled.isEmpty() ? primary(servers, loadBalancerKey, buffer) : spilled;
+        }
+        return result;
+    }
+
+    /**
+     * @param servers         the servers to filter.
+     * @param loadBalancerKey the load balancer key.
+     * @param buffer          the buffer collecting the eligible servers.
+     * @return the servers eligible to the primary predicates.
+     */
+    private List<Server> primary(List<Server> servers, Object loadBalancerKey, List<Server> buffer) {
+        return predicates.size() == 1
+                ? eligible(predicates.get(0), servers, loadBalancerKey, buffer)
+                : prepare(loadBalancerKey).filter(servers, buffer);
+    }
+
+    /**
+     * @param predicate       the predicate.
+     * @param servers         the servers to filter.
+     * @param loadBalancerKey the load balancer key.
+     * @param buffer          the buffer collecting the eligible servers.
+     * @return the servers eligible to the predicate, collected in the buffer when the predicate is preparable.
+     */
+    private static List<Server> eligible(AbstractServerPredicate predicate, List<Server> servers, Object loadBalancerKey, List<Server> buffer) {
+        return predicate instanceof PreparableServerPredicate
+                ? ((PreparableServerPredicate) predicate).getEligibleServers(servers, loadBalancerKey, buffer)
+                : predicate.getEligibleServers(servers, loadBalancerKey);
+    }
+
+    /**
+     * Selects the partition of the first non empty indexed tier, ranks the servers with the remaining tiers otherwise.
+     *
+     * @param servers         the servers to filter.
+     * @param loadBalancerKey the load balancer key.
+     * @param buffer          the buffer collecting the eligible servers.
+     * @param excluded        the servers to exclude: {@code null} when none.
+     * @return the servers satisfying the best tier.
+     */
+    private List<Server> fallback(List<Server> servers, Object loadBalancerKey, List<Server> buffer, PreparedServerPredicate excluded) {
+        for (int tier = 0; tier < indexedTiers; tier++) {
+            List<Server> partition = ((AbstractZoneMatcher) conjuncts[start(tier)]).getEligibleServers(servers, loadBalancerKey, buffer);
+            if (excluded == null) {
+                if (!partition.isEmpty()) {
+                    return partition;
+                }
+            } else {
+                buffer.clear();
+                for (int i = 0; i < partition.size(); i++) {
+                    if (!excluded.test(partition.get(i))) {
+                        buffer.add(partition.get(i));
+                    }
+                }
+                if (!buffer.isEmpty()) {
+                    return buffer;
+                }
+            }
+        }
+        return scan(servers, loadBalancerKey, buffer, excluded);
+    }
+
+    /**
+     * Ranks the servers with the tiers not indexed in a single pass: a server is tested against the tiers up to the best tier found so far.
+     *
+     * @param servers         the servers to filter.
+     * @param loadBalancerKey the load balancer key.
+     * @param buffer          the buffer collecting the eligible servers.
+     * @param excluded        the servers to exclude: {@code null} when none.
+     * @return the servers satisfying the best tier.
+     */
+    private List<Server> scan(List<Server> servers, Object loadBalancerKey, List<Server> buffer, PreparedServerPredicate excluded) {
+        buffer.clear();
+        if (indexedTiers == tierEnds.length) {
+            return buffer;
+        }
+        Evaluation evaluation = evaluations.get();
+        evaluation.open(servers, loadBalancerKey);
+        try {
+            int best = tierEnds.length - 1;
+            for (int i = 0; i < servers.size(); i++) {
+                Server server = servers.get(i);
+                if (server == null || excluded != null && excluded.test(server)) {
+                    continue;
+                }
+                int tier = indexedTiers;
+                while (tier <= best && !evaluation.test(tier, i, server)) {
+                    tier++;
+                }
+                if (tier < best) {
+                    buffer.clear();
+                    best = tier;
+                }
+                if (tier == best) {
+                    buffer.add(server);
+                }
+            }
+            return buffer;
+        } finally {
+            evaluation.close();
+        }
+    }
+
+    /**
+     * @param servers         the servers.
+     * @param loadBalancerKey the load balancer key.
+     * @param index           the index of the server to test.
+     * @param server          the server to test.
+     * @return the predicate keys of the servers: rebuilt when the server list instance, its content or the load balancer key changes.
+     */
+    private PredicateKey[] keys(List<Server> servers, Object loadBalancerKey, int index, Server server) {
+        PredicateKeys current = keys;
+        if (current == null || !current.matches(servers, loadBalancerKey) || current.keys[index].getServer() != server) {
+            current = new PredicateKeys(servers, loadBalancerKey);
+            keys = current;
+        }
+        return current.keys;
+    }
+
+    /**
+     * Per thread evaluation of the fallback tiers within one server selection.
+     */
+    private final class Evaluation {
+        /**
+         * The prepared conjuncts: {@code null} until first used within the server selection.
+         */
+        private final PreparedServerPredicate[] prepared = new PreparedServerPredicate[conjuncts.length];
+
+        /**
+         * The servers to filter.
+         */
+        private List<Server> servers;
+
+        /**
+         * The load balancer key.
+         */
+        private Object loadBalancerKey;
+
+        /**
+         * The predicate keys of the servers: {@code null} until a ribbon predicate is tested.
+         */
+        private PredicateKey[] keys;
+
+        /**
+         * Starts a server selection.
+         *
+         * @param servers         the servers to filter.
+         * @param loadBalancerKey the load balancer key.
+         */
+        private void open(List<Server> servers, Object loadBalancerKey) {
+            this.servers = servers;
+            this.loadBalancerKey = loadBalancerKey;
+        }
+
+        /**
+         * @param tier   the fallback tier.
+         * @param index  the server index.
+         * @param server the server.
+         * @return {@code true} when the server satisfies all the conjuncts of the tier.
+         */
+        private boolean test(int tier, int index, Server server) {
+            for (int i = start(tier); i < tierEnds[tier]; i++) {
+                AbstractServerPredicate conjunct = conjuncts[i];
+                if (conjunct instanceof PreparableServerPredicate) {
+                    if (prepared[i] == null) {
+                        prepared[i] = ((PreparableServerPredicate) conjunct).prepare(loadBalancerKey);
+                    }
+                    if (!prepared[i].test(server)) {
+                        return false;
+                    }
+                } else {
+                    if (keys == null || keys[index].getServer() != server) {
+                        keys = keys(servers, loadBalancerKey, index, server);
+                    }
+                    if (!conjunct.apply(keys[index])) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Ends the server selection: releases the prepared conjuncts and the servers.
+         */
+        private void close() {
+            Arrays.fill(prepared, null);
+            servers = null;
+            loadBalancerKey = null;
+            keys = null;
+        }
+    }
+
+    /**
+     * The predicate keys of a server list.
+     */
+    private static final class PredicateKeys {
+        /**
+         * The server list.
+         */
+        private final List<Server> servers;
+
+        /**
+         * The load balancer key.
+         */
+        private final Object loadBalancerKey;
+
+        /**
+         * The predicate keys by server index.
+         */
+        private final PredicateKey[] keys;
+
+        /**
+         * @param servers         the server list.
+         * @param loadBalancerKey the load balancer key.
+         */
+        private PredicateKeys(List<Server> servers, Object loadBalancerKey) {
+            this.servers = servers;
+            this.loadBalancerKey = loadBalancerKey;
+            keys = new PredicateKey[servers.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = new PredicateKey(loadBalancerKey, servers.get(i));
+            }
+        }
+
+        /**
+         * @param servers         the server list.
+         * @param loadBalancerKey the load balancer key.
+         * @return {@code true} when the keys were built for the same server list instance with the same size and the same load balancer key.
+         */
+        private boolean matches(List<Server> servers, Object loadBalancerKey) {
+            return this.servers == servers && this.loadBalancerKey == loadBalancerKey && keys.length == servers.size();
+        }
+    }
+
+    /**
+     * {@link CompositeServerPredicate} builder.
+     */
+    public static final class Builder {
+        /**
+         * The primary predicates.
+         */
+        private final List<AbstractServerPredicate> predicates;
+
+        /**
+         * The fallback predicates.
+         */
+        private final List<AbstractServerPredicate> fallbacks = new ArrayList<>();
+
+        /**
+         * The primary servers spillover policy.
+         */
+        private SpilloverPolicy spillover;
+
+        /**
+         * @param predicates the primary predicates.
+         */
+        private Builder(List<AbstractServerPredicate> predicates) {
+            if (predicates.isEmpty()) {
+                throw new IllegalArgumentException("At least one primary predicate is required.");
+            }
+            this.predicates = new ArrayList<>(predicates);
+        }
+
+        /**
+         * Adds a fallback predicate.
+         *
+         * @param fallback the fallback predicate.
+         * @return this builder.
+         */
+        public Builder addFallbackPredicate(@NotNull AbstractServerPredicate fallback) {
+            fallbacks.add(fallback);
+            return this;
+        }
+
+        /**
+         * Sets the primary servers spillover policy.
+         *
+         * @param spillover the spillover policy: {@code null} to disable.
+         * @return this builder.
+         */
+        public Builder spillover(SpilloverPolicy spillover) {
+            this.spillover = spillover;
+            return this;
+        }
+
+        /**
+         * @return the composite predicate.
+         */
+        public CompositeServerPredicate build() {
+            return new CompositeServerPredicate(predicates, new ArrayList<>(fallbacks), spillover);
+        }
+    }
+}
@@ -15,19 +15,31 @@
  */
 package com.github.enadim.spring.cloud.ribbon.predicate;
 
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextMemo;
 import com.netflix.loadbalancer.PredicateKey;
 import com.netflix.niws.loadbalancer.DiscoveryEnabledNIWSServerList;
 import com.netflix.niws.loadbalancer.DiscoveryEnabledServer;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
+import java.util.function.Predicate;
+
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.peek;
+
 /**
  * Convenient class for predicates that are based on {@link DiscoveryEnabledServer} created by the {@link DiscoveryEnabledNIWSServerList}.
  * {@link DiscoveryEnabledNIWSServerList}.
- * <p>Concrete implementation needs to implement the {@link #doApply(DiscoveryEnabledServer)} method.
+ * <p>Concrete implementation needs to implement the {@link #doApply(DiscoveryEnabledServer)} method
+ * and should override {@link #bind()} when reading the execution context.
+ * <p>The prepared predicate is memoized per execution context version: {@link #bind()} must depend only on the context entries.
+ * Each new context version allocates the prepared predicate once.
  *
  * @author Nadim Benabdenbi
  */
 public abstract class DiscoveryEnabledServerPredicate extends NullSafeServerPredicate {
+    /**
+     * The prepared predicate memoized per execution context version.
+     */
+    private final ExecutionContextMemo<PreparedServerPredicate> prepared = new ExecutionContextMemo<>(x -> prepare(bind()));
 
     /**
      * {@inheritDoc}
@@ -47,4 +59,31 @@ public abstract class DiscoveryEnabledServerPredicate extends NullSafeServerPred
      * @see #apply(PredicateKey)
      */
     protected abstract boolean doApply(DiscoveryEnabledServer server);
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PreparedServerPredicate prepare(Object loadBalancerKey) {
+        return prepared.get(peek());
+    }
+
+    /**
+     * @param bound the discovered server predicate.
+     * @return the server predicate rejecting the servers that are not discovered.
+     */
+    @SuppressFBWarnings("BC_UNCONFIRMED_CAST")
+    private static PreparedServerPredicate prepare(Predicate<DiscoveryEnabledServer> bound) {
+        return server -> server instanceof DiscoveryEnabledServer && bound.test((DiscoveryEnabledServer) server);
+    }
+
+    /**
+     * Binds the execution context values to a discovered server predicate.
+     * <p>Defaults to {@link #doApply(DiscoveryEnabledServer)} evaluation per server.
+     *
+     * @return the discovered server predicate.
+     */
+    protected Predicate<DiscoveryEnabledServer> bind() {
+        return this::doApply;
+    }
 }
@@ -15,14 +15,22 @@
  */
 package com.github.enadim.spring.cloud.ribbon.predicate;
 
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextKey;
+import com.github.enadim.spring.cloud.ribbon.predicate.ServerMetadataIndex.Snapshot;
+import com.netflix.loadbalancer.Server;
 import com.netflix.niws.loadbalancer.DiscoveryEnabledServer;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.validation.constraints.NotNull;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
-import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.peek;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextKeys.register;
 import static java.lang.String.format;
+import static java.util.Collections.emptyList;
 
 /**
  * Filters Servers that does have the desired metadata entry.
@@ -33,11 +41,11 @@ import static java.lang.String.format;
  * @author Nadim Benabdenbi
  */
 @Slf4j
-public class DynamicMetadataMatcher extends DiscoveryEnabledServerPredicate {
+public class DynamicMetadataMatcher extends IndexedMetadataMatcher {
     /**
      * the dynamic entry key. used to get the metadata key to match.
      */
-    private final String dynamicEntryKey;
+    private final ExecutionContextKey dynamicEntryKey;
 
     /**
      * matches result when dynamic entry key is missing.
@@ -51,7 +59,7 @@ public class DynamicMetadataMatcher extends DiscoveryEnabledServerPredicate {
      * @param matchIfMissing  the result when dynamic entry key is not defined
      */
     public DynamicMetadataMatcher(@NotNull String dynamicEntryKey, boolean matchIfMissing) {
-        this.dynamicEntryKey = dynamicEntryKey;
+        this.dynamicEntryKey = register(dynamicEntryKey);
         this.matchIfMissing = matchIfMissing;
     }
 
@@ -60,28 +68,59 @@ public class DynamicMetadataMatcher extends DiscoveryEnabledServerPredicate {
      */
     @Override
     protected boolean doApply(DiscoveryEnabledServer server) {
-        String metadataKey = current().get(dynamicEntryKey);
-        Map<String, String> metadata = server.getInstanceInfo().getMetadata();
-        if (metadataKey != null) {
-            String expected = current().get(metadataKey);
+        return bind().test(server);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Predicate<DiscoveryEnabledServer> bind() {
+        ExecutionContext context = peek();
+        String metadataKey = context.get(dynamicEntryKey);
+        if (metadataKey == null) {
+            return server -> {
+                if (log.isTraceEnabled()) {
+                    log.trace("[{}] not defined! : {}{} => {}",
+                            dynamicEntryKey,
+                            server.getHostPort(),
+                            server.getInstanceInfo().getMetadata(),
+                            matchIfMissing);
+                }
+                return matchIfMissing;
+            };
+        }
+        String expected = context.get(metadataKey);
+        return server -> {
+            Map<String, String> metadata = server.getInstanceInfo().getMetadata();
             String actual = metadata.get(metadataKey);
             boolean accept = (expected == null && actual == null) || (expected != null && expected.equals(actual));
-            log.trace("Expected [{}={}] vs {}:{}{} => {}",
-                    metadataKey,
-                    expected,
-                    server.getHostPort(),
-                    server.getMetaInfo().getAppName(),
-                    metadata,
-                    accept);
+            if (log.isTraceEnabled()) {
+                log.trace("Expected [{}={}] vs {}:{}{} => {}",
+                        metadataKey,
+                        expected,
+                        server.getHostPort(),
+                        server.getMetaInfo().getAppName(),
+                        metadata,
+                        accept);
+            }
             return accept;
-        } else {
-            log.trace("[{}] not defined! : {}{} => %b",
-                    dynamicEntryKey,
-                    server.getHostPort(),
-                    metadata,
-                    matchIfMissing);
-            return matchIfMissing;
+        };
+    }
+
+    /**
+     * Reads the two context entries per choice: allocation free even when the context changes on every request.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    protected List<Server> select(Snapshot snapshot, List<Server> buffer) {
+        ExecutionContext context = peek();
+        String metadataKey = context.get(dynamicEntryKey);
+        if (metadataKey == null) {
+            return matchIfMissing ? snapshot.discovered() : emptyList();
         }
+        String expected = context.get(metadataKey);
+        return expected == null ? snapshot.undefined(metadataKey) : snapshot.matching(metadataKey, expected);
     }
 
     /**
@@ -89,7 +128,7 @@ public class DynamicMetadataMatcher extends DiscoveryEnabledServerPredicate {
      */
     @Override
     public String toString() {
-        String metadataKey = current().get(dynamicEntryKey);
-        return format("DynamicMetadataMatcher[(%s=%s)=%s,matchIfMissing=%b]", dynamicEntryKey, metadataKey, metadataKey == null ? null : current().get(metadataKey), matchIfMissing);
+        String metadataKey = peek().get(dynamicEntryKey);
+        return format("DynamicMetadataMatcher[(%s=%s)=%s,matchIfMissing=%b]", dynamicEntryKey, metadataKey, metadataKey == null ? null : peek().get(metadataKey), matchIfMissing);
     }
 }
@@ -15,14 +15,17 @@
  */
 package com.github.enadim.spring.cloud.ribbon.predicate;
 
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextKey;
 import com.github.enadim.spring.cloud.ribbon.support.FavoriteZoneConfig;
 import com.netflix.loadbalancer.PredicateKey;
 import com.netflix.loadbalancer.Server;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.validation.constraints.NotNull;
+import java.util.Objects;
 
-import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.peek;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextKeys.register;
 import static java.lang.String.format;
 
 /**
@@ -32,19 +35,43 @@ import static java.lang.String.format;
  * @see FavoriteZoneConfig for a concrete usage
  */
 @Slf4j
-public class DynamicZoneMatcher extends NullSafeServerPredicate {
+public class DynamicZoneMatcher extends AbstractZoneMatcher {
     /**
      * the zone entry key.
      */
-    private final String zoneEntryKey;
+    private final ExecutionContextKey zoneEntryKey;
 
     /**
-     * Sole Constructor.
+     * The last prepared predicate: {@code null} until the first preparation.
+     */
+    private volatile ExpectedZone bound;
+
+    /**
+     * Constructor with a dedicated server zone index.
      *
      * @param zoneEntryKey the favorite zone entry key.
      */
     public DynamicZoneMatcher(@NotNull String zoneEntryKey) {
-        this.zoneEntryKey = zoneEntryKey;
+        this(zoneEntryKey, new ServerZoneIndex());
+    }
+
+    /**
+     * Constructor with a shared server zone index.
+     *
+     * @param zoneEntryKey the favorite zone entry key.
+     * @param index        the server zone index.
+     */
+    public DynamicZoneMatcher(@NotNull String zoneEntryKey, @NotNull ServerZoneIndex index) {
+        super(index);
+        this.zoneEntryKey = register(zoneEntryKey);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String expectedZone() {
+        return peek().get(zoneEntryKey);
     }
 
     /**
@@ -52,18 +79,22 @@ public class DynamicZoneMatcher extends NullSafeServerPredicate {
      */
     @Override
     protected boolean doApply(PredicateKey input) {
-        Server server = input.getServer();
-        String expected = current().get(zoneEntryKey);
-        String actual = server.getZone();
-        boolean accept = expected != null && expected.equals(actual);
-        log.trace("Expected [{}={}] vs {}:{}[zone={}] => {}",
-                zoneEntryKey,
-                expected,
-                server.getHostPort(),
-                server.getMetaInfo().getAppName(),
-                actual,
-                accept);
-        return accept;
+        return prepare(input.getLoadBalancerKey()).test(input.getServer());
+    }
+
+    /**
+     * Reuses the last prepared predicate while the expected zone is unchanged.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public PreparedServerPredicate prepare(Object loadBalancerKey) {
+        String expected = expectedZone();
+        ExpectedZone last = bound;
+        if (last == null || !Objects.equals(last.expected, expected)) {
+            last = new ExpectedZone(expected);
+            bound = last;
+        }
+        return last;
     }
 
     /**
@@ -71,6 +102,42 @@ public class DynamicZoneMatcher extends NullSafeServerPredicate {
      */
     @Override
     public String toString() {
-        return format("DynamicZoneMatcher[%s=%s]", zoneEntryKey, current().get(zoneEntryKey));
+        return format("DynamicZoneMatcher[%s=%s]", zoneEntryKey, peek().get(zoneEntryKey));
+    }
+
+    /**
+     * Predicate bound to the expected zone.
+     */
+    private final class ExpectedZone implements PreparedServerPredicate {
+        /**
+         * The expected zone (nullable).
+         */
+        private final String expected;
+
+        /**
+         * @param expected the expected zone.
+         */
+        private ExpectedZone(String expected) {
+            this.expected = expected;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean test(Server server) {
+            String actual = server.getZone();
+            boolean accept = expected != null && expected.equals(actual);
+            if (log.isTraceEnabled()) {
+                log.trace("Expected [{}={}] vs {}:{}[zone={}] => {}",
+                        zoneEntryKey,
+                        expected,
+                        server.getHostPort(),
+                        server.getMetaInfo().getAppName(),
+                        actual,
+                        accept);
+            }
+            return accept;
+        }
     }
 }
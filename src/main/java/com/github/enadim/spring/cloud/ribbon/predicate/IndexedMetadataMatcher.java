@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.predicate;
+
+import com.github.enadim.spring.cloud.ribbon.predicate.ServerMetadataIndex.Snapshot;
+import com.github.enadim.spring.cloud.ribbon.rule.PredicateBasedRuleSupport;
+import com.github.enadim.spring.cloud.ribbon.rule.ServerListDelta;
+import com.github.enadim.spring.cloud.ribbon.rule.ServerListDeltaListener;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerListChangeListener;
+
+import java.util.List;
+
+/**
+ * Metadata matcher filtering the eligible servers with a {@link ServerMetadataIndex}: a hash lookup and a bitset AND per metadata entry
+ * instead of a metadata map lookup per server.
+ * <p>Registered as a server list delta or change listener by the {@link PredicateBasedRuleSupport}.
+ * <p>Disabled by default: the index does not observe the server metadata modified in place until the server instances change.
+ *
+ * @author Nadim Benabdenbi
+ */
+public abstract class IndexedMetadataMatcher extends DiscoveryEnabledServerPredicate implements ServerListChangeListener, ServerListDeltaListener {
+    /**
+     * The server metadata index: {@code null} when disabled.
+     */
+    private volatile ServerMetadataIndex index;
+
+    /**
+     * @return {@code true} when the eligible servers are filtered with the metadata index otherwise {@code false}.
+     */
+    public boolean isIndexed() {
+        return index != null;
+    }
+
+    /**
+     * Enables or disables the metadata index.
+     *
+     * @param indexed whether the eligible servers should be filtered with the metadata index.
+     */
+    public void setIndexed(boolean indexed) {
+        index = indexed ? new ServerMetadataIndex() : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void serverListChanged(List<Server> oldList, List<Server> newList) {
+        ServerMetadataIndex current = index;
+        if (current != null) {
+            current.serverListChanged(oldList, newList);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void serverListUpdated(ServerListDelta delta) {
+        ServerMetadataIndex current = index;
+        if (current != null) {
+            current.serverListUpdated(delta);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Server> getEligibleServers(List<Server> servers, Object loadBalancerKey, List<Server> buffer) {
+        ServerMetadataIndex current = index;
+        return current == null ? super.getEligibleServers(servers, loadBalancerKey, buffer) : select(current.snapshot(servers), buffer);
+    }
+
+    /**
+     * Selects the indexed servers matching the execution context values read once.
+     *
+     * @param snapshot the server metadata index snapshot.
+     * @param buffer   the buffer collecting the eligible servers when not indexed as is.
+     * @return the eligible servers.
+     */
+    protected abstract List<Server> select(Snapshot snapshot, List<Server> buffer);
+}
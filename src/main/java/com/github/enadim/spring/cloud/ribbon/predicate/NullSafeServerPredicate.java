@@ -17,16 +17,24 @@ package com.github.enadim.spring.cloud.ribbon.predicate;
 
 import com.netflix.loadbalancer.AbstractServerPredicate;
 import com.netflix.loadbalancer.PredicateKey;
+import com.netflix.loadbalancer.Server;
 import com.netflix.niws.loadbalancer.DiscoveryEnabledServer;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Convenient decorator avoiding the delegate to run against a null {@link PredicateKey} or a null {@link PredicateKey#getServer()}.
+ * <p>The eligible servers are filtered with the {@link #prepare(Object) prepared} predicate: reused while the load balancer key is unchanged.
  *
  * @author Nadim Benabdenbi
  */
-public abstract class NullSafeServerPredicate extends AbstractServerPredicate {
+public abstract class NullSafeServerPredicate extends AbstractServerPredicate implements PreparableServerPredicate {
+    /**
+     * The last prepared predicate: {@code null} until the first preparation.
+     */
+    private volatile Prepared prepared;
 
     /**
      * {@inheritDoc}
@@ -45,5 +53,63 @@ public abstract class NullSafeServerPredicate extends AbstractServerPredicate {
      */
     protected abstract boolean doApply(PredicateKey input);
 
+    /**
+     * Tests a non null server with the load balancer key.
+     * <p>Evaluates {@link #doApply(PredicateKey)} by default: predicates reading only the server should override it
+     * to avoid a predicate key allocation per server.
+     *
+     * @param loadBalancerKey the load balancer key.
+     * @param server          the server.
+     * @return {@code true} if the server matches the predicate otherwise {@code false}
+     */
+    protected boolean doApply(Object loadBalancerKey, Server server) {
+        return doApply(new PredicateKey(loadBalancerKey, server));
+    }
+
+    /**
+     * Evaluates {@link #doApply(Object, Server)} per server: predicates reading the execution context should bind it once.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public PreparedServerPredicate prepare(Object loadBalancerKey) {
+        Prepared last = prepared;
+        if (last == null || last.loadBalancerKey != loadBalancerKey) {
+            last = new Prepared(loadBalancerKey);
+            prepared = last;
+        }
+        return last;
+    }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Server> getEligibleServers(List<Server> servers, Object loadBalancerKey) {
+        return getEligibleServers(servers, loadBalancerKey, new ArrayList<>(servers.size()));
+    }
+
+    /**
+     * Predicate bound to a load balancer key.
+     */
+    private final class Prepared implements PreparedServerPredicate {
+        /**
+         * The load balancer key.
+         */
+        private final Object loadBalancerKey;
+
+        /**
+         * @param loadBalancerKey the load balancer key.
+         */
+        private Prepared(Object loadBalancerKey) {
+            this.loadBalancerKey = loadBalancerKey;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean test(Server server) {
+            return doApply(loadBalancerKey, server);
+        }
+    }
 }
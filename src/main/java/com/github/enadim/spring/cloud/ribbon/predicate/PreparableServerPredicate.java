@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.predicate;
+
+import com.netflix.loadbalancer.Server;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * Two-phase server predicate contract.
+ * <ol>
+ * <li>{@link #prepare(Object)} reads the execution context once per server selection.</li>
+ * <li>the returned {@link PreparedServerPredicate} is evaluated against each server of the list.</li>
+ * </ol>
+ * <p>{@link #getEligibleServers(List, Object, List)} is the allocation free server filtering of the rule hot path.
+ *
+ * @author Nadim Benabdenbi
+ */
+public interface PreparableServerPredicate {
+
+    /**
+     * Binds the current execution context values to a server predicate.
+     *
+     * @param loadBalancerKey the load balancer key.
+     * @return the prepared server predicate.
+     */
+    PreparedServerPredicate prepare(Object loadBalancerKey);
+
+    /**
+     * Filters the eligible servers into a caller owned buffer.
+     * <p>The result is either the buffer or an unmodifiable list owned by the predicate: it should not be retained.
+     *
+     * @param servers         the servers to filter.
+     * @param loadBalancerKey the load balancer key.
+     * @param buffer          the empty buffer collecting the eligible servers.
+     * @return the eligible servers.
+     */
+    default List<Server> getEligibleServers(@NotNull List<Server> servers, Object loadBalancerKey, @NotNull List<Server> buffer) {
+        return prepare(loadBalancerKey).filter(servers, buffer);
+    }
+}
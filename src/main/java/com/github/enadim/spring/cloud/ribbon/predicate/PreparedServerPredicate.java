@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.predicate;
+
+import com.netflix.loadbalancer.AbstractServerPredicate;
+import com.netflix.loadbalancer.PredicateKey;
+import com.netflix.loadbalancer.Server;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * Server predicate bound to the values read once by {@link PreparableServerPredicate#prepare(Object)}.
+ * <p>Immutable: evaluating a server does not read the execution context.
+ *
+ * @author Nadim Benabdenbi
+ * @see PreparableServerPredicate
+ */
+@FunctionalInterface
+public interface PreparedServerPredicate {
+
+    /**
+     * Tests if the server matches this predicate.
+     *
+     * @param server the server (not null).
+     * @return {@code true} if the server matches the predicate otherwise {@code false}.
+     */
+    boolean test(@NotNull Server server);
+
+    /**
+     * Combines this predicate with another one with a short-circuiting logical AND.
+     *
+     * @param other the right operand.
+     * @return the combined predicate.
+     */
+    default PreparedServerPredicate and(@NotNull PreparedServerPredicate other) {
+        return server -> test(server) && other.test(server);
+    }
+
+    /**
+     * Filters the non null servers matching this predicate without iterator allocation.
+     *
+     * @param servers the servers to filter (random access list).
+     * @param into    the list collecting the eligible servers.
+     * @return the eligible servers: {@code into}.
+     */
+    default List<Server> filter(@NotNull List<Server> servers, @NotNull List<Server> into) {
+        for (int i = 0; i < servers.size(); i++) {
+            Server server = servers.get(i);
+            if (server != null && test(server)) {
+                into.add(server);
+            }
+        }
+        return into;
+    }
+
+    /**
+     * Prepares a server predicate: ribbon predicates that are not {@link PreparableServerPredicate} are evaluated per server.
+     *
+     * @param predicate       the server predicate.
+     * @param loadBalancerKey the load balancer key.
+     * @return the prepared server predicate.
+     */
+    static PreparedServerPredicate of(@NotNull AbstractServerPredicate predicate, Object loadBalancerKey) {
+        if (predicate instanceof PreparableServerPredicate) {
+            return ((PreparableServerPredicate) predicate).prepare(loadBalancerKey);
+        }
+        return server -> predicate.apply(new PredicateKey(loadBalancerKey, server));
+    }
+}
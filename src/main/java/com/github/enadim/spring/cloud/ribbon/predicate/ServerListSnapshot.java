@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.predicate;
+
+import com.netflix.loadbalancer.Server;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Collections.newSetFromMap;
+
+/**
+ * Immutable snapshot of a server list: base of the server list indexes.
+ *
+ * @author Nadim Benabdenbi
+ * @see AbstractServerListIndex
+ */
+public class ServerListSnapshot {
+    /**
+     * The indexed servers.
+     */
+    protected final Server[] servers;
+
+    /**
+     * The indexed server list.
+     */
+    private final List<Server> source;
+
+    /**
+     * The indexed instances: computed on the first {@link #covers(List)} call.
+     */
+    private volatile Set<Server> instances;
+
+    /**
+     * Sole constructor.
+     *
+     * @param servers the servers to index.
+     */
+    protected ServerListSnapshot(List<Server> servers) {
+        this.servers = servers.toArray(new Server[servers.size()]);
+        this.source = servers;
+    }
+
+    /**
+     * @param servers the servers to filter.
+     * @return {@code true} when the servers are the indexed list instance.
+     */
+    boolean isSource(List<Server> servers) {
+        return servers == source;
+    }
+
+    /**
+     * Tests whether the servers are a selection of the indexed instances, like the servers left once a server is excluded.
+     *
+     * @param servers the servers to filter (random access list).
+     * @return {@code true} when every non null server is an indexed instance.
+     */
+    boolean covers(List<Server> servers) {
+        Set<Server> instances = instances();
+        for (int i = 0; i < servers.size(); i++) {
+            Server server = servers.get(i);
+            if (server != null && !instances.contains(server)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the indexed instances.
+     */
+    private Set<Server> instances() {
+        Set<Server> result = instances;
+        if (result == null) {
+            result = newSetFromMap(new IdentityHashMap<>());
+            for (Server server : servers) {
+                if (server != null) {
+                    result.add(server);
+                }
+            }
+            instances = result;
+        }
+        return result;
+    }
+
+    /**
+     * Tests the server list by identity.
+     * <p>Constant time on the indexed list: the {@link com.github.enadim.spring.cloud.ribbon.rule.DynamicServerListLoadBalancerSupport}
+     * and the {@link com.github.enadim.spring.cloud.ribbon.rule.ServerSubset} share the same unmodifiable list until the server list is replaced.
+     * Another list is compared instance per instance: linear in the number of servers but without any hash computation nor iterator allocation.
+     *
+     * @param servers the servers to filter (random access list).
+     * @return {@code true} when the servers are the indexed instances in the same order.
+     */
+    public boolean indexes(List<Server> servers) {
+        if (servers == source) {
+            return true;
+        }
+        if (servers.size() != this.servers.length) {
+            return false;
+        }
+        for (int i = 0; i < this.servers.length; i++) {
+            if (servers.get(i) != this.servers[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.predicate;
+
+import com.github.enadim.spring.cloud.ribbon.rule.ServerListDelta;
+import com.netflix.loadbalancer.Server;
+import com.netflix.niws.loadbalancer.DiscoveryEnabledServer;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.github.enadim.spring.cloud.ribbon.rule.ServerListDiff.key;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Inverted index of the {@link DiscoveryEnabledServer} metadata: (metadata key, metadata value) to the servers having the entry.
+ *
+ * @author Nadim Benabdenbi
+ */
+public final class ServerMetadataIndex extends AbstractServerListIndex<ServerMetadataIndex.Snapshot> {
+    /**
+     * The pairs dictionary size below which the dictionary is never compacted.
+     */
+    private static final int COMPACTION_THRESHOLD = 64;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Snapshot build(List<Server> servers) {
+        return new Snapshot(servers);
+    }
+
+    /**
+     * Rebuilds the snapshot instead once the pairs dictionary doubled since the last build: drops the pairs no server has anymore.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    protected Snapshot update(Snapshot previous, ServerListDelta delta) {
+        if (previous.size > Math.max(COMPACTION_THRESHOLD, 2 * previous.built)) {
+            return build(delta.getServers());
+        }
+        return new Snapshot(previous, delta);
+    }
+
+    /**
+     * Immutable metadata index of a server list.
+     * <p>The query methods return unmodifiable lists computed at most once per snapshot.
+     */
+    public static final class Snapshot extends ServerListSnapshot {
+        /**
+         * The discovery enabled servers.
+         */
+        private final List<Server> discovered;
+
+        /**
+         * The metadata of the discovery enabled servers in the same order, encoded as bitset words over the pairs dictionary.
+         */
+        private final long[][] encoded;
+
+        /**
+         * The servers per metadata key and value.
+         */
+        private final Map<String, Map<String, List<Server>>> entries;
+
+        /**
+         * The discovery enabled servers per observed metadata key having the key missing or associated to a null value: computed on demand.
+         */
+        private final Map<String, List<Server>> undefined = new ConcurrentHashMap<>();
+
+        /**
+         * The dictionary of the observed (metadata key, metadata value) pairs to their identifiers: only grows until the next build.
+         */
+        private final Map<String, Map<String, Integer>> pairs;
+
+        /**
+         * The pairs dictionary size.
+         */
+        private final int size;
+
+        /**
+         * The pairs dictionary size at the last build.
+         */
+        private final int built;
+
+        /**
+         * Indexes the server list in the list order.
+         *
+         * @param servers the servers to index.
+         */
+        Snapshot(List<Server> servers) {
+            this(servers, null, emptyList(), servers);
+        }
+
+        /**
+         * Applies a delta: only the entries of the metadata of the added, removed and changed servers are rebuilt, the joining servers last.
+         *
+         * @param previous the snapshot of the previous server list.
+         * @param delta    the server list delta.
+         */
+        Snapshot(Snapshot previous, ServerListDelta delta) {
+            this(delta.getServers(), previous, concat(delta.getRemoved(), delta.getReplaced()), concat(delta.getAdded(), delta.getChanged()));
+        }
+
+        /**
+         * Indexes the joining servers on top of the previous snapshot without the leaving servers.
+         *
+         * @param servers  the new server list.
+         * @param previous the snapshot of the previous server list: {@code null} on a build.
+         * @param leaving  the servers leaving the index.
+         * @param joining  the servers joining the index.
+         */
+        private Snapshot(List<Server> servers, Snapshot previous, List<Server> leaving, List<Server> joining) {
+            super(servers);
+            Set<String> left = new HashSet<>();
+            Map<String, Map<String, List<Server>>> touched = new HashMap<>();
+            for (Server server : leaving) {
+                left.add(key(server));
+                for (Entry<String, String> entry : metadata(server)) {
+                    touched.computeIfAbsent(entry.getKey(), x -> new HashMap<>()).putIfAbsent(entry.getValue(), new ArrayList<>());
+                }
+            }
+            List<Server> arriving = new ArrayList<>();
+            for (Server server : joining) {
+                if (server instanceof DiscoveryEnabledServer) {
+                    arriving.add(server);
+                    for (Entry<String, String> entry : metadata(server)) {
+                        touched.computeIfAbsent(entry.getKey(), x -> new HashMap<>())
+                                .computeIfAbsent(entry.getValue(), x -> new ArrayList<>())
+                                .add(server);
+                    }
+                }
+            }
+            entries = previous == null ? new HashMap<>() : new HashMap<>(previous.entries);
+            pairs = previous == null ? new HashMap<>() : new HashMap<>(previous.pairs);
+            int next = previous == null ? 0 : previous.size;
+            for (Entry<String, Map<String, List<Server>>> key : touched.entrySet()) {
+                Map<String, List<Server>> values = new HashMap<>(entries.getOrDefault(key.getKey(), emptyMap()));
+                Map<String, Integer> ids = pairs.getOrDefault(key.getKey(), emptyMap());
+                Map<String, Integer> grown = null;
+                for (Entry<String, List<Server>> value : key.getValue().entrySet()) {
+                    List<Server> matching = kept(values.getOrDefault(value.getKey(), emptyList()), left);
+                    matching.addAll(value.getValue());
+                    if (matching.isEmpty()) {
+                        values.remove(value.getKey());
+                    } else {
+                        values.put(value.getKey(), unmodifiableList(matching));
+                    }
+                    if (!value.getValue().isEmpty() && !ids.containsKey(value.getKey())) {
+                        grown = grown == null ? new HashMap<>(ids) : grown;
+                        grown.put(value.getKey(), next++);
+                    }
+                }
+                if (values.isEmpty()) {
+                    entries.remove(key.getKey());
+                } else {
+                    entries.put(key.getKey(), values);
+                }
+                if (grown != null) {
+                    pairs.put(key.getKey(), grown);
+                }
+            }
+            size = next;
+            built = previous == null ? next : previous.built;
+            List<Server> indexed = new ArrayList<>();
+            List<long[]> metadata = new ArrayList<>();
+            for (int i = 0; previous != null && i < previous.encoded.length; i++) {
+                if (!left.contains(key(previous.discovered.get(i)))) {
+                    indexed.add(previous.discovered.get(i));
+                    metadata.add(previous.encoded[i]);
+                }
+            }
+            for (Server server : arriving) {
+                indexed.add(server);
+                metadata.add(encode(server));
+            }
+            discovered = unmodifiableList(indexed);
+            encoded = metadata.toArray(new long[metadata.size()][]);
+        }
+
+        /**
+         * @param first  the first servers.
+         * @param second the second servers.
+         * @return the concatenated servers.
+         */
+        private static List<Server> concat(List<Server> first, List<Server> second) {
+            List<Server> result = new ArrayList<>(first);
+            result.addAll(second);
+            return result;
+        }
+
+        /**
+         * @param server the server.
+         * @return the metadata entries of a discovery enabled server: none otherwise.
+         */
+        private static Set<Entry<String, String>> metadata(Server server) {
+            return server instanceof DiscoveryEnabledServer
+                    ? ((DiscoveryEnabledServer) server).getInstanceInfo().getMetadata().entrySet()
+                    : emptySet();
+        }
+
+        /**
+         * @param servers the indexed servers.
+         * @param left    the instance ids of the servers leaving the index.
+         * @return the servers staying in the index.
+         */
+        private static List<Server> kept(List<Server> servers, Set<String> left) {
+            List<Server> result = new ArrayList<>(servers.size());
+            for (Server server : servers) {
+                if (!left.contains(key(server))) {
+                    result.add(server);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * @param server the discovery enabled server.
+         * @return the server metadata pairs bitset words.
+         */
+        private long[] encode(Server server) {
+            BitSet result = new BitSet();
+            for (Entry<String, String> entry : metadata(server)) {
+                result.set(pairs.get(entry.getKey()).get(entry.getValue()));
+            }
+            return result.toLongArray();
+        }
+
+        /**
+         * @return the discovery enabled servers.
+         */
+        public List<Server> discovered() {
+            return discovered;
+        }
+
+        /**
+         * @param key   the metadata key.
+         * @param value the metadata value (nullable).
+         * @return the servers having the metadata entry.
+         */
+        public List<Server> matching(String key, String value) {
+            Map<String, List<Server>> values = entries.get(key);
+            List<Server> result = values == null ? null : values.get(value);
+            return result == null ? emptyList() : result;
+        }
+
+        /**
+         * @param key the metadata key.
+         * @return the discovery enabled servers having the metadata key missing or associated to a null value.
+         */
+        public List<Server> undefined(String key) {
+            if (!entries.containsKey(key)) {
+                return discovered;
+            }
+            List<Server> result = undefined.get(key);
+            if (result == null) {
+                List<Server> missing = new ArrayList<>();
+                for (Server server : discovered) {
+                    if (((DiscoveryEnabledServer) server).getInstanceInfo().getMetadata().get(key) == null) {
+                        missing.add(server);
+                    }
+                }
+                result = unmodifiableList(missing);
+                undefined.put(key, result);
+            }
+            return result;
+        }
+
+        /**
+         * Encodes the expected entries over the pairs dictionary.
+         *
+         * @param expected the expected metadata entries.
+         * @return the expected pairs bitset words or {@code null} when an entry was never observed: no server can match.
+         */
+        public long[] encode(Collection<Entry<String, String>> expected) {
+            long[] result = new long[(size + Long.SIZE - 1) / Long.SIZE];
+            for (Entry<String, String> entry : expected) {
+                Map<String, Integer> values = pairs.get(entry.getKey());
+                Integer pair = values == null ? null : values.get(entry.getValue());
+                if (pair == null) {
+                    return null;
+                }
+                result[pair / Long.SIZE] |= 1L << pair;
+            }
+            return result;
+        }
+
+        /**
+         * Word-wise {@code (expected & ~server) == 0} subset check of the discovery enabled servers metadata.
+         *
+         * @param expected the expected pairs bitset words.
+         * @param into     the list collecting the servers.
+         * @return the servers having all the expected metadata entries: {@code into}.
+         * @see #encode(Collection)
+         */
+        public List<Server> containing(long[] expected, List<Server> into) {
+            for (int i = 0; i < encoded.length; i++) {
+                if (contains(encoded[i], expected)) {
+                    into.add(discovered.get(i));
+                }
+            }
+            return into;
+        }
+
+        /**
+         * @param actual   the server pairs bitset words: trailing zero words omitted.
+         * @param expected the expected pairs bitset words.
+         * @return {@code true} when the expected pairs are a subset of the server pairs.
+         */
+        private static boolean contains(long[] actual, long[] expected) {
+            for (int i = 0; i < expected.length; i++) {
+                if ((expected[i] & ~(i < actual.length ? actual[i] : 0L)) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
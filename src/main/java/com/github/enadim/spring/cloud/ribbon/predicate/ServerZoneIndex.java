@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.predicate;
+
+import com.github.enadim.spring.cloud.ribbon.rule.ServerListDelta;
+import com.netflix.loadbalancer.Server;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import static com.github.enadim.spring.cloud.ribbon.rule.ServerListDiff.key;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Partitions the servers per zone: a zone predicate selects its partition instead of testing each server.
+ * <p>May be shared by several zone matchers of the same load balancer: the partitions are built once per server list.
+ *
+ * @author Nadim Benabdenbi
+ */
+public final class ServerZoneIndex extends AbstractServerListIndex<ServerZoneIndex.Snapshot> {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Snapshot build(List<Server> servers) {
+        return new Snapshot(servers);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Snapshot update(Snapshot previous, ServerListDelta delta) {
+        return new Snapshot(previous, delta);
+    }
+
+    /**
+     * Immutable zone partitions of a server list.
+     */
+    public static final class Snapshot extends ServerListSnapshot {
+        /**
+         * The unmodifiable server partitions per zone.
+         */
+        private final Map<String, List<Server>> partitions;
+
+        /**
+         * Partitions the server list in the list order.
+         *
+         * @param servers the servers to index.
+         */
+        Snapshot(List<Server> servers) {
+            super(servers);
+            partitions = new HashMap<>();
+            for (Server server : this.servers) {
+                if (server != null && server.getZone() != null) {
+                    partitions.computeIfAbsent(server.getZone(), x -> new ArrayList<>()).add(server);
+                }
+            }
+            partitions.replaceAll((zone, partition) -> unmodifiableList(partition));
+        }
+
+        /**
+         * Applies a delta: only the partitions of the zones left or joined by the added, removed and changed servers are rebuilt,
+         * the joining servers last.
+         *
+         * @param previous the snapshot of the previous server list.
+         * @param delta    the server list delta.
+         */
+        Snapshot(Snapshot previous, ServerListDelta delta) {
+            super(delta.getServers());
+            partitions = new HashMap<>(previous.partitions);
+            Set<String> left = new HashSet<>();
+            Map<String, List<Server>> joining = new HashMap<>();
+            leave(delta.getRemoved(), left, joining);
+            leave(delta.getReplaced(), left, joining);
+            join(delta.getAdded(), joining);
+            join(delta.getChanged(), joining);
+            for (Entry<String, List<Server>> entry : joining.entrySet()) {
+                List<Server> partition = new ArrayList<>();
+                for (Server server : previous.partition(entry.getKey())) {
+                    if (!left.contains(key(server))) {
+                        partition.add(server);
+                    }
+                }
+                partition.addAll(entry.getValue());
+                if (partition.isEmpty()) {
+                    partitions.remove(entry.getKey());
+                } else {
+                    partitions.put(entry.getKey(), unmodifiableList(partition));
+                }
+            }
+        }
+
+        /**
+         * @param servers the servers leaving their zone.
+         * @param left    the instance ids of the servers leaving their zone.
+         * @param joining the servers joining per zone to rebuild.
+         */
+        private static void leave(List<Server> servers, Set<String> left, Map<String, List<Server>> joining) {
+            for (Server server : servers) {
+                left.add(key(server));
+                if (server.getZone() != null) {
+                    joining.computeIfAbsent(server.getZone(), x -> new ArrayList<>());
+                }
+            }
+        }
+
+        /**
+         * @param servers the servers joining their zone.
+         * @param joining the servers joining per zone to rebuild.
+         */
+        private static void join(List<Server> servers, Map<String, List<Server>> joining) {
+            for (Server server : servers) {
+                if (server.getZone() != null) {
+                    joining.computeIfAbsent(server.getZone(), x -> new ArrayList<>()).add(server);
+                }
+            }
+        }
+
+        /**
+         * @param zone the zone.
+         * @return the unmodifiable list of the servers in the zone.
+         */
+        public List<Server> partition(String zone) {
+            return partitions.getOrDefault(zone, emptyList());
+        }
+    }
+}
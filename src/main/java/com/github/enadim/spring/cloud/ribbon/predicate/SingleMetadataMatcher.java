@@ -15,13 +15,19 @@
  */
 package com.github.enadim.spring.cloud.ribbon.predicate;
 
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextKey;
 import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.predicate.ServerMetadataIndex.Snapshot;
+import com.netflix.loadbalancer.Server;
 import com.netflix.niws.loadbalancer.DiscoveryEnabledServer;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
-import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.peek;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextKeys.register;
 import static java.lang.String.format;
 
 /**
@@ -30,12 +36,17 @@ import static java.lang.String.format;
  * @author Nadim Benabdenbi
  */
 @Slf4j
-public class SingleMetadataMatcher extends DiscoveryEnabledServerPredicate {
+public class SingleMetadataMatcher extends IndexedMetadataMatcher {
     /**
      * the metadata key to test against
      */
     private final String metadataKey;
 
+    /**
+     * the registered metadata key to read the expected value from the context.
+     */
+    private final ExecutionContextKey metadataEntryKey;
+
     /**
      * Sole Constructor.
      *
@@ -43,6 +54,7 @@ public class SingleMetadataMatcher extends DiscoveryEnabledServerPredicate {
      */
     public SingleMetadataMatcher(String metadataKey) {
         this.metadataKey = metadataKey;
+        this.metadataEntryKey = register(metadataKey);
     }
 
     /**
@@ -50,18 +62,39 @@ public class SingleMetadataMatcher extends DiscoveryEnabledServerPredicate {
      */
     @Override
     protected boolean doApply(DiscoveryEnabledServer server) {
-        String expected = current().get(metadataKey);
-        Map<String, String> metadata = server.getInstanceInfo().getMetadata();
-        String actual = metadata.get(metadataKey);
-        boolean accept = (expected == null && actual == null) || (expected != null && expected.equals(actual));
-        log.trace("Expected {}=[{}] vs {}:{}{} => {}",
-                metadataKey,
-                expected,
-                server.getHostPort(),
-                server.getMetaInfo().getAppName(),
-                metadata,
-                accept);
-        return accept;
+        return bind().test(server);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Predicate<DiscoveryEnabledServer> bind() {
+        String expected = peek().get(metadataEntryKey);
+        return server -> {
+            Map<String, String> metadata = server.getInstanceInfo().getMetadata();
+            String actual = metadata.get(metadataKey);
+            boolean accept = (expected == null && actual == null) || (expected != null && expected.equals(actual));
+            if (log.isTraceEnabled()) {
+                log.trace("Expected {}=[{}] vs {}:{}{} => {}",
+                        metadataKey,
+                        expected,
+                        server.getHostPort(),
+                        server.getMetaInfo().getAppName(),
+                        metadata,
+                        accept);
+            }
+            return accept;
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<Server> select(Snapshot snapshot, List<Server> buffer) {
+        String expected = peek().get(metadataEntryKey);
+        return expected == null ? snapshot.undefined(metadataKey) : snapshot.matching(metadataKey, expected);
     }
 
     /**
@@ -69,6 +102,6 @@ public class SingleMetadataMatcher extends DiscoveryEnabledServerPredicate {
      */
     @Override
     public String toString() {
-        return format("SingleMetadataMatcher[%s=%s]", metadataKey, current().get(metadataKey));
+        return format("SingleMetadataMatcher[%s=%s]", metadataKey, peek().get(metadataEntryKey));
     }
 }
@@ -15,10 +15,13 @@
  */
 package com.github.enadim.spring.cloud.ribbon.predicate;
 
+import com.github.enadim.spring.cloud.ribbon.predicate.ServerMetadataIndex.Snapshot;
+import com.netflix.loadbalancer.Server;
 import com.netflix.niws.loadbalancer.DiscoveryEnabledServer;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.validation.constraints.NotNull;
+import java.util.List;
 import java.util.Map;
 
 import static java.lang.String.format;
@@ -29,7 +32,7 @@ import static java.lang.String.format;
  * @author Nadim Benabdenbi
  */
 @Slf4j
-public class SingleStaticMetadataMatcher extends DiscoveryEnabledServerPredicate {
+public class SingleStaticMetadataMatcher extends IndexedMetadataMatcher {
     /**
      * the entry key to match.
      */
@@ -58,16 +61,26 @@ public class SingleStaticMetadataMatcher extends DiscoveryEnabledServerPredicate
         Map<String, String> metadata = server.getInstanceInfo().getMetadata();
         String actual = metadata.get(entryKey);
         boolean accept = entryValue.equals(actual);
-        log.trace("Expected [{}={}] vs {}:{}{} => {}",
-                entryKey,
-                entryValue,
-                server.getHostPort(),
-                server.getMetaInfo().getAppName(),
-                metadata,
-                accept);
+        if (log.isTraceEnabled()) {
+            log.trace("Expected [{}={}] vs {}:{}{} => {}",
+                    entryKey,
+                    entryValue,
+                    server.getHostPort(),
+                    server.getMetaInfo().getAppName(),
+                    metadata,
+                    accept);
+        }
         return accept;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<Server> select(Snapshot snapshot, List<Server> buffer) {
+        return snapshot.matching(entryKey, entryValue);
+    }
+
     /**
      * {@inheritDoc}
      */
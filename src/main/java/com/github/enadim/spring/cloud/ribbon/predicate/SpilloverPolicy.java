@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.predicate;
+
+import com.netflix.loadbalancer.AbstractLoadBalancer;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.IRule;
+import com.netflix.loadbalancer.LoadBalancerStats;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerStats;
+import lombok.Getter;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.lang.String.format;
+
+/**
+ * Moves a share of the traffic away from the preferred servers of a {@link CompositeServerPredicate} when they are overloaded or failing.
+ * <p>The signal comes from the {@link LoadBalancerStats} of the rule load balancer:
+ * <ul>
+ * <li>the load excess: {@code (average active requests - threshold) / threshold};
+ * <li>the failure excess: {@code (failing share - threshold) / (1 - threshold)} where the failing share is the share of the preferred servers
+ * with successive connection failures.
+ * </ul>
+ * <p>The spilled share is the greatest excess bounded by the maximum share.
+ *
+ * @author Nadim Benabdenbi
+ */
+@Getter
+public class SpilloverPolicy {
+    /**
+     * The rule holding the load balancer.
+     */
+    private final IRule rule;
+
+    /**
+     * The average active requests per preferred server above which the traffic spills over.
+     */
+    private final double activeRequestsThreshold;
+
+    /**
+     * The share of the preferred servers with successive connection failures above which the traffic spills over.
+     */
+    private final double failingShareThreshold;
+
+    /**
+     * The maximum share of the traffic spilled over.
+     */
+    private final double maxShare;
+
+    /**
+     * Sole constructor.
+     *
+     * @param rule                    the rule holding the load balancer.
+     * @param activeRequestsThreshold the average active requests per preferred server above which the traffic spills over: positive.
+     * @param failingShareThreshold   the share of failing preferred servers above which the traffic spills over: within [0, 1).
+     * @param maxShare                the maximum share of the traffic spilled over: within [0, 1].
+     * @throws IllegalArgumentException on a threshold or a share out of range.
+     */
+    public SpilloverPolicy(@NotNull IRule rule, double activeRequestsThreshold, double failingShareThreshold, double maxShare) {
+        if (!(activeRequestsThreshold > 0) || !(failingShareThreshold >= 0 && failingShareThreshold < 1) || !(maxShare >= 0 && maxShare <= 1)) {
+            throw new IllegalArgumentException(format("Invalid spillover policy: active requests threshold [%s], failing share threshold [%s], max share [%s].",
+                    activeRequestsThreshold, failingShareThreshold, maxShare));
+        }
+        this.rule = rule;
+        this.activeRequestsThreshold = activeRequestsThreshold;
+        this.failingShareThreshold = failingShareThreshold;
+        this.maxShare = maxShare;
+    }
+
+    /**
+     * Draws whether the current choice spills over.
+     *
+     * @param preferred the preferred servers: not empty.
+     * @return {@code true} when the choice should move to the next tier.
+     */
+    public boolean spill(@NotNull List<Server> preferred) {
+        return ThreadLocalRandom.current().nextDouble() < share(preferred);
+    }
+
+    /**
+     * @param preferred the preferred servers: not empty.
+     * @return the share of the traffic to spill over: 0 without statistics.
+     */
+    public double share(@NotNull List<Server> preferred) {
+        ILoadBalancer loadBalancer = rule.getLoadBalancer();
+        LoadBalancerStats stats = loadBalancer instanceof AbstractLoadBalancer
+                ? ((AbstractLoadBalancer) loadBalancer).getLoadBalancerStats()
+                : null;
+        if (stats == null) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        long active = 0;
+        int failing = 0;
+        for (int i = 0; i < preferred.size(); i++) {
+            ServerStats serverStats = stats.getSingleServerStat(preferred.get(i));
+            active += serverStats.getActiveRequestsCount(now);
+            if (serverStats.getSuccessiveConnectionFailureCount() > 0) {
+                failing++;
+            }
+        }
+        double load = ((double) active / preferred.size() - activeRequestsThreshold) / activeRequestsThreshold;
+        double failures = ((double) failing / preferred.size() - failingShareThreshold) / (1 - failingShareThreshold);
+        return Math.max(0, Math.min(maxShare, Math.max(load, failures)));
+    }
+}
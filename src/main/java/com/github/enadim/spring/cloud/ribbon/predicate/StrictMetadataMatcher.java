@@ -15,16 +15,22 @@
  */
 package com.github.enadim.spring.cloud.ribbon.predicate;
 
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextMemo;
+import com.github.enadim.spring.cloud.ribbon.predicate.ServerMetadataIndex.Snapshot;
 import com.github.enadim.spring.cloud.ribbon.support.StrictMetadataMatcherConfig;
+import com.netflix.loadbalancer.Server;
 import com.netflix.niws.loadbalancer.DiscoveryEnabledServer;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
+import java.util.function.Predicate;
 
-import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.peek;
 import static java.lang.String.format;
+import static java.util.Collections.emptyList;
 
 /**
  * Strict server metadata matcher over all the execution context entries.
@@ -33,23 +39,78 @@ import static java.lang.String.format;
  * @see StrictMetadataMatcherConfig for a concrete usage
  */
 @Slf4j
-public class StrictMetadataMatcher extends DiscoveryEnabledServerPredicate {
+public class StrictMetadataMatcher extends IndexedMetadataMatcher {
+    /**
+     * The expected entries copied from the context.
+     */
+    private final ExecutionContextMemo<List<Entry<String, String>>> expectedEntries = new ExecutionContextMemo<>(x -> new ArrayList<>(x.entrySet()));
+
+    /**
+     * The last expected entries encoding.
+     */
+    private volatile Encoding encoding;
 
     /**
      * {@inheritDoc}
      */
     @Override
     protected boolean doApply(DiscoveryEnabledServer server) {
-        Set<Entry<String, String>> expected = current().entrySet();
-        Map<String, String> actual = server.getInstanceInfo().getMetadata();
-        boolean accept = actual.entrySet().containsAll(expected);
-        log.trace("Expected {} vs {}:{}{} => {}",
-                expected,
-                server.getHostPort(),
-                server.getMetaInfo().getAppName(),
-                actual,
-                accept);
-        return accept;
+        return bind().test(server);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Predicate<DiscoveryEnabledServer> bind() {
+        List<Entry<String, String>> expected = expectedEntries.get(peek());
+        return server -> {
+            Map<String, String> actual = server.getInstanceInfo().getMetadata();
+            boolean accept = containsAll(actual, expected);
+            if (log.isTraceEnabled()) {
+                log.trace("Expected {} vs {}:{}{} => {}",
+                        expected,
+                        server.getHostPort(),
+                        server.getMetaInfo().getAppName(),
+                        actual,
+                        accept);
+            }
+            return accept;
+        };
+    }
+
+    /**
+     * Equivalent of {@code actual.entrySet().containsAll(expected)} without entry set view nor iterator allocation.
+     *
+     * @param actual   the server metadata.
+     * @param expected the expected entries.
+     * @return {@code true} when the server metadata contains all the expected entries.
+     */
+    private static boolean containsAll(Map<String, String> actual, List<Entry<String, String>> expected) {
+        for (int i = 0; i < expected.size(); i++) {
+            Entry<String, String> entry = expected.get(i);
+            String value = actual.get(entry.getKey());
+            if (value == null ? entry.getValue() != null || !actual.containsKey(entry.getKey()) : !value.equals(entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Encodes the expected entries once per context and snapshot then checks the encoded server metadata word-wise.
+     * <p>Each new context version allocates the expected entries copy and their encoding once.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    protected List<Server> select(Snapshot snapshot, List<Server> buffer) {
+        List<Entry<String, String>> expected = expectedEntries.get(peek());
+        Encoding current = encoding;
+        if (current == null || current.snapshot != snapshot || current.expected != expected) {
+            current = new Encoding(snapshot, expected);
+            encoding = current;
+        }
+        return current.words == null ? emptyList() : snapshot.containing(current.words, buffer);
     }
 
     /**
@@ -57,6 +118,36 @@ public class StrictMetadataMatcher extends DiscoveryEnabledServerPredicate {
      */
     @Override
     public String toString() {
-        return format("StrictMetadataMatcher%s", current().entrySet());
+        return format("StrictMetadataMatcher%s", peek().entrySet());
+    }
+
+    /**
+     * Expected entries encoded over a snapshot pairs dictionary.
+     */
+    private static final class Encoding {
+        /**
+         * The server metadata index snapshot.
+         */
+        private final Snapshot snapshot;
+
+        /**
+         * The expected entries.
+         */
+        private final List<Entry<String, String>> expected;
+
+        /**
+         * The encoded expected entries: {@code null} when no server can match.
+         */
+        private final long[] words;
+
+        /**
+         * @param snapshot the server metadata index snapshot.
+         * @param expected the expected entries.
+         */
+        private Encoding(Snapshot snapshot, List<Entry<String, String>> expected) {
+            this.snapshot = snapshot;
+            this.expected = expected;
+            this.words = snapshot.encode(expected);
+        }
     }
 }
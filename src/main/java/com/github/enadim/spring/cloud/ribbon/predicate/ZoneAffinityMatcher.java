@@ -17,6 +17,7 @@ package com.github.enadim.spring.cloud.ribbon.predicate;
 
 import com.github.enadim.spring.cloud.ribbon.support.ZoneAffinityConfig;
 import com.netflix.loadbalancer.PredicateKey;
+import com.netflix.loadbalancer.Server;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.validation.constraints.NotNull;
@@ -30,18 +31,29 @@ import static java.lang.String.format;
  * @see ZoneAffinityConfig for a concrete usage
  */
 @Slf4j
-public class ZoneAffinityMatcher extends NullSafeServerPredicate {
+public class ZoneAffinityMatcher extends AbstractZoneMatcher {
     /**
      * the application zone.
      */
     private final String zone;
 
     /**
-     * Sole Constructor.
+     * Constructor with a dedicated server zone index.
      *
      * @param zone the application zone.
      */
     public ZoneAffinityMatcher(@NotNull String zone) {
+        this(zone, new ServerZoneIndex());
+    }
+
+    /**
+     * Constructor with a shared server zone index.
+     *
+     * @param zone  the application zone.
+     * @param index the server zone index.
+     */
+    public ZoneAffinityMatcher(@NotNull String zone, @NotNull ServerZoneIndex index) {
+        super(index);
         this.zone = zone;
     }
 
@@ -49,14 +61,32 @@ public class ZoneAffinityMatcher extends NullSafeServerPredicate {
      * {@inheritDoc}
      */
     @Override
-    protected boolean doApply(PredicateKey server) {
-        boolean accept = zone.equals(server.getServer().getZone());
-        log.trace("Expected zone [{}] vs {}:{}[{}] => {}",
-                zone,
-                server.getServer().getHostPort(),
-                server.getServer().getMetaInfo().getAppName(),
-                server.getServer().getZone(),
-                accept);
+    protected String expectedZone() {
+        return zone;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean doApply(PredicateKey input) {
+        return doApply(input.getLoadBalancerKey(), input.getServer());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean doApply(Object loadBalancerKey, Server server) {
+        boolean accept = zone.equals(server.getZone());
+        if (log.isTraceEnabled()) {
+            log.trace("Expected zone [{}] vs {}:{}[{}] => {}",
+                    zone,
+                    server.getHostPort(),
+                    server.getMetaInfo().getAppName(),
+                    server.getZone(),
+                    accept);
+        }
         return accept;
     }
 
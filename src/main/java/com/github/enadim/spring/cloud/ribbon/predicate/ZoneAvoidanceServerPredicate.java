@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.predicate;
+
+import com.netflix.client.config.IClientConfig;
+import com.netflix.config.DynamicBooleanProperty;
+import com.netflix.config.DynamicDoubleProperty;
+import com.netflix.config.DynamicPropertyFactory;
+import com.netflix.loadbalancer.IRule;
+import com.netflix.loadbalancer.LoadBalancerStats;
+import com.netflix.loadbalancer.ZoneAvoidancePredicate;
+import com.netflix.loadbalancer.ZoneAvoidanceRule;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.validation.constraints.NotNull;
+import java.util.Set;
+
+/**
+ * Preparable equivalent of the ribbon {@link ZoneAvoidancePredicate}.
+ * <p>The ribbon predicate snapshots the zone statistics for each server it tests:
+ * the available zones are computed here once per server selection with the same properties.
+ *
+ * @author Nadim Benabdenbi
+ */
+@Slf4j
+public class ZoneAvoidanceServerPredicate extends ZoneAvoidancePredicate implements PreparableServerPredicate {
+    /**
+     * The zone avoidance properties prefix.
+     */
+    private static final String PREFIX = "ZoneAwareNIWSDiscoveryLoadBalancer.";
+
+    /**
+     * The zone avoidance switch.
+     */
+    private static final DynamicBooleanProperty ENABLED = DynamicPropertyFactory.getInstance()
+            .getBooleanProperty("niws.loadbalancer.zoneAvoidanceRule.enabled", true);
+
+    /**
+     * Accepts any server.
+     */
+    private static final PreparedServerPredicate ANY = server -> true;
+
+    /**
+     * The load per server triggering the zone avoidance.
+     */
+    private final DynamicDoubleProperty triggeringLoad;
+
+    /**
+     * The share of tripped servers triggering the zone avoidance.
+     */
+    private final DynamicDoubleProperty triggeringBlackoutPercentage;
+
+    /**
+     * Sole constructor.
+     *
+     * @param rule         the rule providing the load balancer statistics.
+     * @param clientConfig the ribbon client config.
+     */
+    public ZoneAvoidanceServerPredicate(@NotNull IRule rule, @NotNull IClientConfig clientConfig) {
+        super(rule, clientConfig);
+        String prefix = PREFIX + clientConfig.getClientName();
+        triggeringLoad = DynamicPropertyFactory.getInstance().getDoubleProperty(prefix + ".triggeringLoadPerServerThreshold", 0.2d);
+        triggeringBlackoutPercentage = DynamicPropertyFactory.getInstance().getDoubleProperty(prefix + ".avoidZoneWithBlackoutPercetage", 0.99999d);
+    }
+
+    /**
+     * Computes the available zones once: the servers of an unknown zone or without zone are accepted.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public PreparedServerPredicate prepare(Object loadBalancerKey) {
+        LoadBalancerStats stats = getLBStats();
+        if (!ENABLED.get() || stats == null) {
+            return ANY;
+        }
+        Set<String> zones = stats.getAvailableZones();
+        if (zones.size() <= 1) {
+            return ANY;
+        }
+        Set<String> available = ZoneAvoidanceRule.getAvailableZones(stats, triggeringLoad.get(), triggeringBlackoutPercentage.get());
+        log.debug("Available zones: {}", available);
+        return server -> {
+            String zone = server.getZone();
+            return zone == null || !zones.contains(zone) || available != null && available.contains(zone);
+        };
+    }
+}
@@ -25,7 +25,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
-import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.peek;
 
 /**
  * Abstract {@link ExecutionContext} Copy to a target object.
@@ -75,7 +75,7 @@ public class AbstractExecutionContextCopy<T> {
      */
     protected Set<Map.Entry<String, String>> copy(T t) {
         Set<Map.Entry<String, String>> result = new HashSet<>();
-        copy(t, current().entrySet(), result);
+        copy(t, peek().entrySet(), result);
         copy(t, extraStaticEntries.entrySet(), result);
         return result;
     }
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.propagator;
+
+/**
+ * The action taken by the {@link EntriesLimiter} on an inbound entry exceeding a limit.
+ *
+ * @author Nadim Benabdenbi
+ */
+public enum EntriesLimitPolicy {
+    /**
+     * Values exceeding the byte limits are truncated to fit: entries exceeding the count limit or without any byte left are dropped.
+     */
+    TRUNCATE,
+    /**
+     * Entries exceeding a limit are dropped: the other entries are kept.
+     */
+    DROP,
+    /**
+     * Any entry exceeding a limit rejects all the inbound entries.
+     */
+    REJECT
+}
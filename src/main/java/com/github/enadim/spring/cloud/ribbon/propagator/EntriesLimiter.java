@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.propagator;
+
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.validation.constraints.NotNull;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounds the entries copied from an inbound transport to the {@link ExecutionContext}: maximum entries, per value bytes and total bytes.
+ * <p>Bytes are counted on the UTF-8 encoding, the total including the keys.
+ * The entries exceeding a limit are handled according to the {@link EntriesLimitPolicy} and accounted in the limiter counters.
+ *
+ * @author Nadim Benabdenbi
+ */
+@Slf4j
+@Getter
+public class EntriesLimiter {
+    /**
+     * The limiter that admits any entry.
+     */
+    public static final EntriesLimiter UNBOUNDED = new EntriesLimiter(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, EntriesLimitPolicy.DROP);
+
+    /**
+     * The maximum number of entries.
+     */
+    private final int maxEntries;
+    /**
+     * The maximum bytes of a value.
+     */
+    private final int maxValueBytes;
+    /**
+     * The maximum bytes of all the keys and values.
+     */
+    private final int maxTotalBytes;
+    /**
+     * The policy applied to the entries exceeding a limit.
+     */
+    private final EntriesLimitPolicy policy;
+    /**
+     * Whether any limit is set: the unbounded limiter admits the entries without counting their bytes.
+     */
+    private final boolean bounded;
+    /**
+     * The count of entries that were not admitted.
+     */
+    private final LongAdder rejectedEntries = new LongAdder();
+    /**
+     * The count of admitted entries with a truncated value.
+     */
+    private final LongAdder truncatedEntries = new LongAdder();
+
+    /**
+     * Sole constructor.
+     *
+     * @param maxEntries    the maximum number of entries.
+     * @param maxValueBytes the maximum bytes of a value.
+     * @param maxTotalBytes the maximum bytes of all the keys and values.
+     * @param policy        the policy applied to the entries exceeding a limit.
+     */
+    public EntriesLimiter(int maxEntries, int maxValueBytes, int maxTotalBytes, @NotNull EntriesLimitPolicy policy) {
+        this.maxEntries = maxEntries;
+        this.maxValueBytes = maxValueBytes;
+        this.maxTotalBytes = maxTotalBytes;
+        this.policy = policy;
+        this.bounded = maxEntries < Integer.MAX_VALUE || maxValueBytes < Integer.MAX_VALUE || maxTotalBytes < Integer.MAX_VALUE;
+    }
+
+    /**
+     * Limits the inbound entries in place: exceeding entries are removed or truncated according to the policy.
+     *
+     * @param entries the inbound entries in arrival order.
+     * @return the admitted entries.
+     */
+    public Map<String, String> limit(@NotNull Map<String, String> entries) {
+        if (!bounded) {
+            return entries;
+        }
+        int count = 0;
+        long total = 0;
+        Iterator<Entry<String, String>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry<String, String> entry = iterator.next();
+            int keyBytes = utf8Length(entry.getKey());
+            int valueBytes = utf8Length(entry.getValue());
+            if (count < maxEntries && valueBytes <= maxValueBytes && total + keyBytes + valueBytes <= maxTotalBytes) {
+                count++;
+                total += keyBytes + valueBytes;
+            } else if (policy == EntriesLimitPolicy.REJECT) {
+                log.debug("Inbound entries rejected on entry [{}] exceeding the limits.", entry.getKey());
+                rejectedEntries.add(entries.size());
+                entries.clear();
+                return entries;
+            } else {
+                long budget = Math.min(maxValueBytes, maxTotalBytes - total - keyBytes);
+                if (policy == EntriesLimitPolicy.TRUNCATE && count < maxEntries && budget > 0) {
+                    String truncated = truncate(entry.getValue(), (int) budget);
+                    entry.setValue(truncated);
+                    truncatedEntries.increment();
+                    count++;
+                    total += keyBytes + utf8Length(truncated);
+                    log.debug("Inbound entry [{}] truncated to {} bytes.", entry.getKey(), budget);
+                } else {
+                    iterator.remove();
+                    rejectedEntries.increment();
+                    log.debug("Inbound entry [{}] dropped as exceeding the limits.", entry.getKey());
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Counts the UTF-8 encoded bytes of a string without encoding it.
+     *
+     * @param value the string.
+     * @return the UTF-8 length: 0 for {@code null}.
+     */
+    public static int utf8Length(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int length = 0;
+        int index = 0;
+        while (index < value.length()) {
+            int bytes = utf8Length(value, index);
+            length += bytes;
+            index += bytes == 4 ? 2 : 1;
+        }
+        return length;
+    }
+
+    /**
+     * Truncates a string to a maximum UTF-8 length without splitting a character.
+     *
+     * @param value    the non null string to truncate.
+     * @param maxBytes the maximum UTF-8 length.
+     * @return the longest prefix fitting the maximum length.
+     */
+    static String truncate(String value, int maxBytes) {
+        int length = 0;
+        int end = 0;
+        while (end < value.length()) {
+            int bytes = utf8Length(value, end);
+            if (length + bytes > maxBytes) {
+                break;
+            }
+            length += bytes;
+            end += bytes == 4 ? 2 : 1;
+        }
+        return value.substring(0, end);
+    }
+
+    /**
+     * Counts the UTF-8 encoded bytes of the character at the given index: a surrogate pair counts for 4 bytes.
+     *
+     * @param value the string.
+     * @param index the character index.
+     * @return the UTF-8 length of the character.
+     */
+    private static int utf8Length(String value, int index) {
+        char c = value.charAt(index);
+        if (c < 0x80) {
+            return 1;
+        } else if (c < 0x800) {
+            return 2;
+        } else if (Character.isHighSurrogate(c) && index + 1 < value.length() && Character.isLowSurrogate(value.charAt(index + 1))) {
+            return 4;
+        }
+        return 3;
+    }
+}
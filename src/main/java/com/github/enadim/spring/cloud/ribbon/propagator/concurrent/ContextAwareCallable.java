@@ -16,16 +16,20 @@
 package com.github.enadim.spring.cloud.ribbon.propagator.concurrent;
 
 import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextFork;
+import com.github.enadim.spring.cloud.ribbon.context.Scope;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
-import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
-import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.switchTo;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.attach;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.capture;
 
 /**
  * Copies current {@link ExecutionContext} to delegate callable.
+ * <p>The copied context is attached to the executing thread during {@link #call()} only: the previous one is restored afterwards.
  *
  * @author Nadim Benabdenbi
  */
@@ -40,13 +44,30 @@ public class ContextAwareCallable<T> implements Callable<T> {
     private final ExecutionContext context;
 
     /**
-     * Sole Constructor: saves the current {@link ExecutionContext} for later {@link #call()} invocation.
+     * Saves the current {@link ExecutionContext} for later {@link #call()} invocation.
      *
      * @param delegate the delegate {@link Callable}
      */
     public ContextAwareCallable(Callable<T> delegate) {
+        this(delegate, capture());
+    }
+
+    /**
+     * Saves the provided {@link ExecutionContext} for later {@link #call()} invocation.
+     *
+     * @param delegate the delegate {@link Callable}
+     * @param context  the context to attach on {@link #call()}: typically a {@link ExecutionContextFork#branch()}.
+     */
+    public ContextAwareCallable(Callable<T> delegate, ExecutionContext context) {
         this.delegate = delegate;
-        context = current().copy();
+        this.context = context;
+    }
+
+    /**
+     * @return the context attached on {@link #call()}.
+     */
+    ExecutionContext getContext() {
+        return context;
     }
 
     /**
@@ -54,8 +75,9 @@ public class ContextAwareCallable<T> implements Callable<T> {
      */
     @Override
     public T call() throws Exception {
-        switchTo(context);
-        return delegate.call();
+        try (Scope scope = attach(context)) {
+            return delegate.call();
+        }
     }
 
     /**
@@ -79,4 +101,16 @@ public class ContextAwareCallable<T> implements Callable<T> {
     public static <T> Collection<Callable<T>> wrap(Collection<? extends Callable<T>> tasks) {
         return tasks.stream().map(ContextAwareCallable::wrap).collect(Collectors.toList());
     }
+
+    /**
+     * Wraps the a callable's collection to a {@link ContextAwareCallable} list each attaching a new branch of the fork.
+     *
+     * @param tasks the callable's collection to wrap
+     * @param fork  the execution context fork.
+     * @param <T>   the callable result type
+     * @return The {@link ContextAwareCallable} instances over #tasks in the same order
+     */
+    public static <T> List<ContextAwareCallable<T>> wrap(Collection<? extends Callable<T>> tasks, ExecutionContextFork fork) {
+        return tasks.stream().map(x -> new ContextAwareCallable<T>(x, fork.branch())).collect(Collectors.toList());
+    }
 }
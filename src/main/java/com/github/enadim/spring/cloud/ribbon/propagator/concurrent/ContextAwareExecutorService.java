@@ -16,6 +16,7 @@
 package com.github.enadim.spring.cloud.ribbon.propagator.concurrent;
 
 import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextFork;
 
 import javax.validation.constraints.NotNull;
 import java.util.Collection;
@@ -27,6 +28,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.fork;
 import static com.github.enadim.spring.cloud.ribbon.propagator.concurrent.ContextAwareCallable.wrap;
 
 /**
@@ -116,19 +118,37 @@ public class ContextAwareExecutorService extends ContextAwareExecutor implements
 
     /**
      * {@inheritDoc}
+     * <p>Each task runs on its own branch of the current context: the branches writes are merged back on completion.
+     *
+     * @see ExecutionContextFork
      */
     @Override
     public final <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
-        return delegate.invokeAll(wrap(tasks));
+        ExecutionContextFork fork = fork();
+        List<Future<T>> futures = delegate.invokeAll(wrap(tasks, fork));
+        fork.join();
+        return futures;
     }
 
     /**
      * {@inheritDoc}
+     * <p>Each task runs on its own branch of the current context: the writes of the tasks that were not cancelled are merged back on completion.
+     *
+     * @see ExecutionContextFork
      */
     @Override
     public final <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks,
                                                long timeout, TimeUnit unit) throws InterruptedException {
-        return delegate.invokeAll(wrap(tasks), timeout, unit);
+        ExecutionContextFork fork = fork();
+        List<ContextAwareCallable<T>> branches = wrap(tasks, fork);
+        List<Future<T>> futures = delegate.invokeAll(branches, timeout, unit);
+        for (int i = 0; i < futures.size(); i++) {
+            if (futures.get(i).isCancelled()) {
+                fork.discard(branches.get(i).getContext());
+            }
+        }
+        fork.join();
+        return futures;
     }
 
     /**
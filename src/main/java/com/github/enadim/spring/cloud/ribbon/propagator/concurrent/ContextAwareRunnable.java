@@ -16,12 +16,15 @@
 package com.github.enadim.spring.cloud.ribbon.propagator.concurrent;
 
 import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextFork;
+import com.github.enadim.spring.cloud.ribbon.context.Scope;
 
-import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
-import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.switchTo;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.attach;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.capture;
 
 /**
  * Copies current {@link ExecutionContext} to delegate runnable.
+ * <p>The copied context is attached to the executing thread during {@link #run()} only: the previous one is restored afterwards.
  *
  * @author Nadim Benabdenbi
  */
@@ -36,13 +39,23 @@ public class ContextAwareRunnable implements Runnable {
     private final ExecutionContext context;
 
     /**
-     * Sole constructor: saves the current {@link ExecutionContext} for later {@link #run()} invocation.
+     * Saves the current {@link ExecutionContext} for later {@link #run()} invocation.
      *
      * @param delegate the delegate {@link Runnable}
      */
     public ContextAwareRunnable(Runnable delegate) {
+        this(delegate, capture());
+    }
+
+    /**
+     * Saves the provided {@link ExecutionContext} for later {@link #run()} invocation.
+     *
+     * @param delegate the delegate {@link Runnable}
+     * @param context  the context to attach on {@link #run()}: typically a {@link ExecutionContextFork#branch()}.
+     */
+    public ContextAwareRunnable(Runnable delegate, ExecutionContext context) {
         this.delegate = delegate;
-        context = current().copy();
+        this.context = context;
     }
 
     /**
@@ -50,8 +63,9 @@ public class ContextAwareRunnable implements Runnable {
      */
     @Override
     public void run() {
-        switchTo(context);
-        delegate.run();
+        try (Scope scope = attach(context)) {
+            delegate.run();
+        }
     }
 
     /**
@@ -63,4 +77,15 @@ public class ContextAwareRunnable implements Runnable {
     public static Runnable wrap(Runnable runnable) {
         return new ContextAwareRunnable(runnable);
     }
+
+    /**
+     * Wraps a Runnable to a {@link ContextAwareRunnable} attaching the provided context.
+     *
+     * @param runnable the runnable to wrap
+     * @param context  the context to attach: typically a {@link ExecutionContextFork#branch()}.
+     * @return the instance of {@link ContextAwareRunnable} over the runnable
+     */
+    public static Runnable wrap(Runnable runnable, ExecutionContext context) {
+        return new ContextAwareRunnable(runnable, context);
+    }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.propagator.concurrent;
+
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextFork;
+import com.github.enadim.spring.cloud.ribbon.context.Scope;
+
+import java.util.function.Supplier;
+
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.attach;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.capture;
+
+/**
+ * Copies current {@link ExecutionContext} to delegate supplier: mainly intended for {@link java.util.concurrent.CompletableFuture#supplyAsync(Supplier)}.
+ * <p>The copied context is attached to the executing thread during {@link #get()} only: the previous one is restored afterwards.
+ *
+ * @author Nadim Benabdenbi
+ */
+public class ContextAwareSupplier<T> implements Supplier<T> {
+    /**
+     * The delegate supplier.
+     */
+    private final Supplier<T> delegate;
+    /**
+     * the execution context to attach.
+     */
+    private final ExecutionContext context;
+
+    /**
+     * Saves the current {@link ExecutionContext} for later {@link #get()} invocation.
+     *
+     * @param delegate the delegate {@link Supplier}
+     */
+    public ContextAwareSupplier(Supplier<T> delegate) {
+        this(delegate, capture());
+    }
+
+    /**
+     * Saves the provided {@link ExecutionContext} for later {@link #get()} invocation.
+     *
+     * @param delegate the delegate {@link Supplier}
+     * @param context  the context to attach on {@link #get()}: typically a {@link ExecutionContextFork#branch()}.
+     */
+    public ContextAwareSupplier(Supplier<T> delegate, ExecutionContext context) {
+        this.delegate = delegate;
+        this.context = context;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get() {
+        try (Scope scope = attach(context)) {
+            return delegate.get();
+        }
+    }
+
+    /**
+     * Wraps a supplier to a {@link ContextAwareSupplier}
+     *
+     * @param supplier the supplier to wrap
+     * @param <T>      the supplied result type
+     * @return The {@link ContextAwareSupplier} instance over #supplier
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> supplier) {
+        return new ContextAwareSupplier<>(supplier);
+    }
+
+    /**
+     * Wraps a supplier to a {@link ContextAwareSupplier} attaching the provided context.
+     *
+     * @param supplier the supplier to wrap
+     * @param context  the context to attach: typically a {@link ExecutionContextFork#branch()}.
+     * @param <T>      the supplied result type
+     * @return The {@link ContextAwareSupplier} instance over #supplier
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> supplier, ExecutionContext context) {
+        return new ContextAwareSupplier<>(supplier, context);
+    }
+}
@@ -35,6 +35,7 @@ import static com.github.enadim.spring.cloud.ribbon.propagator.concurrent.Contex
 
 /**
  * Preserves the {@link ExecutionContext} on async {@link Hystrix} commands: see <a href="https://github.com/Netflix/Hystrix/wiki/Plugins#concurrency-strategy)">Histrix Wiki</a>..
+ * <p>The context is attached to the Hystrix thread for the command execution only: the previous one is restored afterwards.
  *
  * @see ContextAwareCallable
  */
@@ -16,6 +16,7 @@
 package com.github.enadim.spring.cloud.ribbon.propagator.jms;
 
 import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimiter;
 import com.github.enadim.spring.cloud.ribbon.propagator.Filter;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -23,9 +24,9 @@ import lombok.extern.slf4j.Slf4j;
 
 import javax.jms.JMSException;
 import javax.jms.Message;
-import java.util.ArrayList;
 import java.util.Enumeration;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
 import static java.util.Collections.list;
@@ -49,7 +50,22 @@ public abstract class AbstractPreservesMessageProperties {
     private final MessagePropertyEncoder encoder;
 
     /**
-     * Copies message propagationProperties to the current {@link ExecutionContext}.
+     * The inbound entries limiter.
+     */
+    private final EntriesLimiter limiter;
+
+    /**
+     * Constructor without inbound entries limits.
+     *
+     * @param filter  the message property name filter.
+     * @param encoder the message property encoder.
+     */
+    public AbstractPreservesMessageProperties(Filter<String> filter, MessagePropertyEncoder encoder) {
+        this(filter, encoder, EntriesLimiter.UNBOUNDED);
+    }
+
+    /**
+     * Copies message propagationProperties to the current {@link ExecutionContext} within the {@link #limiter} bounds.
      *
      * @param message the message to process.
      * @return the same message after process
@@ -57,11 +73,12 @@ public abstract class AbstractPreservesMessageProperties {
     protected Message copyFromMessage(Message message) {
         if (message != null) {
             try {
-                ExecutionContext context = current();
-                List<String> eligiblePropertyNames = new ArrayList<>();
+                Map<String, String> eligibleProperties = new LinkedHashMap<>();
                 list((Enumeration<String>) message.getPropertyNames()).stream()
-                        .forEach(x -> copy(context, message, x, eligiblePropertyNames));
-                log.trace("Message Properties copied {}", eligiblePropertyNames);
+                        .forEach(x -> collect(message, x, eligibleProperties));
+                ExecutionContext context = current();
+                limiter.limit(eligibleProperties).forEach(context::put);
+                log.trace("Message Properties copied {}", eligibleProperties.keySet());
             } catch (JMSException e) {
                 log.debug("Failed to copy message properties", e);
             }
@@ -70,20 +87,17 @@ public abstract class AbstractPreservesMessageProperties {
     }
 
     /**
-     * Copies the message property to the current execution context. failing silently when an exception is thrown.
+     * Collects the message property when eligible. failing silently when an exception is thrown.
      *
-     * @param context      the ribbon context
      * @param message      the jms message
      * @param propertyName the property name to copy
-     * @param collected    the propagationProperties that have been copied
+     * @param collected    the eligible properties by decoded name
      */
-    private void copy(ExecutionContext context, Message message, String propertyName, List<String> collected) {
+    private void collect(Message message, String propertyName, Map<String, String> collected) {
         try {
             String decoded = encoder.decode(propertyName);
             if (filter.accept(decoded)) {
-                String value = message.getStringProperty(propertyName);
-                context.put(decoded, value);
-                collected.add(decoded);
+                collected.put(decoded, message.getStringProperty(propertyName));
             }
         } catch (JMSException e) {
             log.debug("Failed to copy message property [{}]", propertyName);
@@ -16,6 +16,7 @@
 package com.github.enadim.spring.cloud.ribbon.propagator.jms;
 
 import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimiter;
 import com.github.enadim.spring.cloud.ribbon.propagator.Filter;
 import lombok.AllArgsConstructor;
 
@@ -57,12 +58,32 @@ public class PreservesMessagePropertiesConnectionAdapter implements Connection {
      */
     private final MessagePropertyEncoder encoder;
 
+    /**
+     * The inbound entries limiter.
+     */
+    private final EntriesLimiter limiter;
+
+    /**
+     * Constructor without inbound entries limits.
+     *
+     * @param delegate           the delegate connection.
+     * @param filter             the context entry key or message property name filter.
+     * @param extraStaticEntries the extra static entries to copy.
+     * @param encoder            the message property encoder.
+     */
+    public PreservesMessagePropertiesConnectionAdapter(Connection delegate,
+                                                       Filter<String> filter,
+                                                       Map<String, String> extraStaticEntries,
+                                                       MessagePropertyEncoder encoder) {
+        this(delegate, filter, extraStaticEntries, encoder, EntriesLimiter.UNBOUNDED);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public Session createSession() throws JMSException {
-        return new PreservesMessagePropertiesSessionAdapter(delegate.createSession(), filter, extraStaticEntries, encoder);
+        return new PreservesMessagePropertiesSessionAdapter(delegate.createSession(), filter, extraStaticEntries, encoder, limiter);
     }
 
     /**
@@ -70,7 +91,7 @@ public class PreservesMessagePropertiesConnectionAdapter implements Connection {
      */
     @Override
     public Session createSession(int sessionMode) throws JMSException {
-        return new PreservesMessagePropertiesSessionAdapter(delegate.createSession(sessionMode), filter, extraStaticEntries, encoder);
+        return new PreservesMessagePropertiesSessionAdapter(delegate.createSession(sessionMode), filter, extraStaticEntries, encoder, limiter);
     }
 
     /**
@@ -78,7 +99,7 @@ public class PreservesMessagePropertiesConnectionAdapter implements Connection {
      */
     @Override
     public Session createSession(boolean transacted, int acknowledgeMode) throws JMSException {
-        return new PreservesMessagePropertiesSessionAdapter(delegate.createSession(transacted, acknowledgeMode), filter, extraStaticEntries, encoder);
+        return new PreservesMessagePropertiesSessionAdapter(delegate.createSession(transacted, acknowledgeMode), filter, extraStaticEntries, encoder, limiter);
     }
 
     /**
@@ -16,6 +16,7 @@
 package com.github.enadim.spring.cloud.ribbon.propagator.jms;
 
 import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimiter;
 import com.github.enadim.spring.cloud.ribbon.propagator.Filter;
 import lombok.AllArgsConstructor;
 
@@ -52,6 +53,26 @@ public class PreservesMessagePropertiesConnectionFactoryAdapter implements Conne
      */
     private final MessagePropertyEncoder encoder;
 
+    /**
+     * The inbound entries limiter.
+     */
+    private final EntriesLimiter limiter;
+
+    /**
+     * Constructor without inbound entries limits.
+     *
+     * @param delegate           the delegate connection factory.
+     * @param filter             the context entry key or message property name filter.
+     * @param extraStaticEntries the extra static entries to copy.
+     * @param encoder            the message property encoder.
+     */
+    public PreservesMessagePropertiesConnectionFactoryAdapter(ConnectionFactory delegate,
+                                                              Filter<String> filter,
+                                                              Map<String, String> extraStaticEntries,
+                                                              MessagePropertyEncoder encoder) {
+        this(delegate, filter, extraStaticEntries, encoder, EntriesLimiter.UNBOUNDED);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -89,7 +110,7 @@ public class PreservesMessagePropertiesConnectionFactoryAdapter implements Conne
      */
     @Override
     public Connection createConnection() throws JMSException {
-        return new PreservesMessagePropertiesConnectionAdapter(delegate.createConnection(), filter, extraStaticEntries, encoder);
+        return new PreservesMessagePropertiesConnectionAdapter(delegate.createConnection(), filter, extraStaticEntries, encoder, limiter);
     }
 
     /**
@@ -97,6 +118,6 @@ public class PreservesMessagePropertiesConnectionFactoryAdapter implements Conne
      */
     @Override
     public Connection createConnection(String userName, String password) throws JMSException {
-        return new PreservesMessagePropertiesConnectionAdapter(delegate.createConnection(userName, password), filter, extraStaticEntries, encoder);
+        return new PreservesMessagePropertiesConnectionAdapter(delegate.createConnection(userName, password), filter, extraStaticEntries, encoder, limiter);
     }
 }
@@ -16,6 +16,7 @@
 package com.github.enadim.spring.cloud.ribbon.propagator.jms;
 
 import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimiter;
 import com.github.enadim.spring.cloud.ribbon.propagator.Filter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -38,7 +39,7 @@ public class PreservesMessagePropertiesMessageConsumerAdapter extends AbstractPr
     private final MessageConsumer delegate;
 
     /**
-     * Sole constructor.
+     * Constructor without inbound entries limits.
      *
      * @param delegate the delegate message consumer.
      * @param filter   the message property name filter.
@@ -47,7 +48,22 @@ public class PreservesMessagePropertiesMessageConsumerAdapter extends AbstractPr
     public PreservesMessagePropertiesMessageConsumerAdapter(@NotNull MessageConsumer delegate,
                                                             @NotNull Filter<String> filter,
                                                             @NotNull MessagePropertyEncoder encoder) {
-        super(filter, encoder);
+        this(delegate, filter, encoder, EntriesLimiter.UNBOUNDED);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param delegate the delegate message consumer.
+     * @param filter   the message property name filter.
+     * @param encoder  the message property encoder.
+     * @param limiter  the inbound entries limiter.
+     */
+    public PreservesMessagePropertiesMessageConsumerAdapter(@NotNull MessageConsumer delegate,
+                                                            @NotNull Filter<String> filter,
+                                                            @NotNull MessagePropertyEncoder encoder,
+                                                            @NotNull EntriesLimiter limiter) {
+        super(filter, encoder, limiter);
         this.delegate = delegate;
     }
 
@@ -72,7 +88,7 @@ public class PreservesMessagePropertiesMessageConsumerAdapter extends AbstractPr
      */
     @Override
     public void setMessageListener(MessageListener listener) throws JMSException {
-        delegate.setMessageListener(new PreservesMessagePropertiesMessageListener(listener, getFilter(), getEncoder()));
+        delegate.setMessageListener(new PreservesMessagePropertiesMessageListener(listener, getFilter(), getEncoder(), getLimiter()));
     }
 
     /**
@@ -16,6 +16,8 @@
 package com.github.enadim.spring.cloud.ribbon.propagator.jms;
 
 import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.context.Scope;
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimiter;
 import com.github.enadim.spring.cloud.ribbon.propagator.Filter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -23,8 +25,11 @@ import javax.jms.Message;
 import javax.jms.MessageListener;
 import javax.validation.constraints.NotNull;
 
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.attachEmpty;
+
 /**
  * Message listener adapter that copies message propagationProperties to the current {@link ExecutionContext} pre-filtering property names using the provided {@link #filter}.
+ * <p>Each message is processed within an empty context attached to the listener thread: the previous one is restored afterwards.
  *
  * @author Nadim Benabdenbi
  */
@@ -36,7 +41,7 @@ public class PreservesMessagePropertiesMessageListener extends AbstractPreserves
     private final MessageListener delegate;
 
     /**
-     * Sole constructor.
+     * Constructor without inbound entries limits.
      *
      * @param delegate the delegate {@link MessageListener}.
      * @param filter   the message property name filter.
@@ -45,7 +50,22 @@ public class PreservesMessagePropertiesMessageListener extends AbstractPreserves
     public PreservesMessagePropertiesMessageListener(@NotNull MessageListener delegate,
                                                      @NotNull Filter<String> filter,
                                                      @NotNull MessagePropertyEncoder encoder) {
-        super(filter, encoder);
+        this(delegate, filter, encoder, EntriesLimiter.UNBOUNDED);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param delegate the delegate {@link MessageListener}.
+     * @param filter   the message property name filter.
+     * @param encoder  the message property encoder.
+     * @param limiter  the inbound entries limiter.
+     */
+    public PreservesMessagePropertiesMessageListener(@NotNull MessageListener delegate,
+                                                     @NotNull Filter<String> filter,
+                                                     @NotNull MessagePropertyEncoder encoder,
+                                                     @NotNull EntriesLimiter limiter) {
+        super(filter, encoder, limiter);
         this.delegate = delegate;
     }
 
@@ -54,6 +74,8 @@ public class PreservesMessagePropertiesMessageListener extends AbstractPreserves
      */
     @Override
     public void onMessage(Message message) {
-        delegate.onMessage(copyFromMessage(message));
+        try (Scope scope = attachEmpty()) {
+            delegate.onMessage(copyFromMessage(message));
+        }
     }
 }
@@ -17,6 +17,7 @@ package com.github.enadim.spring.cloud.ribbon.propagator.jms;
 
 import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
 import com.github.enadim.spring.cloud.ribbon.propagator.AbstractExecutionContextCopy;
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimiter;
 import com.github.enadim.spring.cloud.ribbon.propagator.Filter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -63,7 +64,12 @@ public class PreservesMessagePropertiesSessionAdapter extends AbstractExecutionC
     private final MessagePropertyEncoder encoder;
 
     /**
-     * Sole Constructor
+     * The inbound entries limiter.
+     */
+    private final EntriesLimiter limiter;
+
+    /**
+     * Constructor without inbound entries limits.
      *
      * @param delegate           the delegate session
      * @param filter             the context entry key filter
@@ -74,9 +80,27 @@ public class PreservesMessagePropertiesSessionAdapter extends AbstractExecutionC
                                                     @NotNull Filter<String> filter,
                                                     @NotNull Map<String, String> extraStaticEntries,
                                                     @NotNull MessagePropertyEncoder encoder) {
+        this(delegate, filter, extraStaticEntries, encoder, EntriesLimiter.UNBOUNDED);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param delegate           the delegate session
+     * @param filter             the context entry key filter
+     * @param extraStaticEntries The extra static entries to copy.
+     * @param encoder            the message property encoder.
+     * @param limiter            the inbound entries limiter.
+     */
+    public PreservesMessagePropertiesSessionAdapter(@NotNull Session delegate,
+                                                    @NotNull Filter<String> filter,
+                                                    @NotNull Map<String, String> extraStaticEntries,
+                                                    @NotNull MessagePropertyEncoder encoder,
+                                                    @NotNull EntriesLimiter limiter) {
         super(filter, (message, key, value) -> message.setStringProperty(encoder.encode(key), value), extraStaticEntries);
         this.delegate = delegate;
         this.encoder = encoder;
+        this.limiter = limiter;
     }
 
     /**
@@ -218,7 +242,7 @@ public class PreservesMessagePropertiesSessionAdapter extends AbstractExecutionC
      */
     @Override
     public void setMessageListener(MessageListener listener) throws JMSException {
-        delegate.setMessageListener(listener instanceof PreservesMessagePropertiesMessageListener ? listener : new PreservesMessagePropertiesMessageListener(listener, getFilter(), encoder));
+        delegate.setMessageListener(listener instanceof PreservesMessagePropertiesMessageListener ? listener : new PreservesMessagePropertiesMessageListener(listener, getFilter(), encoder, limiter));
     }
 
     /**
@@ -242,7 +266,7 @@ public class PreservesMessagePropertiesSessionAdapter extends AbstractExecutionC
      */
     @Override
     public MessageConsumer createConsumer(Destination destination) throws JMSException {
-        return new PreservesMessagePropertiesMessageConsumerAdapter(delegate.createConsumer(destination), getFilter(), encoder);
+        return new PreservesMessagePropertiesMessageConsumerAdapter(delegate.createConsumer(destination), getFilter(), encoder, limiter);
     }
 
     /**
@@ -250,7 +274,7 @@ public class PreservesMessagePropertiesSessionAdapter extends AbstractExecutionC
      */
     @Override
     public MessageConsumer createConsumer(Destination destination, String messageSelector) throws JMSException {
-        return new PreservesMessagePropertiesMessageConsumerAdapter(delegate.createConsumer(destination, messageSelector), getFilter(), encoder);
+        return new PreservesMessagePropertiesMessageConsumerAdapter(delegate.createConsumer(destination, messageSelector), getFilter(), encoder, limiter);
     }
 
     /**
@@ -258,7 +282,7 @@ public class PreservesMessagePropertiesSessionAdapter extends AbstractExecutionC
      */
     @Override
     public MessageConsumer createConsumer(Destination destination, String messageSelector, boolean noLocal) throws JMSException {
-        return new PreservesMessagePropertiesMessageConsumerAdapter(delegate.createConsumer(destination, messageSelector, noLocal), getFilter(), encoder);
+        return new PreservesMessagePropertiesMessageConsumerAdapter(delegate.createConsumer(destination, messageSelector, noLocal), getFilter(), encoder, limiter);
     }
 
     /**
@@ -335,31 +359,31 @@ public class PreservesMessagePropertiesSessionAdapter extends AbstractExecutionC
 
     @Override
     public MessageConsumer createSharedConsumer(Topic topic, String sharedSubscriptionName) throws JMSException {
-        return new PreservesMessagePropertiesMessageConsumerAdapter(delegate.createSharedConsumer(topic, sharedSubscriptionName), getFilter(), encoder);
+        return new PreservesMessagePropertiesMessageConsumerAdapter(delegate.createSharedConsumer(topic, sharedSubscriptionName), getFilter(), encoder, limiter);
     }
 
     @Override
     public MessageConsumer createSharedConsumer(Topic topic, String sharedSubscriptionName, String messageSelector) throws JMSException {
-        return new PreservesMessagePropertiesMessageConsumerAdapter(delegate.createSharedConsumer(topic, sharedSubscriptionName, messageSelector), getFilter(), encoder);
+        return new PreservesMessagePropertiesMessageConsumerAdapter(delegate.createSharedConsumer(topic, sharedSubscriptionName, messageSelector), getFilter(), encoder, limiter);
     }
 
     @Override
     public MessageConsumer createDurableConsumer(Topic topic, String name) throws JMSException {
-        return new PreservesMessagePropertiesMessageConsumerAdapter(delegate.createDurableConsumer(topic, name), getFilter(), encoder);
+        return new PreservesMessagePropertiesMessageConsumerAdapter(delegate.createDurableConsumer(topic, name), getFilter(), encoder, limiter);
     }
 
     @Override
     public MessageConsumer createDurableConsumer(Topic topic, String name, String messageSelector, boolean noLocal) throws JMSException {
-        return new PreservesMessagePropertiesMessageConsumerAdapter(delegate.createDurableConsumer(topic, name, messageSelector, noLocal), getFilter(), encoder);
+        return new PreservesMessagePropertiesMessageConsumerAdapter(delegate.createDurableConsumer(topic, name, messageSelector, noLocal), getFilter(), encoder, limiter);
     }
 
     @Override
     public MessageConsumer createSharedDurableConsumer(Topic topic, String name) throws JMSException {
-        return new PreservesMessagePropertiesMessageConsumerAdapter(delegate.createSharedDurableConsumer(topic, name), getFilter(), encoder);
+        return new PreservesMessagePropertiesMessageConsumerAdapter(delegate.createSharedDurableConsumer(topic, name), getFilter(), encoder, limiter);
     }
 
     @Override
     public MessageConsumer createSharedDurableConsumer(Topic topic, String name, String messageSelector) throws JMSException {
-        return new PreservesMessagePropertiesMessageConsumerAdapter(delegate.createSharedDurableConsumer(topic, name, messageSelector), getFilter(), encoder);
+        return new PreservesMessagePropertiesMessageConsumerAdapter(delegate.createSharedDurableConsumer(topic, name, messageSelector), getFilter(), encoder, limiter);
     }
 }
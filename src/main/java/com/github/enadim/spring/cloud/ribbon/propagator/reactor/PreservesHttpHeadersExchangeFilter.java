@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.propagator.reactor;
+
+import com.github.enadim.spring.cloud.ribbon.context.Scope;
+import com.github.enadim.spring.cloud.ribbon.propagator.AbstractExecutionContextCopy;
+import com.github.enadim.spring.cloud.ribbon.propagator.Filter;
+import com.github.enadim.spring.cloud.ribbon.propagator.PatternFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import javax.validation.constraints.NotNull;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * Copies the execution context stored in the Reactor subscriber context to the outbound web client request headers.
+ * <p>The exchange is deferred to the subscription and the execution context stays attached to the subscribing thread while the next filters run:
+ * a load balancer filter registered after this one selects the server with the request execution context.
+ *
+ * @author Nadim Benabdenbi
+ * @see ReactorExecutionContext
+ */
+@Slf4j
+public class PreservesHttpHeadersExchangeFilter extends AbstractExecutionContextCopy<ClientRequest.Builder>
+        implements ExchangeFilterFunction {
+    /**
+     * The url filter.
+     */
+    private final PatternFilter urlFilter;
+
+    /**
+     * Sole constructor.
+     *
+     * @param urlFilter          The url filter.
+     * @param filter             The context entry key filter.
+     * @param extraStaticEntries The extra static entries to copy.
+     */
+    public PreservesHttpHeadersExchangeFilter(@NotNull PatternFilter urlFilter,
+                                              @NotNull Filter<String> filter,
+                                              @NotNull Map<String, String> extraStaticEntries) {
+        super(filter, (builder, key, value) -> builder.header(key, value), extraStaticEntries);
+        this.urlFilter = urlFilter;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.subscriberContext().flatMap(x -> {
+            try (Scope scope = ReactorExecutionContext.attach(x)) {
+                return next.exchange(propagate(request));
+            }
+        });
+    }
+
+    /**
+     * Copies the attached execution context to the request headers when the request url is accepted.
+     *
+     * @param request the outbound request.
+     * @return the request to exchange.
+     */
+    private ClientRequest propagate(ClientRequest request) {
+        String url = request.url().toString();
+        if (urlFilter.accept(url)) {
+            ClientRequest.Builder builder = ClientRequest.from(request);
+            Set<Entry<String, String>> propagatedAttributes = copy(builder);
+            log.trace("Propagated outbound headers {} for url [{}].", propagatedAttributes, url);
+            return builder.build();
+        }
+        log.trace("Propagation disabled for url [{}]", url);
+        return request;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.propagator.reactor;
+
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimiter;
+import com.github.enadim.spring.cloud.ribbon.propagator.Filter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import javax.validation.constraints.NotNull;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.create;
+
+/**
+ * Copies the eligible inbound http request headers to a new {@link ExecutionContext} stored in the Reactor subscriber context.
+ * <p>Same filtering semantics as the servlet {@link com.github.enadim.spring.cloud.ribbon.propagator.servlet.PreservesHttpHeadersInterceptor}:
+ * the first value of each header accepted by the filter is kept within the limits of the {@link EntriesLimiter}.
+ *
+ * @author Nadim Benabdenbi
+ * @see ReactorExecutionContext
+ */
+@Slf4j
+public class PreservesHttpHeadersWebFilter implements WebFilter {
+    /**
+     * The request header names filter
+     */
+    private final Filter<String> filter;
+
+    /**
+     * The inbound entries limiter.
+     */
+    private final EntriesLimiter limiter;
+
+    /**
+     * Sole Constructor.
+     *
+     * @param filter  The request header names filter.
+     * @param limiter The inbound entries limiter.
+     */
+    public PreservesHttpHeadersWebFilter(@NotNull Filter<String> filter, @NotNull EntriesLimiter limiter) {
+        this.filter = filter;
+        this.limiter = limiter;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ExecutionContext context = create();
+        try {
+            HttpHeaders headers = exchange.getRequest().getHeaders();
+            Map<String, String> eligibleHeaders = new LinkedHashMap<>();
+            headers.keySet()
+                    .stream()
+                    .filter(filter::accept)
+                    .forEach(x -> eligibleHeaders.put(x, headers.getFirst(x)));
+            limiter.limit(eligibleHeaders).forEach(context::put);
+            log.trace("Propagated inbound headers {} from url=[{}].", context.entrySet(), exchange.getRequest().getURI());
+        } catch (Exception e) {
+            log.debug("Failed to propagate http request header.", e);
+        }
+        ExecutionContext propagated = context.enableConcurrency();
+        return chain.filter(exchange).subscriberContext(x -> ReactorExecutionContext.put(x, propagated));
+    }
+}
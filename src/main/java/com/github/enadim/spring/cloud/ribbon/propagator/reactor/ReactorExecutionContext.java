@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.propagator.reactor;
+
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder;
+import com.github.enadim.spring.cloud.ribbon.context.Scope;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import javax.validation.constraints.NotNull;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.capture;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+
+/**
+ * Bridge between the {@link ExecutionContext} and the Reactor subscriber {@link Context}.
+ * <p>Non-blocking pipelines hop between threads: the execution context travels with the subscriber context instead of the thread local
+ * and is attached to the current thread only around the blocking sections (for example the ribbon server selection).
+ *
+ * @author Nadim Benabdenbi
+ */
+public final class ReactorExecutionContext {
+    /**
+     * The subscriber context key.
+     */
+    public static final Class<ExecutionContext> KEY = ExecutionContext.class;
+
+    /**
+     * utility class should not be instantiated
+     */
+    private ReactorExecutionContext() {
+    }
+
+    /**
+     * Stores the execution context in the subscriber context.
+     *
+     * @param context          the subscriber context.
+     * @param executionContext the execution context.
+     * @return the new subscriber context.
+     */
+    public static Context put(@NotNull Context context, @NotNull ExecutionContext executionContext) {
+        return context.put(KEY, executionContext);
+    }
+
+    /**
+     * Retrieves the execution context stored in the subscriber context.
+     *
+     * @param context the subscriber context.
+     * @return the stored execution context otherwise the current thread one.
+     */
+    public static ExecutionContext get(@NotNull Context context) {
+        ExecutionContext executionContext = context.getOrDefault(KEY, null);
+        return executionContext == null ? current() : executionContext;
+    }
+
+    /**
+     * Attaches the execution context stored in the subscriber context to the current thread until the returned scope is closed.
+     * <p>The current thread context is kept when none is stored.
+     *
+     * @param context the subscriber context.
+     * @return the attachment scope.
+     * @see ExecutionContextHolder#attach(ExecutionContext)
+     */
+    public static Scope attach(@NotNull Context context) {
+        return ExecutionContextHolder.attach(get(context));
+    }
+
+    /**
+     * Captures the current thread execution context into the subscriber context.
+     * <p>To be used with {@link Mono#subscriberContext(Function)} when a pipeline is assembled from a thread bound request.
+     *
+     * @return the subscriber context enrichment function.
+     */
+    public static Function<Context, Context> withCurrent() {
+        ExecutionContext captured = capture();
+        return x -> put(x, captured);
+    }
+
+    /**
+     * Runs a blocking call with the execution context of the subscriber attached to the current thread.
+     *
+     * @param call the blocking call.
+     * @param <T>  the result type.
+     * @return the result mono: empty when the call returns {@code null}.
+     */
+    public static <T> Mono<T> blocking(@NotNull Supplier<T> call) {
+        return Mono.subscriberContext().flatMap(x -> {
+            try (Scope scope = attach(x)) {
+                return Mono.justOrEmpty(call.get());
+            }
+        });
+    }
+}
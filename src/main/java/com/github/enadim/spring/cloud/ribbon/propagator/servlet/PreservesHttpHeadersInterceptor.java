@@ -16,6 +16,7 @@
 package com.github.enadim.spring.cloud.ribbon.propagator.servlet;
 
 import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimiter;
 import com.github.enadim.spring.cloud.ribbon.propagator.Filter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -26,13 +27,16 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.NotNull;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
 import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
 import static java.util.Collections.list;
 
 /**
- * Copies Http Headers to the current {@link ExecutionContext} pre-filtering the header names using the provided {@link #filter}.
+ * Copies Http Headers to the current {@link ExecutionContext} pre-filtering the header names using the provided {@link #filter}
+ * within the bounds of the provided {@link #limiter}.
  *
  * @author Nadim Benabdenbi
  */
@@ -45,12 +49,28 @@ public class PreservesHttpHeadersInterceptor implements HandlerInterceptor {
     private final Filter<String> filter;
 
     /**
-     * Sole Constructor.
+     * The inbound entries limiter.
+     */
+    private final EntriesLimiter limiter;
+
+    /**
+     * Constructor without inbound entries limits.
      *
      * @param filter The request header names filter.
      */
     public PreservesHttpHeadersInterceptor(@NotNull Filter<String> filter) {
+        this(filter, EntriesLimiter.UNBOUNDED);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param filter  The request header names filter.
+     * @param limiter The inbound entries limiter.
+     */
+    public PreservesHttpHeadersInterceptor(@NotNull Filter<String> filter, @NotNull EntriesLimiter limiter) {
         this.filter = filter;
+        this.limiter = limiter;
     }
 
 
@@ -65,10 +85,12 @@ public class PreservesHttpHeadersInterceptor implements HandlerInterceptor {
             ExecutionContext context = current();
             Enumeration<String> headerNames = request.getHeaderNames();
             if (headerNames != null) {
+                Map<String, String> eligibleHeaders = new LinkedHashMap<>();
                 list(headerNames)
                         .stream()
                         .filter(filter::accept)
-                        .forEach(x -> context.put(x, request.getHeader(x)));
+                        .forEach(x -> eligibleHeaders.put(x, request.getHeader(x)));
+                limiter.limit(eligibleHeaders).forEach(context::put);
             }
             log.trace("Propagated inbound headers {} from url=[{}].", context.entrySet(), request.getRequestURL());
         } catch (Exception e) {
@@ -16,6 +16,8 @@
 package com.github.enadim.spring.cloud.ribbon.propagator.stomp;
 
 import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.context.Scope;
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimiter;
 import com.github.enadim.spring.cloud.ribbon.propagator.Filter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.simp.stomp.StompFrameHandler;
@@ -23,15 +25,16 @@ import org.springframework.messaging.simp.stomp.StompHeaders;
 
 import javax.validation.constraints.NotNull;
 import java.lang.reflect.Type;
-import java.util.List;
-import java.util.Map.Entry;
-import java.util.stream.Collectors;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.attachEmpty;
 import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
-import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
 
 /**
- * Stomp frame handler adapter that copies stomp headers to the current {@link ExecutionContext} pre-filtering header names using the provided {@link #filter}.
+ * Stomp frame handler adapter that copies stomp headers to the current {@link ExecutionContext} pre-filtering header names using the provided {@link #filter}
+ * within the bounds of the provided {@link #limiter}.
+ * <p>Each frame is handled within an empty context attached to the handler thread: the previous one is restored afterwards.
  *
  * @author Nadim Benabdenbi
  */
@@ -45,16 +48,34 @@ public class PreservesHeadersStompFrameHandlerAdapter implements StompFrameHandl
      * The stomp header names filter.
      */
     private final Filter<String> filter;
+    /**
+     * The inbound entries limiter.
+     */
+    private final EntriesLimiter limiter;
 
     /**
-     * Sole constructor.
+     * Constructor without inbound entries limits.
      *
      * @param delegate the delegate {@link StompFrameHandler}
      * @param filter   the stomp header names filter.
      */
     public PreservesHeadersStompFrameHandlerAdapter(@NotNull StompFrameHandler delegate, @NotNull Filter<String> filter) {
+        this(delegate, filter, EntriesLimiter.UNBOUNDED);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param delegate the delegate {@link StompFrameHandler}
+     * @param filter   the stomp header names filter.
+     * @param limiter  the inbound entries limiter.
+     */
+    public PreservesHeadersStompFrameHandlerAdapter(@NotNull StompFrameHandler delegate,
+                                                    @NotNull Filter<String> filter,
+                                                    @NotNull EntriesLimiter limiter) {
         this.delegate = delegate;
         this.filter = filter;
+        this.limiter = limiter;
     }
 
     /**
@@ -70,13 +91,16 @@ public class PreservesHeadersStompFrameHandlerAdapter implements StompFrameHandl
      */
     @Override
     public void handleFrame(StompHeaders headers, Object payload) {
-        ExecutionContext context = current();
-        List<Entry<String, String>> eligibleHeaders = headers.toSingleValueMap().entrySet().stream()
-                .filter(x -> filter.accept(x.getKey()))
-                .collect(Collectors.toList());
-        eligibleHeaders.forEach(x -> context.put(x.getKey(), x.getValue()));
-        log.trace("Stomp Headers copied to execution context: {}.", eligibleHeaders);
-        delegate.handleFrame(headers, payload);
-        remove();
+        try (Scope scope = attachEmpty()) {
+            Map<String, String> eligibleHeaders = new LinkedHashMap<>();
+            headers.toSingleValueMap().forEach((key, value) -> {
+                if (filter.accept(key)) {
+                    eligibleHeaders.put(key, value);
+                }
+            });
+            limiter.limit(eligibleHeaders).forEach(current()::put);
+            log.trace("Stomp Headers copied to execution context: {}.", eligibleHeaders);
+            delegate.handleFrame(headers, payload);
+        }
     }
 }
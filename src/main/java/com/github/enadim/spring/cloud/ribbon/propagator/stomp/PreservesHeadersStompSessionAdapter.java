@@ -17,6 +17,7 @@ package com.github.enadim.spring.cloud.ribbon.propagator.stomp;
 
 import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
 import com.github.enadim.spring.cloud.ribbon.propagator.AbstractExecutionContextCopy;
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimiter;
 import com.github.enadim.spring.cloud.ribbon.propagator.Filter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.simp.stomp.StompFrameHandler;
@@ -37,9 +38,13 @@ public class PreservesHeadersStompSessionAdapter extends AbstractExecutionContex
      * the delegate {@link StompSession}.
      */
     private final StompSession delegate;
+    /**
+     * The inbound entries limiter.
+     */
+    private final EntriesLimiter limiter;
 
     /**
-     * Sole constructor.
+     * Constructor without inbound entries limits.
      *
      * @param delegate           the delegate stomp session.
      * @param filter             the context entry key filter.
@@ -48,8 +53,24 @@ public class PreservesHeadersStompSessionAdapter extends AbstractExecutionContex
     public PreservesHeadersStompSessionAdapter(@NotNull StompSession delegate,
                                                @NotNull Filter<String> filter,
                                                @NotNull Map<String, String> extraStaticEntries) {
+        this(delegate, filter, extraStaticEntries, EntriesLimiter.UNBOUNDED);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param delegate           the delegate stomp session.
+     * @param filter             the context entry key filter.
+     * @param extraStaticEntries The extra static entries to copy.
+     * @param limiter            the inbound entries limiter.
+     */
+    public PreservesHeadersStompSessionAdapter(@NotNull StompSession delegate,
+                                               @NotNull Filter<String> filter,
+                                               @NotNull Map<String, String> extraStaticEntries,
+                                               @NotNull EntriesLimiter limiter) {
         super(filter, StompHeaders::set, extraStaticEntries);
         this.delegate = delegate;
+        this.limiter = limiter;
     }
 
     /**
@@ -101,7 +122,7 @@ public class PreservesHeadersStompSessionAdapter extends AbstractExecutionContex
      */
     @Override
     public Subscription subscribe(String destination, StompFrameHandler handler) {
-        return delegate.subscribe(destination, new PreservesHeadersStompFrameHandlerAdapter(handler, getFilter()));
+        return delegate.subscribe(destination, new PreservesHeadersStompFrameHandlerAdapter(handler, getFilter(), limiter));
     }
 
     /**
@@ -109,7 +130,7 @@ public class PreservesHeadersStompSessionAdapter extends AbstractExecutionContex
      */
     @Override
     public Subscription subscribe(StompHeaders headers, StompFrameHandler handler) {
-        return delegate.subscribe(headers, new PreservesHeadersStompFrameHandlerAdapter(handler, getFilter()));
+        return delegate.subscribe(headers, new PreservesHeadersStompFrameHandlerAdapter(handler, getFilter(), limiter));
     }
 
     /**
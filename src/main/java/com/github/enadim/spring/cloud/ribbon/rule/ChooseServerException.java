@@ -15,11 +15,74 @@
  */
 package com.github.enadim.spring.cloud.ribbon.rule;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.function.Supplier;
+
 /**
  * Thrown when the rule can not choose any server.
+ * <p>The lazy variant is stackless and renders its message on first access: it can be preallocated and thrown repeatedly.
+ * The message is rendered before serialization.
  */
 public class ChooseServerException extends RuntimeException {
+    /**
+     * The serial version.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The lazy message: {@code null} when eagerly provided.
+     */
+    private final transient Supplier<String> lazyMessage;
+
+    /**
+     * The rendered lazy message.
+     */
+    private volatile String renderedMessage;
+
+    /**
+     * @param message the exception message.
+     */
     public ChooseServerException(String message) {
         super(message);
+        this.lazyMessage = null;
+    }
+
+    /**
+     * Creates a stackless exception without suppression rendering its message on first access.
+     *
+     * @param lazyMessage the message supplier.
+     */
+    public ChooseServerException(Supplier<String> lazyMessage) {
+        super(null, null, false, false);
+        this.lazyMessage = lazyMessage;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getMessage() {
+        String message = renderedMessage;
+        if (message != null) {
+            return message;
+        }
+        if (lazyMessage == null) {
+            return super.getMessage();
+        }
+        message = lazyMessage.get();
+        renderedMessage = message;
+        return message;
+    }
+
+    /**
+     * Renders the lazy message before writing the exception: the message supplier is not serializable.
+     *
+     * @param out the object output stream.
+     * @throws IOException on write failure.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        getMessage();
+        out.defaultWriteObject();
     }
 }
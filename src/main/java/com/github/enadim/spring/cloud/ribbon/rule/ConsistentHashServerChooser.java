@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import com.netflix.loadbalancer.AbstractLoadBalancer;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.LoadBalancerStats;
+import com.netflix.loadbalancer.Server;
+import lombok.Getter;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.peek;
+import static java.lang.String.format;
+
+/**
+ * Chooses the eligible server by rendezvous hashing of an execution context entry with bounded load.
+ * <p>Each eligible server is scored by hashing the entry value with the server id: the highest score wins,
+ * so that the same value keeps hitting the same server and only the values of a leaving server
+ * (or ~1/N of the values for a joining one) are remapped.
+ * <p>When the load balancer collects statistics, servers having reached {@code ceil(loadFactor * (active requests + 1) / servers)}
+ * active requests are skipped in favor of the next best score.
+ * <p>Delegates to the fallback chooser when the entry is missing from the execution context.
+ *
+ * @author Nadim Benabdenbi
+ */
+public class ConsistentHashServerChooser implements ServerChooser {
+    /**
+     * The execution context entry key.
+     */
+    @Getter
+    private final String key;
+
+    /**
+     * The bounded load factor: at least 1.
+     */
+    @Getter
+    private final double loadFactor;
+
+    /**
+     * The chooser applied when the entry is missing.
+     */
+    private final ServerChooser fallback;
+
+    /**
+     * Sole constructor.
+     *
+     * @param key        the execution context entry key.
+     * @param loadFactor the bounded load factor: at least 1.
+     * @param fallback   the chooser applied when the entry is missing.
+     * @throws IllegalArgumentException if {@code loadFactor} is lower than 1.
+     */
+    public ConsistentHashServerChooser(@NotNull String key, double loadFactor, @NotNull ServerChooser fallback) {
+        if (!(loadFactor >= 1)) {
+            throw new IllegalArgumentException(format("The consistent hash load factor [%s] should be at least 1.", loadFactor));
+        }
+        this.key = key;
+        this.loadFactor = loadFactor;
+        this.fallback = fallback;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Server choose(List<Server> eligible, ILoadBalancer loadBalancer) {
+        String value = peek().get(key);
+        if (value == null) {
+            return fallback.choose(eligible, loadBalancer);
+        }
+        long hash = mix(value.hashCode());
+        LoadBalancerStats stats = loadBalancer instanceof AbstractLoadBalancer
+                ? ((AbstractLoadBalancer) loadBalancer).getLoadBalancerStats()
+                : null;
+        return stats == null ? highestScore(eligible, hash) : highestScore(eligible, hash, stats);
+    }
+
+    /**
+     * @param eligible the eligible servers.
+     * @param hash     the entry value hash.
+     * @return the server with the highest score.
+     */
+    private static Server highestScore(List<Server> eligible, long hash) {
+        Server best = null;
+        long bestScore = 0;
+        for (int i = 0; i < eligible.size(); i++) {
+            Server server = eligible.get(i);
+            long score = score(hash, server);
+            if (best == null || score > bestScore) {
+                best = server;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param eligible the eligible servers.
+     * @param hash     the entry value hash.
+     * @param stats    the load balancer statistics.
+     * @return the server with the highest score among those under the load bound.
+     */
+    private Server highestScore(List<Server> eligible, long hash, LoadBalancerStats stats) {
+        long now = System.currentTimeMillis();
+        long total = 0;
+        for (int i = 0; i < eligible.size(); i++) {
+            total += stats.getSingleServerStat(eligible.get(i)).getActiveRequestsCount(now);
+        }
+        double bound = Math.ceil(loadFactor * (total + 1) / eligible.size());
+        Server best = null;
+        long bestScore = 0;
+        for (int i = 0; i < eligible.size(); i++) {
+            Server server = eligible.get(i);
+            long score = score(hash, server);
+            if ((best == null || score > bestScore) && stats.getSingleServerStat(server).getActiveRequestsCount(now) < bound) {
+                best = server;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param hash   the entry value hash.
+     * @param server the server.
+     * @return the rendezvous score of the server for the entry value.
+     */
+    static long score(long hash, Server server) {
+        return mix(hash ^ server.getId().hashCode() * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * The murmur3 64 bits finalizer.
+     *
+     * @param value the value to mix.
+     * @return the mixed value.
+     */
+    static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.DynamicServerListLoadBalancer;
+import com.netflix.loadbalancer.IPing;
+import com.netflix.loadbalancer.IRule;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerList;
+import com.netflix.loadbalancer.ServerListFilter;
+import com.netflix.loadbalancer.ServerListUpdater;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * {@link DynamicServerListLoadBalancer} sharing the unmodifiable view of the server list between the {@link #getAllServers()} calls.
+ * <p>The base load balancer wraps the server list on each call: the view is cached here until the server list is replaced
+ * so that {@link PredicateBasedRuleSupport#choose(Object)} does not allocate.
+ * <p>Diffs each new server list with a {@link ServerListDiff}: the {@link ServerListDeltaListener}s receive the added, removed and changed
+ * instances, including the zone and metadata changes that the {@link com.netflix.loadbalancer.ServerListChangeListener}s miss.
+ *
+ * @param <T> the server type.
+ * @author Nadim Benabdenbi
+ */
+public class DynamicServerListLoadBalancerSupport<T extends Server> extends DynamicServerListLoadBalancer<T> {
+    /**
+     * The cached server list view: {@code null} until the first call.
+     */
+    private volatile View allServers;
+
+    /**
+     * The server list diff: created on first use as the base constructor already registers the rule and updates the server list.
+     */
+    private ServerListDiff diff;
+
+    /**
+     * Sole constructor.
+     *
+     * @param config            the client config.
+     * @param rule              the load balancing rule.
+     * @param ping              the ping strategy.
+     * @param serverList        the server list.
+     * @param filter            the server list filter.
+     * @param serverListUpdater the server list updater.
+     */
+    public DynamicServerListLoadBalancerSupport(IClientConfig config, IRule rule, IPing ping, ServerList<T> serverList,
+                                                ServerListFilter<T> filter, ServerListUpdater serverListUpdater) {
+        super(config, rule, ping, serverList, filter, serverListUpdater);
+    }
+
+    /**
+     * Returns the cached view of the server list: a new view is created only when the server list was replaced.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public List<Server> getAllServers() {
+        List<Server> source = allServerList;
+        View view = allServers;
+        if (view == null || view.source != source) {
+            view = new View(source);
+            allServers = view;
+        }
+        return view.servers;
+    }
+
+    /**
+     * Diffs the new server list once set: the deltas carry the view returned by {@link #getAllServers()}.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public void setServersList(List lsrv) {
+        super.setServersList(lsrv);
+        diff().update(getAllServers());
+    }
+
+    /**
+     * Registers a server list delta listener: the listener first receives the current servers.
+     *
+     * @param listener the listener.
+     */
+    public void addServerListDeltaListener(@NotNull ServerListDeltaListener listener) {
+        diff().addListener(listener);
+    }
+
+    /**
+     * Unregisters a server list delta listener.
+     *
+     * @param listener the listener.
+     */
+    public void removeServerListDeltaListener(@NotNull ServerListDeltaListener listener) {
+        diff().removeListener(listener);
+    }
+
+    /**
+     * @return the server list diff.
+     */
+    private synchronized ServerListDiff diff() {
+        if (diff == null) {
+            diff = new ServerListDiff();
+        }
+        return diff;
+    }
+
+    /**
+     * Unmodifiable view of a server list.
+     */
+    private static final class View {
+        /**
+         * The viewed server list.
+         */
+        private final List<Server> source;
+
+        /**
+         * The unmodifiable view.
+         */
+        private final List<Server> servers;
+
+        /**
+         * @param source the viewed server list.
+         */
+        private View(List<Server> source) {
+            this.source = source;
+            this.servers = unmodifiableList(source);
+        }
+    }
+}
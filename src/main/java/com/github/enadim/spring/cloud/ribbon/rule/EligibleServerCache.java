@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.netflix.loadbalancer.Server;
+import lombok.Getter;
+
+import javax.validation.constraints.NotNull;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Caches the eligible servers by route until the server list changes.
+ * <p>A route is the load balancer key along with the values of the routing keys read from the execution context:
+ * the routing keys must cover all the context entries read by the rule predicate.
+ * The eligible servers are also assumed to depend only on the server list: predicates reading the server statistics
+ * (like the availability) are refreshed with the server list only.
+ * <p>The server list change is detected by identity: the cache is cleared whenever the load balancer returns another server list instance
+ * (see {@link DynamicServerListLoadBalancerSupport} that shares the same instance until the list is replaced).
+ * <p>The routes are looked up with a per thread probe: a hit is allocation free. When full, an arbitrary route is evicted on insertion:
+ * the insertions are serialized so that the cached routes never exceed the maximum.
+ *
+ * @author Nadim Benabdenbi
+ */
+public class EligibleServerCache {
+    /**
+     * The routing keys.
+     */
+    private final String[] keys;
+
+    /**
+     * The maximum cached routes.
+     */
+    @Getter
+    private final int maxSize;
+
+    /**
+     * The count of choices served by the cache.
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * The count of choices that evaluated the predicate.
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * The per thread lookup routes.
+     */
+    private final ThreadLocal<Route> probes;
+
+    /**
+     * The cached routes of the last server list.
+     */
+    private volatile Routes routes = new Routes(null);
+
+    /**
+     * Sole constructor.
+     *
+     * @param keys    the routing keys.
+     * @param maxSize the maximum cached routes: the last route is kept at least.
+     */
+    public EligibleServerCache(@NotNull List<String> keys, int maxSize) {
+        this.keys = keys.toArray(new String[keys.size()]);
+        this.maxSize = maxSize;
+        this.probes = ThreadLocal.withInitial(() -> new Route(new String[this.keys.length]));
+    }
+
+    /**
+     * @return the routing keys.
+     */
+    public List<String> getKeys() {
+        return unmodifiableList(Arrays.asList(keys));
+    }
+
+    /**
+     * Retrieves the cached eligible servers of a route.
+     *
+     * @param servers the load balancer servers.
+     * @param key     the load balancer key.
+     * @param context the execution context.
+     * @return the cached eligible servers when the route is cached for the same servers otherwise {@code null}.
+     */
+    public List<Server> get(@NotNull List<Server> servers, Object key, @NotNull ExecutionContext context) {
+        Routes current = routes;
+        List<Server> eligible = current.servers == servers ? current.eligible.get(probes.get().fill(key, context, keys)) : null;
+        if (eligible == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return eligible;
+    }
+
+    /**
+     * Caches the eligible servers of a route.
+     *
+     * @param servers  the load balancer servers.
+     * @param key      the load balancer key.
+     * @param context  the execution context.
+     * @param eligible the eligible servers: copied.
+     * @return the cached eligible servers.
+     */
+    public List<Server> put(@NotNull List<Server> servers, Object key, @NotNull ExecutionContext context, @NotNull List<Server> eligible) {
+        Routes current = routes;
+        if (current.servers != servers) {
+            current = new Routes(servers);
+            routes = current;
+        }
+        List<Server> copy = unmodifiableList(Arrays.asList(eligible.toArray(new Server[eligible.size()])));
+        Route route = probes.get().fill(key, context, keys).copy();
+        synchronized (current) {
+            Iterator<Route> iterator = current.eligible.keySet().iterator();
+            while (current.eligible.size() >= maxSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+            current.eligible.put(route, copy);
+        }
+        return copy;
+    }
+
+    /**
+     * @return the count of choices served by the cache.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the count of choices that evaluated the predicate.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * The cached routes of a server list.
+     */
+    private static final class Routes {
+        /**
+         * The server list.
+         */
+        private final List<Server> servers;
+
+        /**
+         * The eligible servers by route.
+         */
+        private final Map<Route, List<Server>> eligible = new ConcurrentHashMap<>();
+
+        /**
+         * @param servers the server list.
+         */
+        private Routes(List<Server> servers) {
+            this.servers = servers;
+        }
+    }
+
+    /**
+     * The load balancer key and the routing values: mutable for the lookups, immutable once cached.
+     */
+    static final class Route {
+        /**
+         * The routing values.
+         */
+        private final String[] values;
+
+        /**
+         * The load balancer key.
+         */
+        private Object key;
+
+        /**
+         * The hash code.
+         */
+        private int hash;
+
+        /**
+         * @param values the routing values.
+         */
+        Route(String[] values) {
+            this.values = values;
+        }
+
+        /**
+         * Fills the route from the execution context.
+         *
+         * @param key     the load balancer key.
+         * @param context the execution context.
+         * @param keys    the routing keys.
+         * @return this route.
+         */
+        Route fill(Object key, ExecutionContext context, String[] keys) {
+            this.key = key;
+            int h = Objects.hashCode(key);
+            for (int i = 0; i < keys.length; i++) {
+                values[i] = context.get(keys[i]);
+                h = 31 * h + Objects.hashCode(values[i]);
+            }
+            this.hash = h;
+            return this;
+        }
+
+        /**
+         * @return an immutable copy of this route.
+         */
+        Route copy() {
+            Route copy = new Route(values.clone());
+            copy.key = key;
+            copy.hash = hash;
+            return copy;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Route)) {
+                return false;
+            }
+            Route route = (Route) other;
+            return hash == route.hash && Objects.equals(key, route.key) && Arrays.equals(values, route.values);
+        }
+    }
+}
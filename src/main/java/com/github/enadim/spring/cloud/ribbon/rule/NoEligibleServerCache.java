@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.rule.EligibleServerCache.Route;
+import com.netflix.loadbalancer.Server;
+
+import javax.validation.constraints.NotNull;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Remembers the routes for which the rule found no eligible server until the server list changes.
+ * <p>A route is the load balancer key along with the values of the routing keys read from the execution context:
+ * the routing keys must cover all the context entries read by the rule predicate, and only them so that the per request entries
+ * (e.g. a correlation id) do not spread the same route over several slots.
+ * Each remembered route holds a preallocated stackless {@link ChooseServerException} that is thrown again without filtering the servers.
+ * <p>The server list change is detected by identity: the cache is cleared whenever the load balancer returns another server list instance
+ * (see {@link DynamicServerListLoadBalancerSupport} that shares the same instance until the list is replaced).
+ * <p>While no route is remembered the lookup costs a volatile read. The routes are looked up with a per thread probe: a hit is allocation free.
+ * Once full, the further routes share a single overflow exception.
+ *
+ * @author Nadim Benabdenbi
+ */
+public class NoEligibleServerCache {
+    /**
+     * The routing keys.
+     */
+    private final String[] keys;
+
+    /**
+     * The maximum remembered routes.
+     */
+    private final int maxRoutes;
+
+    /**
+     * The count of choices failed from the cache.
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * The per thread lookup routes.
+     */
+    private final ThreadLocal<Route> probes;
+
+    /**
+     * The exception shared by the routes beyond the maximum: {@code null} until the first overflow.
+     */
+    private volatile ChooseServerException overflow;
+
+    /**
+     * The remembered routes of the last server list.
+     */
+    private volatile Routes routes = new Routes(null);
+
+    /**
+     * Sole constructor.
+     *
+     * @param keys      the routing keys.
+     * @param maxRoutes the maximum remembered routes: further routes are evaluated on each choice.
+     */
+    public NoEligibleServerCache(@NotNull List<String> keys, int maxRoutes) {
+        this.keys = keys.toArray(new String[keys.size()]);
+        this.maxRoutes = maxRoutes;
+        this.probes = ThreadLocal.withInitial(() -> new Route(new String[this.keys.length]));
+    }
+
+    /**
+     * @return the routing keys.
+     */
+    public List<String> getKeys() {
+        return unmodifiableList(Arrays.asList(keys));
+    }
+
+    /**
+     * Retrieves the exception of a remembered route.
+     *
+     * @param servers the load balancer servers.
+     * @param key     the load balancer key.
+     * @param context the execution context.
+     * @return the preallocated exception when the route is remembered for the same servers otherwise {@code null}.
+     */
+    public ChooseServerException get(@NotNull List<Server> servers, Object key, @NotNull ExecutionContext context) {
+        Routes current = routes;
+        if (current.exceptions.isEmpty() || current.servers != servers) {
+            return null;
+        }
+        ChooseServerException exception = current.exceptions.get(probes.get().fill(key, context, keys));
+        if (exception != null) {
+            hits.increment();
+        }
+        return exception;
+    }
+
+    /**
+     * Remembers a route with no eligible server.
+     *
+     * @param servers the load balancer servers.
+     * @param key     the load balancer key.
+     * @param context the execution context.
+     * @param message the lazy exception message.
+     * @return the exception to throw: shared by the routes beyond the maximum.
+     */
+    public ChooseServerException put(@NotNull List<Server> servers, Object key, @NotNull ExecutionContext context, @NotNull Supplier<String> message) {
+        Routes current = routes;
+        if (current.servers != servers) {
+            current = new Routes(servers);
+            routes = current;
+        }
+        Route route = probes.get().fill(key, context, keys);
+        ChooseServerException exception = current.exceptions.get(route);
+        if (exception != null) {
+            return exception;
+        } else if (current.exceptions.size() >= maxRoutes) {
+            return overflow(message);
+        }
+        return current.exceptions.computeIfAbsent(route.copy(), x -> new ChooseServerException(message));
+    }
+
+    /**
+     * @param message the lazy exception message.
+     * @return the exception shared by the routes beyond the maximum.
+     */
+    private ChooseServerException overflow(Supplier<String> message) {
+        ChooseServerException exception = overflow;
+        if (exception == null) {
+            exception = new ChooseServerException(message);
+            overflow = exception;
+        }
+        return exception;
+    }
+
+    /**
+     * @return the count of choices failed from the cache.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * The remembered routes of a server list.
+     */
+    private static final class Routes {
+        /**
+         * The server list.
+         */
+        private final List<Server> servers;
+
+        /**
+         * The preallocated exceptions by route.
+         */
+        private final Map<Route, ChooseServerException> exceptions = new ConcurrentHashMap<>();
+
+        /**
+         * @param servers the server list.
+         */
+        private Routes(List<Server> servers) {
+            this.servers = servers;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import com.netflix.loadbalancer.AbstractLoadBalancer;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.LoadBalancerStats;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerStats;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples two distinct eligible servers at random and chooses the least loaded one.
+ * <p>The load is read from the {@link LoadBalancerStats} of the load balancer: the server with fewer active requests wins,
+ * the lower average response time breaks the ties.
+ * <p>Falls back to a single random choice when the load balancer does not collect statistics.
+ *
+ * @author Nadim Benabdenbi
+ */
+public class PowerOfTwoChoicesServerChooser implements ServerChooser {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Server choose(List<Server> eligible, ILoadBalancer loadBalancer) {
+        int size = eligible.size();
+        if (size == 1) {
+            return eligible.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        LoadBalancerStats stats = loadBalancer instanceof AbstractLoadBalancer
+                ? ((AbstractLoadBalancer) loadBalancer).getLoadBalancerStats()
+                : null;
+        return stats == null ? eligible.get(first) : leastLoaded(eligible.get(first), eligible.get(second), stats);
+    }
+
+    /**
+     * @param first  the first sampled server.
+     * @param second the second sampled server.
+     * @param stats  the load balancer statistics.
+     * @return the server with fewer active requests, or the lower average response time on equality.
+     */
+    private static Server leastLoaded(Server first, Server second, LoadBalancerStats stats) {
+        ServerStats firstStats = stats.getSingleServerStat(first);
+        ServerStats secondStats = stats.getSingleServerStat(second);
+        long now = System.currentTimeMillis();
+        int firstActive = firstStats.getActiveRequestsCount(now);
+        int secondActive = secondStats.getActiveRequestsCount(now);
+        if (firstActive != secondActive) {
+            return firstActive < secondActive ? first : second;
+        }
+        return firstStats.getResponseTimeAvg() <= secondStats.getResponseTimeAvg() ? first : second;
+    }
+}
@@ -15,18 +15,34 @@
  */
 package com.github.enadim.spring.cloud.ribbon.rule;
 
+import com.github.enadim.spring.cloud.ribbon.predicate.PreparableServerPredicate;
+import com.github.enadim.spring.cloud.ribbon.predicate.PreparedServerPredicate;
 import com.netflix.loadbalancer.AbstractServerPredicate;
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.ILoadBalancer;
 import com.netflix.loadbalancer.PredicateBasedRule;
 import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerListChangeListener;
+import lombok.Getter;
 import lombok.Setter;
 
 import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.List;
 
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.peek;
 import static java.lang.String.format;
 
 /**
  * Convenient support of predicate based rule.
  * <p>Defines a non final property predicate to satisfy the circular dependency between {@link PredicateBasedRule} and {@link AbstractServerPredicate}.
+ * <p>{@link PreparableServerPredicate} predicates read the execution context once per {@link #choose(Object)}
+ * and evaluate the bound {@link PreparedServerPredicate} against each server.
+ * <p>{@link ServerListDeltaListener}s are registered on the {@link DynamicServerListLoadBalancerSupport} server list deltas
+ * and {@link ServerListChangeListener} predicates on the {@link BaseLoadBalancer} server list changes otherwise.
+ * <p>The {@link ServerSubset} restricts the servers of the calling instance before the predicates.
+ * <p>The {@link ServerChooser} picks the server among the eligible ones: round robin by default.
+ * <p>The {@link SlowStart} ramps up the share of the newly registered servers.
  *
  * @author Nadim Benabdenbi
  */
@@ -40,9 +56,48 @@ public class PredicateBasedRuleSupport extends PredicateBasedRule {
     /**
      * the delegate predicate.
      */
-    @Setter
     private AbstractServerPredicate predicate;
 
+    /**
+     * the eligible servers chooser.
+     */
+    @Getter
+    @Setter
+    @NotNull
+    private ServerChooser chooser = new RoundRobinServerChooser();
+
+    /**
+     * the fast fail cache of the routes with no eligible server: {@code null} when disabled.
+     */
+    @Getter
+    @Setter
+    private NoEligibleServerCache noEligibleServerCache;
+
+    /**
+     * the eligible servers cache: {@code null} when disabled.
+     */
+    @Getter
+    @Setter
+    private EligibleServerCache eligibleServerCache;
+
+    /**
+     * the servers subset of the calling instance: {@code null} when disabled.
+     */
+    @Getter
+    @Setter
+    private ServerSubset subset;
+
+    /**
+     * the slow start of the newly registered servers: {@code null} when disabled.
+     */
+    @Getter
+    private SlowStart slowStart;
+
+    /**
+     * the per thread eligible servers buffers.
+     */
+    private final ThreadLocal<List<Server>> buffers = ThreadLocal.withInitial(ArrayList::new);
+
     /**
      * Creates new default instance
      */
@@ -69,15 +124,202 @@ public class PredicateBasedRuleSupport extends PredicateBasedRule {
     }
 
     /**
-     * {@inheritDoc}
+     * Sets the delegate predicate: moves the server list change registration from the previous predicate.
+     *
+     * @param predicate the delegate predicate.
+     */
+    public void setPredicate(AbstractServerPredicate predicate) {
+        listen(this.predicate, false);
+        this.predicate = predicate;
+        listen(predicate, true);
+    }
+
+    /**
+     * Sets the slow start: moves the server list change registration from the previous slow start.
+     *
+     * @param slowStart the slow start: {@code null} to disable.
+     */
+    public void setSlowStart(SlowStart slowStart) {
+        listen(this.slowStart, false);
+        this.slowStart = slowStart;
+        listen(slowStart, true);
+    }
+
+    /**
+     * Moves the predicate and slow start server list change registrations to the new load balancer.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public void setLoadBalancer(ILoadBalancer lb) {
+        listen(false);
+        super.setLoadBalancer(lb);
+        listen(true);
+    }
+
+    /**
+     * Registers or unregisters the predicate and the slow start.
+     *
+     * @param register {@code true} to register, {@code false} to unregister.
+     */
+    private void listen(boolean register) {
+        listen(predicate, register);
+        listen(slowStart, register);
+    }
+
+    /**
+     * Registers or unregisters the listener to the load balancer server list deltas when it listens to them, to the server list changes otherwise.
+     *
+     * @param listener the listener candidate.
+     * @param register {@code true} to register, {@code false} to unregister.
+     */
+    private void listen(Object listener, boolean register) {
+        ILoadBalancer lb = getLoadBalancer();
+        if (lb instanceof DynamicServerListLoadBalancerSupport && listener instanceof ServerListDeltaListener) {
+            DynamicServerListLoadBalancerSupport<?> support = (DynamicServerListLoadBalancerSupport<?>) lb;
+            if (register) {
+                support.addServerListDeltaListener((ServerListDeltaListener) listener);
+            } else {
+                support.removeServerListDeltaListener((ServerListDeltaListener) listener);
+            }
+        } else if (lb instanceof BaseLoadBalancer && listener instanceof ServerListChangeListener) {
+            BaseLoadBalancer base = (BaseLoadBalancer) lb;
+            if (register) {
+                base.addServerListChangeListener((ServerListChangeListener) listener);
+            } else {
+                base.removeServerListChangeListener((ServerListChangeListener) listener);
+            }
+        }
+    }
+
+    /**
+     * Chooses a server among the eligible servers with the {@link ServerChooser}.
+     * <p>{@link PreparableServerPredicate}s filter the servers into a reused per thread buffer: the choice is allocation free in steady state
+     * with an unchanged context. A new context version costs the predicates memoized per version one preparation:
+     * only the zone matchers and the indexed dynamic metadata matcher stay allocation free with a new context per request.
+     * <p>With a {@link ServerSubset}, the predicates filter the subset of the calling instance only.
+     * <p>With a {@link NoEligibleServerCache}, the routes with no eligible server fail fast with a preallocated exception
+     * until the server list changes.
+     * <p>With an {@link EligibleServerCache}, the eligible servers of a route are computed once per server list.
+     * <p>With a {@link SlowStart}, a chosen server not admitted yet is replaced by a choice among the other eligible servers.
+     * <p>{@inheritDoc}
      */
     @Override
     public Server choose(Object key) {
-        Server server = super.choose(key);
+        List<Server> servers = servers();
+        NoEligibleServerCache cache = noEligibleServerCache;
+        if (cache != null) {
+            ChooseServerException exception = cache.get(servers, key, peek());
+            if (exception != null) {
+                throw exception;
+            }
+        }
+        Server server = chooseEligible(servers, key);
         if (server == null) {
-            throw new ChooseServerException(format("There is no server satisfying rule %s.", description == null ? toString() : description.describe()));
+            throw cache == null ? new ChooseServerException(describe()) : cache.put(servers, key, peek(), this::describe);
         } else {
             return server;
         }
     }
+
+    /**
+     * Chooses a server other than the excluded one with the {@link ServerChooser}: used to hedge a request on another server.
+     * <p>The other eligible servers are chosen first. When the excluded server was the only eligible one,
+     * the predicates filter the other servers so that the next fallback tier applies.
+     * <p>The caches are bypassed.
+     *
+     * @param key      the load balancer key.
+     * @param excluded the server to exclude.
+     * @return the chosen server or {@code null} when none.
+     */
+    public Server choose(Object key, @NotNull Server excluded) {
+        List<Server> servers = servers();
+        List<Server> eligible = others(eligible(servers, key, new ArrayList<>(servers.size())), excluded);
+        if (eligible.isEmpty()) {
+            eligible = eligible(others(servers, excluded), key, new ArrayList<>(servers.size()));
+        }
+        return eligible.isEmpty() ? null : choose(eligible);
+    }
+
+    /**
+     * @param eligible the eligible servers: not empty.
+     * @return the chosen server: replaced by a choice among the others when not admitted by the slow start.
+     */
+    private Server choose(List<Server> eligible) {
+        Server server = chooser.choose(eligible, getLoadBalancer());
+        SlowStart ramp = slowStart;
+        return ramp == null || eligible.size() == 1 || ramp.admit(server)
+                ? server
+                : chooser.choose(others(eligible, server), getLoadBalancer());
+    }
+
+    /**
+     * @param servers  the servers.
+     * @param excluded the server to exclude.
+     * @return a copy of the servers without the excluded instance.
+     */
+    private static List<Server> others(List<Server> servers, Server excluded) {
+        List<Server> others = new ArrayList<>(servers.size());
+        for (int i = 0; i < servers.size(); i++) {
+            if (servers.get(i) != excluded) {
+                others.add(servers.get(i));
+            }
+        }
+        return others;
+    }
+
+    /**
+     * @return the load balancer servers restricted to the subset when enabled.
+     */
+    private List<Server> servers() {
+        List<Server> servers = getLoadBalancer().getAllServers();
+        ServerSubset currentSubset = subset;
+        return currentSubset == null ? servers : currentSubset.subset(servers);
+    }
+
+    /**
+     * @return the no eligible server message.
+     */
+    private String describe() {
+        return format("There is no server satisfying rule %s.", description == null ? toString() : description.describe());
+    }
+
+    /**
+     * @param servers the servers to filter.
+     * @param key     the load balancer key.
+     * @return the chosen eligible server or {@code null} when none.
+     */
+    private Server chooseEligible(List<Server> servers, Object key) {
+        EligibleServerCache cache = eligibleServerCache;
+        if (cache != null) {
+            List<Server> eligible = cache.get(servers, key, peek());
+            if (eligible == null) {
+                List<Server> buffer = buffers.get();
+                try {
+                    eligible = cache.put(servers, key, peek(), eligible(servers, key, buffer));
+                } finally {
+                    buffer.clear();
+                }
+            }
+            return eligible.isEmpty() ? null : choose(eligible);
+        }
+        List<Server> buffer = buffers.get();
+        try {
+            List<Server> eligible = eligible(servers, key, buffer);
+            return eligible.isEmpty() ? null : choose(eligible);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * @param servers the servers to filter.
+     * @param key     the load balancer key.
+     * @param buffer  the eligible servers buffer.
+     * @return the eligible servers.
+     */
+    private List<Server> eligible(List<Server> servers, Object key, List<Server> buffer) {
+        return predicate instanceof PreparableServerPredicate
+                ? ((PreparableServerPredicate) predicate).getEligibleServers(servers, key, buffer)
+                : predicate.getEligibleServers(servers, key);
+    }
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.Server;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chooses the eligible servers in turn.
+ *
+ * @author Nadim Benabdenbi
+ */
+public class RoundRobinServerChooser implements ServerChooser {
+    /**
+     * the round robin index.
+     */
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Server choose(List<Server> eligible, ILoadBalancer loadBalancer) {
+        return eligible.get(Math.floorMod(nextIndex.getAndIncrement(), eligible.size()));
+    }
+}
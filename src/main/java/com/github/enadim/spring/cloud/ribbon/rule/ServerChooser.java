@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.Server;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * Chooses a server among the eligible servers once the rule predicate applied.
+ *
+ * @author Nadim Benabdenbi
+ * @see PredicateBasedRuleSupport for concrete usage.
+ * @see ServerSelection for the available strategies.
+ */
+@FunctionalInterface
+public interface ServerChooser {
+    /**
+     * Chooses a server among the eligible servers.
+     *
+     * @param eligible     the eligible servers: never empty and not to be retained.
+     * @param loadBalancer the rule load balancer.
+     * @return the chosen server.
+     */
+    Server choose(@NotNull List<Server> eligible, ILoadBalancer loadBalancer);
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import com.netflix.loadbalancer.Server;
+import lombok.Getter;
+
+import java.util.List;
+
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * The changes between two successive server lists of a load balancer, keyed by instance id.
+ *
+ * @author Nadim Benabdenbi
+ * @see ServerListDiff
+ */
+@Getter
+public final class ServerListDelta {
+    /**
+     * The new server list.
+     */
+    private final List<Server> servers;
+
+    /**
+     * The servers of the new instances.
+     */
+    private final List<Server> added;
+
+    /**
+     * The servers of the instances that left.
+     */
+    private final List<Server> removed;
+
+    /**
+     * The new servers of the instances having another host, port, zone or metadata.
+     */
+    private final List<Server> changed;
+
+    /**
+     * The previous servers of the changed instances in the same order.
+     */
+    private final List<Server> replaced;
+
+    /**
+     * Whether no server was published before: the added servers are the initial ones.
+     */
+    private final boolean initial;
+
+    /**
+     * Sole constructor.
+     *
+     * @param servers  the new server list.
+     * @param added    the servers of the new instances.
+     * @param removed  the servers of the instances that left.
+     * @param changed  the new servers of the changed instances.
+     * @param replaced the previous servers of the changed instances.
+     * @param initial  whether no server was published before.
+     */
+    ServerListDelta(List<Server> servers, List<Server> added, List<Server> removed, List<Server> changed, List<Server> replaced, boolean initial) {
+        this.servers = servers;
+        this.added = unmodifiableList(added);
+        this.removed = unmodifiableList(removed);
+        this.changed = unmodifiableList(changed);
+        this.replaced = unmodifiableList(replaced);
+        this.initial = initial;
+    }
+
+    /**
+     * @return {@code true} when no instance was added, removed or changed.
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("ServerListDelta[added=%s, removed=%s, changed=%s]", added.size(), removed.size(), changed.size());
+    }
+}
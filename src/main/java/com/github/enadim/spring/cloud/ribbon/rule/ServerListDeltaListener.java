@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Listens to the changes of the load balancer server list: to update an index or a cache incrementally.
+ *
+ * @author Nadim Benabdenbi
+ * @see ServerListDiff
+ */
+@FunctionalInterface
+public interface ServerListDeltaListener {
+    /**
+     * Applies the server list changes: invoked under the diff lock in the server list update order.
+     *
+     * @param delta the server list changes: never empty unless initial.
+     */
+    void serverListUpdated(@NotNull ServerListDelta delta);
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import com.netflix.loadbalancer.Server;
+import com.netflix.niws.loadbalancer.DiscoveryEnabledServer;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+
+/**
+ * Diffs the successive server lists of a load balancer and publishes the changes to the {@link ServerListDeltaListener}s.
+ * <p>The servers are keyed by instance id: an instance is changed when its host, port, zone or metadata differ.
+ * The diff is computed once per server list update and shared by the listeners, which then update in {@code O(changes)}
+ * instead of rebuilding from the whole server list.
+ * <p>A new listener first receives the current servers as an initial delta.
+ *
+ * @author Nadim Benabdenbi
+ * @see DynamicServerListLoadBalancerSupport
+ */
+@Slf4j
+public class ServerListDiff {
+    /**
+     * The listeners.
+     */
+    private final List<ServerListDeltaListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The servers of the last list by instance id.
+     */
+    private Map<String, Server> servers = emptyMap();
+
+    /**
+     * The last server list.
+     */
+    private List<Server> last = emptyList();
+
+    /**
+     * Whether servers were published: the first server list with servers is the initial one, not the one following an empty list.
+     */
+    private boolean published;
+
+    /**
+     * Diffs the new server list against the last one and publishes the changes when any.
+     *
+     * @param newList the new server list.
+     * @return the changes.
+     */
+    public synchronized ServerListDelta update(@NotNull List<Server> newList) {
+        Map<String, Server> next = new HashMap<>(newList.size() * 2);
+        List<Server> added = new ArrayList<>();
+        List<Server> changed = new ArrayList<>();
+        List<Server> replaced = new ArrayList<>();
+        int kept = 0;
+        for (Server server : newList) {
+            String key = server == null ? null : key(server);
+            if (key == null || next.putIfAbsent(key, server) != null) {
+                continue;
+            }
+            Server previous = servers.get(key);
+            if (previous == null) {
+                added.add(server);
+            } else {
+                kept++;
+                if (changed(previous, server)) {
+                    changed.add(server);
+                    replaced.add(previous);
+                }
+            }
+        }
+        List<Server> removed = kept == servers.size() ? emptyList() : removed(next);
+        ServerListDelta delta = new ServerListDelta(newList, added, removed, changed, replaced, !published);
+        servers = next;
+        last = newList;
+        published |= !next.isEmpty();
+        if (!delta.isEmpty()) {
+            log.debug("server list updated: {}.", delta);
+            for (ServerListDeltaListener listener : listeners) {
+                listener.serverListUpdated(delta);
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * @param next the servers of the new list by instance id.
+     * @return the servers of the last list missing from the new one.
+     */
+    private List<Server> removed(Map<String, Server> next) {
+        List<Server> removed = new ArrayList<>();
+        for (Entry<String, Server> entry : servers.entrySet()) {
+            if (!next.containsKey(entry.getKey())) {
+                removed.add(entry.getValue());
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Registers a listener: the listener receives the current servers as an initial delta.
+     *
+     * @param listener the listener.
+     */
+    public synchronized void addListener(@NotNull ServerListDeltaListener listener) {
+        listeners.add(listener);
+        listener.serverListUpdated(new ServerListDelta(last, new ArrayList<>(servers.values()), emptyList(), emptyList(), emptyList(), true));
+    }
+
+    /**
+     * Unregisters a listener.
+     *
+     * @param listener the listener.
+     */
+    public void removeListener(@NotNull ServerListDeltaListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @param server the server.
+     * @return the server instance id: the server id when unknown.
+     */
+    public static String key(@NotNull Server server) {
+        String instanceId = server.getMetaInfo().getInstanceId();
+        return instanceId == null ? server.getId() : instanceId;
+    }
+
+    /**
+     * @param previous the server of the last list.
+     * @param server   the server of the new list.
+     * @return {@code true} when the host, port, zone or metadata differ.
+     */
+    private static boolean changed(Server previous, Server server) {
+        return previous != server
+                && (!Objects.equals(previous.getId(), server.getId())
+                || !Objects.equals(previous.getZone(), server.getZone())
+                || !Objects.equals(metadata(previous), metadata(server)));
+    }
+
+    /**
+     * @param server the server.
+     * @return the discovery metadata: {@code null} when not discovered.
+     */
+    private static Map<String, String> metadata(Server server) {
+        return server instanceof DiscoveryEnabledServer ? ((DiscoveryEnabledServer) server).getInstanceInfo().getMetadata() : null;
+    }
+}
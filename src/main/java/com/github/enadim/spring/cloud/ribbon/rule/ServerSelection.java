@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import java.util.function.Supplier;
+
+/**
+ * The {@link ServerChooser} strategies applied by the {@link PredicateBasedRuleSupport} on the eligible servers.
+ *
+ * @author Nadim Benabdenbi
+ */
+public enum ServerSelection {
+    /**
+     * {@link RoundRobinServerChooser}: the eligible servers in turn.
+     */
+    ROUND_ROBIN(RoundRobinServerChooser::new),
+    /**
+     * {@link PowerOfTwoChoicesServerChooser}: the least loaded of two random eligible servers.
+     */
+    POWER_OF_TWO_CHOICES(PowerOfTwoChoicesServerChooser::new);
+
+    /**
+     * The chooser factory.
+     */
+    private final Supplier<ServerChooser> factory;
+
+    /**
+     * @param factory the chooser factory.
+     */
+    ServerSelection(Supplier<ServerChooser> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Creates a new server chooser.
+     *
+     * @return a new server chooser.
+     */
+    public ServerChooser create() {
+        return factory.get();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import com.netflix.loadbalancer.Server;
+import lombok.Getter;
+
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.enadim.spring.cloud.ribbon.rule.ConsistentHashServerChooser.mix;
+import static com.github.enadim.spring.cloud.ribbon.rule.ConsistentHashServerChooser.score;
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Deterministic subset of the load balancer servers for the calling instance.
+ * <p>Each server is scored by rendezvous hashing of the caller seed with the server id, and the subset holds the servers
+ * with the highest scores, the ones of the caller zone first.
+ * <p>The best server of each other zone is reserved in the subset, zones ranked by their best server score:
+ * the zone fallback tiers and the favorite zone, chosen per request, keep eligible servers when the caller zone alone fills the subset.
+ * <ul>
+ * <li>the subset is stable for a given caller and server list;
+ * <li>each server is expected in {@code size / servers} of the caller subsets, spreading the callers evenly;
+ * <li>a leaving server is replaced by a single server in the subsets holding it, and a joining server enters only the subsets
+ * where it outscores their last server.
+ * </ul>
+ * <p>The subset is computed once per server list: the server list change is detected by identity
+ * (see {@link DynamicServerListLoadBalancerSupport} that shares the same instance until the list is replaced).
+ *
+ * @author Nadim Benabdenbi
+ */
+public class ServerSubset {
+    /**
+     * The caller seed.
+     */
+    @Getter
+    private final String seed;
+
+    /**
+     * The caller zone: {@code null} when none.
+     */
+    @Getter
+    private final String zone;
+
+    /**
+     * The subset size.
+     */
+    @Getter
+    private final int size;
+
+    /**
+     * The caller seed hash.
+     */
+    private final long hash;
+
+    /**
+     * The subset of the last server list.
+     */
+    private volatile Snapshot snapshot = new Snapshot(null, null);
+
+    /**
+     * Sole constructor.
+     *
+     * @param seed the caller seed (e.g. the instance id).
+     * @param zone the caller zone: {@code null} when none.
+     * @param size the subset size: positive.
+     * @throws IllegalArgumentException if {@code seed} is {@code null} or {@code size} is not positive.
+     */
+    public ServerSubset(@NotNull String seed, String zone, int size) {
+        if (seed == null || size <= 0) {
+            throw new IllegalArgumentException(format("Invalid server subset: seed [%s], size [%s].", seed, size));
+        }
+        this.seed = seed;
+        this.zone = zone;
+        this.size = size;
+        this.hash = mix(seed.hashCode());
+    }
+
+    /**
+     * Retrieves the subset of the servers.
+     *
+     * @param servers the load balancer servers.
+     * @return the servers when they do not exceed the subset size otherwise the same subset instance until the server list changes.
+     */
+    public List<Server> subset(@NotNull List<Server> servers) {
+        if (servers.size() <= size) {
+            return servers;
+        }
+        Snapshot current = snapshot;
+        if (current.servers != servers) {
+            current = new Snapshot(servers, compute(servers));
+            snapshot = current;
+        }
+        return current.subset;
+    }
+
+    /**
+     * @param servers the load balancer servers.
+     * @return the best server of each zone, the caller zone first, completed with the best of the remaining servers of the caller zone
+     * then of the others, ranked by decreasing score, up to the subset size.
+     */
+    private List<Server> compute(List<Server> servers) {
+        Comparator<Server> ranking = Comparator.<Server>comparingInt(server -> zone != null && zone.equals(server.getZone()) ? 0 : 1)
+                .thenComparing(server -> score(hash, server), Comparator.reverseOrder());
+        Map<String, List<Server>> zones = new HashMap<>();
+        for (Server server : servers) {
+            zones.computeIfAbsent(server.getZone(), x -> new ArrayList<>()).add(server);
+        }
+        List<Server> best = new ArrayList<>(zones.size());
+        List<Server> remaining = new ArrayList<>(servers.size());
+        for (List<Server> zoneServers : zones.values()) {
+            zoneServers.sort(ranking);
+            best.add(zoneServers.get(0));
+            remaining.addAll(zoneServers.subList(1, zoneServers.size()));
+        }
+        best.sort(ranking);
+        remaining.sort(ranking);
+        List<Server> result = new ArrayList<>(best.subList(0, Math.min(size, best.size())));
+        result.addAll(remaining.subList(0, size - result.size()));
+        result.sort(ranking);
+        return unmodifiableList(result);
+    }
+
+    /**
+     * The subset of a server list.
+     */
+    private static final class Snapshot {
+        /**
+         * The load balancer servers.
+         */
+        private final List<Server> servers;
+
+        /**
+         * The subset.
+         */
+        private final List<Server> subset;
+
+        /**
+         * @param servers the load balancer servers.
+         * @param subset  the subset.
+         */
+        private Snapshot(List<Server> servers, List<Server> subset) {
+            this.servers = servers;
+            this.subset = subset;
+        }
+    }
+}
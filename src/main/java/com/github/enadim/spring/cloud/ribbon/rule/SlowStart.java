@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.loadbalancer.Server;
+import com.netflix.niws.loadbalancer.DiscoveryEnabledServer;
+import lombok.Getter;
+
+import javax.validation.constraints.NotNull;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.lang.String.format;
+
+/**
+ * Slow start of the newly registered servers.
+ * <p>The weight of a server ramps linearly from the floor to 1 over the slow start duration, starting from:
+ * <ul>
+ * <li>the eureka service up timestamp of the discovered servers;
+ * <li>otherwise the time the server joined the load balancer server list: the servers of the initial list are considered warm.
+ * </ul>
+ * <p>The joining servers are tracked from the {@link ServerListDelta}s: in {@code O(changes)} per server list update.
+ * <p>A chosen server is admitted with a probability equal to its weight: see {@link PredicateBasedRuleSupport} that chooses
+ * among the other eligible servers otherwise.
+ *
+ * @author Nadim Benabdenbi
+ */
+public class SlowStart implements ServerListDeltaListener {
+    /**
+     * The slow start duration in milliseconds.
+     */
+    @Getter
+    private final long duration;
+
+    /**
+     * The initial weight.
+     */
+    @Getter
+    private final double floor;
+
+    /**
+     * The first seen time by server id of the servers joining the server list.
+     */
+    private final Map<String, Long> firstSeen = new ConcurrentHashMap<>();
+
+    /**
+     * Sole constructor.
+     *
+     * @param duration the slow start duration in milliseconds: positive.
+     * @param floor    the initial weight: within ]0, 1].
+     * @throws IllegalArgumentException if {@code duration} is not positive or {@code floor} is not within ]0, 1].
+     */
+    public SlowStart(long duration, double floor) {
+        if (duration <= 0 || !(floor > 0 && floor <= 1)) {
+            throw new IllegalArgumentException(format("Invalid slow start: duration [%s], floor [%s].", duration, floor));
+        }
+        this.duration = duration;
+        this.floor = floor;
+    }
+
+    /**
+     * Draws the admission of a chosen server.
+     *
+     * @param server the chosen server.
+     * @return {@code true} with a probability equal to the server weight.
+     */
+    public boolean admit(@NotNull Server server) {
+        double weight = weight(server, System.currentTimeMillis());
+        return weight >= 1 || ThreadLocalRandom.current().nextDouble() < weight;
+    }
+
+    /**
+     * Computes the server weight.
+     *
+     * @param server the server.
+     * @param now    the current time in milliseconds.
+     * @return the floor at start up ramping linearly to 1 at the end of the slow start duration: 1 when the start is unknown.
+     */
+    public double weight(@NotNull Server server, long now) {
+        long start = start(server);
+        if (start <= 0 || now - start >= duration) {
+            return 1;
+        }
+        return floor + (1 - floor) * Math.max(0, now - start) / duration;
+    }
+
+    /**
+     * @param server the server.
+     * @return the server start time: 0 when unknown.
+     */
+    private long start(Server server) {
+        if (server instanceof DiscoveryEnabledServer) {
+            LeaseInfo leaseInfo = ((DiscoveryEnabledServer) server).getInstanceInfo().getLeaseInfo();
+            if (leaseInfo != null && leaseInfo.getServiceUpTimestamp() > 0) {
+                return leaseInfo.getServiceUpTimestamp();
+            }
+        }
+        Long seen = firstSeen.get(server.getId());
+        return seen == null ? 0 : seen;
+    }
+
+    /**
+     * Records the first seen time of the servers joining the list and forgets the servers leaving it or warmed up.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public void serverListUpdated(ServerListDelta delta) {
+        long now = System.currentTimeMillis();
+        for (Server server : delta.getRemoved()) {
+            firstSeen.remove(server.getId());
+        }
+        firstSeen.values().removeIf(seen -> now - seen >= duration);
+        if (!delta.isInitial()) {
+            for (Server server : delta.getAdded()) {
+                firstSeen.putIfAbsent(server.getId(), now);
+            }
+        }
+    }
+}
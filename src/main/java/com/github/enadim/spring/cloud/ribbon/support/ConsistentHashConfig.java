@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.support;
+
+import com.github.enadim.spring.cloud.ribbon.rule.ConsistentHashServerChooser;
+import com.github.enadim.spring.cloud.ribbon.rule.PredicateBasedRuleSupport;
+import com.netflix.client.config.IClientConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.netflix.ribbon.RibbonClientConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static com.github.enadim.spring.cloud.ribbon.support.RibbonExtensionsConstants.CONSISTENT_HASH_RULE_CLIENT_ENABLED_EXPRESSION;
+import static com.github.enadim.spring.cloud.ribbon.support.RibbonExtensionsConstants.CONSISTENT_HASH_RULE_ENABLED;
+
+/**
+ * The consistent hash server selection configuration.
+ * <p>Should not be imported directly for further compatibility reason: please use {@link EnableRibbonConsistentHash}.
+ * <p>Replaces the server selection of the routing rule: the eligible servers are still filtered by the rule predicate
+ * and the configured selection applies when the entry is missing from the execution context.
+ *
+ * @author Nadim Benabdenbi
+ * @see ConsistentHashServerChooser
+ */
+@Configuration
+@AutoConfigureBefore(RibbonClientConfiguration.class)
+@ConditionalOnProperty(value = CONSISTENT_HASH_RULE_ENABLED, matchIfMissing = true)
+@ConditionalOnExpression(value = CONSISTENT_HASH_RULE_CLIENT_ENABLED_EXPRESSION)
+@Slf4j
+public class ConsistentHashConfig {
+
+    /**
+     * The execution context entry key.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.rule.consistent-hash.key:${ribbon.extensions.rule.consistent-hash.key:consistent-hash-key}}")
+    private String key;
+
+    /**
+     * The bounded load factor.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.rule.consistent-hash.load-factor:${ribbon.extensions.rule.consistent-hash.load-factor:1.25}}")
+    private double loadFactor;
+
+    /**
+     * @param clientConfig the client config.
+     * @param rule         the predicate rule support.
+     * @return the consistent hash server chooser.
+     */
+    @Bean
+    public ConsistentHashServerChooser consistentHashServerChooser(IClientConfig clientConfig, PredicateBasedRuleSupport rule) {
+        ConsistentHashServerChooser chooser = new ConsistentHashServerChooser(key, loadFactor, rule.getChooser());
+        rule.setChooser(chooser);
+        log.info("Consistent hash enabled for client [{}] using key [{}] and load factor [{}].", clientConfig.getClientName(), key, loadFactor);
+        return chooser;
+    }
+}
@@ -60,6 +60,12 @@ public class DynamicMetadataMatcherConfig extends RuleBaseConfig {
     @Value("${ribbon.extensions.client.${ribbon.client.name}.rule.dynamic-metadata-matcher.matchIfMissing:${ribbon.extensions.rule.dynamic-metadata-matcher.matchIfMissing:true}}")
     private boolean matchIfMissing;
 
+    /**
+     * Whether the eligible servers are filtered with the metadata index.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.rule.metadata-index.enabled:${ribbon.extensions.rule.metadata-index.enabled:false}}")
+    private boolean indexed;
+
     /**
      * @param clientConfig the client config.
      * @param rule         the predicate rule support.
@@ -68,6 +74,7 @@ public class DynamicMetadataMatcherConfig extends RuleBaseConfig {
     @Bean
     public DynamicMetadataMatcher dynamicMetadaMatcher(IClientConfig clientConfig, PredicateBasedRuleSupport rule) {
         DynamicMetadataMatcher dynamicMetadataMatcher = new DynamicMetadataMatcher(key, matchIfMissing);
+        dynamicMetadataMatcher.setIndexed(indexed);
         rule.setPredicate(dynamicMetadataMatcher);
         rule.setDescription(from(dynamicMetadataMatcher));
         log.info("Dynamic matcher rule enabled for client [{}] using dynamic key[{}].", clientConfig.getClientName(), key);
@@ -22,6 +22,7 @@ import com.github.enadim.spring.cloud.ribbon.support.strategy.PreservesExecution
 import com.github.enadim.spring.cloud.ribbon.support.strategy.PreservesExecutionContextHystrixStrategy;
 import com.github.enadim.spring.cloud.ribbon.support.strategy.PreservesHeadersInboundHttpRequestStrategy;
 import com.github.enadim.spring.cloud.ribbon.support.strategy.PreservesHttpHeadersFeignStrategy;
+import com.github.enadim.spring.cloud.ribbon.support.strategy.PreservesHttpHeadersReactorStrategy;
 import com.github.enadim.spring.cloud.ribbon.support.strategy.PreservesHttpHeadersZuulStrategy;
 import com.github.enadim.spring.cloud.ribbon.support.strategy.PreservesJmsMessagePropertiesStrategy;
 import com.github.enadim.spring.cloud.ribbon.support.strategy.PreservesStompHeadersStrategy;
@@ -62,7 +63,7 @@ import java.util.concurrent.ExecutorService;
 @Documented
 @Inherited
 @EnableConfigurationProperties({PropagationProperties.class, EurekaInstanceProperties.class})
-@Import(ExecutionContextPropagationImport.class)
+@Import({ExecutionContextHolderConfig.class, PropagationMetricsConfig.class, ExecutionContextPropagationImport.class})
 public @interface EnableContextPropagation {
     /**
      * default value is {@code true}.
@@ -161,4 +162,18 @@ public @interface EnableContextPropagation {
      * @return the stomp propagation strategy.
      */
     Class<?> stompStrategy() default PreservesStompHeadersStrategy.class;
+
+    /**
+     * default value is {@code true}.
+     *
+     * @return {@code true} when reactor propagation should be enabled otherwise {@code false}.
+     */
+    boolean reactor() default true;
+
+    /**
+     * default is {@link PreservesHttpHeadersReactorStrategy}
+     *
+     * @return the reactor propagation strategy.
+     */
+    Class<?> reactorStrategy() default PreservesHttpHeadersReactorStrategy.class;
 }
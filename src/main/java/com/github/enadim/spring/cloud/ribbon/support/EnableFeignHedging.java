@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.support;
+
+
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Enables the latency triggered hedging of the feign read requests.
+ * <p>To be used at application level along with the feign clients, the hedging being enabled per ribbon client. For example:
+ * <blockquote><pre>
+ * &#064;EnableFeignClients
+ * &#064;EnableFeignHedging
+ * &#064;SpringBootApplication
+ * public class Application{
+ *  ...
+ * }
+ * </pre></blockquote>
+ * with the property {@code ribbon.extensions.client.<name>.hedging.enabled=true}.
+ *
+ * @author Nadim Benabdenbi
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+@Import(FeignHedgingConfig.class)
+public @interface EnableFeignHedging {
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.support;
+
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder;
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextKeys;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Configures the {@link ExecutionContextHolder} from the {@link PropagationProperties}.
+ *
+ * @author Nadim Benabdenbi
+ */
+@Configuration
+@Slf4j
+public class ExecutionContextHolderConfig {
+    /**
+     * The propagation properties.
+     */
+    @Autowired
+    @Setter
+    private PropagationProperties properties;
+
+    /**
+     * Applies the context properties to the {@link ExecutionContextHolder} and registers the propagated keys within the {@link ExecutionContextKeys}.
+     */
+    @PostConstruct
+    public void init() {
+        properties.getKeys().forEach(ExecutionContextKeys::register);
+        ExecutionContextKeys.register(properties.getUpStreamZone().getKey());
+        ExecutionContextHolder.setType(properties.getContext().getType());
+        ExecutionContextHolder.setStorage(properties.getContext().getStorage());
+        ExecutionContextHolder.setMergePolicy(properties.getContext().getMergePolicy());
+        log.info("Execution context type set to [{}] with [{}] storage and [{}] merge policy.",
+                properties.getContext().getType(), properties.getContext().getStorage(), properties.getContext().getMergePolicy());
+    }
+}
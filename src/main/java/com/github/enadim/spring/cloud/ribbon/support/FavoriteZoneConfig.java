@@ -16,21 +16,24 @@
 package com.github.enadim.spring.cloud.ribbon.support;
 
 import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.predicate.CompositeServerPredicate;
+import com.github.enadim.spring.cloud.ribbon.predicate.CompositeServerPredicate.Builder;
 import com.github.enadim.spring.cloud.ribbon.predicate.DynamicZoneMatcher;
+import com.github.enadim.spring.cloud.ribbon.predicate.ServerZoneIndex;
 import com.github.enadim.spring.cloud.ribbon.predicate.ZoneAffinityMatcher;
+import com.github.enadim.spring.cloud.ribbon.predicate.ZoneAvoidanceServerPredicate;
 import com.github.enadim.spring.cloud.ribbon.rule.PredicateBasedRuleSupport;
 import com.github.enadim.spring.cloud.ribbon.rule.RuleDescription;
 import com.github.enadim.spring.cloud.ribbon.support.FavoriteZoneConfig.FavoriteZoneProperties;
 import com.netflix.client.config.IClientConfig;
 import com.netflix.loadbalancer.AvailabilityPredicate;
-import com.netflix.loadbalancer.CompositePredicate;
-import com.netflix.loadbalancer.CompositePredicate.Builder;
 import com.netflix.loadbalancer.DynamicServerListLoadBalancer;
 import com.netflix.loadbalancer.ZoneAvoidancePredicate;
 import com.netflix.niws.loadbalancer.DiscoveryEnabledNIWSServerList;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
@@ -42,6 +45,8 @@ import org.springframework.cloud.netflix.ribbon.ZonePreferenceServerListFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+
 import static com.github.enadim.spring.cloud.ribbon.rule.RuleDescription.from;
 import static com.github.enadim.spring.cloud.ribbon.support.RibbonExtensionsConstants.ANY_PREDICATE_DESCRIPTION;
 import static com.github.enadim.spring.cloud.ribbon.support.RibbonExtensionsConstants.AVAILABILITY_PREDICATE_DESCRIPTION;
@@ -51,8 +56,9 @@ import static com.github.enadim.spring.cloud.ribbon.support.RibbonExtensionsCons
 import static com.github.enadim.spring.cloud.ribbon.support.RibbonExtensionsConstants.FAVORITE_ZONE_RULE_CLIENT_ENABLED_EXPRESSION;
 import static com.github.enadim.spring.cloud.ribbon.support.RibbonExtensionsConstants.FAVORITE_ZONE_RULE_ENABLED;
 import static com.github.enadim.spring.cloud.ribbon.support.RibbonExtensionsConstants.ZONE_AVOIDANCE_PREDICATE_DESCRIPTION;
+import static java.util.Arrays.asList;
+import static com.github.enadim.spring.cloud.ribbon.predicate.CompositeServerPredicate.withPredicates;
 import static com.netflix.loadbalancer.AbstractServerPredicate.alwaysTrue;
-import static com.netflix.loadbalancer.CompositePredicate.withPredicates;
 
 /**
  * The Favorite zone load balancing rule configuration.
@@ -67,6 +73,7 @@ import static com.netflix.loadbalancer.CompositePredicate.withPredicates;
  * <li>Fallbacks to {@link AvailabilityPredicate}: choose an available server.
  * <li>Fallbacks to any server
  * </ul>
+ * <p>The zone matchers share a {@link ServerZoneIndex}: each zone tier selects its precomputed partition.
  * <p><strong>Warning:</strong> Unless mastering the load balancing rules, do not mix with {@link ZonePreferenceServerListFilter} which is used by {@link DynamicServerListLoadBalancer} @see {@link #serverListFilter()}
  *
  * @author Nadim Benabdenbi
@@ -80,6 +87,35 @@ import static com.netflix.loadbalancer.CompositePredicate.withPredicates;
 @EnableConfigurationProperties(FavoriteZoneProperties.class)
 @Slf4j
 public class FavoriteZoneConfig extends RuleBaseConfig {
+    /**
+     * The favorite zone properties.
+     */
+    @Autowired
+    private FavoriteZoneProperties favoriteZoneProperties;
+
+    /**
+     * The propagation properties.
+     */
+    @Autowired
+    private PropagationProperties propagationProperties;
+
+    /**
+     * The favorite zone rule reads the favorite and the up stream zone entries.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    protected List<String> contextKeys() {
+        return asList(favoriteZoneProperties.getKey(), propagationProperties.getUpStreamZone().getKey());
+    }
+
+    /**
+     * The availability and zone avoidance tiers read the load balancer statistics.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    protected boolean readsServerStatistics() {
+        return true;
+    }
 
     /**
      * Favorite zone rule bean.
@@ -91,28 +127,30 @@ public class FavoriteZoneConfig extends RuleBaseConfig {
      * @return the favorite zone rule
      */
     @Bean
-    public CompositePredicate favoriteZone(IClientConfig clientConfig,
+    public CompositeServerPredicate favoriteZone(IClientConfig clientConfig,
                                            PredicateBasedRuleSupport rule,
                                            FavoriteZoneProperties favoriteZoneProperties,
                                            PropagationProperties propagationProperties) {
         AvailabilityPredicate availabilityPredicate = new AvailabilityPredicate(rule, clientConfig);
-        ZoneAvoidancePredicate zoneAvoidancePredicate = new ZoneAvoidancePredicate(rule, clientConfig);
-        ZoneAffinityMatcher zoneAffinityMatcher = new ZoneAffinityMatcher(getEurekaInstanceProperties().getZone());
-        DynamicZoneMatcher dynamicZoneMatcher = new DynamicZoneMatcher(favoriteZoneProperties.getKey());
+        ZoneAvoidancePredicate zoneAvoidancePredicate = new ZoneAvoidanceServerPredicate(rule, clientConfig);
+        ServerZoneIndex zoneIndex = new ServerZoneIndex();
+        ZoneAffinityMatcher zoneAffinityMatcher = new ZoneAffinityMatcher(getEurekaInstanceProperties().getZone(), zoneIndex);
+        DynamicZoneMatcher dynamicZoneMatcher = new DynamicZoneMatcher(favoriteZoneProperties.getKey(), zoneIndex);
         Builder builder = withPredicates(dynamicZoneMatcher)
                 .addFallbackPredicate(zoneAffinityMatcher);
         RuleDescription favoriteZoneDescription = from(dynamicZoneMatcher)
                 .fallback(from(zoneAffinityMatcher));
-        DynamicZoneMatcher upstreamZoneMatcher = new DynamicZoneMatcher(propagationProperties.getUpStreamZone().getKey());
+        DynamicZoneMatcher upstreamZoneMatcher = new DynamicZoneMatcher(propagationProperties.getUpStreamZone().getKey(), zoneIndex);
         builder.addFallbackPredicate(upstreamZoneMatcher);
         favoriteZoneDescription.fallback(from(upstreamZoneMatcher));
-        ZoneAffinityMatcher fallbackZoneMatcher = new ZoneAffinityMatcher(favoriteZoneProperties.getFallback());
+        ZoneAffinityMatcher fallbackZoneMatcher = new ZoneAffinityMatcher(favoriteZoneProperties.getFallback(), zoneIndex);
         builder.addFallbackPredicate(fallbackZoneMatcher);
         favoriteZoneDescription.fallback(from(fallbackZoneMatcher));
-        CompositePredicate favoriteZonePredicate = builder
+        CompositeServerPredicate favoriteZonePredicate = builder
                 .addFallbackPredicate(withPredicates(zoneAvoidancePredicate, availabilityPredicate).build())
                 .addFallbackPredicate(availabilityPredicate)
                 .addFallbackPredicate(alwaysTrue())
+                .spillover(spilloverPolicy(rule))
                 .build();
         rule.setPredicate(favoriteZonePredicate);
         rule.setDescription(favoriteZoneDescription
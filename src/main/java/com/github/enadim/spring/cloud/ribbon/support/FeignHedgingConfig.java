@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.support;
+
+import com.github.enadim.spring.cloud.ribbon.hedging.HedgedFeignClient;
+import com.github.enadim.spring.cloud.ribbon.hedging.HedgedFeignClientPostProcessor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.cloud.netflix.ribbon.RibbonClients;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.cloud.openfeign.ribbon.CachingSpringLoadBalancerFactory;
+import org.springframework.cloud.openfeign.ribbon.LoadBalancerFeignClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The feign hedging configuration.
+ * <p>Should not be imported directly for further compatibility reason: please use {@link EnableFeignHedging}.
+ * <p>Replaces the feign load balancing client with the {@link HedgedFeignClient} and defines the hedging policy of each ribbon client.
+ *
+ * @author Nadim Benabdenbi
+ * @see HedgingPolicyConfig
+ */
+@Configuration
+@ConditionalOnClass(LoadBalancerFeignClient.class)
+@RibbonClients(defaultConfiguration = HedgingPolicyConfig.class)
+public class FeignHedgingConfig {
+
+    /**
+     * @param loadBalancerFactory the feign load balancer factory provider.
+     * @param clientFactory       the ribbon clients factory provider.
+     * @param maxThreads          the maximum attempts executor threads shared by all the clients.
+     * @return the post processor replacing the feign load balancing client.
+     */
+    @Bean
+    public static HedgedFeignClientPostProcessor hedgedFeignClientPostProcessor(ObjectProvider<CachingSpringLoadBalancerFactory> loadBalancerFactory,
+                                                                                ObjectProvider<SpringClientFactory> clientFactory,
+                                                                                @Value("${ribbon.extensions.hedging.max-threads:200}") int maxThreads) {
+        return new HedgedFeignClientPostProcessor(loadBalancerFactory, clientFactory, maxThreads);
+    }
+}
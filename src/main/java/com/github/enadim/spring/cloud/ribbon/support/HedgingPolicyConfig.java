@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.support;
+
+import com.github.enadim.spring.cloud.ribbon.hedging.HedgingPolicy;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.IRule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The hedging policy of a ribbon client: registered on all the ribbon clients by the {@link FeignHedgingConfig}.
+ *
+ * @author Nadim Benabdenbi
+ */
+@Configuration
+@Slf4j
+public class HedgingPolicyConfig {
+    /**
+     * Whether the read requests are hedged.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.hedging.enabled:${ribbon.extensions.hedging.enabled:false}}")
+    private boolean enabled;
+
+    /**
+     * The latency percentile triggering the hedge.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.hedging.percentile:${ribbon.extensions.hedging.percentile:95}}")
+    private double percentile;
+
+    /**
+     * The minimum hedge delay in milliseconds.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.hedging.min-delay:${ribbon.extensions.hedging.min-delay:10}}")
+    private long minDelay;
+
+    /**
+     * The minimum recorded latencies before hedging.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.hedging.min-samples:${ribbon.extensions.hedging.min-samples:100}}")
+    private int minSamples;
+
+    /**
+     * The recent latencies window size.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.hedging.window-size:${ribbon.extensions.hedging.window-size:1000}}")
+    private int windowSize;
+
+    /**
+     * The maximum share of the requests hedged.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.hedging.max-rate:${ribbon.extensions.hedging.max-rate:0.1}}")
+    private double maxRate;
+
+    /**
+     * @param clientConfig the client config.
+     * @param rule         the load balancing rule.
+     * @return the hedging policy.
+     */
+    @Bean
+    public HedgingPolicy hedgingPolicy(IClientConfig clientConfig, IRule rule) {
+        log.debug("Hedging [{}] for client [{}].", enabled ? "enabled" : "disabled", clientConfig.getClientName());
+        return new HedgingPolicy(enabled, rule, percentile, minDelay, minSamples, windowSize, maxRate);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.support;
+
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publishes the inbound entries limiter counters to the micrometer registry.
+ *
+ * @author Nadim Benabdenbi
+ */
+@Configuration
+@ConditionalOnClass(MeterBinder.class)
+@Slf4j
+public class PropagationMetricsConfig {
+    /**
+     * The count of inbound entries that were not admitted.
+     */
+    public static final String REJECTED_ENTRIES = "ribbon.extensions.propagation.limits.rejected";
+    /**
+     * The count of admitted inbound entries with a truncated value.
+     */
+    public static final String TRUNCATED_ENTRIES = "ribbon.extensions.propagation.limits.truncated";
+
+    /**
+     * The inbound entries limiter metrics.
+     *
+     * @param properties the propagation properties.
+     * @return the meter binder of the shared inbound entries limiter.
+     */
+    @Bean
+    public MeterBinder propagationLimitsMetrics(PropagationProperties properties) {
+        EntriesLimiter limiter = properties.buildEntriesLimiter();
+        return registry -> {
+            FunctionCounter.builder(REJECTED_ENTRIES, limiter, x -> x.getRejectedEntries().sum())
+                    .description("The inbound entries that were not admitted by the propagation limits.")
+                    .register(registry);
+            FunctionCounter.builder(TRUNCATED_ENTRIES, limiter, x -> x.getTruncatedEntries().sum())
+                    .description("The inbound entries truncated by the propagation limits.")
+                    .register(registry);
+            log.debug("Propagation limits metrics registered.");
+        };
+    }
+}
@@ -15,8 +15,14 @@
  */
 package com.github.enadim.spring.cloud.ribbon.support;
 
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextMergePolicy;
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextStorage;
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextType;
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimitPolicy;
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimiter;
 import com.github.enadim.spring.cloud.ribbon.propagator.Filter;
 import com.github.enadim.spring.cloud.ribbon.propagator.PatternFilter;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -39,6 +45,16 @@ import static com.github.enadim.spring.cloud.ribbon.support.RibbonExtensionsCons
 @Getter
 public class PropagationProperties {
 
+    /**
+     * the execution context properties.
+     */
+    private ContextProperties context = new ContextProperties();
+
+    /**
+     * the inbound entries limits.
+     */
+    private LimitsProperties limits = new LimitsProperties();
+
     /**
      * the up stream zone propagationProperties.
      */
@@ -73,6 +89,17 @@ public class PropagationProperties {
      */
     private PatternFilter stomp = new PatternFilter();
 
+    /**
+     * The web client url inclusion.
+     */
+    private PatternFilter webClient = new PatternFilter();
+
+    /**
+     * The shared inbound entries limiter.
+     */
+    @Getter(AccessLevel.NONE)
+    private EntriesLimiter entriesLimiter;
+
     /**
      * @return the propagation entries filter
      */
@@ -80,6 +107,18 @@ public class PropagationProperties {
         return new HashSet<>(getKeys())::contains;
     }
 
+    /**
+     * The inbound entries limiter is built once and shared by all the inbound propagators for global accounting.
+     *
+     * @return the inbound entries limiter
+     */
+    public synchronized EntriesLimiter buildEntriesLimiter() {
+        if (entriesLimiter == null) {
+            entriesLimiter = new EntriesLimiter(limits.getMaxEntries(), limits.getMaxValueBytes(), limits.getMaxTotalBytes(), limits.getPolicy());
+        }
+        return entriesLimiter;
+    }
+
     /**
      * @param eurekaInstanceProperties the eureka instance properties.
      * @return the extra static entries
@@ -91,6 +130,44 @@ public class PropagationProperties {
         return extraStaticEntries;
     }
 
+    @Getter
+    @Setter
+    public static class ContextProperties {
+        /**
+         * the type of the contexts created by the execution context holder.
+         */
+        private ExecutionContextType type = ExecutionContextType.DEFAULT;
+        /**
+         * the per thread storage of the execution contexts.
+         */
+        private ExecutionContextStorage storage = ExecutionContextStorage.INHERITABLE;
+        /**
+         * the conflict resolution policy applied when joining forked contexts.
+         */
+        private ExecutionContextMergePolicy mergePolicy = ExecutionContextMergePolicy.LAST_WINS;
+    }
+
+    @Getter
+    @Setter
+    public static class LimitsProperties {
+        /**
+         * the maximum number of entries copied from an inbound request or message: unlimited by default.
+         */
+        private int maxEntries = Integer.MAX_VALUE;
+        /**
+         * the maximum UTF-8 bytes of an inbound entry value: unlimited by default.
+         */
+        private int maxValueBytes = Integer.MAX_VALUE;
+        /**
+         * the maximum UTF-8 bytes of all the inbound entries keys and values: unlimited by default.
+         */
+        private int maxTotalBytes = Integer.MAX_VALUE;
+        /**
+         * the policy applied to the inbound entries exceeding a limit.
+         */
+        private EntriesLimitPolicy policy = EntriesLimitPolicy.DROP;
+    }
+
     @Getter
     @Setter
     public static class UpStreamZoneProperties {
@@ -70,4 +70,10 @@ public class RibbonExtensionsConstants {
     public static final String DYNAMIC_METADATA_MATCHER_RULE_CLIENT_ENABLED = CLIENT_RULE_PREFIX + DOT + DYNAMIC_METADATA_MATCHER_RULE + DOT + ENABLED;
     public static final String DYNAMIC_METADATA_MATCHER_RULE_CLIENT_ENABLED_EXPRESSION = DEFAULT_PLACEHOLDER_PREFIX + DYNAMIC_METADATA_MATCHER_RULE_CLIENT_ENABLED + DEFAULT_VALUE_SEPARATOR + TRUE + DEFAULT_PLACEHOLDER_SUFFIX;
 
+    public static final String CONSISTENT_HASH_RULE = "consistent-hash";
+    public static final String CONSISTENT_HASH_PREFIX = RULE_PREFIX + DOT + CONSISTENT_HASH_RULE;
+    public static final String CONSISTENT_HASH_RULE_ENABLED = CONSISTENT_HASH_PREFIX + DOT + ENABLED;
+    public static final String CONSISTENT_HASH_RULE_CLIENT_ENABLED = CLIENT_RULE_PREFIX + DOT + CONSISTENT_HASH_RULE + DOT + ENABLED;
+    public static final String CONSISTENT_HASH_RULE_CLIENT_ENABLED_EXPRESSION = DEFAULT_PLACEHOLDER_PREFIX + CONSISTENT_HASH_RULE_CLIENT_ENABLED + DEFAULT_VALUE_SEPARATOR + TRUE + DEFAULT_PLACEHOLDER_SUFFIX;
+
 }
@@ -15,7 +15,14 @@
  */
 package com.github.enadim.spring.cloud.ribbon.support;
 
+import com.github.enadim.spring.cloud.ribbon.predicate.SpilloverPolicy;
+import com.github.enadim.spring.cloud.ribbon.rule.DynamicServerListLoadBalancerSupport;
+import com.github.enadim.spring.cloud.ribbon.rule.EligibleServerCache;
+import com.github.enadim.spring.cloud.ribbon.rule.NoEligibleServerCache;
 import com.github.enadim.spring.cloud.ribbon.rule.PredicateBasedRuleSupport;
+import com.github.enadim.spring.cloud.ribbon.rule.ServerSelection;
+import com.github.enadim.spring.cloud.ribbon.rule.ServerSubset;
+import com.github.enadim.spring.cloud.ribbon.rule.SlowStart;
 import com.netflix.client.config.IClientConfig;
 import com.netflix.loadbalancer.DynamicServerListLoadBalancer;
 import com.netflix.loadbalancer.ILoadBalancer;
@@ -30,6 +37,7 @@ import com.netflix.loadbalancer.ZoneAwareLoadBalancer;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -39,6 +47,15 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+
 /**
  * Convenient configuration initializing the ribbon client config that is required for defining custom rules.
  * <p>Disables server list filter: ({@link ZonePreferenceServerListFilter})
@@ -61,6 +78,96 @@ public class RuleBaseConfig {
     @Getter
     private EurekaInstanceProperties eurekaInstanceProperties;
 
+    /**
+     * The selection strategy among the eligible servers.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.rule.selection:${ribbon.extensions.rule.selection:ROUND_ROBIN}}")
+    private ServerSelection selection;
+
+    /**
+     * The execution context keys read by the rule predicate in addition to the {@link #contextKeys()}: shared by the rule caches.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.rule.routing-keys:${ribbon.extensions.rule.routing-keys:}}")
+    private String[] routingKeys;
+
+    /**
+     * Whether the routes with no eligible server fail fast until the server list changes.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.rule.fast-fail.enabled:${ribbon.extensions.rule.fast-fail.enabled:false}}")
+    private boolean fastFail;
+
+    /**
+     * The maximum routes remembered by the fast fail cache.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.rule.fast-fail.max-routes:${ribbon.extensions.rule.fast-fail.max-routes:1024}}")
+    private int fastFailMaxRoutes;
+
+    /**
+     * Whether the eligible servers are cached by route until the server list changes.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.rule.decision-cache.enabled:${ribbon.extensions.rule.decision-cache.enabled:false}}")
+    private boolean decisionCache;
+
+    /**
+     * The maximum routes cached by the decision cache.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.rule.decision-cache.max-size:${ribbon.extensions.rule.decision-cache.max-size:256}}")
+    private int decisionCacheMaxSize;
+
+    /**
+     * Whether the rule filters a deterministic subset of the servers seeded by the instance id.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.rule.subset.enabled:${ribbon.extensions.rule.subset.enabled:false}}")
+    private boolean subset;
+
+    /**
+     * The servers subset size.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.rule.subset.size:${ribbon.extensions.rule.subset.size:25}}")
+    private int subsetSize;
+
+    /**
+     * Whether the share of the newly registered servers ramps up over the slow start duration.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.rule.slow-start.enabled:${ribbon.extensions.rule.slow-start.enabled:false}}")
+    private boolean slowStart;
+
+    /**
+     * The slow start duration in milliseconds.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.rule.slow-start.duration:${ribbon.extensions.rule.slow-start.duration:60000}}")
+    private long slowStartDuration;
+
+    /**
+     * The initial weight of the newly registered servers.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.rule.slow-start.floor:${ribbon.extensions.rule.slow-start.floor:0.1}}")
+    private double slowStartFloor;
+
+    /**
+     * Whether the traffic spills over from the preferred servers when they are overloaded or failing.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.rule.spillover.enabled:${ribbon.extensions.rule.spillover.enabled:false}}")
+    private boolean spillover;
+
+    /**
+     * The average active requests per preferred server above which the traffic spills over.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.rule.spillover.active-requests-threshold:${ribbon.extensions.rule.spillover.active-requests-threshold:10}}")
+    private double spilloverActiveRequestsThreshold;
+
+    /**
+     * The share of the preferred servers with successive connection failures above which the traffic spills over.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.rule.spillover.failing-share-threshold:${ribbon.extensions.rule.spillover.failing-share-threshold:0.5}}")
+    private double spilloverFailingShareThreshold;
+
+    /**
+     * The maximum share of the traffic spilled over.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.rule.spillover.max-share:${ribbon.extensions.rule.spillover.max-share:0.9}}")
+    private double spilloverMaxShare;
+
     /**
      * The load balancing rule definition.
      *
@@ -69,7 +176,84 @@ public class RuleBaseConfig {
     @Bean
     @Lazy
     public PredicateBasedRuleSupport rule() {
-        return new PredicateBasedRuleSupport();
+        PredicateBasedRuleSupport rule = new PredicateBasedRuleSupport();
+        rule.setChooser(selection.create());
+        log.debug("[{}] server selection enabled.", selection);
+        if (subset) {
+            rule.setSubset(new ServerSubset(eurekaInstanceProperties.getInstanceId(), eurekaInstanceProperties.getZone(), subsetSize));
+            log.debug("[{}] servers subset enabled for the instance [{}].", subsetSize, eurekaInstanceProperties.getInstanceId());
+        }
+        if (slowStart) {
+            rule.setSlowStart(new SlowStart(slowStartDuration, slowStartFloor));
+            log.debug("slow start enabled over [{}] ms from a [{}] weight.", slowStartDuration, slowStartFloor);
+        }
+        if (fastFail) {
+            List<String> keys = resolveRoutingKeys("fast fail");
+            rule.setNoEligibleServerCache(new NoEligibleServerCache(keys, fastFailMaxRoutes));
+            log.debug("fast fail enabled for up to [{}] routes over the keys {}.", fastFailMaxRoutes, keys);
+        }
+        if (decisionCache && readsServerStatistics()) {
+            log.warn("decision cache disabled: the rule reads the server statistics per choice.");
+        } else if (decisionCache && spillover) {
+            log.warn("decision cache disabled: the spillover draws the eligible servers per choice.");
+        } else if (decisionCache) {
+            List<String> keys = resolveRoutingKeys("decision cache");
+            rule.setEligibleServerCache(new EligibleServerCache(keys, decisionCacheMaxSize));
+            log.debug("decision cache enabled for up to [{}] routes over the keys {}.", decisionCacheMaxSize, keys);
+        }
+        return rule;
+    }
+
+    /**
+     * The execution context keys read by the rule predicate.
+     *
+     * @return the context keys: {@code null} when not known statically (e.g. the predicate reads the whole context).
+     */
+    protected List<String> contextKeys() {
+        return null;
+    }
+
+    /**
+     * Whether the rule predicate reads the load balancer statistics (e.g. the availability or the zone avoidance tiers):
+     * the decision cache would freeze the decisions depending on them.
+     *
+     * @return {@code true} when the predicate reads the load balancer statistics.
+     */
+    protected boolean readsServerStatistics() {
+        return false;
+    }
+
+    /**
+     * The routing keys of the rule caches: the context keys read by the predicate along with the configured ones.
+     *
+     * @param cache the cache name.
+     * @return the routing keys.
+     * @throws IllegalStateException when the context keys are unknown and none is configured.
+     */
+    private List<String> resolveRoutingKeys(String cache) {
+        List<String> contextKeys = contextKeys();
+        if (contextKeys == null && routingKeys.length == 0) {
+            throw new IllegalStateException(format("The %s requires the routing keys: "
+                    + "please list the execution context keys read by the rule in ribbon.extensions.client.<name>.rule.routing-keys.", cache));
+        }
+        Set<String> keys = new LinkedHashSet<>(contextKeys == null ? emptyList() : contextKeys);
+        keys.addAll(asList(routingKeys));
+        return new ArrayList<>(keys);
+    }
+
+    /**
+     * The spillover policy of the preferred servers.
+     *
+     * @param rule the rule holding the load balancer.
+     * @return the spillover policy: {@code null} when disabled.
+     */
+    protected SpilloverPolicy spilloverPolicy(IRule rule) {
+        if (!spillover) {
+            return null;
+        }
+        log.debug("spillover enabled above [{}] average active requests or [{}] failing servers share up to a [{}] share.",
+                spilloverActiveRequestsThreshold, spilloverFailingShareThreshold, spilloverMaxShare);
+        return new SpilloverPolicy(rule, spilloverActiveRequestsThreshold, spilloverFailingShareThreshold, spilloverMaxShare);
     }
 
     /**
@@ -81,7 +265,7 @@ public class RuleBaseConfig {
      * @param rule              the load balancing rule.
      * @param ping              the ping strategy.
      * @param serverListUpdater the server list updater.
-     * @return The Dynamic Server List Load Balancer.
+     * @return The Dynamic Server List Load Balancer sharing its server list view.
      */
     @Bean
     @ConditionalOnMissingBean
@@ -91,7 +275,7 @@ public class RuleBaseConfig {
                                       IRule rule, IPing ping,
                                       ServerListUpdater serverListUpdater) {
         log.debug("dynamic server list load balancer enabled.");
-        return new DynamicServerListLoadBalancer<>(config, rule, ping, serverList,
+        return new DynamicServerListLoadBalancerSupport<>(config, rule, ping, serverList,
                 serverListFilter, serverListUpdater);
     }
 
@@ -20,6 +20,7 @@ import com.github.enadim.spring.cloud.ribbon.rule.PredicateBasedRuleSupport;
 import com.netflix.client.config.IClientConfig;
 import com.netflix.niws.loadbalancer.DiscoveryEnabledNIWSServerList;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
@@ -47,6 +48,12 @@ import static com.github.enadim.spring.cloud.ribbon.support.RibbonExtensionsCons
 @Slf4j
 public class StrictMetadataMatcherConfig extends RuleBaseConfig {
 
+    /**
+     * Whether the eligible servers are filtered with the metadata index.
+     */
+    @Value("${ribbon.extensions.client.${ribbon.client.name}.rule.metadata-index.enabled:${ribbon.extensions.rule.metadata-index.enabled:false}}")
+    private boolean indexed;
+
     /**
      * @param clientConfig the client config
      * @param rule         the predicate rule support
@@ -55,6 +62,7 @@ public class StrictMetadataMatcherConfig extends RuleBaseConfig {
     @Bean
     public StrictMetadataMatcher strictMetadataMatcher(IClientConfig clientConfig, PredicateBasedRuleSupport rule) {
         StrictMetadataMatcher strictMetadataMatcher = new StrictMetadataMatcher();
+        strictMetadataMatcher.setIndexed(indexed);
         rule.setPredicate(strictMetadataMatcher);
         rule.setDescription(from(strictMetadataMatcher));
         log.info("Strict metadata matcher enabled for client [{}].", clientConfig.getClientName());
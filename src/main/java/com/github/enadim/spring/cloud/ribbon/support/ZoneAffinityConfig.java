@@ -15,11 +15,12 @@
  */
 package com.github.enadim.spring.cloud.ribbon.support;
 
+import com.github.enadim.spring.cloud.ribbon.predicate.CompositeServerPredicate;
 import com.github.enadim.spring.cloud.ribbon.predicate.ZoneAffinityMatcher;
+import com.github.enadim.spring.cloud.ribbon.predicate.ZoneAvoidanceServerPredicate;
 import com.github.enadim.spring.cloud.ribbon.rule.PredicateBasedRuleSupport;
 import com.netflix.client.config.IClientConfig;
 import com.netflix.loadbalancer.AvailabilityPredicate;
-import com.netflix.loadbalancer.CompositePredicate;
 import com.netflix.loadbalancer.DynamicServerListLoadBalancer;
 import com.netflix.loadbalancer.ZoneAvoidancePredicate;
 import com.netflix.niws.loadbalancer.DiscoveryEnabledNIWSServerList;
@@ -33,14 +34,17 @@ import org.springframework.cloud.netflix.ribbon.ZonePreferenceServerListFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+
 import static com.github.enadim.spring.cloud.ribbon.rule.RuleDescription.from;
 import static com.github.enadim.spring.cloud.ribbon.support.RibbonExtensionsConstants.ANY_PREDICATE_DESCRIPTION;
 import static com.github.enadim.spring.cloud.ribbon.support.RibbonExtensionsConstants.AVAILABILITY_PREDICATE_DESCRIPTION;
 import static com.github.enadim.spring.cloud.ribbon.support.RibbonExtensionsConstants.ZONE_AFFINITY_RULE_CLIENT_ENABLED_EXPRESSION;
 import static com.github.enadim.spring.cloud.ribbon.support.RibbonExtensionsConstants.ZONE_AFFINITY_RULE_ENABLED;
 import static com.github.enadim.spring.cloud.ribbon.support.RibbonExtensionsConstants.ZONE_AVOIDANCE_PREDICATE_DESCRIPTION;
+import static java.util.Collections.emptyList;
+import static com.github.enadim.spring.cloud.ribbon.predicate.CompositeServerPredicate.withPredicates;
 import static com.netflix.loadbalancer.AbstractServerPredicate.alwaysTrue;
-import static com.netflix.loadbalancer.CompositePredicate.withPredicates;
 
 /**
  * The Zone Affinity load balancing rule configuration.
@@ -65,6 +69,24 @@ import static com.netflix.loadbalancer.CompositePredicate.withPredicates;
 @Slf4j
 public class ZoneAffinityConfig extends RuleBaseConfig {
 
+    /**
+     * The zone affinity reads no execution context entry.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    protected List<String> contextKeys() {
+        return emptyList();
+    }
+
+    /**
+     * The availability and zone avoidance tiers read the load balancer statistics.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    protected boolean readsServerStatistics() {
+        return true;
+    }
+
     /**
      * Zone affinity rule.
      *
@@ -73,14 +95,15 @@ public class ZoneAffinityConfig extends RuleBaseConfig {
      * @return the zone affinity rule.
      */
     @Bean
-    public CompositePredicate zoneAffinity(IClientConfig clientConfig, PredicateBasedRuleSupport rule) {
+    public CompositeServerPredicate zoneAffinity(IClientConfig clientConfig, PredicateBasedRuleSupport rule) {
         AvailabilityPredicate availabilityPredicate = new AvailabilityPredicate(rule, clientConfig);
-        ZoneAvoidancePredicate zoneAvoidancePredicate = new ZoneAvoidancePredicate(rule, clientConfig);
+        ZoneAvoidancePredicate zoneAvoidancePredicate = new ZoneAvoidanceServerPredicate(rule, clientConfig);
         ZoneAffinityMatcher zoneAffinityMatcher = new ZoneAffinityMatcher(getEurekaInstanceProperties().getZone());
-        CompositePredicate predicate = withPredicates(zoneAffinityMatcher)
+        CompositeServerPredicate predicate = withPredicates(zoneAffinityMatcher)
                 .addFallbackPredicate(withPredicates(zoneAvoidancePredicate, availabilityPredicate).build())
                 .addFallbackPredicate(availabilityPredicate)
                 .addFallbackPredicate(alwaysTrue())
+                .spillover(spilloverPolicy(rule))
                 .build();
         rule.setPredicate(predicate);
         rule.setDescription(from(zoneAffinityMatcher)
@@ -46,7 +46,7 @@ public class PreservesHeadersInboundHttpRequestStrategy implements WebMvcConfigu
      */
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        registry.addInterceptor(new PreservesHttpHeadersInterceptor(properties.buildEntriesFilter())).addPathPatterns("/**");
+        registry.addInterceptor(new PreservesHttpHeadersInterceptor(properties.buildEntriesFilter(), properties.buildEntriesLimiter())).addPathPatterns("/**");
         log.info("Context propagation enabled for http request on keys={}.", properties.getKeys());
     }
 }
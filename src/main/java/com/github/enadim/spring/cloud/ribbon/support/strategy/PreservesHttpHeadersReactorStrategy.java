@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.support.strategy;
+
+import com.github.enadim.spring.cloud.ribbon.propagator.reactor.PreservesHttpHeadersExchangeFilter;
+import com.github.enadim.spring.cloud.ribbon.propagator.reactor.PreservesHttpHeadersWebFilter;
+import com.github.enadim.spring.cloud.ribbon.support.EurekaInstanceProperties;
+import com.github.enadim.spring.cloud.ribbon.support.PropagationProperties;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.server.WebFilter;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+/**
+ * Default reactor propagation strategy based on execution context storage in the subscriber context.
+ * <ul>
+ * <li>Reactive web applications copy the inbound http request headers to the subscriber context.</li>
+ * <li>Web clients built from the customized builder copy the subscriber context to the outbound request headers
+ * and attach it to the subscribing thread while choosing the server.</li>
+ * </ul>
+ *
+ * @author Nadim Benabdenbi
+ */
+@Configuration
+@ConditionalOnClass({Mono.class, WebFilter.class})
+@ConditionalOnProperty(value = "ribbon.extensions.propagation.reactor.enabled", matchIfMissing = true)
+@ConditionalOnExpression(value = "${ribbon.extensions.propagation.enabled:true}")
+@Slf4j
+public class PreservesHttpHeadersReactorStrategy {
+    /**
+     * The propagation properties.
+     */
+    @Autowired
+    @Setter
+    private PropagationProperties properties;
+
+    /**
+     * The eureka instance properties.
+     */
+    @Autowired
+    @Setter
+    private EurekaInstanceProperties eurekaInstanceProperties;
+
+    /**
+     * @return the inbound http request headers web filter.
+     * @see PreservesHttpHeadersWebFilter
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = REACTIVE)
+    public WebFilter reactorInboundPropagator() {
+        log.info("Context propagation enabled for reactive http request on keys={}.", properties.getKeys());
+        return new PreservesHttpHeadersWebFilter(properties.buildEntriesFilter(), properties.buildEntriesLimiter());
+    }
+
+    /**
+     * Registers the outbound propagation as the first filter of the web clients: it wraps the load balancer filter.
+     *
+     * @return the web client customizer.
+     * @see PreservesHttpHeadersExchangeFilter
+     */
+    @Bean
+    public WebClientCustomizer reactorOutboundPropagator() {
+        log.info("Context propagation enabled for web clients on keys={}: url-includes{},url-excludes{}", properties.getKeys(), properties.getWebClient().getIncludes(), properties.getWebClient().getExcludes());
+        ExchangeFilterFunction filter = new PreservesHttpHeadersExchangeFilter(properties.getWebClient(),
+                properties.buildEntriesFilter(),
+                properties.buildExtraStaticEntries(eurekaInstanceProperties));
+        return builder -> builder.filters(x -> x.add(0, filter));
+    }
+}
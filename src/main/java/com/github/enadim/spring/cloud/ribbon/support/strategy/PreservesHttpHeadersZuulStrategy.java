@@ -49,7 +49,7 @@ public class PreservesHttpHeadersZuulStrategy extends InstantiationAwareBeanPost
     public boolean postProcessAfterInstantiation(Object bean, String beanName) {
         if (bean instanceof ZuulHandlerMapping) {
             ZuulHandlerMapping zuulHandlerMapping = (ZuulHandlerMapping) bean;
-            zuulHandlerMapping.setInterceptors(new PreservesHttpHeadersInterceptor(properties.buildEntriesFilter()));
+            zuulHandlerMapping.setInterceptors(new PreservesHttpHeadersInterceptor(properties.buildEntriesFilter(), properties.buildEntriesLimiter()));
             zuulHandlerMapping.setInterceptors(new ZuulHeadersEnricher(properties.buildEntriesFilter(), properties.buildExtraStaticEntries(eurekaInstanceProperties)));
             log.info("Context propagation enabled for zuul handler[{}] on keys={}.", beanName, properties.getKeys());
         }
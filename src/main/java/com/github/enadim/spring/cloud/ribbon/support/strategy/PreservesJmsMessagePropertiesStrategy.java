@@ -75,7 +75,8 @@ public class PreservesJmsMessagePropertiesStrategy extends InstantiationAwareBea
                 return new PreservesMessagePropertiesConnectionFactoryAdapter((ConnectionFactory) bean,
                         properties.buildEntriesFilter(),
                         properties.buildExtraStaticEntries(eurekaInstanceProperties),
-                        getEncoder());
+                        getEncoder(),
+                        properties.buildEntriesLimiter());
             } else {
                 log.debug("Context propagation disabled for jms connection factory [{}]", beanName);
             }
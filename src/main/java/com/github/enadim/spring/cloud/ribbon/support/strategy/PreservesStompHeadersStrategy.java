@@ -54,7 +54,8 @@ public class PreservesStompHeadersStrategy extends InstantiationAwareBeanPostPro
                 log.info("Context propagation enabled for stomp session [{}] on keys={}.", beanName, propagationProperties.getKeys());
                 return new PreservesHeadersStompSessionAdapter((StompSession) bean,
                         propagationProperties.buildEntriesFilter(),
-                        propagationProperties.buildExtraStaticEntries(eurekaInstanceProperties));
+                        propagationProperties.buildExtraStaticEntries(eurekaInstanceProperties),
+                        propagationProperties.buildEntriesLimiter());
             } else {
                 log.debug("Context propagation disabled for stomp session [{}]", beanName);
             }
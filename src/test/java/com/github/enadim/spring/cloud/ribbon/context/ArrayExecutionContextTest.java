@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ArrayExecutionContextTest {
+    final ExecutionContextKey registered = ExecutionContextKeys.register("array-registered");
+    final ArrayExecutionContext context = new ArrayExecutionContext();
+    final String key1 = registered.getName();
+    final String value1 = "value1";
+    final String key2 = "array-unregistered";
+    final String value2 = "value2";
+
+    @Test
+    public void testPut() {
+        assertThat(context.put(key1, value1), is(context));
+        assertThat(context.get(key1), is(value1));
+        assertThat(context.get(registered), is(value1));
+        assertThat(context.put(key2, value2), is(context));
+        assertThat(context.get(key2), is(value2));
+        assertThat(context.put(key1, value2), is(context));
+        assertThat(context.get(key1), is(value2));
+        assertThat(context.put("array-other", value1), is(context));
+        assertThat(context.get("array-other"), is(value1));
+        assertThat(context.put(key2, null), is(context));
+        assertThat(context.containsKey(key2), is(false));
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+        assertThat(context.putIfAbsent(key1, value1), is(context));
+        assertThat(context.putIfAbsent(key1, value2), is(context));
+        assertThat(context.get(key1), is(value1));
+        assertThat(context.putIfAbsent(key2, value2), is(context));
+        assertThat(context.putIfAbsent(key2, value1), is(context));
+        assertThat(context.get(key2), is(value2));
+    }
+
+    @Test
+    public void testIsEmpty() {
+        assertThat(context.isEmpty(), is(true));
+        context.put(key1, value1);
+        assertThat(context.isEmpty(), is(false));
+        context.remove(key1);
+        assertThat(context.isEmpty(), is(true));
+        context.put(key2, value2);
+        assertThat(context.isEmpty(), is(false));
+        context.remove(key2);
+        assertThat(context.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testContainsKey() {
+        assertThat(context.containsKey(key1), is(false));
+        context.put(key1, value1);
+        assertThat(context.containsKey(key1), is(true));
+    }
+
+    @Test
+    public void testRemove() {
+        context.put(key1, value1).put(key2, value2);
+        assertThat(context.remove(key1), is(context));
+        assertThat(context.remove(key2), is(context));
+        assertThat(context.containsKey(key1), is(false));
+        assertThat(context.containsKey(key2), is(false));
+        assertThat(context.entrySet().size(), is(0));
+    }
+
+    @Test
+    public void testKeyRegisteredAfterCreation() {
+        context.put("array-late", value2);
+        ExecutionContextKey late = ExecutionContextKeys.register("array-late");
+        assertThat(context.get(late), is(value2));
+        assertThat(context.get("array-late"), is(value2));
+        context.put("array-late", value1);
+        assertThat(context.get(late), is(value1));
+        assertThat(context.entrySet().size(), is(1));
+        assertThat(new ArrayExecutionContext().get(ExecutionContextKeys.register("array-later")), is(nullValue()));
+    }
+
+    @Test
+    public void testEntrySet() {
+        context.put(key1, value1).put(key2, value2);
+        Map<String, String> entries = new HashMap<>();
+        context.entrySet().forEach(x -> entries.put(x.getKey(), x.getValue()));
+        assertThat(entries.size(), is(2));
+        assertThat(entries.get(key1), is(value1));
+        assertThat(entries.get(key2), is(value2));
+    }
+
+    @Test
+    public void testEntrySetWithoutUnregisteredKeys() {
+        context.put(key1, value1);
+        assertThat(context.entrySet().size(), is(1));
+        assertThat(context.entrySet().iterator().next().getValue(), is(value1));
+    }
+
+    @Test
+    public void testConstructFromMap() {
+        Map<String, String> entries = new HashMap<>();
+        entries.put(key1, value1);
+        entries.put(key2, value2);
+        ArrayExecutionContext other = new ArrayExecutionContext(entries);
+        assertThat(other.get(key1), is(value1));
+        assertThat(other.get(key2), is(value2));
+    }
+
+    @Test
+    public void testCopy() {
+        assertThat(context.copy().get(key1), is(nullValue()));
+        context.put(key1, value1).put(key2, value2);
+        ExecutionContext copy = context.copy();
+        copy.put(key1, value2).remove(key2);
+        assertThat(context.get(key1), is(value1));
+        assertThat(context.get(key2), is(value2));
+        assertThat(copy.get(key1), is(value2));
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        context.put(key1, value1).put(key2, value2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream stream = new ObjectOutputStream(out)) {
+            stream.writeObject(context);
+        }
+        try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ExecutionContext deserialized = (ExecutionContext) stream.readObject();
+            assertThat(deserialized.get(registered), is(value1));
+            assertThat(deserialized.get(key2), is(value2));
+        }
+    }
+
+    @Test
+    public void enableConcurrency() {
+        assertThat(context.enableConcurrency(), is(context));
+    }
+
+    @Test
+    public void testVersion() {
+        long initial = context.version();
+        context.put(key1, value1);
+        long written = context.version();
+        assertThat(written > initial, is(true));
+        ExecutionContext copy = context.copy();
+        assertThat(copy.version(), is(written));
+        copy.remove(key1);
+        assertThat(copy.version() > written, is(true));
+        assertThat(context.version(), is(written));
+        context.putIfAbsent(key2, value2);
+        assertThat(context.version() > copy.version(), is(true));
+    }
+
+    @Test
+    public void testPutRegisteredKey() {
+        assertThat(context.put(registered, value1), is(context));
+        assertThat(context.get(key1), is(value1));
+        long written = context.version();
+        context.put(registered, value1).remove(key2).remove(key1).remove(key1);
+        assertThat(context.version() > written, is(true));
+        assertThat(context.isEmpty(), is(true));
+        ExecutionContextKey late = ExecutionContextKeys.register("array-registered-late");
+        assertThat(context.put(late, value2).get(late), is(value2));
+        assertThat(context.entrySet().size(), is(1));
+    }
+
+    @Test
+    public void testVersionKeptWhenUnchanged() {
+        context.put(key1, value1).put(key2, value2);
+        long written = context.version();
+        context.put(key1, value1).put(key2, value2).putIfAbsent(key1, value2).remove("array-absent");
+        assertThat(context.version(), is(written));
+        assertThat(new ArrayExecutionContext().remove(key2).version(), is(ExecutionContextVersions.EMPTY));
+    }
+
+    @Test
+    public void testCopyOnWrite() {
+        context.put(key1, value1).put(key2, value2);
+        ExecutionContext copy = context.copy();
+        context.put(key1, value2).remove(key2);
+        assertThat(copy.get(key1), is(value1));
+        assertThat(copy.get(key2), is(value2));
+        assertThat(copy.entrySet().size(), is(2));
+        assertThat(context.entrySet().size(), is(1));
+        assertThat(copy.version() < context.version(), is(true));
+    }
+
+    @Test
+    public void testEntrySetView() {
+        Set<Entry<String, String>> entries = context.entrySet();
+        assertThat(entries.isEmpty(), is(true));
+        context.put(key1, value1);
+        assertThat(entries.size(), is(1));
+        Iterator<Entry<String, String>> iterator = entries.iterator();
+        assertThat(iterator.next().getKey(), is(key1));
+        assertThat(iterator.hasNext(), is(false));
+        try {
+            iterator.next();
+            throw new AssertionError("no such element expected");
+        } catch (NoSuchElementException e) {
+            assertThat(e, is(notNullValue()));
+        }
+    }
+
+    @Test
+    public void testReadsDoNotLock() throws Exception {
+        context.put(key1, value1).put(key2, value2);
+        synchronized (context) {
+            assertThat(CompletableFuture.supplyAsync(() -> context.get(key1) + context.get(registered) + context.get(key2)
+                    + context.containsKey(key1) + context.isEmpty() + context.entrySet().size() + context.version()).get(10, SECONDS),
+                    is(value1 + value1 + value2 + true + false + 2 + context.version()));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class BranchExecutionContextTest {
+    final ExecutionContext parent = new DefaultExecutionContext().put("parent", "value").put("shared", "value");
+    final BranchExecutionContext context = new BranchExecutionContext(parent, new PersistentExecutionContext());
+
+    @Test
+    public void testPut() {
+        assertThat(context.put("shared", "branch"), is(context));
+        assertThat(context.get("shared"), is("branch"));
+        assertThat(context.get("parent"), is("value"));
+        assertThat(parent.get("shared"), is("value"));
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+        assertThat(context.putIfAbsent("shared", "branch"), is(context));
+        assertThat(context.get("shared"), is("value"));
+        assertThat(context.putIfAbsent("key", "branch"), is(context));
+        assertThat(context.get("key"), is("branch"));
+    }
+
+    @Test
+    public void testRemove() {
+        assertThat(context.remove("shared"), is(context));
+        assertThat(context.get("shared"), is(nullValue()));
+        assertThat(context.containsKey("shared"), is(false));
+        assertThat(parent.get("shared"), is("value"));
+        context.remove("missing");
+        assertThat(context.delta().size(), is(1));
+        context.putIfAbsent("shared", "branch");
+        assertThat(context.containsKey("shared"), is(true));
+    }
+
+    @Test
+    public void testContainsKey() {
+        assertThat(context.containsKey("parent"), is(true));
+        assertThat(context.containsKey("missing"), is(false));
+    }
+
+    @Test
+    public void testEnableConcurrency() {
+        assertThat(context.enableConcurrency(), is(context));
+    }
+
+    @Test
+    public void testEntrySet() {
+        context.put("key", "branch").put("shared", "branch").remove("parent");
+        Map<String, String> entries = new HashMap<>();
+        Set<Entry<String, String>> entrySet = context.entrySet();
+        entrySet.forEach(x -> entries.put(x.getKey(), x.getValue()));
+        assertThat(entries.size(), is(2));
+        assertThat(entries.get("key"), is("branch"));
+        assertThat(entries.get("shared"), is("branch"));
+        assertThat(context.isEmpty(), is(false));
+    }
+
+    @Test
+    public void testCopy() {
+        context.put("key", "branch");
+        ExecutionContext copy = context.copy();
+        copy.put("key", "copy");
+        assertThat(context.get("key"), is("branch"));
+        assertThat(copy.get("key"), is("copy"));
+        assertThat(copy.get("parent"), is("value"));
+    }
+
+    @Test
+    public void testVersion() {
+        assertThat(context.version(), is(parent.version()));
+        context.put("key", "branch");
+        long written = context.version();
+        assertThat(written > parent.version(), is(true));
+        ExecutionContext copy = context.copy();
+        assertThat(copy.version(), is(written));
+        copy.remove("key");
+        assertThat(copy.version() > written, is(true));
+        context.putIfAbsent("other", "branch");
+        assertThat(context.version() > copy.version(), is(true));
+    }
+}
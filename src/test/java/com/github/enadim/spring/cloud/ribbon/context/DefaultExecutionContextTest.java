@@ -17,6 +17,10 @@ package com.github.enadim.spring.cloud.ribbon.context;
 
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -36,6 +40,20 @@ public class DefaultExecutionContextTest {
     final String key2 = "key2";
     final String value2 = "value2";
 
+    @Test
+    public void testSerialization() throws Exception {
+        context.put(key1, value1).put(key2, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream stream = new ObjectOutputStream(out)) {
+            stream.writeObject(context);
+        }
+        try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ExecutionContext deserialized = (ExecutionContext) stream.readObject();
+            assertThat(deserialized.get(key1), is(value1));
+            assertThat(deserialized.containsKey(key2), is(true));
+        }
+    }
+
     @Test
     public void testPut() {
         assertThat(context.put(key1, value1), is(context));
@@ -52,6 +70,17 @@ public class DefaultExecutionContextTest {
         assertThat(context.get(key1), is(value1));
     }
 
+    @Test
+    public void testIsEmpty() {
+        assertThat(context.isEmpty(), is(true));
+        context.put(key1, value1);
+        assertThat(context.isEmpty(), is(false));
+        context.remove(key1);
+        assertThat(context.isEmpty(), is(true));
+        context.put(key2, value2);
+        assertThat(context.isEmpty(), is(false));
+    }
+
     @Test
     public void testContainsKey() {
         assertThat(context.containsKey(key1), is(false));
@@ -69,6 +98,18 @@ public class DefaultExecutionContextTest {
         assertThat(context.containsKey(key1), is(false));
     }
 
+    @Test
+    public void testGetRegisteredKey() {
+        context.put(key1, value1);
+        assertThat(context.get(ExecutionContextKeys.register(key1)), is(value1));
+    }
+
+    @Test
+    public void testPutRegisteredKey() {
+        assertThat(context.put(ExecutionContextKeys.register(key1), value1), is(context));
+        assertThat(context.get(key1), is(value1));
+    }
+
     @Test
     public void testCopy() throws CloneNotSupportedException {
         assertThat(context.put(key1, value1), is(context));
@@ -112,4 +153,48 @@ public class DefaultExecutionContextTest {
         }
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testVersion() {
+        long initial = context.version();
+        context.put(key1, value1);
+        long written = context.version();
+        assertThat(written > initial, is(true));
+        ExecutionContext copy = context.copy();
+        assertThat(copy.version(), is(written));
+        copy.remove(key1);
+        assertThat(copy.version() > written, is(true));
+        assertThat(context.version(), is(written));
+        context.putIfAbsent(key2, value2);
+        assertThat(context.version() > copy.version(), is(true));
+        ExecutionContext initialized = new DefaultExecutionContext(Collections.singletonMap(key1, value1));
+        assertThat(initialized.get(key1), is(value1));
+        assertThat(initialized.version() > copy.version(), is(true));
+    }
+
+    @Test
+    public void testVersionKeptWhenUnchanged() {
+        context.put(key1, value1);
+        long written = context.version();
+        context.put(key1, value1);
+        context.putIfAbsent(key1, value2);
+        context.remove(key2);
+        assertThat(context.version(), is(written));
+        context.put(key1, value2);
+        assertThat(context.version() > written, is(true));
+    }
+
+    @Test
+    public void testUnversionedOnceConcurrent() {
+        context.put(key1, value1);
+        long written = context.version();
+        context.enableConcurrency();
+        assertThat(context.version(), is(ExecutionContext.UNVERSIONED));
+        context.put(key2, value2);
+        assertThat(context.version(), is(ExecutionContext.UNVERSIONED));
+        ExecutionContext copy = context.copy();
+        assertThat(copy.version() > written, is(true));
+        assertThat(copy.get(key2), is(value2));
+        assertThat(context.copy().version() > copy.version(), is(true));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+
+public class EmptyExecutionContextTest {
+    private final EmptyExecutionContext context = EmptyExecutionContext.INSTANCE;
+
+    @After
+    public void after() {
+        remove();
+    }
+
+    @Test
+    public void testRead() {
+        assertThat(context.get("key"), is(nullValue()));
+        assertThat(context.get(ExecutionContextKeys.register("empty-key")), is(nullValue()));
+        assertThat(context.containsKey("key"), is(false));
+        assertThat(context.entrySet().isEmpty(), is(true));
+        assertThat(context.isEmpty(), is(true));
+        assertThat(context.copy(), is(context));
+        assertThat(context.remove("key"), is(context));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testPut() {
+        context.put("key", "value");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testPutIfAbsent() {
+        context.putIfAbsent("key", "value");
+    }
+
+    @Test
+    public void testEnableConcurrency() {
+        assertThat(context.enableConcurrency(), is(context));
+    }
+
+    @Test
+    public void testReplacedOnWrite() {
+        try (Scope scope = ExecutionContextHolder.attachEmpty()) {
+            ExecutionContext written = current().put("key", "value");
+            assertThat(written, is(not(context)));
+            assertThat(written.get("key"), is("value"));
+        }
+        assertThat(context.isEmpty(), is(true));
+        assertThat(context.entrySet().isEmpty(), is(true));
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream stream = new ObjectOutputStream(out)) {
+            stream.writeObject(context);
+        }
+        try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(stream.readObject(), is(context));
+        }
+    }
+
+    @Test
+    public void testVersion() {
+        assertThat(context.version(), is(0L));
+        assertThat(new PersistentExecutionContext().version(), is(0L));
+        assertThat(mock(ExecutionContext.class, CALLS_REAL_METHODS).version(), is(ExecutionContext.UNVERSIONED));
+    }
+}
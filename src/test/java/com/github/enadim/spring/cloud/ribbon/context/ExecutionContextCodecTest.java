@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextCodec.decode;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextCodec.encode;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextCodec.encodedLength;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+public class ExecutionContextCodecTest {
+    final ExecutionContextKey registered = ExecutionContextKeys.register("codec-registered");
+    final ExecutionContext context = new PersistentExecutionContext()
+            .put(registered.getName(), "value")
+            .put("ascii", "value")
+            .put("utf8-é", "valeur-€-😀")
+            .put("null", null)
+            .put("long", new String(new char[200]).replace('\0', 'x'));
+
+    @After
+    public void after() {
+        ExecutionContextHolder.setType(ExecutionContextType.DEFAULT);
+    }
+
+    private void assertDecoded(ExecutionContext decoded) {
+        assertThat(decoded.get(registered), is("value"));
+        assertThat(decoded.get("ascii"), is("value"));
+        assertThat(decoded.get("utf8-é"), is("valeur-€-😀"));
+        assertThat(decoded.containsKey("null"), is(true));
+        assertThat(decoded.get("null") == null, is(true));
+        assertThat(decoded.get("long"), is(context.get("long")));
+        assertThat(decoded.entrySet().size(), is(5));
+    }
+
+    @Test
+    public void testEncode() {
+        byte[] bytes = encode(context);
+        assertThat(bytes.length, is(encodedLength(context, false)));
+        assertThat(bytes[0], is(ExecutionContextCodec.VERSION));
+        ExecutionContextHolder.setType(ExecutionContextType.PERSISTENT);
+        ExecutionContext decoded = decode(ByteBuffer.wrap(bytes));
+        assertThat(decoded, instanceOf(PersistentExecutionContext.class));
+        assertDecoded(decoded);
+    }
+
+    @Test
+    public void testEncodeWithKeyIds() {
+        int length = encodedLength(context, true);
+        assertThat(length < encodedLength(context, false), is(true));
+        ByteBuffer buffer = ByteBuffer.allocateDirect(length + 1);
+        buffer.put((byte) 7);
+        encode(context, buffer, true);
+        assertThat(buffer.position(), is(length + 1));
+        buffer.flip();
+        buffer.get();
+        assertDecoded(decode(buffer, new DefaultExecutionContext()));
+        assertThat(buffer.hasRemaining(), is(false));
+    }
+
+    @Test
+    public void testEncodeEmpty() {
+        assertThat(encode(EmptyExecutionContext.INSTANCE).length, is(3));
+        assertThat(decode(ByteBuffer.wrap(encode(EmptyExecutionContext.INSTANCE))).isEmpty(), is(true));
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void testEncodeOverflow() {
+        encode(context, ByteBuffer.allocate(encodedLength(context, false) - 1), false);
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void testEncodeAsciiOverflow() {
+        encode(new DefaultExecutionContext().put("key", "value"), ByteBuffer.allocate(9), false);
+    }
+
+    @Test
+    public void testUnsupportedVersion() {
+        byte[] bytes = encode(context);
+        bytes[0] = 2;
+        try {
+            decode(ByteBuffer.wrap(bytes));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("Unsupported execution context codec version [2]."));
+        }
+    }
+
+    @Test
+    public void testUnknownKeyId() {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.put(ExecutionContextCodec.VERSION).put((byte) 1).put((byte) 1).put((byte) 0xFF).put((byte) 0x7F).put((byte) 0);
+        buffer.flip();
+        try {
+            decode(buffer);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("Unknown execution context key id [8191]."));
+        }
+    }
+
+    @Test
+    public void testLargestVarint() {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.put(ExecutionContextCodec.VERSION).put((byte) 1).put((byte) 0x80).put((byte) 0x80).put((byte) 0x80).put((byte) 0x80).put((byte) 0x07);
+        buffer.flip();
+        try {
+            decode(buffer);
+            fail();
+        } catch (BufferUnderflowException e) {
+            assertThat(buffer.remaining(), is(0));
+        }
+    }
+
+    @Test
+    public void testVarintLongerThanFiveBytes() {
+        assertMalformedVarint((byte) 0x80, "Malformed execution context varint: last byte [0x80].");
+    }
+
+    @Test
+    public void testVarintAboveMaxInt() {
+        assertMalformedVarint((byte) 0x08, "Malformed execution context varint: last byte [0x08].");
+    }
+
+    void assertMalformedVarint(byte last, String message) {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.put(ExecutionContextCodec.VERSION).put((byte) 1).put((byte) 0xFF).put((byte) 0xFF).put((byte) 0xFF).put((byte) 0xFF).put(last).put((byte) 0);
+        buffer.flip();
+        try {
+            decode(buffer);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is(message));
+        }
+    }
+}
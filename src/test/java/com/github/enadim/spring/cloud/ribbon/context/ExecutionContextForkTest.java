@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.fork;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+
+public class ExecutionContextForkTest {
+
+    @After
+    public void after() {
+        remove();
+        ExecutionContextHolder.setMergePolicy(ExecutionContextMergePolicy.LAST_WINS);
+    }
+
+    @Test
+    public void testBranchesAreIsolated() {
+        ExecutionContext context = current().put("key", "value");
+        ExecutionContextFork fork = fork();
+        ExecutionContext branch1 = fork.branch();
+        ExecutionContext branch2 = fork.branch();
+        branch1.put("key", "value1");
+        context.put("other", "value");
+        assertThat(branch1.get("key"), is("value1"));
+        assertThat(branch2.get("key"), is("value"));
+        assertThat(branch2.get("other"), is(nullValue()));
+        assertThat(context.get("key"), is("value"));
+    }
+
+    @Test
+    public void testJoin() {
+        ExecutionContext context = current().put("key", "value").put("removed", "value");
+        ExecutionContextFork fork = fork();
+        fork.branch().put("key1", "value1").remove("removed");
+        fork.branch().put("key2", "value2");
+        assertThat(fork.join(), is(context));
+        assertThat(context.get("key"), is("value"));
+        assertThat(context.get("key1"), is("value1"));
+        assertThat(context.get("key2"), is("value2"));
+        assertThat(context.containsKey("removed"), is(false));
+        context.put("key1", "other");
+        assertThat(fork.join().get("key1"), is("other"));
+    }
+
+    @Test
+    public void testJoinEmpty() {
+        ExecutionContextFork fork = fork();
+        fork.branch().put("key", "value");
+        ExecutionContext joined = fork.join();
+        assertThat(current(), is(joined));
+        assertThat(joined.get("key"), is("value"));
+    }
+
+    @Test
+    public void testDiscard() {
+        ExecutionContextFork fork = fork();
+        ExecutionContext branch = fork.branch();
+        branch.put("key", "value");
+        fork.discard(branch);
+        fork.discard(fork.branch().put("other", "value").copy());
+        assertThat(fork.join().get("key"), is(nullValue()));
+        assertThat(current().get("other"), is("value"));
+    }
+
+    @Test
+    public void testSameValueIsNotAConflict() {
+        ExecutionContextFork fork = fork(ExecutionContextMergePolicy.FAIL);
+        fork.branch().put("key", "value");
+        fork.branch().put("key", "value");
+        assertThat(fork.join().get("key"), is("value"));
+    }
+
+    @Test
+    public void testLastWins() {
+        ExecutionContextFork fork = fork();
+        fork.branch().put("key", "value1");
+        fork.branch().put("key", "value2");
+        assertThat(fork.join().get("key"), is("value2"));
+    }
+
+    @Test
+    public void testFirstWins() {
+        ExecutionContextHolder.setMergePolicy(ExecutionContextMergePolicy.FIRST_WINS);
+        ExecutionContextFork fork = fork();
+        fork.branch().put("key", "value1");
+        fork.branch().put("key", "value2");
+        assertThat(fork.join().get("key"), is("value1"));
+    }
+
+    @Test
+    public void testFail() {
+        ExecutionContext context = current().put("key", "value");
+        ExecutionContextFork fork = fork(ExecutionContextMergePolicy.FAIL);
+        fork.branch().put("key", "value1").put("other", "value");
+        fork.branch().remove("key");
+        try {
+            fork.join();
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("Conflicting values [value1] and [null] for the execution context key [key]."));
+        }
+        assertThat(context.get("key"), is("value"));
+        assertThat(context.containsKey("other"), is(false));
+    }
+}
@@ -19,15 +19,24 @@ import org.junit.After;
 import org.junit.Test;
 
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.attach;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.attachEmpty;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.capture;
 import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.peek;
 import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
 import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.switchTo;
 import static java.util.concurrent.Executors.newFixedThreadPool;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.mock;
 
@@ -47,6 +56,56 @@ public class ExecutionContextHolderTest {
         remove();
     }
 
+    @Test
+    public void testEmpty() throws Exception {
+        ExecutionContext empty = peek();
+        assertThat(empty, is(EmptyExecutionContext.INSTANCE));
+        assertThat(capture(), is(empty));
+        ExecutionContext context = current();
+        assertThat(context, is(not(empty)));
+        assertThat(peek(), is(context));
+        assertThat(capture(), is(empty));
+        context.put("key", "value");
+        assertThat(context.get("key"), is("value"));
+        assertThat(context.entrySet().size(), is(1));
+        ExecutionContext captured = capture();
+        assertThat(captured, is(not(context)));
+        assertThat(captured.get("key"), is("value"));
+    }
+
+    @Test
+    public void testCapturedEmptyOnAnotherThread() throws Exception {
+        ExecutionContext captured = capture();
+        ExecutorService executorService = newFixedThreadPool(1);
+        try {
+            executorService.submit(() -> {
+                current().put("key", "value");
+                try (Scope scope = attach(captured)) {
+                    assertThat(current().get("key"), is(nullValue()));
+                    current().put("other", "value");
+                }
+                assertThat(current().containsKey("other"), is(false));
+            }).get();
+        } finally {
+            executorService.shutdown();
+        }
+        assertThat(captured.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testAttachEmpty() throws Exception {
+        ExecutionContext previous = current().put("key", "value");
+        try (Scope scope = attachEmpty()) {
+            assertThat(peek(), is(EmptyExecutionContext.INSTANCE));
+            ExecutionContext context = current().putIfAbsent("key", "other");
+            assertThat(current(), is(context));
+            assertThat(peek(), is(context));
+            assertThat(context.get("key"), is("other"));
+        }
+        assertThat(current(), is(previous));
+        assertThat(current().get("key"), is("value"));
+    }
+
     @Test
     public void testSwitchTo() throws Exception {
         ExecutionContext context = mock(ExecutionContext.class);
@@ -55,6 +114,112 @@ public class ExecutionContextHolderTest {
         remove();
     }
 
+    @Test
+    public void testType() throws Exception {
+        assertThat(ExecutionContextHolder.getType(), is(ExecutionContextType.DEFAULT));
+        assertThat(ExecutionContextHolder.create(), instanceOf(DefaultExecutionContext.class));
+        ExecutionContextHolder.setType(ExecutionContextType.PERSISTENT);
+        try {
+            assertThat(ExecutionContextHolder.create(), instanceOf(PersistentExecutionContext.class));
+            remove();
+            assertThat(current().put("key", "value"), instanceOf(PersistentExecutionContext.class));
+            assertThat(current(), instanceOf(PersistentExecutionContext.class));
+            ExecutionContextHolder.setType(ExecutionContextType.ARRAY);
+            assertThat(ExecutionContextHolder.create(), instanceOf(ArrayExecutionContext.class));
+        } finally {
+            ExecutionContextHolder.setType(ExecutionContextType.DEFAULT);
+        }
+    }
+
+    @Test
+    public void testAttach() throws Exception {
+        ExecutionContext previous = current();
+        ExecutionContext context = new DefaultExecutionContext();
+        try (Scope scope = attach(context)) {
+            assertThat(current(), is(context));
+            Scope nested = attach(previous);
+            assertThat(nested, is(not(scope)));
+            nested.close();
+            assertThat(current(), is(context));
+            assertThat(attach(previous), is(nested));
+            nested.close();
+        }
+        assertThat(current(), is(previous));
+    }
+
+    @Test
+    public void testOutOfOrderCloseFailsFast() throws Exception {
+        ExecutionContext previous = current();
+        ExecutionContext outer = new DefaultExecutionContext();
+        ExecutionContext inner = new DefaultExecutionContext();
+        try (Scope outerScope = attach(outer)) {
+            try (Scope innerScope = attach(inner)) {
+                try {
+                    outerScope.close();
+                    throw new AssertionError("IllegalStateException expected");
+                } catch (IllegalStateException e) {
+                    assertThat(current(), is(inner));
+                }
+            }
+            assertThat(current(), is(outer));
+        }
+        assertThat(current(), is(previous));
+    }
+
+    @Test
+    public void testCloseOnAnotherThreadFailsFast() throws Exception {
+        ExecutionContext context = new DefaultExecutionContext();
+        ExecutorService executorService = newFixedThreadPool(1);
+        try (Scope scope = attach(context)) {
+            Future<?> foreign = executorService.submit(scope::close);
+            try {
+                foreign.get();
+                throw new AssertionError("IllegalStateException expected");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+            }
+            assertThat(current(), is(context));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testAttachNested() throws Exception {
+        ExecutionContext previous = current();
+        List<ExecutionContext> contexts = new ArrayList<>();
+        List<Scope> scopes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ExecutionContext context = new DefaultExecutionContext();
+            contexts.add(context);
+            scopes.add(attach(context));
+            assertThat(current(), is(context));
+        }
+        for (int i = 9; i >= 0; i--) {
+            assertThat(current(), is(contexts.get(i)));
+            scopes.get(i).close();
+        }
+        assertThat(current(), is(previous));
+    }
+
+    @Test
+    public void testAttachRestoresUninitializedContext() throws Exception {
+        remove();
+        ExecutionContext context = new DefaultExecutionContext();
+        try (Scope scope = attach(context)) {
+            assertThat(remove(), is(context));
+            assertThat(current(), is(not(context)));
+        }
+        assertThat(current(), is(not(context)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCloseWithoutAttach() throws Exception {
+        Scope scope = attach(current());
+        scope.close();
+        scope.close();
+    }
+
     @Test
     public void inheritance_works_when_creating_child_threads() throws Exception {
         String key = "key";
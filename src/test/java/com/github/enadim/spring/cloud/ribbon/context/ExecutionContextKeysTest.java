@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ExecutionContextKeysTest {
+
+    @Test
+    public void testConstructor() throws Exception {
+        Constructor<?> constructor = ExecutionContextKeys.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        constructor.newInstance();
+    }
+
+    @Test
+    public void register() {
+        int size = ExecutionContextKeys.size();
+        ExecutionContextKey key = ExecutionContextKeys.register("keys-test-register");
+        assertThat(key.getName(), is("keys-test-register"));
+        assertThat(key.toString(), is("keys-test-register"));
+        assertThat(key.getId(), is(size));
+        assertThat(ExecutionContextKeys.size(), is(size + 1));
+        assertThat(ExecutionContextKeys.register("keys-test-register"), is(key));
+        assertThat(ExecutionContextKeys.find("keys-test-register"), is(key));
+        assertThat(ExecutionContextKeys.get(key.getId()), is(key));
+        assertThat(ExecutionContextKeys.size(), is(size + 1));
+    }
+
+    @Test
+    public void find_unregistered() {
+        assertThat(ExecutionContextKeys.find("keys-test-unregistered"), is(nullValue()));
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ExecutionContextMemoTest {
+    final AtomicInteger computations = new AtomicInteger();
+    final ExecutionContextMemo<String> memo = new ExecutionContextMemo<>(x -> {
+        computations.incrementAndGet();
+        return x.get("key");
+    });
+
+    @Test
+    public void testGet() {
+        ExecutionContext context = new PersistentExecutionContext().put("key", "value");
+        assertThat(memo.get(context), is("value"));
+        assertThat(memo.get(context), is("value"));
+        assertThat(memo.get(context.copy()), is("value"));
+        assertThat(computations.get(), is(1));
+        context.put("key", "other");
+        assertThat(memo.get(context), is("other"));
+        assertThat(computations.get(), is(2));
+    }
+
+    @Test
+    public void testUnversioned() {
+        ExecutionContext context = mock(ExecutionContext.class, CALLS_REAL_METHODS);
+        when(context.get("key")).thenReturn("value");
+        assertThat(memo.get(context), is("value"));
+        assertThat(memo.get(context), is("value"));
+        assertThat(computations.get(), is(2));
+    }
+}
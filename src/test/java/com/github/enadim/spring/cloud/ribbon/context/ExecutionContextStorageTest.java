@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.setStorage;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ExecutionContextStorageTest {
+    private final String key = "key";
+    private final String value = "value";
+
+    @After
+    public void after() {
+        remove();
+        setStorage(ExecutionContextStorage.INHERITABLE);
+    }
+
+    @Test
+    public void thread_local_is_not_inherited() throws Exception {
+        setStorage(ExecutionContextStorage.THREAD_LOCAL);
+        current().put(key, value);
+        assertThat(callInChildThread(() -> current().get(key)), is(nullValue()));
+        assertThat(current().get(key), is(value));
+        remove();
+        assertThat(current().containsKey(key), is(false));
+    }
+
+    @Test
+    public void inheritable_copies_the_parent_context() throws Exception {
+        setStorage(ExecutionContextStorage.INHERITABLE);
+        current().put(key, value);
+        ExecutionContext parent = current();
+        assertThat(callInChildThread(() -> {
+            ExecutionContext child = current();
+            child.put(key, "child");
+            return child != parent && "child".equals(child.get(key));
+        }), is(true));
+        assertThat(current().get(key), is(value));
+    }
+
+    @Test
+    public void inheritable_without_parent_context() throws Exception {
+        setStorage(ExecutionContextStorage.INHERITABLE);
+        remove();
+        ExecutionContextStorage.INHERITABLE.slot();
+        assertThat(callInChildThread(() -> current().entrySet().isEmpty()), is(true));
+    }
+
+    @Test
+    public void indexed_uses_the_thread_slot() throws Exception {
+        setStorage(ExecutionContextStorage.INDEXED);
+        ExecutorService executorService = newFixedThreadPool(1, new ExecutionContextThreadFactory("indexed-", true));
+        try {
+            assertThat(executorService.submit(() -> {
+                ExecutionContextThread thread = (ExecutionContextThread) Thread.currentThread();
+                current().put(key, value);
+                boolean stored = thread.getSlot().peek() == current();
+                ExecutionContext removed = remove();
+                return stored && thread.getSlot().peek() == null && removed.get(key).equals(value);
+            }).get(), is(true));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void indexed_falls_back_to_thread_local() throws Exception {
+        setStorage(ExecutionContextStorage.INDEXED);
+        current().put(key, value);
+        assertThat(ExecutionContextStorage.THREAD_LOCAL.slot().peek(), is(current()));
+        ExecutionContext removed = remove();
+        assertThat(current(), is(not(removed)));
+    }
+
+    private static <T> T callInChildThread(Callable<T> callable) throws Exception {
+        FutureTask<T> task = new FutureTask<>(callable);
+        Thread thread = new Thread(task);
+        thread.start();
+        return task.get();
+    }
+}
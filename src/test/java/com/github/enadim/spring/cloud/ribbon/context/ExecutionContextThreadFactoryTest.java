@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+public class ExecutionContextThreadFactoryTest {
+
+    @Test
+    public void newThread() {
+        ExecutionContextThreadFactory factory = new ExecutionContextThreadFactory("test-", true);
+        Thread thread = factory.newThread(() -> {
+        });
+        assertThat(thread, instanceOf(ExecutionContextThread.class));
+        assertThat(thread.getName(), is("test-1"));
+        assertThat(thread.isDaemon(), is(true));
+        assertThat(factory.newThread(null).getName(), is("test-2"));
+    }
+
+    @Test
+    public void newExecutionContextThread() {
+        ExecutionContextThread thread = new ExecutionContextThread(() -> {
+        });
+        assertThat(thread.getSlot(), is(notNullValue()));
+    }
+}
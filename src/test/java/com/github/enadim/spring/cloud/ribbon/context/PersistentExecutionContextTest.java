@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.context;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class PersistentExecutionContextTest {
+    final PersistentExecutionContext context = new PersistentExecutionContext();
+    final String key1 = "key1";
+    final String value1 = "value1";
+    final String key2 = "key2";
+    final String value2 = "value2";
+
+    @Test
+    public void testPut() {
+        assertThat(context.put(key1, value1), is(context));
+        assertThat(context.get(key1), is(value1));
+        assertThat(context.put(key1, value1), is(context));
+        assertThat(context.get(key1), is(value1));
+        assertThat(context.put(key1, value2), is(context));
+        assertThat(context.get(key1), is(value2));
+        assertThat(context.put(key2, null), is(context));
+        assertThat(context.containsKey(key2), is(true));
+        assertThat(context.get(key2), is(nullValue()));
+        assertThat(context.get("missing"), is(nullValue()));
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+        assertThat(context.putIfAbsent(key1, value1), is(context));
+        assertThat(context.get(key1), is(value1));
+        assertThat(context.putIfAbsent(key1, value2), is(context));
+        assertThat(context.get(key1), is(value1));
+        context.put(key2, null);
+        assertThat(context.putIfAbsent(key2, value2), is(context));
+        assertThat(context.get(key2), is(value2));
+    }
+
+    @Test
+    public void testIsEmpty() {
+        assertThat(context.isEmpty(), is(true));
+        context.put(key1, value1);
+        assertThat(context.isEmpty(), is(false));
+        context.remove(key1);
+        assertThat(context.isEmpty(), is(true));
+        context.put(key2, value2);
+        assertThat(context.isEmpty(), is(false));
+    }
+
+    @Test
+    public void testContainsKey() {
+        assertThat(context.containsKey(key1), is(false));
+        context.put(key1, value1);
+        assertThat(context.containsKey(key1), is(true));
+    }
+
+    @Test
+    public void testRemove() {
+        assertThat(context.remove(key1), is(context));
+        assertThat(context.containsKey(key1), is(false));
+        context.put(key1, value1).put(key2, value2);
+        assertThat(context.containsKey(key1), is(true));
+        assertThat(context.remove(key1), is(context));
+        assertThat(context.containsKey(key1), is(false));
+        assertThat(context.get(key2), is(value2));
+    }
+
+    @Test
+    public void testEntrySet() {
+        context.put(key2, value2).put(key1, value1);
+        List<String> keys = new ArrayList<>();
+        context.entrySet().forEach(x -> keys.add(x.getKey()));
+        assertThat(keys, contains(key1, key2));
+        assertThat(context.entrySet().size(), is(2));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testEntrySetIteratorExhausted() {
+        Iterator<Entry<String, String>> iterator = context.entrySet().iterator();
+        iterator.next();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testEntrySetUnmodifiable() {
+        context.put(key1, value1);
+        context.entrySet().iterator().next().setValue(value2);
+    }
+
+    @Test
+    public void testConstructFromMap() {
+        Map<String, String> entries = new HashMap<>();
+        entries.put(key2, value2);
+        entries.put(key1, value1);
+        PersistentExecutionContext other = new PersistentExecutionContext(entries);
+        assertThat(other.get(key1), is(value1));
+        assertThat(other.get(key2), is(value2));
+    }
+
+    @Test
+    public void testCopy() {
+        context.put(key1, value1);
+        ExecutionContext copy = context.copy();
+        assertThat(copy.get(key1), is(value1));
+        copy.put(key1, value2).put(key2, value2);
+        assertThat(context.get(key1), is(value1));
+        assertThat(context.containsKey(key2), is(false));
+        context.remove(key1);
+        assertThat(copy.get(key1), is(value2));
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        context.put(key1, value1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream stream = new ObjectOutputStream(out)) {
+            stream.writeObject(context);
+        }
+        try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ExecutionContext deserialized = (ExecutionContext) stream.readObject();
+            assertThat(deserialized.get(key1), is(value1));
+        }
+    }
+
+    @Test
+    public void enableConcurrency() throws Exception {
+        assertThat(context.enableConcurrency(), is(context));
+        int concurrent = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(concurrent);
+        List<Future<Boolean>> futures = new ArrayList<>(concurrent);
+        for (int i = 0; i < concurrent; i++) {
+            String prefix = Integer.toString(i);
+            futures.add(executorService.submit(() -> {
+                for (int j = 0; j < 100; j++) {
+                    context.put(prefix + j, prefix);
+                }
+                for (int j = 0; j < 100; j += 2) {
+                    context.remove(prefix + j);
+                }
+                return true;
+            }));
+        }
+        for (Future<Boolean> x : futures) {
+            assertThat(x.get(), is(true));
+        }
+        executorService.shutdown();
+        assertThat(context.entrySet().size(), is(concurrent * 50));
+    }
+
+    @Test
+    public void testVersion() {
+        long initial = context.version();
+        context.put(key1, value1);
+        long written = context.version();
+        assertThat(written > initial, is(true));
+        ExecutionContext copy = context.copy();
+        assertThat(copy.version(), is(written));
+        copy.remove(key1);
+        assertThat(copy.version() > written, is(true));
+        assertThat(context.version(), is(written));
+        context.putIfAbsent(key2, value2);
+        assertThat(context.version() > copy.version(), is(true));
+    }
+}
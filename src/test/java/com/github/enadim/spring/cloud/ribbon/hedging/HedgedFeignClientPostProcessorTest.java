@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.hedging;
+
+import feign.Client;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.cloud.openfeign.ribbon.CachingSpringLoadBalancerFactory;
+import org.springframework.cloud.openfeign.ribbon.LoadBalancerFeignClient;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+public class HedgedFeignClientPostProcessorTest {
+    ObjectProvider<CachingSpringLoadBalancerFactory> loadBalancerFactory = mock(ObjectProvider.class);
+    ObjectProvider<SpringClientFactory> clientFactory = mock(ObjectProvider.class);
+    HedgedFeignClientPostProcessor postProcessor = new HedgedFeignClientPostProcessor(loadBalancerFactory, clientFactory, 2);
+    Client delegate = mock(Client.class);
+
+    {
+        when(loadBalancerFactory.getObject()).thenReturn(mock(CachingSpringLoadBalancerFactory.class));
+        when(clientFactory.getObject()).thenReturn(mock(SpringClientFactory.class));
+    }
+
+    @After
+    public void after() {
+        postProcessor.destroy();
+    }
+
+    @Test
+    public void shouldReplaceTheLoadBalancingClient() {
+        LoadBalancerFeignClient client = new LoadBalancerFeignClient(delegate, loadBalancerFactory.getObject(), clientFactory.getObject());
+        Object hedged = postProcessor.postProcessAfterInitialization(client, "feignClient");
+        assertThat(hedged, instanceOf(HedgedFeignClient.class));
+        assertThat(((HedgedFeignClient) hedged).getDelegate(), is(delegate));
+        assertThat(postProcessor.postProcessAfterInitialization(hedged, "feignClient"), sameInstance(hedged));
+    }
+
+    @Test
+    public void shouldKeepTheOtherBeans() {
+        assertThat(postProcessor.postProcessAfterInitialization(delegate, "delegate"), sameInstance(delegate));
+    }
+}
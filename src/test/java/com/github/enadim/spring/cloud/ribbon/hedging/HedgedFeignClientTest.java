@@ -0,0 +1,453 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.hedging;
+
+import com.github.enadim.spring.cloud.ribbon.predicate.ZoneAffinityMatcher;
+import com.github.enadim.spring.cloud.ribbon.rule.PredicateBasedRuleSupport;
+import com.netflix.client.config.DefaultClientConfigImpl;
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.IRule;
+import com.netflix.loadbalancer.LoadBalancerStats;
+import com.netflix.loadbalancer.Server;
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+import feign.Response.Body;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.stubbing.Answer;
+import org.springframework.cloud.netflix.ribbon.RibbonLoadBalancerContext;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.cloud.openfeign.ribbon.CachingSpringLoadBalancerFactory;
+import org.springframework.cloud.openfeign.ribbon.LoadBalancerFeignClient;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.github.enadim.spring.cloud.ribbon.predicate.CompositeServerPredicate.withPredicates;
+import static com.netflix.client.config.CommonClientConfigKey.ConnectTimeout;
+import static com.netflix.client.config.CommonClientConfigKey.MaxAutoRetries;
+import static com.netflix.client.config.CommonClientConfigKey.MaxAutoRetriesNextServer;
+import static com.netflix.client.config.CommonClientConfigKey.ReadTimeout;
+import static com.netflix.loadbalancer.AbstractServerPredicate.alwaysTrue;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.util.ReflectionTestUtils.getField;
+
+public class HedgedFeignClientTest {
+    Server server1 = new Server("host1", 80);
+    Server server2 = new Server("host2", 80);
+    PredicateBasedRuleSupport rule = new PredicateBasedRuleSupport(withPredicates(alwaysTrue()).build());
+    BaseLoadBalancer loadBalancer = new BaseLoadBalancer("application", rule, new LoadBalancerStats("application"));
+    Client delegate = mock(Client.class);
+    CachingSpringLoadBalancerFactory loadBalancerFactory = mock(CachingSpringLoadBalancerFactory.class);
+    SpringClientFactory clientFactory = mock(SpringClientFactory.class);
+    ExecutorService executor = Executors.newCachedThreadPool();
+    HedgedFeignClient client = new HedgedFeignClient(delegate, loadBalancerFactory, clientFactory, executor);
+    Map<String, Collection<String>> headers = new HashMap<>();
+    Request request = Request.create("GET", "http://application/path", headers, null, null);
+    Options options = new Options();
+    Body body1 = mock(Body.class);
+    Body body2 = mock(Body.class);
+    Response response1 = Response.create(200, "OK", headers, body1);
+    Response response2 = Response.create(200, "OK", headers, body2);
+    CountDownLatch latch = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    DefaultClientConfigImpl clientConfig = new DefaultClientConfigImpl();
+
+    {
+        clientConfig.set(MaxAutoRetries, 0);
+        clientConfig.set(MaxAutoRetriesNextServer, 0);
+        when(clientFactory.getClientConfig(any())).thenReturn(clientConfig);
+        loadBalancer.addServers(asList(server1, server2));
+        headers.put("tenant", singletonList("tenant1"));
+        when(clientFactory.getLoadBalancerContext("application")).thenReturn(new RibbonLoadBalancerContext(loadBalancer));
+        when(loadBalancerFactory.create(any())).thenThrow(new IllegalStateException("ribbon"));
+    }
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    HedgingPolicy policy(long minDelay, int minSamples) {
+        HedgingPolicy policy = new HedgingPolicy(true, rule, 95, minDelay, minSamples, 10, 1);
+        when(clientFactory.getInstance("application", HedgingPolicy.class)).thenReturn(policy);
+        return policy;
+    }
+
+    void answer(Answer<?>... answers) throws IOException {
+        doAnswer(invocation -> answers[calls.getAndIncrement()].answer(invocation)).when(delegate).execute(any(), any());
+    }
+
+    void race(Answer<?> primary, Answer<?> hedge) throws IOException {
+        doAnswer(invocation -> ((Request) invocation.getArgument(0)).url().contains(server1.getId())
+                ? primary.answer(invocation)
+                : hedge.answer(invocation)).when(delegate).execute(any(), any());
+    }
+
+    Response await(Response response) {
+        while (true) {
+            try {
+                latch.await();
+                return response;
+            } catch (InterruptedException e) {
+                // the cancelled attempt completes anyway
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotHedgeFastResponses() throws IOException {
+        HedgingPolicy policy = policy(10000, 0);
+        answer(invocation -> response1);
+        assertThat(client.execute(request, options), is(response1));
+        ArgumentCaptor<Request> attempt = ArgumentCaptor.forClass(Request.class);
+        verify(delegate).execute(attempt.capture(), any());
+        assertThat(attempt.getValue().url(), is("http://host1:80/path"));
+        assertThat(attempt.getValue().headers(), is(headers));
+        assertThat(policy.getRequests(), is(1L));
+        assertThat(policy.getHedges(), is(0L));
+    }
+
+    @Test
+    public void shouldHedgeSlowResponsesOnAnotherServer() throws IOException {
+        HedgingPolicy policy = policy(0, 0);
+        race(invocation -> await(response1), invocation -> response2);
+        assertThat(client.execute(request, options), is(response2));
+        ArgumentCaptor<Request> attempt = ArgumentCaptor.forClass(Request.class);
+        verify(delegate, times(2)).execute(attempt.capture(), any());
+        assertThat(attempt.getAllValues().get(1).url(), is(not(attempt.getAllValues().get(0).url())));
+        assertThat(attempt.getAllValues().get(1).headers(), is(headers));
+        latch.countDown();
+        verify(body1, timeout(1000)).close();
+        verify(body2, never()).close();
+        assertThat(policy.getHedges(), is(1L));
+        assertThat(policy.getWins(), is(1L));
+        assertThat(policy.getHedgeRate(), is(1d));
+    }
+
+    @Test
+    public void shouldHedgeOnTheNextTier() throws IOException {
+        server1.setZone("zone1");
+        server2.setZone("zone2");
+        rule.setPredicate(withPredicates(new ZoneAffinityMatcher("zone1")).addFallbackPredicate(alwaysTrue()).build());
+        policy(0, 0);
+        race(invocation -> await(response1), invocation -> response2);
+        assertThat(client.execute(request, options), is(response2));
+        ArgumentCaptor<Request> attempt = ArgumentCaptor.forClass(Request.class);
+        verify(delegate, times(2)).execute(attempt.capture(), any());
+        assertThat(attempt.getAllValues().get(0).url(), is("http://host1:80/path"));
+        assertThat(attempt.getAllValues().get(1).url(), is("http://host2:80/path"));
+        latch.countDown();
+    }
+
+    @Test
+    public void shouldCloseTheLosingResponse() throws IOException {
+        ExecutorService deferring = mock(ExecutorService.class);
+        AtomicReference<Runnable> deferred = new AtomicReference<>();
+        doAnswer(invocation -> {
+            Runnable task = invocation.getArgument(0);
+            if (deferred.get() == null) {
+                deferred.set(task);
+            } else {
+                task.run();
+            }
+            return mock(Future.class);
+        }).when(deferring).submit(any(Runnable.class));
+        HedgingPolicy policy = policy(0, 0);
+        race(invocation -> response1, invocation -> {
+            deferred.get().run();
+            return response2;
+        });
+        assertThat(new HedgedFeignClient(delegate, loadBalancerFactory, clientFactory, deferring).execute(request, options), is(response1));
+        verify(body2).close();
+        assertThat(policy.getWins(), is(0L));
+    }
+
+    @Test
+    public void shouldKeepThePrimaryResponseWhenTheHedgeFails() throws IOException {
+        HedgingPolicy policy = policy(0, 0);
+        race(invocation -> await(response1), invocation -> {
+            latch.countDown();
+            throw new IOException("hedge");
+        });
+        assertThat(client.execute(request, options), is(response1));
+        assertThat(policy.getHedges(), is(1L));
+        assertThat(policy.getWins(), is(0L));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailWhenBothAttemptsFail() throws IOException {
+        policy(0, 0);
+        race(invocation -> {
+            await(response1);
+            throw new IOException("primary");
+        }, invocation -> {
+            latch.countDown();
+            throw new IOException("hedge");
+        });
+        client.execute(request, options);
+    }
+
+    @Test
+    public void shouldFailOnPrimaryFailure() throws IOException {
+        policy(10000, 0);
+        answer(invocation -> {
+            throw new IOException("primary");
+        }, invocation -> {
+            throw new IllegalStateException("primary");
+        }, invocation -> {
+            throw new AssertionError("primary");
+        });
+        assertThat(failure(), instanceOf(IOException.class));
+        assertThat(failure(), instanceOf(IllegalStateException.class));
+        assertThat(failure().getCause(), instanceOf(AssertionError.class));
+        verify(delegate, times(3)).execute(any(), any());
+    }
+
+    Exception failure() {
+        try {
+            client.execute(request, options);
+            throw new AssertionError("failure expected");
+        } catch (IOException | RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Test
+    public void shouldApplyTheRibbonTimeoutsToTheDefaultOptions() throws IOException {
+        clientConfig.set(ConnectTimeout, 1234);
+        clientConfig.set(ReadTimeout, 5678);
+        policy(10000, 0);
+        answer(invocation -> response1, invocation -> response2);
+        assertThat(client.execute(request, (Options) getField(LoadBalancerFeignClient.class, "DEFAULT_OPTIONS")), is(response1));
+        assertThat(client.execute(request, options), is(response2));
+        ArgumentCaptor<Options> sent = ArgumentCaptor.forClass(Options.class);
+        verify(delegate, times(2)).execute(any(), sent.capture());
+        assertThat(sent.getAllValues().get(0).connectTimeoutMillis(), is(1234));
+        assertThat(sent.getAllValues().get(0).readTimeoutMillis(), is(5678));
+        assertThat(sent.getAllValues().get(1), is(options));
+    }
+
+    @Test
+    public void shouldRetryOnTheSameServerThenOnTheNextServer() throws IOException {
+        clientConfig.set(MaxAutoRetries, 1);
+        clientConfig.set(MaxAutoRetriesNextServer, 1);
+        policy(10000, 0);
+        answer(invocation -> {
+            throw new IOException("read");
+        }, invocation -> {
+            throw new IOException("read");
+        }, invocation -> response2);
+        assertThat(client.execute(request, options), is(response2));
+        ArgumentCaptor<Request> attempt = ArgumentCaptor.forClass(Request.class);
+        verify(delegate, times(3)).execute(attempt.capture(), any());
+        assertThat(attempt.getAllValues().get(0).url(), is("http://host1:80/path"));
+        assertThat(attempt.getAllValues().get(1).url(), is("http://host1:80/path"));
+        assertThat(attempt.getAllValues().get(2).url(), is("http://host2:80/path"));
+    }
+
+    @Test
+    public void shouldRetryTheHeadRequestsOnConnectionFailuresOnly() throws IOException {
+        clientConfig.set(MaxAutoRetries, 1);
+        clientConfig.set(MaxAutoRetriesNextServer, 1);
+        policy(10000, 0);
+        Request head = Request.create("HEAD", "http://application/path", headers, null, null);
+        answer(invocation -> {
+            throw new ConnectException("connect");
+        }, invocation -> response2, invocation -> {
+            throw new IOException("read");
+        });
+        assertThat(client.execute(head, options), is(response2));
+        try {
+            client.execute(head, options);
+            throw new AssertionError("failure expected");
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("read"));
+        }
+        verify(delegate, times(3)).execute(any(), any());
+    }
+
+    @Test
+    public void shouldNotRetryWithoutAnotherServerOrOnceCancelled() throws IOException {
+        clientConfig.set(MaxAutoRetriesNextServer, 1);
+        loadBalancer.setServersList(singletonList(server1));
+        policy(10000, 0);
+        answer(invocation -> {
+            throw new IOException("read");
+        }, invocation -> {
+            Thread.currentThread().interrupt();
+            throw new IOException("cancelled");
+        });
+        assertThat(failure().getMessage(), is("read"));
+        loadBalancer.setServersList(asList(server1, server2));
+        assertThat(failure().getMessage(), is("cancelled"));
+        verify(delegate, times(2)).execute(any(), any());
+    }
+
+    @Test
+    public void shouldNotHedgeWithoutAnotherServer() throws IOException {
+        loadBalancer.setServersList(singletonList(server1));
+        HedgingPolicy policy = policy(0, 0);
+        answer(invocation -> {
+            Thread.sleep(50);
+            return response1;
+        });
+        assertThat(client.execute(request, options), is(response1));
+        assertThat(policy.getHedges(), is(0L));
+    }
+
+    @Test
+    public void shouldNotHedgeUntilTheMinimumSamples() throws IOException {
+        HedgingPolicy policy = policy(0, 1);
+        answer(invocation -> {
+            Thread.sleep(50);
+            return response1;
+        }, invocation -> response2);
+        assertThat(client.execute(request, options), is(response1));
+        assertThat(client.execute(request, options), is(response2));
+        assertThat(policy.getHedges(), is(0L));
+    }
+
+    @Test
+    public void shouldFailOnInterruption() throws IOException {
+        policy(10000, 0);
+        answer(invocation -> await(response1), invocation -> await(response2));
+        Thread.currentThread().interrupt();
+        assertThat(failure(), instanceOf(InterruptedIOException.class));
+        assertThat(Thread.interrupted(), is(true));
+        latch.countDown();
+    }
+
+    @Test
+    public void shouldRunTheRequestInlineUntilTheMinimumSamples() throws IOException {
+        ExecutorService unused = mock(ExecutorService.class);
+        HedgingPolicy policy = policy(0, 1);
+        answer(invocation -> response1);
+        assertThat(new HedgedFeignClient(delegate, loadBalancerFactory, clientFactory, unused).execute(request, options), is(response1));
+        verifyZeroInteractions(unused);
+        assertThat(policy.delay(), is(not(HedgingPolicy.NO_HEDGE)));
+        assertThat(policy.getRequests(), is(1L));
+    }
+
+    @Test
+    public void shouldRecordTheElapsedTimeOfTheCancelledPrimary() throws IOException {
+        HedgingPolicy policy = spy(new HedgingPolicy(true, rule, 95, 0, 0, 10, 1));
+        when(clientFactory.getInstance("application", HedgingPolicy.class)).thenReturn(policy);
+        race(invocation -> await(response1), invocation -> {
+            Thread.sleep(50);
+            return response2;
+        });
+        assertThat(client.execute(request, options), is(response2));
+        verify(policy).record(longThat(latency -> latency >= 50));
+        latch.countDown();
+        verify(body1, timeout(1000)).close();
+        verify(policy, times(1)).record(anyLong());
+    }
+
+    @Test
+    public void shouldNotHedgeBeyondTheBudget() throws IOException {
+        HedgingPolicy policy = new HedgingPolicy(true, rule, 95, 0, 0, 10, 0);
+        when(clientFactory.getInstance("application", HedgingPolicy.class)).thenReturn(policy);
+        answer(invocation -> {
+            Thread.sleep(50);
+            return response1;
+        });
+        assertThat(client.execute(request, options), is(response1));
+        verify(delegate, times(1)).execute(any(), any());
+        assertThat(policy.getHedges(), is(0L));
+    }
+
+    @Test
+    public void shouldRunTheRequestInlineWhenTheExecutorIsSaturated() throws IOException {
+        ExecutorService saturated = mock(ExecutorService.class);
+        when(saturated.submit(any(Runnable.class))).thenThrow(new RejectedExecutionException());
+        HedgingPolicy policy = policy(0, 0);
+        answer(invocation -> response1);
+        assertThat(new HedgedFeignClient(delegate, loadBalancerFactory, clientFactory, saturated).execute(request, options), is(response1));
+        assertThat(policy.getHedges(), is(0L));
+    }
+
+    @Test
+    public void shouldSkipTheHedgeWhenTheExecutorIsSaturated() throws IOException {
+        ExecutorService bounded = mock(ExecutorService.class);
+        doAnswer(invocation -> executor.submit((Runnable) invocation.getArgument(0)))
+                .doThrow(new RejectedExecutionException())
+                .when(bounded).submit(any(Runnable.class));
+        policy(0, 0);
+        answer(invocation -> {
+            Thread.sleep(50);
+            return response1;
+        });
+        assertThat(new HedgedFeignClient(delegate, loadBalancerFactory, clientFactory, bounded).execute(request, options), is(response1));
+        verify(delegate, times(1)).execute(any(), any());
+    }
+
+    @Test
+    public void shouldDelegateTheOtherRequests() {
+        HedgingPolicy disabled = new HedgingPolicy(false, rule, 95, 0, 0, 10, 1);
+        HedgingPolicy otherRule = new HedgingPolicy(true, mock(IRule.class), 95, 0, 0, 10, 1);
+        PredicateBasedRuleSupport emptyRule = new PredicateBasedRuleSupport(withPredicates(alwaysTrue()).build());
+        new BaseLoadBalancer("empty", emptyRule, new LoadBalancerStats("empty"));
+        policy(0, 0);
+        when(clientFactory.getInstance("disabled", HedgingPolicy.class)).thenReturn(disabled);
+        when(clientFactory.getInstance("other", HedgingPolicy.class)).thenReturn(otherRule);
+        when(clientFactory.getInstance("empty", HedgingPolicy.class)).thenReturn(new HedgingPolicy(true, emptyRule, 95, 0, 0, 10, 1));
+        for (Request other : asList(Request.create("POST", "http://application/path", headers, null, null),
+                Request.create("GET", "http://unknown/path", headers, null, null),
+                Request.create("GET", "http://disabled/path", headers, null, null),
+                Request.create("GET", "http://other/path", headers, null, null),
+                Request.create("GET", "http://empty/path", headers, null, null))) {
+            try {
+                client.execute(other, options);
+                throw new AssertionError("ribbon expected");
+            } catch (IllegalStateException | IOException e) {
+                assertThat(e.getMessage(), is("ribbon"));
+            }
+        }
+    }
+}
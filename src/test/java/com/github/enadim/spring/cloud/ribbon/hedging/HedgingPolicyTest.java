@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.hedging;
+
+import com.netflix.loadbalancer.IRule;
+import org.junit.Test;
+
+import static com.github.enadim.spring.cloud.ribbon.hedging.HedgingPolicy.NO_HEDGE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+public class HedgingPolicyTest {
+    IRule rule = mock(IRule.class);
+
+    @Test
+    public void shouldNotHedgeUntilTheMinimumSamples() {
+        HedgingPolicy policy = new HedgingPolicy(true, rule, 50, 0, 2, 10, 1);
+        assertThat(policy.delay(), is(NO_HEDGE));
+        policy.record(10);
+        assertThat(policy.delay(), is(NO_HEDGE));
+        policy.record(20);
+        assertThat(policy.delay(), is(10L));
+    }
+
+    @Test
+    public void shouldHedgeAfterTheMinimumDelayWithoutSamples() {
+        assertThat(new HedgingPolicy(true, rule, 95, 5, 0, 10, 1).delay(), is(5L));
+    }
+
+    @Test
+    public void shouldHedgeAtTheLatencyPercentile() {
+        HedgingPolicy policy = new HedgingPolicy(true, rule, 90, 0, 10, 100, 1);
+        for (int i = 1; i <= 100; i++) {
+            policy.record(i);
+        }
+        assertThat(policy.delay(), is(90L));
+    }
+
+    @Test
+    public void shouldHedgeAfterTheMinimumDelay() {
+        HedgingPolicy policy = new HedgingPolicy(true, rule, 50, 100, 1, 10, 1);
+        policy.record(10);
+        assertThat(policy.delay(), is(100L));
+    }
+
+    @Test
+    public void shouldRecomputeTheDelayOverTheRecentLatencies() {
+        HedgingPolicy policy = new HedgingPolicy(true, rule, 100, 0, 1, 20, 1);
+        policy.record(10);
+        assertThat(policy.delay(), is(10L));
+        policy.record(30);
+        assertThat(policy.delay(), is(10L));
+        policy.record(20);
+        assertThat(policy.delay(), is(30L));
+        for (int i = 0; i < 20; i++) {
+            policy.record(5);
+        }
+        assertThat(policy.delay(), is(5L));
+        policy.record(50);
+        assertThat(policy.delay(), is(5L));
+        policy.record(50);
+        assertThat(policy.delay(), is(50L));
+    }
+
+    @Test
+    public void shouldCountTheHedges() {
+        HedgingPolicy policy = new HedgingPolicy(true, rule, 95, 10, 100, 1000, 1);
+        assertThat(policy.getHedgeRate(), is(0d));
+        policy.request();
+        policy.request();
+        policy.request();
+        policy.request();
+        assertThat(policy.tryHedge(), is(true));
+        policy.win();
+        assertThat(policy.getRequests(), is(4L));
+        assertThat(policy.getHedges(), is(1L));
+        assertThat(policy.getWins(), is(1L));
+        assertThat(policy.getHedgeRate(), is(0.25));
+        assertThat(policy.isEnabled(), is(true));
+        assertThat(policy.getRule(), is(rule));
+        assertThat(policy.getPercentile(), is(95d));
+        assertThat(policy.getMinDelay(), is(10L));
+        assertThat(policy.getMinSamples(), is(100));
+        assertThat(policy.getMaxRate(), is(1d));
+    }
+
+    @Test
+    public void shouldBoundTheHedgesWithTheBudget() {
+        HedgingPolicy policy = new HedgingPolicy(true, rule, 95, 10, 100, 4, 0.5);
+        assertThat(policy.tryHedge(), is(false));
+        policy.request();
+        assertThat(policy.tryHedge(), is(false));
+        policy.request();
+        assertThat(policy.tryHedge(), is(true));
+        assertThat(policy.tryHedge(), is(false));
+        for (int i = 0; i < 10; i++) {
+            policy.request();
+        }
+        assertThat(policy.tryHedge(), is(true));
+        assertThat(policy.tryHedge(), is(true));
+        assertThat(policy.tryHedge(), is(false));
+        assertThat(policy.getHedges(), is(3L));
+    }
+
+    @Test
+    public void shouldNotHedgeWithoutBudget() {
+        HedgingPolicy policy = new HedgingPolicy(true, rule, 95, 10, 100, 4, 0);
+        policy.request();
+        assertThat(policy.tryHedge(), is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeMaxRate() {
+        new HedgingPolicy(true, rule, 95, 10, 100, 1000, -0.1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMaxRateAboveOne() {
+        new HedgingPolicy(true, rule, 95, 10, 100, 1000, 1.1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonPositivePercentile() {
+        new HedgingPolicy(true, rule, 0, 10, 100, 1000, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectPercentileAboveHundred() {
+        new HedgingPolicy(true, rule, 101, 10, 100, 1000, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeMinDelay() {
+        new HedgingPolicy(true, rule, 95, -1, 100, 1000, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeMinSamples() {
+        new HedgingPolicy(true, rule, 95, 10, -1, 1000, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonPositiveWindowSize() {
+        new HedgingPolicy(true, rule, 95, 10, 100, 0, 1);
+    }
+}
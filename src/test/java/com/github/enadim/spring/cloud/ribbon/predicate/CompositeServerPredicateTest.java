@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.predicate;
+
+import com.netflix.loadbalancer.AbstractServerPredicate;
+import com.netflix.loadbalancer.PredicateKey;
+import com.netflix.loadbalancer.Server;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
+import static com.github.enadim.spring.cloud.ribbon.predicate.CompositeServerPredicate.withPredicates;
+import static com.netflix.loadbalancer.AbstractServerPredicate.alwaysTrue;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CompositeServerPredicateTest {
+    Server server1 = new Server("1");
+    Server server2 = new Server("2");
+    Server server3 = new Server("3");
+    List<Server> servers = asList(server1, server2, server3);
+    DynamicZoneMatcher dynamicZoneMatcher = new DynamicZoneMatcher("favorite-zone");
+    CompositeServerPredicate predicate = withPredicates(dynamicZoneMatcher, new ZoneAffinityMatcher("1"))
+            .addFallbackPredicate(new ZoneAffinityMatcher("2"))
+            .addFallbackPredicate(alwaysTrue())
+            .build();
+
+    @After
+    public void after() {
+        remove();
+    }
+
+    @Test
+    public void testApply() {
+        server1.setZone("1");
+        current().put("favorite-zone", "1");
+        assertThat(predicate.apply(null), is(false));
+        assertThat(predicate.apply(new PredicateKey(null)), is(false));
+        assertThat(predicate.apply(new PredicateKey(server1)), is(true));
+        assertThat(predicate.apply(new PredicateKey(server2)), is(false));
+    }
+
+    @Test
+    public void testPrimaryEligibleServers() {
+        server1.setZone("1");
+        server2.setZone("2");
+        current().put("favorite-zone", "1");
+        assertThat(predicate.getEligibleServers(servers, null), contains(server1));
+    }
+
+    @Test
+    public void testFallbackEligibleServers() {
+        server1.setZone("1");
+        server2.setZone("2");
+        assertThat(predicate.getEligibleServers(servers, null), contains(server2));
+        Server refreshed = new Server("2");
+        refreshed.setZone("1");
+        assertThat(predicate.getEligibleServers(asList(server1, refreshed, server3), null), contains(server1, refreshed, server3));
+    }
+
+    @Test
+    public void testSinglePassFallbackTiers() {
+        CompositeServerPredicate tiered = withPredicates(dynamicZoneMatcher)
+                .addFallbackPredicate(new ZoneAffinityMatcher("1"))
+                .addFallbackPredicate(withPredicates(new ZoneAffinityMatcher("2"))
+                        .addFallbackPredicate(new ZoneAffinityMatcher("3"))
+                        .build())
+                .addFallbackPredicate(alwaysTrue())
+                .build();
+        server1.setZone("3");
+        server2.setZone("2");
+        server3.setZone("4");
+        assertThat(tiered.getEligibleServers(asList(server1, null, server2, server3), null), contains(server2));
+        assertThat(tiered.getEligibleServers(asList(server3, server1), null), contains(server1));
+        assertThat(tiered.getEligibleServers(asList(server3), null), contains(server3));
+    }
+
+    @Test
+    public void testRibbonConjunctsShareThePredicateKeysPerServerList() {
+        AbstractServerPredicate ribbon = mock(AbstractServerPredicate.class);
+        when(ribbon.apply(any())).then(x -> ((PredicateKey) x.getArgument(0)).getServer() != server1);
+        CompositeServerPredicate tiered = withPredicates(dynamicZoneMatcher)
+                .addFallbackPredicate(withPredicates(ribbon, new ZoneAffinityMatcher("2")).build())
+                .addFallbackPredicate(ribbon)
+                .addFallbackPredicate(alwaysTrue())
+                .build();
+        server2.setZone("2");
+        assertThat(tiered.getEligibleServers(servers, null), contains(server2));
+        assertThat(tiered.getEligibleServers(servers, null), contains(server2));
+        assertThat(tiered.getEligibleServers(servers, "key"), contains(server2));
+        ArgumentCaptor<PredicateKey> keys = ArgumentCaptor.forClass(PredicateKey.class);
+        verify(ribbon, atLeastOnce()).apply(keys.capture());
+        assertThat(keys.getAllValues().stream().filter(x -> x.getServer() == server2 && x.getLoadBalancerKey() == null).distinct().count(), is(1L));
+        assertThat(tiered.getEligibleServers(asList(server1, server3), null), contains(server3));
+        List<Server> mutable = new ArrayList<>(asList(server1, server3));
+        assertThat(tiered.getEligibleServers(mutable, null), contains(server3));
+        mutable.add(server2);
+        assertThat(tiered.getEligibleServers(mutable, null), contains(server2));
+        mutable.set(1, server2);
+        mutable.set(2, server3);
+        assertThat(tiered.getEligibleServers(mutable, null), contains(server2));
+    }
+
+    @Test
+    public void testSinglePrimaryEligibleServers() {
+        AbstractServerPredicate primary = mock(AbstractServerPredicate.class);
+        when(primary.getEligibleServers(servers, "key")).thenReturn(asList(server3));
+        assertThat(withPredicates(primary).build().getEligibleServers(servers, "key"), contains(server3));
+    }
+
+    @Test
+    public void testServerListChanged() {
+        ZoneAffinityMatcher primary = mock(ZoneAffinityMatcher.class);
+        ZoneAffinityMatcher fallback = mock(ZoneAffinityMatcher.class);
+        withPredicates(primary, alwaysTrue())
+                .addFallbackPredicate(fallback)
+                .addFallbackPredicate(alwaysTrue())
+                .build()
+                .serverListChanged(servers, asList(server1));
+        verify(primary).serverListChanged(servers, asList(server1));
+        verify(fallback).serverListChanged(servers, asList(server1));
+    }
+
+    @Test
+    public void testPrepareBindsTheContextOnce() {
+        server1.setZone("1");
+        current().put("favorite-zone", "1");
+        PreparedServerPredicate prepared = predicate.prepare(null);
+        current().put("favorite-zone", "2");
+        assertThat(prepared.test(server1), is(true));
+    }
+
+    @Test
+    public void testSpilloverToTheNextTier() {
+        SpilloverPolicy spillover = mock(SpilloverPolicy.class);
+        CompositeServerPredicate spilling = withPredicates(new ZoneAffinityMatcher("1"))
+                .addFallbackPredicate(new ZoneAffinityMatcher("2"))
+                .addFallbackPredicate(alwaysTrue())
+                .spillover(spillover)
+                .build();
+        server1.setZone("1");
+        server2.setZone("1");
+        server3.setZone("2");
+        assertThat(spilling.getSpillover(), is(spillover));
+        assertThat(spilling.getEligibleServers(servers, null), contains(server1, server2));
+        when(spillover.spill(asList(server1, server2))).thenReturn(true);
+        assertThat(spilling.getEligibleServers(servers, null), contains(server3));
+        assertThat(spilling.getEligibleServers(asList(server1, server2), null), contains(server1, server2));
+        assertThat(spilling.getEligibleServers(asList(server3), null), contains(server3));
+    }
+
+    @Test
+    public void testSpilloverExcludesThePrimaryServersFromTheIndexedTiers() {
+        SpilloverPolicy spillover = mock(SpilloverPolicy.class);
+        CompositeServerPredicate spilling = withPredicates(new ZoneAffinityMatcher("1"))
+                .addFallbackPredicate(dynamicZoneMatcher)
+                .addFallbackPredicate(new ZoneAffinityMatcher("2"))
+                .addFallbackPredicate(alwaysTrue())
+                .spillover(spillover)
+                .build();
+        server1.setZone("1");
+        server2.setZone("1");
+        server3.setZone("2");
+        current().put("favorite-zone", "1");
+        when(spillover.spill(any())).thenReturn(true);
+        assertThat(spilling.getEligibleServers(servers, null), contains(server3));
+        Server server4 = new Server("4");
+        server4.setZone("3");
+        assertThat(spilling.getEligibleServers(asList(server1, null, server2, server4), null), contains(server4));
+        assertThat(spilling.getEligibleServers(asList(server1, server2), null), contains(server1, server2));
+    }
+
+    @Test
+    public void testIndexedTiersOnly() {
+        CompositeServerPredicate indexed = withPredicates(new ZoneAffinityMatcher("1"))
+                .addFallbackPredicate(new ZoneAffinityMatcher("2"))
+                .build();
+        server3.setZone("2");
+        assertThat(indexed.getEligibleServers(servers, null), contains(server3));
+        assertThat(indexed.getEligibleServers(asList(server1, server2), null).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testNoFallback() {
+        assertThat(withPredicates(dynamicZoneMatcher).build().getEligibleServers(servers, null).isEmpty(), is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingPrimaryPredicate() {
+        withPredicates();
+    }
+}
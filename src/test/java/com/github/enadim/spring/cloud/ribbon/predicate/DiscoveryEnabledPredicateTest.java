@@ -31,7 +31,7 @@ import static org.mockito.Mockito.withSettings;
 public class DiscoveryEnabledPredicateTest {
 
     DiscoveryEnabledServerPredicate predicate = mock(DiscoveryEnabledServerPredicate.class,
-            withSettings().defaultAnswer(CALLS_REAL_METHODS));
+            withSettings().useConstructor().defaultAnswer(CALLS_REAL_METHODS));
     DiscoveryEnabledServer discoveryEnabledServer = mock(DiscoveryEnabledServer.class);
     Server server = mock(Server.class);
 
@@ -54,4 +54,12 @@ public class DiscoveryEnabledPredicateTest {
         when(predicate.doApply(any(DiscoveryEnabledServer.class))).thenReturn(false);
         assertThat(predicate.apply(new PredicateKey(discoveryEnabledServer)), is(false));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void should_prepare_discovery_server_predicate() throws Exception {
+        when(predicate.doApply(any(DiscoveryEnabledServer.class))).thenReturn(true);
+        PreparedServerPredicate prepared = predicate.prepare(null);
+        assertThat(prepared.test(server), is(false));
+        assertThat(prepared.test(discoveryEnabledServer), is(true));
+    }
+}
@@ -20,10 +20,18 @@ import com.netflix.loadbalancer.Server;
 import org.junit.After;
 import org.junit.Test;
 
+import java.util.List;
+
 import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
 import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
+import static com.github.enadim.spring.cloud.ribbon.predicate.ServerZoneIndexTest.server;
+import static java.util.Arrays.asList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 
 
 public class DynamicZoneMatcherTest {
@@ -58,4 +66,35 @@ public class DynamicZoneMatcherTest {
         assertThat(predicate.apply(predicateKey), is(true));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void should_bind_favorite_zone_on_prepare() {
+        current().put(favoriteZoneName, "1");
+        server.setZone("1");
+        PreparedServerPredicate prepared = predicate.prepare(null);
+        current().put(favoriteZoneName, "2");
+        assertThat(prepared.test(server), is(true));
+    }
+
+    @Test
+    public void should_reuse_the_prepared_predicate_while_the_favorite_zone_is_unchanged() {
+        PreparedServerPredicate prepared = predicate.prepare(null);
+        assertThat(predicate.prepare(null), is(sameInstance(prepared)));
+        current().put(favoriteZoneName, "1");
+        PreparedServerPredicate changed = predicate.prepare(null);
+        assertThat(changed, is(not(sameInstance(prepared))));
+        assertThat(predicate.prepare(null), is(sameInstance(changed)));
+    }
+
+    @Test
+    public void should_select_the_favorite_zone_partition() {
+        ServerZoneIndex index = new ServerZoneIndex();
+        DynamicZoneMatcher shared = new DynamicZoneMatcher(favoriteZoneName, index);
+        Server server1 = server("1", "1");
+        Server server2 = server("2", "2");
+        List<Server> servers = asList(server1, server2);
+        assertThat(shared.getEligibleServers(servers, null), is(empty()));
+        current().put(favoriteZoneName, "2");
+        assertThat(shared.getEligibleServers(servers, null), contains(server2));
+        assertThat(new ZoneAffinityMatcher("1", index).getEligibleServers(servers, null), contains(server1));
+    }
+}
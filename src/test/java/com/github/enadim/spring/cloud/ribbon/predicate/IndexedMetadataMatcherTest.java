@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.predicate;
+
+import com.netflix.loadbalancer.Server;
+import com.netflix.niws.loadbalancer.DiscoveryEnabledServer;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
+import static com.github.enadim.spring.cloud.ribbon.predicate.ServerMetadataIndexTest.server;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class IndexedMetadataMatcherTest {
+    DiscoveryEnabledServer server1 = server("1", "a", "2", "b");
+    DiscoveryEnabledServer server2 = server("1", "b");
+    DiscoveryEnabledServer server3 = server("1", "a", "2", "c");
+    Server server4 = new Server("4");
+    List<Server> servers = asList(server1, server2, server3, server4);
+
+    @After
+    public void after() {
+        remove();
+    }
+
+    static <T extends IndexedMetadataMatcher> T indexed(T predicate) {
+        predicate.setIndexed(true);
+        return predicate;
+    }
+
+    @Test
+    public void testSingleStaticMetadataMatcher() {
+        assertThat(indexed(new SingleStaticMetadataMatcher("1", "a")).getEligibleServers(servers, null), contains(server1, server3));
+    }
+
+    @Test
+    public void testSingleMetadataMatcher() {
+        SingleMetadataMatcher predicate = indexed(new SingleMetadataMatcher("2"));
+        assertThat(predicate.getEligibleServers(servers, null), contains(server2));
+        current().put("2", "c");
+        assertThat(predicate.getEligibleServers(servers, null), contains(server3));
+    }
+
+    @Test
+    public void testDynamicMetadataMatcher() {
+        assertThat(indexed(new DynamicMetadataMatcher("dynamic", true)).getEligibleServers(servers, null), contains(server1, server2, server3));
+        DynamicMetadataMatcher predicate = indexed(new DynamicMetadataMatcher("dynamic", false));
+        assertThat(predicate.getEligibleServers(servers, null), is(empty()));
+        current().put("dynamic", "2");
+        assertThat(predicate.getEligibleServers(servers, null), contains(server2));
+        current().put("2", "b");
+        assertThat(predicate.getEligibleServers(servers, null), contains(server1));
+    }
+
+    @Test
+    public void testStrictMetadataMatcher() {
+        StrictMetadataMatcher predicate = indexed(new StrictMetadataMatcher());
+        assertThat(predicate.getEligibleServers(servers, null), contains(server1, server2, server3));
+        current().put("1", "a");
+        assertThat(predicate.getEligibleServers(servers, null), contains(server1, server3));
+        current().put("2", "c");
+        assertThat(predicate.getEligibleServers(servers, null), contains(server3));
+        current().put("1", "c");
+        assertThat(predicate.getEligibleServers(servers, null), is(empty()));
+    }
+
+    @Test
+    public void testStrictMetadataMatcherEncodingReuse() {
+        StrictMetadataMatcher predicate = indexed(new StrictMetadataMatcher());
+        current().put("1", "a");
+        assertThat(predicate.getEligibleServers(servers, null), contains(server1, server3));
+        assertThat(predicate.getEligibleServers(servers, null), contains(server1, server3));
+        assertThat(predicate.getEligibleServers(asList(server3, server2), null), contains(server3));
+    }
+
+    @Test
+    public void testServerListChanged() {
+        SingleStaticMetadataMatcher predicate = indexed(new SingleStaticMetadataMatcher("1", "b"));
+        predicate.serverListChanged(emptyList(), servers);
+        assertThat(predicate.getEligibleServers(servers, null), contains(server2));
+    }
+
+    @Test
+    public void testNotIndexed() {
+        SingleStaticMetadataMatcher predicate = new SingleStaticMetadataMatcher("1", "b");
+        assertThat(predicate.isIndexed(), is(false));
+        predicate.serverListChanged(emptyList(), servers);
+        assertThat(predicate.getEligibleServers(servers, null), contains(server2));
+        predicate.setIndexed(true);
+        assertThat(predicate.isIndexed(), is(true));
+        predicate.setIndexed(false);
+        assertThat(predicate.isIndexed(), is(false));
+    }
+}
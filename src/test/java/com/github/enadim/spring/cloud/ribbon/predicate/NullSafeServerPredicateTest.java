@@ -19,8 +19,12 @@ import com.netflix.loadbalancer.PredicateKey;
 import com.netflix.loadbalancer.Server;
 import org.junit.Test;
 
+import static java.util.Arrays.asList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.mock;
@@ -51,4 +55,21 @@ public class NullSafeServerPredicateTest {
         when(predicate.doApply(any())).thenReturn(false);
         assertThat(predicate.apply(new PredicateKey(server)), is(false));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void should_filter_eligible_servers() throws Exception {
+        when(predicate.doApply(any())).then(x -> ((PredicateKey) x.getArgument(0)).getServer() == server);
+        assertThat(predicate.getEligibleServers(asList(server, null, mock(Server.class)), "key"), contains(server));
+    }
+
+    @Test
+    public void should_reuse_the_prepared_predicate_per_load_balancer_key() throws Exception {
+        when(predicate.doApply(any())).then(x -> ((PredicateKey) x.getArgument(0)).getLoadBalancerKey() == "key");
+        PreparedServerPredicate prepared = predicate.prepare("key");
+        assertThat(predicate.prepare("key"), is(sameInstance(prepared)));
+        assertThat(prepared.test(server), is(true));
+        PreparedServerPredicate other = predicate.prepare("other");
+        assertThat(other, is(not(sameInstance(prepared))));
+        assertThat(other.test(server), is(false));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.predicate;
+
+import com.netflix.loadbalancer.AbstractServerPredicate;
+import com.netflix.loadbalancer.PredicateKey;
+import com.netflix.loadbalancer.Server;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PreparedServerPredicateTest {
+    Server server1 = new Server("1");
+    Server server2 = new Server("2");
+    PreparedServerPredicate first = x -> x == server1;
+    PreparedServerPredicate any = x -> true;
+
+    @Test
+    public void testAnd() {
+        assertThat(any.and(first).test(server1), is(true));
+        assertThat(any.and(first).test(server2), is(false));
+        assertThat(first.and(any).test(server2), is(false));
+    }
+
+    @Test
+    public void testFilter() {
+        assertThat(first.filter(asList(server1, null, server2), new ArrayList<>()), contains(server1));
+        assertThat(any.filter(asList(server1, null, server2), new ArrayList<>()), contains(server1, server2));
+    }
+
+    @Test
+    public void testOfPreparable() {
+        ZoneAffinityMatcher predicate = new ZoneAffinityMatcher("zone");
+        server1.setZone("zone");
+        assertThat(PreparedServerPredicate.of(predicate, null).test(server1), is(true));
+        assertThat(PreparedServerPredicate.of(predicate, null).test(server2), is(false));
+    }
+
+    @Test
+    public void testOfRibbonPredicate() {
+        AbstractServerPredicate predicate = mock(AbstractServerPredicate.class);
+        when(predicate.apply(any(PredicateKey.class))).then(x -> ((PredicateKey) x.getArgument(0)).getServer() == server1);
+        PreparedServerPredicate prepared = PreparedServerPredicate.of(predicate, "key");
+        assertThat(prepared.test(server1), is(true));
+        assertThat(prepared.test(server2), is(false));
+    }
+
+    @Test
+    public void testOfComposite() {
+        CompositeServerPredicate predicate = CompositeServerPredicate.withPredicates(AbstractServerPredicate.alwaysTrue()).build();
+        assertThat(PreparedServerPredicate.of(predicate, null).test(server1), is(true));
+        assertThat(predicate.getEligibleServers(asList(server1, server2)), contains(server1, server2));
+        assertThat(predicate.getEligibleServers(asList(server1, server2)).get(0), sameInstance(server1));
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.predicate;
+
+import com.github.enadim.spring.cloud.ribbon.predicate.ServerMetadataIndex.Snapshot;
+import com.github.enadim.spring.cloud.ribbon.rule.ServerListDiff;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.loadbalancer.Server;
+import com.netflix.niws.loadbalancer.DiscoveryEnabledServer;
+import org.junit.Test;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ServerMetadataIndexTest {
+    ServerMetadataIndex index = new ServerMetadataIndex();
+    DiscoveryEnabledServer server1 = server("1", "a", "2", null);
+    DiscoveryEnabledServer server2 = server("1", "b");
+    DiscoveryEnabledServer server3 = server("1", "a", "2", "c");
+    Server server4 = new Server("4");
+    List<Server> servers = asList(server1, server2, server3, server4);
+
+    static DiscoveryEnabledServer server(String... entries) {
+        Map<String, String> metadata = new HashMap<>();
+        for (int i = 0; i < entries.length; i += 2) {
+            metadata.put(entries[i], entries[i + 1]);
+        }
+        InstanceInfo instanceInfo = mock(InstanceInfo.class);
+        when(instanceInfo.getMetadata()).thenReturn(metadata);
+        return new DiscoveryEnabledServer(instanceInfo, true);
+    }
+
+    static DiscoveryEnabledServer instance(String instanceId, String... entries) {
+        DiscoveryEnabledServer server = server(entries);
+        when(server.getInstanceInfo().getId()).thenReturn(instanceId);
+        return server;
+    }
+
+    @Test
+    public void testQueries() {
+        Snapshot snapshot = index.snapshot(servers);
+        assertThat(snapshot.discovered(), contains(server1, server2, server3));
+        assertThat(snapshot.matching("1", "a"), contains(server1, server3));
+        assertThat(snapshot.matching("1", "c"), is(empty()));
+        assertThat(snapshot.matching("2", null), contains(server1));
+        assertThat(snapshot.matching("3", "a"), is(empty()));
+        assertThat(snapshot.undefined("2"), contains(server1, server2));
+        assertThat(snapshot.undefined("3"), contains(server1, server2, server3));
+    }
+
+    @Test
+    public void testEncodedMatching() {
+        Snapshot snapshot = index.snapshot(servers);
+        assertThat(snapshot.containing(snapshot.encode(emptyList()), new ArrayList<>()), contains(server1, server2, server3));
+        assertThat(snapshot.containing(snapshot.encode(entries("1", "a")), new ArrayList<>()), contains(server1, server3));
+        assertThat(snapshot.containing(snapshot.encode(entries("1", "a", "2", "c")), new ArrayList<>()), contains(server3));
+        assertThat(snapshot.containing(snapshot.encode(entries("1", "b", "2", "c")), new ArrayList<>()), is(empty()));
+        assertThat(snapshot.containing(snapshot.encode(entries("2", null)), new ArrayList<>()), contains(server1));
+        assertThat(snapshot.encode(entries("1", "c")), is(nullValue()));
+        assertThat(snapshot.encode(entries("3", "a")), is(nullValue()));
+    }
+
+    @Test
+    public void testEncodedMatchingOverSeveralWords() {
+        String[] entries = new String[200];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = String.valueOf(i);
+        }
+        DiscoveryEnabledServer server = server(entries);
+        Snapshot snapshot = index.snapshot(asList(server1, server, server3));
+        assertThat(snapshot.containing(snapshot.encode(entries("198", "199", "1", "a")), new ArrayList<>()), is(empty()));
+        assertThat(snapshot.containing(snapshot.encode(entries("198", "199", "0", "1")), new ArrayList<>()), contains(server));
+        assertThat(snapshot.containing(snapshot.encode(entries("1", "a")), new ArrayList<>()), contains(server1, server3));
+    }
+
+    static List<Entry<String, String>> entries(String... entries) {
+        List<Entry<String, String>> result = new ArrayList<>();
+        for (int i = 0; i < entries.length; i += 2) {
+            result.add(new SimpleEntry<>(entries[i], entries[i + 1]));
+        }
+        return result;
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testQueriesAreUnmodifiable() {
+        index.snapshot(servers).matching("1", "a").clear();
+    }
+
+    @Test
+    public void testSnapshotReuse() {
+        Snapshot snapshot = index.snapshot(servers);
+        assertThat(index.snapshot(asList(server1, server2, server3, server4)), sameInstance(snapshot));
+    }
+
+    @Test
+    public void testSnapshotRebuildOnStaleServers() {
+        Snapshot snapshot = index.snapshot(servers);
+        assertThat(index.snapshot(asList(server1, server2, server3)), not(sameInstance(snapshot)));
+        snapshot = index.snapshot(servers);
+        DiscoveryEnabledServer refreshed = server("1", "b");
+        Snapshot rebuilt = index.snapshot(asList(server1, server2, refreshed, server4));
+        assertThat(rebuilt, not(sameInstance(snapshot)));
+        assertThat(rebuilt.matching("1", "b"), contains(server2, refreshed));
+    }
+
+    @Test
+    public void testServerListChanged() {
+        index.serverListChanged(emptyList(), servers);
+        Snapshot snapshot = index.snapshot(servers);
+        index.serverListChanged(servers, asList(server1, server2, server3, server4));
+        assertThat(index.snapshot(servers), sameInstance(snapshot));
+        index.serverListChanged(servers, asList(server1, server2));
+        assertThat(index.snapshot(asList(server1, server2)), not(sameInstance(snapshot)));
+    }
+
+    @Test
+    public void testServerListUpdated() {
+        DiscoveryEnabledServer instance1 = instance("1", "1", "a", "2", null);
+        DiscoveryEnabledServer instance2 = instance("2", "1", "b");
+        DiscoveryEnabledServer instance3 = instance("3", "1", "a", "2", "c");
+        ServerListDiff diff = new ServerListDiff();
+        diff.addListener(index);
+        diff.update(asList(instance1, instance2, instance3, server4));
+        DiscoveryEnabledServer upgraded = instance("2", "1", "a");
+        DiscoveryEnabledServer instance4 = instance("4", "1", "d");
+        List<Server> updated = asList(instance1, upgraded, instance4, server4);
+        diff.update(updated);
+        Snapshot snapshot = index.snapshot(updated);
+        assertThat(snapshot.discovered(), contains(instance1, upgraded, instance4));
+        assertThat(snapshot.matching("1", "a"), contains(instance1, upgraded));
+        assertThat(snapshot.matching("1", "b"), is(empty()));
+        assertThat(snapshot.matching("1", "d"), contains(instance4));
+        assertThat(snapshot.matching("2", "c"), is(empty()));
+        assertThat(snapshot.undefined("2"), contains(instance1, upgraded, instance4));
+        assertThat(snapshot.undefined("2"), sameInstance(snapshot.undefined("2")));
+        assertThat(snapshot.containing(snapshot.encode(entries("1", "a")), new ArrayList<>()), contains(instance1, upgraded));
+        assertThat(snapshot.containing(snapshot.encode(entries("1", "b")), new ArrayList<>()), is(empty()));
+        assertThat(snapshot.containing(snapshot.encode(entries("1", "d")), new ArrayList<>()), contains(instance4));
+        updated = asList(upgraded, instance4);
+        diff.update(updated);
+        snapshot = index.snapshot(updated);
+        assertThat(snapshot.matching("2", null), is(empty()));
+        assertThat(snapshot.undefined("2"), sameInstance(snapshot.discovered()));
+    }
+
+    @Test
+    public void testPairsDictionaryCompaction() {
+        ServerListDiff diff = new ServerListDiff();
+        diff.addListener(index);
+        Snapshot snapshot = null;
+        for (int i = 0; i < 100; i++) {
+            List<Server> updated = asList(instance("1", "version", String.valueOf(i)));
+            diff.update(updated);
+            snapshot = index.snapshot(updated);
+            assertThat(snapshot.matching("version", String.valueOf(i)), contains(updated.get(0)));
+        }
+        assertThat(snapshot.encode(entries("version", "0")), is(nullValue()));
+        assertThat(snapshot.encode(entries("version", "98")), is(notNullValue()));
+    }
+}
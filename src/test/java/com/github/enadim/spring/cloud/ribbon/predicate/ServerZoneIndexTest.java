@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.predicate;
+
+import com.github.enadim.spring.cloud.ribbon.predicate.ServerZoneIndex.Snapshot;
+import com.github.enadim.spring.cloud.ribbon.rule.ServerListDiff;
+import com.netflix.loadbalancer.Server;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class ServerZoneIndexTest {
+    ServerZoneIndex index = new ServerZoneIndex();
+    Server server1 = server("1", "zone1");
+    Server server2 = server("2", "zone2");
+    Server server3 = server("3", "zone1");
+    Server server4 = server("4", null);
+    List<Server> servers = asList(server1, server2, null, server3, server4);
+
+    static Server server(String id, String zone) {
+        Server server = new Server(id);
+        server.setZone(zone);
+        return server;
+    }
+
+    @Test
+    public void testPartitions() {
+        Snapshot snapshot = index.snapshot(servers);
+        assertThat(snapshot.partition("zone1"), contains(server1, server3));
+        assertThat(snapshot.partition("zone2"), contains(server2));
+        assertThat(snapshot.partition("zone3"), is(empty()));
+        assertThat(snapshot.partition(null), is(empty()));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testPartitionIsUnmodifiable() {
+        index.snapshot(servers).partition("zone1").clear();
+    }
+
+    @Test
+    public void testSnapshotReuse() {
+        Snapshot snapshot = index.snapshot(servers);
+        assertThat(index.snapshot(asList(server1, server2, null, server3, server4)), sameInstance(snapshot));
+        assertThat(index.snapshot(asList(server1, server2)), not(sameInstance(snapshot)));
+    }
+
+    @Test
+    public void testSnapshotReuseByListIdentity() {
+        List<Server> list = spy(new ArrayList<>(servers));
+        Snapshot snapshot = index.snapshot(list);
+        clearInvocations(list);
+        assertThat(index.snapshot(list), sameInstance(snapshot));
+        verifyZeroInteractions(list);
+    }
+
+    @Test
+    public void testSelectionDoesNotReplaceTheSnapshot() {
+        Snapshot snapshot = index.snapshot(servers);
+        assertThat(index.snapshot(asList(server1, null, server3)).partition("zone1"), contains(server1, server3));
+        assertThat(index.snapshot(asList(server1, null, server3)), not(sameInstance(snapshot)));
+        assertThat(index.snapshot(servers), sameInstance(snapshot));
+    }
+
+    @Test
+    public void testSelectionFilteredAgainIsPromoted() {
+        index.snapshot(servers);
+        List<Server> selection = asList(server1, server3);
+        Snapshot snapshot = index.snapshot(selection);
+        assertThat(index.snapshot(selection), sameInstance(snapshot));
+        assertThat(index.snapshot(selection), sameInstance(snapshot));
+    }
+
+    @Test
+    public void testStaleServersReplaceTheSnapshot() {
+        Snapshot snapshot = index.snapshot(servers);
+        List<Server> refreshed = asList(server("1", "zone1"), server2);
+        Snapshot stale = index.snapshot(refreshed);
+        assertThat(stale, not(sameInstance(snapshot)));
+        assertThat(index.snapshot(refreshed), sameInstance(stale));
+    }
+
+    @Test
+    public void testServerListChanged() {
+        index.serverListChanged(emptyList(), servers);
+        Snapshot snapshot = index.snapshot(servers);
+        index.serverListChanged(servers, servers);
+        assertThat(index.snapshot(servers), sameInstance(snapshot));
+        index.serverListChanged(servers, asList(server2, server3));
+        assertThat(index.snapshot(asList(server2, server3)), not(sameInstance(snapshot)));
+    }
+
+    @Test
+    public void testServerListUpdated() {
+        ServerListDiff diff = new ServerListDiff();
+        diff.addListener(index);
+        diff.update(servers);
+        assertThat(index.snapshot(servers).partition("zone1"), contains(server1, server3));
+        Server moved = server("1", "zone2");
+        Server server5 = server("5", "zone3");
+        List<Server> updated = asList(moved, server2, server5, server4);
+        diff.update(updated);
+        Snapshot snapshot = index.snapshot(updated);
+        assertThat(snapshot.partition("zone1"), is(empty()));
+        assertThat(snapshot.partition("zone2"), contains(server2, moved));
+        assertThat(snapshot.partition("zone3"), contains(server5));
+        diff.addListener(index);
+        assertThat(index.snapshot(updated), sameInstance(snapshot));
+        updated = asList(moved, server2, server("6", null));
+        diff.update(updated);
+        assertThat(index.snapshot(updated).partition("zone3"), is(empty()));
+    }
+}
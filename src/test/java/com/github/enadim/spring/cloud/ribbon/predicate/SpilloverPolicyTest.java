@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.predicate;
+
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.IRule;
+import com.netflix.loadbalancer.LoadBalancerStats;
+import com.netflix.loadbalancer.Server;
+import org.junit.Test;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SpilloverPolicyTest {
+    Server server1 = new Server("1");
+    Server server2 = new Server("2");
+    List<Server> servers = asList(server1, server2);
+    LoadBalancerStats stats = new LoadBalancerStats("test");
+    BaseLoadBalancer loadBalancer = new BaseLoadBalancer("test", null, stats);
+    IRule rule = mock(IRule.class);
+
+    {
+        when(rule.getLoadBalancer()).thenReturn(loadBalancer);
+    }
+
+    @Test
+    public void shouldNotSpillWithoutStatistics() {
+        IRule noStats = mock(IRule.class);
+        when(noStats.getLoadBalancer()).thenReturn(mock(ILoadBalancer.class));
+        SpilloverPolicy policy = new SpilloverPolicy(noStats, 1, 0, 1);
+        assertThat(policy.share(servers), is(0d));
+        assertThat(policy.spill(servers), is(false));
+    }
+
+    @Test
+    public void shouldNotSpillBelowThresholds() {
+        stats.incrementActiveRequestsCount(server1);
+        stats.incrementSuccessiveConnectionFailureCount(server1);
+        SpilloverPolicy policy = new SpilloverPolicy(rule, 1, 0.5, 1);
+        assertThat(policy.share(servers), is(0d));
+        assertThat(policy.spill(servers), is(false));
+    }
+
+    @Test
+    public void shouldSpillTheLoadExcess() {
+        for (int i = 0; i < 6; i++) {
+            stats.incrementActiveRequestsCount(server1);
+        }
+        assertThat(new SpilloverPolicy(rule, 2, 0.5, 1).share(servers), is(0.5));
+        assertThat(new SpilloverPolicy(rule, 2, 0.5, 0.25).share(servers), is(0.25));
+        assertThat(new SpilloverPolicy(rule, 1, 0.5, 1).spill(servers), is(true));
+    }
+
+    @Test
+    public void shouldSpillTheFailureExcess() {
+        stats.incrementSuccessiveConnectionFailureCount(server1);
+        assertThat(new SpilloverPolicy(rule, 1, 0, 1).share(servers), is(0.5));
+        stats.incrementSuccessiveConnectionFailureCount(server2);
+        assertThat(new SpilloverPolicy(rule, 1, 0.5, 1).share(servers), is(1d));
+        assertThat(new SpilloverPolicy(rule, 1, 0.5, 1).spill(servers), is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonPositiveActiveRequestsThreshold() {
+        new SpilloverPolicy(rule, 0, 0.5, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeFailingShareThreshold() {
+        new SpilloverPolicy(rule, 1, -0.5, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectFullFailingShareThreshold() {
+        new SpilloverPolicy(rule, 1, 1, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeMaxShare() {
+        new SpilloverPolicy(rule, 1, 0.5, -1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMaxShareAboveOne() {
+        new SpilloverPolicy(rule, 1, 0.5, 2);
+    }
+}
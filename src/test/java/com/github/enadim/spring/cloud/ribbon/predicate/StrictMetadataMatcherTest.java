@@ -80,4 +80,16 @@ public class StrictMetadataMatcherTest {
         asList("1", "2").forEach(x -> current().put(x, x));
         assertThat(predicate.doApply(server), is(false));
     }
+
+    @Test
+    public void should_match_null_attribute_values() {
+        metada.put("1", null);
+        current().put("1", null);
+        assertThat(predicate.doApply(server), is(true));
+        current().put("1", "1");
+        assertThat(predicate.doApply(server), is(false));
+        metada.clear();
+        current().remove("1").put("1", null);
+        assertThat(predicate.doApply(server), is(false));
+    }
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.predicate;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.netflix.loadbalancer.PredicateKey;
+import com.netflix.loadbalancer.Server;
+import com.netflix.niws.loadbalancer.DiscoveryEnabledServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
+import static com.github.enadim.spring.cloud.ribbon.predicate.ServerMetadataIndexTest.server;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class TraceDisabledTest {
+    Logger logger = (Logger) LoggerFactory.getLogger(getClass().getPackage().getName());
+    DiscoveryEnabledServer server = server("1", "a");
+    List<Server> servers = asList(server);
+
+    @Before
+    public void before() {
+        logger.setLevel(Level.INFO);
+        server.setZone("zone");
+        current().put("1", "a").put("dynamic", "1").put("favorite-zone", "zone");
+    }
+
+    @After
+    public void after() {
+        logger.setLevel(null);
+        remove();
+    }
+
+    @Test
+    public void testMetadataMatchers() {
+        assertThat(new SingleStaticMetadataMatcher("1", "a").apply(new PredicateKey(server)), is(true));
+        assertThat(new SingleMetadataMatcher("1").apply(new PredicateKey(server)), is(true));
+        assertThat(new DynamicMetadataMatcher("dynamic", true).apply(new PredicateKey(server)), is(true));
+        assertThat(new DynamicMetadataMatcher("missing", true).apply(new PredicateKey(server)), is(true));
+        assertThat(new StrictMetadataMatcher().apply(new PredicateKey(server)), is(false));
+        assertThat(new InstanceIdMatcher("1").apply(new PredicateKey(server)), is(false));
+    }
+
+    @Test
+    public void testZoneMatchers() {
+        assertThat(new ZoneAffinityMatcher("zone").apply(new PredicateKey(server)), is(true));
+        assertThat(new DynamicZoneMatcher("favorite-zone").apply(new PredicateKey(server)), is(true));
+        assertThat(new DynamicZoneMatcher("favorite-zone").getEligibleServers(servers, null), contains(server));
+    }
+}
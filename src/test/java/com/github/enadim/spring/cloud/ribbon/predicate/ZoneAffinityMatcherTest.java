@@ -20,8 +20,15 @@ import com.netflix.loadbalancer.Server;
 import org.junit.After;
 import org.junit.Test;
 
+import java.util.List;
+
 import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
+import static com.github.enadim.spring.cloud.ribbon.predicate.ServerZoneIndexTest.server;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
 
 public class ZoneAffinityMatcherTest {
@@ -49,4 +56,14 @@ public class ZoneAffinityMatcherTest {
         assertThat(predicate.apply(predicateKey), is(true));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void should_select_the_zone_partition() {
+        Server server1 = server("1", expectedZone);
+        Server server2 = server("2", "zone2");
+        Server server3 = server("3", expectedZone);
+        List<Server> servers = asList(server1, server2, server3);
+        assertThat(predicate.getEligibleServers(servers, null), contains(server1, server3));
+        predicate.serverListChanged(emptyList(), asList(server2));
+        assertThat(predicate.getEligibleServers(asList(server2), null), is(empty()));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.predicate;
+
+import com.netflix.client.config.DefaultClientConfigImpl;
+import com.netflix.config.ConfigurationManager;
+import com.netflix.loadbalancer.AbstractLoadBalancer;
+import com.netflix.loadbalancer.IRule;
+import com.netflix.loadbalancer.LoadBalancerStats;
+import com.netflix.loadbalancer.PredicateKey;
+import com.netflix.loadbalancer.Server;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ZoneAvoidanceServerPredicateTest {
+    static final String ENABLED = "niws.loadbalancer.zoneAvoidanceRule.enabled";
+    IRule rule = mock(IRule.class);
+    AbstractLoadBalancer loadBalancer = mock(AbstractLoadBalancer.class);
+    LoadBalancerStats stats = new LoadBalancerStats("application");
+    ZoneAvoidanceServerPredicate predicate = new ZoneAvoidanceServerPredicate(rule, DefaultClientConfigImpl.getClientConfigWithDefaultValues("application"));
+    Server healthy = server("1", "zone1");
+    Server tripped = server("2", "zone2");
+    Server busy = server("3", "zone3");
+    Server unknown = server("4", "zone4");
+    Server none = server("5", null);
+
+    @After
+    public void after() {
+        ConfigurationManager.getConfigInstance().clearProperty(ENABLED);
+    }
+
+    @Test
+    public void should_accept_any_server_without_statistics() {
+        assertThat(predicate.prepare(null).test(tripped), is(true));
+        when(rule.getLoadBalancer()).thenReturn(loadBalancer);
+        when(loadBalancer.getLoadBalancerStats()).thenReturn(stats);
+        zones(healthy);
+        assertThat(predicate.prepare(null).test(tripped), is(true));
+    }
+
+    @Test
+    public void should_accept_any_server_when_disabled() {
+        ConfigurationManager.getConfigInstance().setProperty(ENABLED, false);
+        when(rule.getLoadBalancer()).thenReturn(loadBalancer);
+        when(loadBalancer.getLoadBalancerStats()).thenReturn(stats);
+        assertThat(predicate.prepare(null).test(tripped), is(true));
+    }
+
+    @Test
+    public void should_avoid_the_zones_avoided_by_the_ribbon_predicate() {
+        when(rule.getLoadBalancer()).thenReturn(loadBalancer);
+        when(loadBalancer.getLoadBalancerStats()).thenReturn(stats);
+        zones(healthy, tripped, busy);
+        for (int i = 0; i < 10; i++) {
+            stats.incrementSuccessiveConnectionFailureCount(tripped);
+            stats.incrementActiveRequestsCount(busy);
+        }
+        PreparedServerPredicate prepared = predicate.prepare(null);
+        for (Server server : asList(healthy, tripped, busy, unknown, none)) {
+            assertThat(prepared.test(server), is(predicate.apply(new PredicateKey(server))));
+        }
+        assertThat(prepared.test(healthy), is(true));
+        assertThat(prepared.test(tripped), is(false));
+        assertThat(prepared.test(busy), is(false));
+        assertThat(prepared.test(unknown), is(true));
+        assertThat(prepared.test(none), is(true));
+    }
+
+    @Test
+    public void should_accept_the_servers_when_no_zone_is_available() {
+        when(rule.getLoadBalancer()).thenReturn(loadBalancer);
+        when(loadBalancer.getLoadBalancerStats()).thenReturn(stats);
+        Map<String, List<Server>> zones = new HashMap<>();
+        zones.put("zone1", new ArrayList<>());
+        zones.put("zone2", new ArrayList<>());
+        stats.updateZoneServerMapping(zones);
+        PreparedServerPredicate prepared = predicate.prepare(null);
+        assertThat(prepared.test(healthy), is(predicate.apply(new PredicateKey(healthy))));
+    }
+
+    @Test
+    public void should_reject_the_zoned_servers_when_the_zones_vanish() {
+        LoadBalancerStats vanishing = mock(LoadBalancerStats.class);
+        when(rule.getLoadBalancer()).thenReturn(loadBalancer);
+        when(loadBalancer.getLoadBalancerStats()).thenReturn(vanishing);
+        when(vanishing.getAvailableZones()).thenReturn(new HashSet<>(asList("zone1", "zone2")), emptySet());
+        PreparedServerPredicate prepared = predicate.prepare(null);
+        assertThat(prepared.test(healthy), is(false));
+        assertThat(prepared.test(none), is(true));
+    }
+
+    void zones(Server... servers) {
+        Map<String, List<Server>> zones = new HashMap<>();
+        for (Server server : servers) {
+            zones.computeIfAbsent(server.getZone(), x -> new ArrayList<>()).add(server);
+        }
+        stats.updateZoneServerMapping(zones);
+    }
+
+    static Server server(String id, String zone) {
+        Server server = new Server(id);
+        server.setZone(zone);
+        return server;
+    }
+}
@@ -16,6 +16,7 @@
 package com.github.enadim.spring.cloud.ribbon.propagator;
 
 import com.github.enadim.spring.cloud.ribbon.propagator.AbstractExecutionContextCopy.ExecutionContextCopyFunction;
+import org.junit.After;
 import org.junit.Test;
 
 import java.util.HashMap;
@@ -24,6 +25,7 @@ import java.util.Map;
 import java.util.Set;
 
 import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
 import static java.util.Arrays.asList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
@@ -49,6 +51,11 @@ public class AbstractExecutionContextCopyTest {
                     .defaultAnswer(CALLS_REAL_METHODS)
                     .useConstructor((Filter<String>) keys::contains, function, extraStaticEntries));
 
+    @After
+    public void after() {
+        remove();
+    }
+
     @Test
     public void test_getters() {
         assertThat(propagator.getFilter(), is(notNullValue()));
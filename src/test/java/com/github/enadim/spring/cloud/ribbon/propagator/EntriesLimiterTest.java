@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.propagator;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimiter.truncate;
+import static com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimiter.utf8Length;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class EntriesLimiterTest {
+    private final Map<String, String> entries = new LinkedHashMap<>();
+
+    private Map<String, String> entries(String... keyValues) {
+        for (int i = 0; i < keyValues.length; i += 2) {
+            entries.put(keyValues[i], keyValues[i + 1]);
+        }
+        return entries;
+    }
+
+    @Test
+    public void testUnbounded() {
+        assertThat(EntriesLimiter.UNBOUNDED.limit(entries("a", "1", "b", "2")).size(), is(2));
+        assertThat(EntriesLimiter.UNBOUNDED.isBounded(), is(false));
+    }
+
+    @Test
+    public void testBoundedBySingleLimit() {
+        int max = Integer.MAX_VALUE;
+        assertThat(new EntriesLimiter(1, max, max, EntriesLimitPolicy.DROP).limit(entries("a", "1", "b", "2")).size(), is(1));
+        entries.clear();
+        assertThat(new EntriesLimiter(max, 1, max, EntriesLimitPolicy.DROP).limit(entries("c", "33")).size(), is(0));
+        assertThat(new EntriesLimiter(max, max, 2, EntriesLimitPolicy.DROP).limit(entries("d", "44")).size(), is(0));
+    }
+
+    @Test
+    public void testDrop() {
+        EntriesLimiter limiter = new EntriesLimiter(3, 3, 8, EntriesLimitPolicy.DROP);
+        limiter.limit(entries("a", "1", "b", "long", "c", "333", "d", "4", "e", "5"));
+        assertThat(entries.keySet().toString(), is("[a, c, d]"));
+        limiter.limit(entries("f", null));
+        assertThat(entries.containsKey("f"), is(false));
+        assertThat(limiter.getRejectedEntries().sum(), is(3L));
+        assertThat(limiter.getTruncatedEntries().sum(), is(0L));
+    }
+
+    @Test
+    public void testTruncate() {
+        EntriesLimiter limiter = new EntriesLimiter(3, 3, 9, EntriesLimitPolicy.TRUNCATE);
+        limiter.limit(entries("a", "1234", "b", "1", "c", "1234", "d", "1"));
+        assertThat(entries.toString(), is("{a=123, b=1, c=12}"));
+        assertThat(limiter.getTruncatedEntries().sum(), is(2L));
+        assertThat(limiter.getRejectedEntries().sum(), is(1L));
+        entries.clear();
+        limiter.limit(entries("abcdefghij", "1"));
+        assertThat(entries.isEmpty(), is(true));
+        assertThat(limiter.getRejectedEntries().sum(), is(2L));
+    }
+
+    @Test
+    public void testReject() {
+        EntriesLimiter limiter = new EntriesLimiter(3, 3, 9, EntriesLimitPolicy.REJECT);
+        limiter.limit(entries("a", "1", "b", "1234", "c", "1"));
+        assertThat(entries.isEmpty(), is(true));
+        assertThat(limiter.getRejectedEntries().sum(), is(3L));
+        limiter.limit(entries("a", "1", "b", "2"));
+        assertThat(entries.size(), is(2));
+    }
+
+    @Test
+    public void testUtf8Length() {
+        assertThat(utf8Length(null), is(0));
+        assertThat(utf8Length("aé€😀"), is(10));
+        assertThat(utf8Length("\ud83d"), is(3));
+        assertThat(utf8Length("\ud83da"), is(4));
+    }
+
+    @Test
+    public void testTruncateUtf8() {
+        assertThat(truncate("aé€😀", 1), is("a"));
+        assertThat(truncate("aé€😀", 2), is("a"));
+        assertThat(truncate("aé€😀", 9), is("aé€"));
+        assertThat(truncate("aé€😀", 10), is("aé€😀"));
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.propagator.concurrent;
+
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextFork;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.fork;
+import static java.util.concurrent.CompletableFuture.runAsync;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ContextAwareSupplierTest extends AbstractExecutionContextAwareExecutorTest {
+
+    @Test
+    public void testGet() throws Exception {
+        current().put(key, value);
+        assertThat(supplyAsync(ContextAwareSupplier.wrap(() -> current().get(key))).get(), is(value));
+    }
+
+    @Test
+    public void testAllOf() throws Exception {
+        current().put(key, value);
+        ExecutionContextFork fork = fork();
+        CompletableFuture<String> supplied = supplyAsync(ContextAwareSupplier.wrap(() -> current().put("key1", "value1").get(key), fork.branch()));
+        CompletableFuture<Void> ran = runAsync(ContextAwareRunnable.wrap(() -> current().put("key2", "value2"), fork.branch()));
+        CompletableFuture.allOf(supplied, ran).join();
+        fork.join();
+        assertThat(supplied.get(), is(value));
+        assertThat(current().get("key1"), is("value1"));
+        assertThat(current().get("key2"), is("value2"));
+    }
+}
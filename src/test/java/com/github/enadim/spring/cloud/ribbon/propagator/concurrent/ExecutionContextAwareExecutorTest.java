@@ -17,16 +17,19 @@ package com.github.enadim.spring.cloud.ribbon.propagator.concurrent;
 
 import org.junit.Test;
 
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 public class ExecutionContextAwareExecutorTest extends AbstractExecutionContextAwareExecutorTest {
 
-    private final ContextAwareExecutor propagator = new ContextAwareExecutor(newSingleThreadExecutor());
+    private final ExecutorService executor = newSingleThreadExecutor();
+    private final ContextAwareExecutor propagator = new ContextAwareExecutor(executor);
 
     @Test
     public void testExecute() throws Exception {
@@ -34,4 +37,13 @@ public class ExecutionContextAwareExecutorTest extends AbstractExecutionContextA
         propagator.execute(runnable);
         assertThat(signal.poll(5, TimeUnit.SECONDS), is(value));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testExecuteRestoresWorkerContext() throws Exception {
+        executor.submit(() -> null).get();
+        current().put(key, value);
+        propagator.execute(runnable);
+        assertThat(signal.poll(5, TimeUnit.SECONDS), is(value));
+        assertThat(executor.submit(() -> current().get(key)).get(), is(nullValue()));
+    }
+}
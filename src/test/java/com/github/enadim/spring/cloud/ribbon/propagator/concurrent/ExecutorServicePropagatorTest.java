@@ -15,14 +15,19 @@
  */
 package com.github.enadim.spring.cloud.ribbon.propagator.concurrent;
 
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
 import org.junit.Test;
 
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
 import static java.util.Arrays.asList;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
@@ -106,6 +111,41 @@ public class ExecutorServicePropagatorTest extends AbstractExecutionContextAware
                 .get(), is(value + value));
     }
 
+    @Test
+    public void testInvokeAllMergesBranches() throws Exception {
+        current().put(key, value);
+        propagator.invokeAll(asList(() -> current().put("key1", "value1"), () -> current().put("key2", "value2").remove(key)));
+        assertThat(current().get("key1"), is("value1"));
+        assertThat(current().get("key2"), is("value2"));
+        assertThat(current().containsKey(key), is(false));
+    }
+
+    @Test
+    public void testInvokeAllWithTimeOutMergesBranches() throws Exception {
+        propagator.invokeAll(asList(() -> current().put("key1", "value1"), () -> current().put("key2", "value2")), 10, SECONDS);
+        assertThat(current().get("key1"), is("value1"));
+        assertThat(current().get("key2"), is("value2"));
+    }
+
+    @Test
+    public void testInvokeAllWithTimeOutDiscardsCancelledBranches() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<ExecutionContext>> futures = propagator.invokeAll(asList(
+                () -> current().put("key1", "value1"),
+                () -> {
+                    current().put("key2", "value2");
+                    started.countDown();
+                    release.await();
+                    return current();
+                }), 200, MILLISECONDS);
+        release.countDown();
+        assertThat(started.getCount(), is(0L));
+        assertThat(futures.get(1).isCancelled(), is(true));
+        assertThat(current().get("key1"), is("value1"));
+        assertThat(current().containsKey("key2"), is(false));
+    }
+
     @Test
     public void testInvokeAny() throws Exception {
         current().put(key, value);
@@ -15,6 +15,8 @@
  */
 package com.github.enadim.spring.cloud.ribbon.propagator.jms;
 
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimitPolicy;
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimiter;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
@@ -59,6 +61,20 @@ public class AbstractPreservesMessagePropertiesTest {
         Assert.assertThat(current().containsKey("3"), is(false));
     }
 
+    @Test
+    public void copy_limited_properties() throws Exception {
+        EntriesLimiter limiter = new EntriesLimiter(1, 10, 100, EntriesLimitPolicy.DROP);
+        AbstractPreservesMessageProperties limited = new AbstractPreservesMessageProperties(keys::contains, new EchoMessagePropertyEncoder(), limiter) {
+        };
+        when(message.getPropertyNames()).thenReturn(Collections.enumeration(asList("1", "2")));
+        when(message.getStringProperty("1")).thenReturn("1");
+        when(message.getStringProperty("2")).thenReturn("2");
+        limited.copyFromMessage(message);
+        Assert.assertThat(current().get("1"), is("1"));
+        Assert.assertThat(current().containsKey("2"), is(false));
+        Assert.assertThat(limiter.getRejectedEntries().sum(), is(1L));
+    }
+
     @Test
     public void fail_on_get_property_names() throws Exception {
         when(message.getPropertyNames()).thenThrow(JMSException.class);
@@ -15,6 +15,8 @@
  */
 package com.github.enadim.spring.cloud.ribbon.propagator.jms;
 
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import org.junit.After;
 import org.junit.Test;
 
 import javax.jms.Message;
@@ -22,6 +24,12 @@ import javax.jms.MessageListener;
 import java.util.Collections;
 import java.util.HashSet;
 
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -34,8 +42,20 @@ public class PreservesMessagePropertiesMessageListenerTest {
     @Test
     public void onMessage() throws Exception {
         when(message.getPropertyNames()).thenReturn(Collections.emptyEnumeration());
+        ExecutionContext previous = current().put("key", "value");
+        doAnswer(x -> {
+            assertThat(current(), is(not(previous)));
+            assertThat(current().isEmpty(), is(true));
+            return null;
+        }).when(delegate).onMessage(message);
         listener.onMessage(message);
         verify(delegate).onMessage(message);
+        assertThat(current(), is(previous));
+    }
+
+    @After
+    public void after() {
+        remove();
     }
 
 }
\ No newline at end of file
@@ -15,6 +15,7 @@
  */
 package com.github.enadim.spring.cloud.ribbon.propagator.jms;
 
+import org.junit.After;
 import org.junit.Test;
 
 import javax.jms.Message;
@@ -24,6 +25,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
 import static java.util.Arrays.asList;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -34,6 +36,11 @@ public class PreservesMessagePropertiesMessageProducerAdapterTest {
     PreservesMessagePropertiesMessageProducerAdapter propagator = new PreservesMessagePropertiesMessageProducerAdapter(delegate, keys::contains, new HashMap<>(), new EchoMessagePropertyEncoder());
     Message message = mock(Message.class);
 
+    @After
+    public void after() {
+        remove();
+    }
+
     @Test
     public void setDeliveryDelay() throws Exception {
         propagator.setDeliveryDelay(0);
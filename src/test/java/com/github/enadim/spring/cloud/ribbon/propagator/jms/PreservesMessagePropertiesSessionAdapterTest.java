@@ -15,6 +15,7 @@
  */
 package com.github.enadim.spring.cloud.ribbon.propagator.jms;
 
+import org.junit.After;
 import org.junit.Test;
 
 import javax.jms.BytesMessage;
@@ -30,6 +31,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
 import static java.util.Arrays.asList;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -43,6 +45,11 @@ public class PreservesMessagePropertiesSessionAdapterTest {
     PreservesMessagePropertiesSessionAdapter propagator = new PreservesMessagePropertiesSessionAdapter(delegate, keys::contains, new HashMap<>(), new EchoMessagePropertyEncoder());
 
 
+    @After
+    public void after() {
+        remove();
+    }
+
     @Test
     public void createBytesMessage() throws Exception {
         BytesMessage message = mock(BytesMessage.class);
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.propagator.reactor;
+
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.propagator.PatternFilter;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.create;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.regex.Pattern.compile;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.springframework.http.HttpMethod.GET;
+
+public class PreservesHttpHeadersExchangeFilterTest {
+    Set<String> attributes = new HashSet<>(asList("1", "2"));
+    Map<String, String> extraStaticEntries = new HashMap<>();
+    ClientRequest request = ClientRequest.create(GET, URI.create("http://localhost/test")).build();
+    ClientResponse response = mock(ClientResponse.class);
+    AtomicReference<ClientRequest> exchanged = new AtomicReference<>();
+    AtomicReference<String> chosen = new AtomicReference<>();
+    ExchangeFunction next = x -> {
+        exchanged.set(x);
+        chosen.set(current().get("1"));
+        return Mono.just(response);
+    };
+
+    @After
+    public void after() {
+        remove();
+    }
+
+    @Test
+    public void should_propagate_subscriber_context() {
+        extraStaticEntries.put("2", "2");
+        ExecutionContext context = create().put("1", "1").put("3", "3");
+        PreservesHttpHeadersExchangeFilter filter = new PreservesHttpHeadersExchangeFilter(new PatternFilter(), attributes::contains, extraStaticEntries);
+        assertThat(filter.filter(request, next).subscriberContext(x -> ReactorExecutionContext.put(x, context)).block(), is(response));
+        assertThat(exchanged.get().headers().getFirst("1"), is("1"));
+        assertThat(exchanged.get().headers().getFirst("2"), is("2"));
+        assertThat(exchanged.get().headers().containsKey("3"), is(false));
+        assertThat(chosen.get(), is("1"));
+        assertThat(current().get("1"), nullValue());
+    }
+
+    @Test
+    public void should_propagate_current_context() {
+        current().put("1", "1");
+        PreservesHttpHeadersExchangeFilter filter = new PreservesHttpHeadersExchangeFilter(new PatternFilter(), attributes::contains, extraStaticEntries);
+        filter.filter(request, next).block();
+        assertThat(exchanged.get().headers().getFirst("1"), is("1"));
+    }
+
+    @Test
+    public void should_skip_excluded_url() {
+        current().put("1", "1");
+        PatternFilter urlFilter = new PatternFilter(new ArrayList<>(singletonList(compile(".*"))), new ArrayList<>(singletonList(compile("test"))));
+        PreservesHttpHeadersExchangeFilter filter = new PreservesHttpHeadersExchangeFilter(urlFilter, attributes::contains, extraStaticEntries);
+        filter.filter(request, next).block();
+        assertThat(exchanged.get(), is(request));
+        assertThat(chosen.get(), is("1"));
+    }
+}
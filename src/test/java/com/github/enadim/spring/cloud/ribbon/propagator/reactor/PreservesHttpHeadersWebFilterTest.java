@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.propagator.reactor;
+
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimitPolicy;
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimiter;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class PreservesHttpHeadersWebFilterTest {
+    Set<String> attributes = new HashSet<>(asList("1", "2"));
+    PreservesHttpHeadersWebFilter propagator = new PreservesHttpHeadersWebFilter(attributes::contains, EntriesLimiter.UNBOUNDED);
+    AtomicReference<ExecutionContext> propagated = new AtomicReference<>();
+    WebFilterChain chain = x -> Mono.subscriberContext().doOnNext(c -> propagated.set(ReactorExecutionContext.get(c))).then();
+
+    @After
+    public void after() {
+        remove();
+    }
+
+    @Test
+    public void should_propagate_request_headers() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/")
+                .header("1", "1", "11")
+                .header("2", "2")
+                .header("3", "3"));
+        propagator.filter(exchange, chain).block();
+        assertThat(propagated.get().get("1"), equalTo("1"));
+        assertThat(propagated.get().get("2"), equalTo("2"));
+        assertThat(propagated.get().containsKey("3"), is(false));
+        assertThat(current().get("1"), nullValue());
+    }
+
+    @Test
+    public void should_limit_request_headers() {
+        EntriesLimiter limiter = new EntriesLimiter(10, 2, 100, EntriesLimitPolicy.TRUNCATE);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/")
+                .header("1", "1")
+                .header("2", "222"));
+        new PreservesHttpHeadersWebFilter(attributes::contains, limiter).filter(exchange, chain).block();
+        assertThat(propagated.get().get("1"), equalTo("1"));
+        assertThat(propagated.get().get("2"), equalTo("22"));
+        assertThat(limiter.getTruncatedEntries().sum(), is(1L));
+    }
+
+    @Test
+    public void fail_silent() {
+        propagator.filter(mock(ServerWebExchange.class), chain).block();
+        assertThat(propagated.get().isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.propagator.reactor;
+
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.context.Scope;
+import org.junit.After;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.create;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class ReactorExecutionContextTest {
+
+    @After
+    public void after() {
+        remove();
+    }
+
+    @Test
+    public void testPutAndGet() {
+        ExecutionContext context = create();
+        assertThat(ReactorExecutionContext.get(ReactorExecutionContext.put(Context.empty(), context)), sameInstance(context));
+    }
+
+    @Test
+    public void testGetFallsBackToCurrent() {
+        current().put("1", "1");
+        assertThat(ReactorExecutionContext.get(Context.empty()), sameInstance(current()));
+    }
+
+    @Test
+    public void testAttach() {
+        ExecutionContext context = create().put("1", "2");
+        current().put("1", "1");
+        try (Scope scope = ReactorExecutionContext.attach(ReactorExecutionContext.put(Context.empty(), context))) {
+            assertThat(current().get("1"), is("2"));
+        }
+        assertThat(current().get("1"), is("1"));
+    }
+
+    @Test
+    public void testWithCurrent() {
+        current().put("1", "1");
+        String value = Mono.subscriberContext()
+                .map(x -> ReactorExecutionContext.get(x).get("1"))
+                .subscriberContext(ReactorExecutionContext.withCurrent())
+                .block();
+        assertThat(value, is("1"));
+    }
+
+    @Test
+    public void testBlocking() {
+        ExecutionContext context = create().put("1", "2");
+        String value = ReactorExecutionContext.blocking(() -> current().get("1"))
+                .subscriberContext(x -> ReactorExecutionContext.put(x, context))
+                .block();
+        assertThat(value, is("2"));
+        assertThat(current().get("1"), nullValue());
+    }
+
+    @Test
+    public void testBlockingEmpty() {
+        assertThat(ReactorExecutionContext.blocking(() -> null).block(), nullValue());
+    }
+}
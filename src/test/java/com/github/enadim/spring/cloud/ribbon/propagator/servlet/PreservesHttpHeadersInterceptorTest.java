@@ -15,6 +15,8 @@
  */
 package com.github.enadim.spring.cloud.ribbon.propagator.servlet;
 
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimitPolicy;
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimiter;
 import org.junit.After;
 import org.junit.Test;
 
@@ -50,6 +52,18 @@ public class PreservesHttpHeadersInterceptorTest {
         attributes.forEach(x -> assertThat(current().get(x), equalTo(x)));
     }
 
+    @Test
+    public void should_limit_request_headers() throws Exception {
+        EntriesLimiter limiter = new EntriesLimiter(10, 2, 100, EntriesLimitPolicy.TRUNCATE);
+        when(request.getHeaderNames()).thenReturn(enumeration(asList("1", "2")));
+        when(request.getHeader("1")).thenReturn("1");
+        when(request.getHeader("2")).thenReturn("222");
+        new PreservesHttpHeadersInterceptor(attributes::contains, limiter).preHandle(request, null, null);
+        assertThat(current().get("1"), equalTo("1"));
+        assertThat(current().get("2"), equalTo("22"));
+        assertThat(limiter.getTruncatedEntries().sum(), is(1L));
+    }
+
     @Test
     public void should_skip_propagation_on_null_request_headers() throws Exception {
         when(request.getHeaderNames()).thenReturn(null);
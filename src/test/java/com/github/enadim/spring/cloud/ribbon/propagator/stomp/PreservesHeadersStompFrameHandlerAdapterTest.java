@@ -15,6 +15,9 @@
  */
 package com.github.enadim.spring.cloud.ribbon.propagator.stomp;
 
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimitPolicy;
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimiter;
 import org.junit.After;
 import org.junit.Test;
 import org.springframework.messaging.simp.stomp.StompFrameHandler;
@@ -23,8 +26,13 @@ import org.springframework.messaging.simp.stomp.StompHeaders;
 import java.util.HashSet;
 import java.util.Set;
 
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
 import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
 import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
@@ -39,6 +47,20 @@ public class PreservesHeadersStompFrameHandlerAdapterTest {
         remove();
     }
 
+    @Test
+    public void testHandleFrameRejected() throws Exception {
+        EntriesLimiter limiter = new EntriesLimiter(10, 10, 3, EntriesLimitPolicy.REJECT);
+        StompHeaders headers = new StompHeaders();
+        asList("1", "2").forEach(x -> headers.set(x, x));
+        doAnswer(x -> {
+            assertThat(current().isEmpty(), is(true));
+            return null;
+        }).when(delegate).handleFrame(headers, payload);
+        new PreservesHeadersStompFrameHandlerAdapter(delegate, attributes::contains, limiter).handleFrame(headers, payload);
+        verify(delegate).handleFrame(headers, payload);
+        assertThat(limiter.getRejectedEntries().sum(), is(2L));
+    }
+
     @Test
     public void testGetPayloadType() throws Exception {
         propagator.getPayloadType(null);
@@ -49,7 +71,16 @@ public class PreservesHeadersStompFrameHandlerAdapterTest {
     public void testHandleFrame() throws Exception {
         StompHeaders headers = new StompHeaders();
         asList("1", "2", "3").forEach(x -> headers.set(x, x));
+        ExecutionContext previous = current();
+        doAnswer(x -> {
+            assertThat(current(), is(not(previous)));
+            assertThat(current().get("1"), is("1"));
+            assertThat(current().containsKey("3"), is(false));
+            return null;
+        }).when(delegate).handleFrame(headers, payload);
         propagator.handleFrame(headers, payload);
         verify(delegate).handleFrame(headers, payload);
+        assertThat(current(), is(previous));
+        assertThat(current().containsKey("1"), is(false));
     }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class ChooseServerExceptionTest {
+
+    @Test
+    public void testMessage() {
+        ChooseServerException exception = new ChooseServerException("message");
+        assertThat(exception.getMessage(), is("message"));
+        assertThat(exception.getStackTrace().length, is(not(0)));
+    }
+
+    @Test
+    public void testLazyMessage() {
+        AtomicInteger renderings = new AtomicInteger();
+        ChooseServerException exception = new ChooseServerException(() -> "message" + renderings.incrementAndGet());
+        assertThat(renderings.get(), is(0));
+        assertThat(exception.getMessage(), is("message1"));
+        assertThat(exception.getMessage(), is("message1"));
+        assertThat(exception.getStackTrace().length, is(0));
+        exception.addSuppressed(new IllegalStateException());
+        assertThat(exception.getSuppressed().length, is(0));
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        assertThat(deserialize(new ChooseServerException(() -> "message")).getMessage(), is("message"));
+        assertThat(deserialize(new ChooseServerException("message")).getMessage(), is("message"));
+    }
+
+    private static ChooseServerException deserialize(ChooseServerException exception) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream stream = new ObjectOutputStream(out)) {
+            stream.writeObject(exception);
+        }
+        try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            return (ChooseServerException) stream.readObject();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.LoadBalancerStats;
+import com.netflix.loadbalancer.Server;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.mock;
+
+public class ConsistentHashServerChooserTest {
+    List<Server> servers = servers(10);
+    LoadBalancerStats stats = new LoadBalancerStats("test");
+    BaseLoadBalancer loadBalancer = new BaseLoadBalancer("test", null, stats);
+    ServerChooser fallback = (eligible, lb) -> eligible.get(0);
+    ConsistentHashServerChooser chooser = new ConsistentHashServerChooser("tenant", 1.25, fallback);
+
+    static List<Server> servers(int count) {
+        List<Server> servers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            servers.add(new Server("host" + i, 8080));
+        }
+        return servers;
+    }
+
+    @After
+    public void after() {
+        remove();
+    }
+
+    Map<String, Server> choose(List<Server> eligible, ILoadBalancer lb) {
+        Map<String, Server> choices = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            String tenant = "tenant" + i;
+            current().put("tenant", tenant);
+            choices.put(tenant, chooser.choose(eligible, lb));
+        }
+        return choices;
+    }
+
+    @Test
+    public void shouldChooseTheSameServerForTheSameKey() {
+        current().put("tenant", "tenant1");
+        Server server = chooser.choose(servers, loadBalancer);
+        List<Server> reversed = new ArrayList<>(servers);
+        Collections.reverse(reversed);
+        assertThat(chooser.choose(servers, loadBalancer), is(server));
+        assertThat(chooser.choose(reversed, mock(ILoadBalancer.class)), is(server));
+        current().put("tenant", "tenant2");
+        Map<String, Server> choices = choose(servers, loadBalancer);
+        assertThat(choices.values().stream().distinct().count(), is(10L));
+    }
+
+    @Test
+    public void shouldRemapOnlyTheKeysOfTheRemovedServer() {
+        Map<String, Server> before = choose(servers, loadBalancer);
+        Server removed = servers.get(3);
+        List<Server> remaining = new ArrayList<>(servers);
+        remaining.remove(removed);
+        Map<String, Server> after = choose(remaining, loadBalancer);
+        before.forEach((tenant, server) -> {
+            if (server != removed) {
+                assertThat(after.get(tenant), is(server));
+            }
+        });
+    }
+
+    @Test
+    public void shouldRemapAboutOneNthOfTheKeysToTheAddedServer() {
+        Map<String, Server> before = choose(servers, loadBalancer);
+        List<Server> added = new ArrayList<>(servers);
+        Server server = new Server("host10", 8080);
+        added.add(server);
+        Map<String, Server> after = choose(added, loadBalancer);
+        long remapped = before.keySet().stream().filter(x -> after.get(x) != before.get(x)).count();
+        before.keySet().stream().filter(x -> after.get(x) != before.get(x)).forEach(x -> assertThat(after.get(x), is(server)));
+        assertThat(remapped, lessThan(200L));
+        assertThat(remapped, not(is(0L)));
+    }
+
+    @Test
+    public void shouldSkipTheServersOverTheLoadBound() {
+        List<Server> eligible = asList(servers.get(0), servers.get(1));
+        current().put("tenant", "tenant1");
+        Server preferred = chooser.choose(eligible, loadBalancer);
+        Server other = preferred == eligible.get(0) ? eligible.get(1) : eligible.get(0);
+        stats.incrementActiveRequestsCount(preferred);
+        stats.incrementActiveRequestsCount(preferred);
+        assertThat(chooser.choose(eligible, loadBalancer), is(other));
+        stats.incrementActiveRequestsCount(other);
+        assertThat(chooser.choose(eligible, loadBalancer), is(preferred));
+    }
+
+    @Test
+    public void shouldFallbackWhenTheKeyIsMissing() {
+        assertThat(chooser.choose(servers, loadBalancer), is(servers.get(0)));
+    }
+
+    @Test
+    public void shouldIgnoreTheLoadWithoutStatistics() {
+        current().put("tenant", "tenant1");
+        Server server = chooser.choose(servers, loadBalancer);
+        assertThat(chooser.choose(servers, new BaseLoadBalancer("test", null, null)), is(server));
+    }
+
+    @Test
+    public void testGetters() {
+        assertThat(chooser.getKey(), is("tenant"));
+        assertThat(chooser.getLoadFactor(), is(1.25));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectLoadFactorLowerThanOne() {
+        new ConsistentHashServerChooser("tenant", 0.5, fallback);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUndefinedLoadFactor() {
+        new ConsistentHashServerChooser("tenant", Double.NaN, fallback);
+    }
+}
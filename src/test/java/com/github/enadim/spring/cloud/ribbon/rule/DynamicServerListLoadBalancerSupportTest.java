@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import com.netflix.client.config.DefaultClientConfigImpl;
+import com.netflix.loadbalancer.DummyPing;
+import com.netflix.loadbalancer.RoundRobinRule;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerList;
+import com.netflix.loadbalancer.ServerListUpdater;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+
+public class DynamicServerListLoadBalancerSupportTest {
+    Server server1 = new Server("1");
+    Server server2 = new Server("2");
+    @SuppressWarnings("unchecked")
+    DynamicServerListLoadBalancerSupport<Server> loadBalancer = new DynamicServerListLoadBalancerSupport<>(
+            DefaultClientConfigImpl.getClientConfigWithDefaultValues("test"), new RoundRobinRule(), new DummyPing(),
+            mock(ServerList.class), x -> x, mock(ServerListUpdater.class));
+
+    @Test
+    public void shouldShareTheServerListView() {
+        loadBalancer.setServersList(asList(server1, server2));
+        List<Server> servers = loadBalancer.getAllServers();
+        assertThat(servers, contains(server1, server2));
+        assertThat(loadBalancer.getAllServers(), sameInstance(servers));
+    }
+
+    @Test
+    public void shouldRefreshTheViewOnServerListChange() {
+        loadBalancer.setServersList(asList(server1, server2));
+        List<Server> servers = loadBalancer.getAllServers();
+        loadBalancer.setServersList(asList(server2));
+        assertThat(loadBalancer.getAllServers(), not(sameInstance(servers)));
+        assertThat(loadBalancer.getAllServers(), contains(server2));
+    }
+
+    @Test
+    public void shouldPublishTheServerListDeltas() {
+        List<ServerListDelta> deltas = new ArrayList<>();
+        ServerListDeltaListener listener = deltas::add;
+        loadBalancer.setServersList(asList(server1));
+        loadBalancer.addServerListDeltaListener(listener);
+        assertThat(deltas.get(0).getAdded(), contains(server1));
+        loadBalancer.setServersList(asList(server1, server2));
+        assertThat(deltas.get(1).getAdded(), contains(server2));
+        loadBalancer.removeServerListDeltaListener(listener);
+        loadBalancer.setServersList(asList(server2));
+        assertThat(deltas.size(), is(2));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldBeUnmodifiable() {
+        loadBalancer.getAllServers().clear();
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.rule.EligibleServerCache.Route;
+import com.netflix.loadbalancer.Server;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class EligibleServerCacheTest {
+    Server server1 = new Server("1");
+    Server server2 = new Server("2");
+    List<Server> servers = asList(server1, server2);
+    EligibleServerCache cache = new EligibleServerCache(asList("zone", "version"), 2);
+
+    @After
+    public void after() {
+        remove();
+    }
+
+    @Test
+    public void shouldCacheTheRoute() {
+        ExecutionContext context = current().put("zone", "1").put("other", "1");
+        assertThat(cache.get(servers, null, context), is(nullValue()));
+        List<Server> eligible = new ArrayList<>(asList(server2));
+        List<Server> cached = cache.put(servers, null, context, eligible);
+        eligible.clear();
+        assertThat(cached, contains(server2));
+        assertThat(cache.get(servers, null, context), sameInstance(cached));
+        assertThat(cache.get(servers, null, context.copy().put("other", "2")), sameInstance(cached));
+        assertThat(cache.getHits(), is(2L));
+        assertThat(cache.getMisses(), is(1L));
+    }
+
+    @Test
+    public void shouldDistinguishTheRoutes() {
+        ExecutionContext context = current().put("zone", "1");
+        cache.put(servers, null, context, servers);
+        assertThat(cache.get(servers, "key", context), is(nullValue()));
+        assertThat(cache.get(servers, null, context.copy().put("version", "1")), is(nullValue()));
+        assertThat(cache.get(servers, null, context.copy().put("zone", "2")), is(nullValue()));
+    }
+
+    @Test
+    public void shouldForgetTheRoutesOnServerListChange() {
+        ExecutionContext context = current();
+        List<Server> cached = cache.put(servers, null, context, servers);
+        List<Server> refreshed = asList(server1, server2);
+        assertThat(cache.get(refreshed, null, context), is(nullValue()));
+        assertThat(cache.put(refreshed, null, context, servers), not(sameInstance(cached)));
+        assertThat(cache.get(servers, null, context), is(nullValue()));
+    }
+
+    @Test
+    public void shouldEvictWhenFull() {
+        ExecutionContext context = current();
+        cache.put(servers, 1, context, servers);
+        cache.put(servers, 2, context, servers);
+        cache.put(servers, 3, context, servers);
+        int cached = 0;
+        for (int key = 1; key <= 3; key++) {
+            cached += cache.get(servers, key, context) == null ? 0 : 1;
+        }
+        assertThat(cached, is(2));
+        assertThat(cache.get(servers, 3, context), is(not(nullValue())));
+    }
+
+    @Test
+    public void shouldBoundTheRoutesUnderConcurrency() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            int offset = thread * 1000;
+            executor.execute(() -> {
+                for (int key = offset; key < offset + 1000; key++) {
+                    cache.put(servers, key, current(), servers);
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS), is(true));
+        int cached = 0;
+        for (int key = 0; key < 8000; key++) {
+            cached += cache.get(servers, key, current()) == null ? 0 : 1;
+        }
+        assertThat(cached, is(2));
+    }
+
+    @Test
+    public void shouldKeepTheLastRouteWhenUnsized() {
+        EligibleServerCache unsized = new EligibleServerCache(asList("zone"), 0);
+        unsized.put(servers, 1, current(), servers);
+        unsized.put(servers, 2, current(), servers);
+        assertThat(unsized.get(servers, 1, current()), is(nullValue()));
+        assertThat(unsized.get(servers, 2, current()), contains(server1, server2));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldCacheUnmodifiableServers() {
+        cache.put(servers, null, current(), servers).clear();
+    }
+
+    @Test
+    public void testGetters() {
+        assertThat(cache.getKeys(), contains("zone", "version"));
+        assertThat(cache.getMaxSize(), is(2));
+    }
+
+    @Test
+    public void testRouteEquality() {
+        String[] keys = {"zone"};
+        ExecutionContext context = current().put("zone", "Aa");
+        Route route = new Route(new String[1]).fill("Aa", context, keys).copy();
+        assertThat(route.equals(route.copy()), is(true));
+        assertThat(route.equals("Aa"), is(false));
+        assertThat(route.equals(new Route(new String[1]).fill("Ab", context, keys)), is(false));
+        assertThat(route.equals(new Route(new String[1]).fill("BB", context, keys)), is(false));
+        Route other = new Route(new String[1]).fill("BB", current().copy().put("zone", "BB"), keys);
+        Route same = new Route(new String[1]).fill("Aa", current().copy().put("zone", "BB"), keys);
+        assertThat(other.hashCode(), is(same.hashCode()));
+        assertThat(same.equals(new Route(new String[1]).fill("Aa", context, keys)), is(false));
+    }
+}
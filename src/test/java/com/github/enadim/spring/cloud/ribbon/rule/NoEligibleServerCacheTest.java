@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.netflix.loadbalancer.Server;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.current;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class NoEligibleServerCacheTest {
+    List<Server> servers = asList(new Server("1"));
+    NoEligibleServerCache cache = new NoEligibleServerCache(asList("1"), 2);
+
+    @After
+    public void after() {
+        remove();
+    }
+
+    @Test
+    public void shouldRememberTheRoute() {
+        ExecutionContext context = current().put("1", "1");
+        assertThat(cache.get(servers, null, context), is(nullValue()));
+        ChooseServerException exception = cache.put(servers, null, context, () -> "message");
+        assertThat(cache.get(servers, null, context), sameInstance(exception));
+        assertThat(cache.get(servers, null, context.copy()), sameInstance(exception));
+        assertThat(cache.put(servers, null, context, () -> "other"), sameInstance(exception));
+        assertThat(cache.getHits(), is(2L));
+        assertThat(exception.getMessage(), is("message"));
+        assertThat(exception.getStackTrace().length, is(0));
+    }
+
+    @Test
+    public void shouldDistinguishTheRoutes() {
+        ExecutionContext context = current().put("1", "1");
+        cache.put(servers, null, context, () -> "message");
+        assertThat(cache.get(servers, "key", context), is(nullValue()));
+        assertThat(cache.get(servers, null, context.copy().put("1", "2")), is(nullValue()));
+        assertThat(cache.getHits(), is(0L));
+    }
+
+    @Test
+    public void shouldForgetTheRoutesOnServerListChange() {
+        ExecutionContext context = current();
+        ChooseServerException exception = cache.put(servers, null, context, () -> "message");
+        List<Server> refreshed = asList(new Server("1"));
+        assertThat(cache.get(refreshed, null, context), is(nullValue()));
+        assertThat(cache.put(refreshed, null, context, () -> "message"), not(sameInstance(exception)));
+        assertThat(cache.get(servers, null, context), is(nullValue()));
+    }
+
+    @Test
+    public void shouldBoundTheRoutes() {
+        ExecutionContext context = current();
+        cache.put(servers, 1, context, () -> "message");
+        cache.put(servers, 2, context, () -> "message");
+        ChooseServerException overflow = cache.put(servers, 3, context, () -> "overflow");
+        assertThat(cache.get(servers, 2, context), is(not(nullValue())));
+        assertThat(cache.get(servers, 3, context), is(nullValue()));
+        assertThat(cache.put(servers, 4, context, () -> "other"), sameInstance(overflow));
+        assertThat(overflow.getMessage(), is("overflow"));
+    }
+
+    @Test
+    public void shouldIgnoreTheEntriesOutOfTheRoutingKeys() {
+        ExecutionContext context = current().put("1", "1").put("request-id", "1");
+        ChooseServerException exception = cache.put(servers, null, context, () -> "message");
+        for (int i = 2; i < 10; i++) {
+            assertThat(cache.get(servers, null, context.put("request-id", String.valueOf(i))), sameInstance(exception));
+        }
+        assertThat(cache.getHits(), is(8L));
+        assertThat(cache.getKeys(), contains("1"));
+    }
+}
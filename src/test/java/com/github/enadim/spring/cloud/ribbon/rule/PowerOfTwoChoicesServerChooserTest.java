@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.LoadBalancerStats;
+import com.netflix.loadbalancer.Server;
+import org.junit.Test;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.isOneOf;
+import static org.mockito.Mockito.mock;
+
+public class PowerOfTwoChoicesServerChooserTest {
+    Server server1 = new Server("1");
+    Server server2 = new Server("2");
+    List<Server> servers = asList(server1, server2);
+    LoadBalancerStats stats = new LoadBalancerStats("test");
+    BaseLoadBalancer loadBalancer = new BaseLoadBalancer("test", null, stats);
+    ServerChooser chooser = ServerSelection.POWER_OF_TWO_CHOICES.create();
+
+    @Test
+    public void shouldCreateFromSelection() {
+        assertThat(chooser, instanceOf(PowerOfTwoChoicesServerChooser.class));
+    }
+
+    @Test
+    public void shouldChooseTheSingleServer() {
+        assertThat(chooser.choose(asList(server1), loadBalancer), is(server1));
+    }
+
+    @Test
+    public void shouldChooseFewerActiveRequests() {
+        stats.incrementActiveRequestsCount(server1);
+        for (int i = 0; i < 10; i++) {
+            assertThat(chooser.choose(servers, loadBalancer), is(server2));
+        }
+        stats.incrementActiveRequestsCount(server2);
+        stats.incrementActiveRequestsCount(server2);
+        for (int i = 0; i < 10; i++) {
+            assertThat(chooser.choose(servers, loadBalancer), is(server1));
+        }
+    }
+
+    @Test
+    public void shouldChooseLowerResponseTimeOnEqualActiveRequests() {
+        stats.noteResponseTime(server1, 100);
+        stats.noteResponseTime(server2, 10);
+        for (int i = 0; i < 10; i++) {
+            assertThat(chooser.choose(servers, loadBalancer), is(server2));
+        }
+        stats.noteResponseTime(server2, 1000);
+        for (int i = 0; i < 10; i++) {
+            assertThat(chooser.choose(servers, loadBalancer), is(server1));
+        }
+    }
+
+    @Test
+    public void shouldChooseDistinctServers() {
+        Server server3 = new Server("3");
+        stats.incrementActiveRequestsCount(server1);
+        stats.incrementActiveRequestsCount(server2);
+        for (int i = 0; i < 10; i++) {
+            assertThat(chooser.choose(asList(server1, server3), loadBalancer), is(server3));
+            assertThat(chooser.choose(asList(server3, server2, server1), loadBalancer), isOneOf(server3, server1, server2));
+        }
+    }
+
+    @Test
+    public void shouldChooseRandomlyWithoutStatistics() {
+        assertThat(chooser.choose(servers, mock(ILoadBalancer.class)), isOneOf(server1, server2));
+        assertThat(chooser.choose(servers, new BaseLoadBalancer("test", null, null)), isOneOf(server1, server2));
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContext;
+import com.github.enadim.spring.cloud.ribbon.support.DynamicMetadataMatcherConfig;
+import com.github.enadim.spring.cloud.ribbon.support.EurekaInstanceProperties;
+import com.github.enadim.spring.cloud.ribbon.support.FavoriteZoneConfig;
+import com.github.enadim.spring.cloud.ribbon.support.FavoriteZoneConfig.FavoriteZoneProperties;
+import com.github.enadim.spring.cloud.ribbon.support.PropagationProperties;
+import com.github.enadim.spring.cloud.ribbon.support.RuleBaseConfig;
+import com.github.enadim.spring.cloud.ribbon.support.StrictMetadataMatcherConfig;
+import com.github.enadim.spring.cloud.ribbon.support.ZoneAffinityConfig;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.client.config.DefaultClientConfigImpl;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.AvailabilityPredicate;
+import com.netflix.loadbalancer.DummyPing;
+import com.netflix.loadbalancer.PredicateKey;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerList;
+import com.netflix.loadbalancer.ServerListUpdater;
+import com.netflix.niws.loadbalancer.DiscoveryEnabledServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.create;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.remove;
+import static com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder.switchTo;
+import static com.github.enadim.spring.cloud.ribbon.support.RibbonExtensionsConstants.EUREKA_ZONE_PROPERTY;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+public class PredicateBasedRuleAllocationTest {
+    static final int WARMUP = 50_000;
+    static final int ITERATIONS = 10_000;
+    static final int SMALL = 4;
+    static final int LARGE = 16;
+    static final int MIN_ALLOCATION = 16;
+    static final String[] ZONES = {"zone1", "zone2", "zone3"};
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    Logger logger = (Logger) LoggerFactory.getLogger("com.github.enadim.spring.cloud.ribbon");
+    PredicateBasedRuleSupport rule = new PredicateBasedRuleSupport();
+
+    @Before
+    public void before() {
+        logger.setLevel(Level.INFO);
+    }
+
+    @After
+    public void after() {
+        logger.setLevel(null);
+        remove();
+    }
+
+    @Test
+    public void zoneAffinity() {
+        eureka(new ZoneAffinityConfig()).zoneAffinity(clientConfig(), rule);
+        assertAllocations(x -> {
+        }, true);
+    }
+
+    @Test
+    public void favoriteZone() {
+        eureka(new FavoriteZoneConfig()).favoriteZone(clientConfig(), rule, new FavoriteZoneProperties(), new PropagationProperties());
+        assertAllocations(x -> x.put("favorite-zone", ZONES[2]), true);
+    }
+
+    @Test
+    public void favoriteZoneMissing() {
+        eureka(new FavoriteZoneConfig()).favoriteZone(clientConfig(), rule, new FavoriteZoneProperties(), new PropagationProperties());
+        assertAllocations(x -> {
+        }, true);
+    }
+
+    @Test
+    public void favoriteZoneTiersEmpty() {
+        eureka(new FavoriteZoneConfig(), "zone4").favoriteZone(clientConfig(), rule, new FavoriteZoneProperties(), new PropagationProperties());
+        assertAllocations(x -> {
+        }, false, true);
+    }
+
+    @Test
+    public void dynamicMetadata() {
+        dynamic(false).dynamicMetadaMatcher(clientConfig(), rule);
+        assertAllocations(x -> x.put("dynamic-matcher-key", "version").put("version", "1"), true);
+    }
+
+    @Test
+    public void dynamicMetadataIndexed() {
+        dynamic(true).dynamicMetadaMatcher(clientConfig(), rule);
+        assertAllocations(x -> x.put("dynamic-matcher-key", "version").put("version", "1"), true);
+    }
+
+    @Test
+    public void strictMetadata() {
+        strict(false).strictMetadataMatcher(clientConfig(), rule);
+        assertAllocations(x -> x.put("version", "1").put(EUREKA_ZONE_PROPERTY, ZONES[0]), true);
+    }
+
+    @Test
+    public void strictMetadataIndexed() {
+        strict(true).strictMetadataMatcher(clientConfig(), rule);
+        assertAllocations(x -> x.put("version", "1").put(EUREKA_ZONE_PROPERTY, ZONES[0]), true);
+    }
+
+    void assertAllocations(Consumer<ExecutionContext> initializer, boolean steadyStateFree) {
+        assertAllocations(initializer, steadyStateFree, false);
+    }
+
+    void assertAllocations(Consumer<ExecutionContext> initializer, boolean steadyStateFree, boolean availabilityPerServer) {
+        long[] small = allocations(initializer, SMALL);
+        long[] large = allocations(initializer, LARGE);
+        // any allocation per server costs at least MIN_ALLOCATION bytes per extra server on top of the ribbon server statistics lookups
+        long perServer = MIN_ALLOCATION + (availabilityPerServer ? availability() : 0);
+        long extraServers = (LARGE - SMALL) * ZONES.length;
+        if (steadyStateFree) {
+            assertThat(small[1], is(0L));
+            assertThat(large[1], is(0L));
+        }
+        assertThat(large[0] - small[0], lessThan(extraServers * perServer));
+        assertThat(large[1] - small[1], lessThan(extraServers * perServer));
+    }
+
+    long[] allocations(Consumer<ExecutionContext> initializer, int serversPerZone) {
+        new DynamicServerListLoadBalancerSupport<>(clientConfig(), rule, new DummyPing(), new StaticServerList(servers(serversPerZone)), x -> x,
+                mock(ServerListUpdater.class)).updateListOfServers();
+        ExecutionContext[] contexts = new ExecutionContext[WARMUP + ITERATIONS];
+        for (int i = 0; i < contexts.length; i++) {
+            contexts[i] = create();
+            initializer.accept(contexts[i]);
+        }
+        choose(contexts, 0, WARMUP);
+        long freshAllocations = choose(contexts, WARMUP, contexts.length);
+        ExecutionContext context = contexts[0];
+        for (int i = 0; i < contexts.length; i++) {
+            contexts[i] = context;
+        }
+        choose(contexts, 0, WARMUP);
+        long reusedAllocations = choose(contexts, WARMUP, contexts.length);
+        return new long[]{freshAllocations, reusedAllocations};
+    }
+
+    long availability() {
+        AvailabilityPredicate predicate = new AvailabilityPredicate(rule, clientConfig());
+        List<Server> servers = rule.getLoadBalancer().getAllServers();
+        PredicateKey[] keys = new PredicateKey[servers.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new PredicateKey(servers.get(i));
+        }
+        for (int i = 0; i < WARMUP; i++) {
+            predicate.apply(keys[i % keys.length]);
+        }
+        long start = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for (int i = 0; i < ITERATIONS; i++) {
+            predicate.apply(keys[i % keys.length]);
+        }
+        return (threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - start) / ITERATIONS;
+    }
+
+    long choose(ExecutionContext[] contexts, int from, int to) {
+        long start = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for (int i = from; i < to; i++) {
+            switchTo(contexts[i]);
+            rule.choose(null);
+        }
+        return (threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - start) / (to - from);
+    }
+
+    static List<Server> servers(int serversPerZone) {
+        List<Server> servers = new ArrayList<>();
+        for (String zone : ZONES) {
+            for (int i = 0; i < serversPerZone; i++) {
+                Map<String, String> metadata = new HashMap<>();
+                metadata.put("version", String.valueOf(i % 2));
+                metadata.put(EUREKA_ZONE_PROPERTY, zone);
+                InstanceInfo instanceInfo = InstanceInfo.Builder.newBuilder()
+                        .setAppName("application")
+                        .setInstanceId(zone + "-" + i)
+                        .setHostName(zone + "-" + i)
+                        .setMetadata(metadata)
+                        .build();
+                DiscoveryEnabledServer server = new DiscoveryEnabledServer(instanceInfo, false);
+                server.setZone(zone);
+                servers.add(server);
+            }
+        }
+        return servers;
+    }
+
+    static <T extends RuleBaseConfig> T eureka(T config) {
+        return eureka(config, ZONES[1]);
+    }
+
+    static <T extends RuleBaseConfig> T eureka(T config, String zone) {
+        EurekaInstanceProperties properties = new EurekaInstanceProperties();
+        properties.getMetadataMap().put(EUREKA_ZONE_PROPERTY, zone);
+        setField(config, "eurekaInstanceProperties", properties);
+        return config;
+    }
+
+    static DynamicMetadataMatcherConfig dynamic(boolean indexed) {
+        DynamicMetadataMatcherConfig config = new DynamicMetadataMatcherConfig();
+        setField(config, "key", "dynamic-matcher-key");
+        setField(config, "matchIfMissing", true);
+        setField(config, "indexed", indexed);
+        return config;
+    }
+
+    static StrictMetadataMatcherConfig strict(boolean indexed) {
+        StrictMetadataMatcherConfig config = new StrictMetadataMatcherConfig();
+        setField(config, "indexed", indexed);
+        return config;
+    }
+
+    static IClientConfig clientConfig() {
+        DefaultClientConfigImpl clientConfig = new DefaultClientConfigImpl();
+        clientConfig.loadDefaultValues();
+        clientConfig.setClientName("application");
+        return clientConfig;
+    }
+
+    static class StaticServerList implements ServerList<Server> {
+        final List<Server> servers;
+
+        StaticServerList(List<Server> servers) {
+            this.servers = servers;
+        }
+
+        @Override
+        public List<Server> getInitialListOfServers() {
+            return servers;
+        }
+
+        @Override
+        public List<Server> getUpdatedListOfServers() {
+            return servers;
+        }
+    }
+}
@@ -15,19 +15,27 @@
  */
 package com.github.enadim.spring.cloud.ribbon.rule;
 
-import com.google.common.base.Optional;
+import com.github.enadim.spring.cloud.ribbon.predicate.ZoneAffinityMatcher;
 import com.netflix.loadbalancer.AbstractServerPredicate;
+import com.netflix.loadbalancer.BaseLoadBalancer;
 import com.netflix.loadbalancer.ILoadBalancer;
 import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerListChangeListener;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.List;
 
+import static com.github.enadim.spring.cloud.ribbon.predicate.CompositeServerPredicate.withPredicates;
+import static com.netflix.loadbalancer.AbstractServerPredicate.alwaysTrue;
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class PredicateBasedRuleSupportTest {
@@ -56,7 +64,79 @@ public class PredicateBasedRuleSupportTest {
         support.setLoadBalancer(loadBalancer);
         List<Server> servers = asList(server);
         when(loadBalancer.getAllServers()).thenReturn(servers);
-        when(predicate.chooseRoundRobinAfterFiltering(servers, null)).thenReturn(Optional.of(server));
+        when(predicate.getEligibleServers(servers, null)).thenReturn(servers);
+        Assert.assertThat(support.choose(null), is(server));
+    }
+
+    @Test
+    public void shouldChooseRoundRobinWithPreparedPredicate() {
+        Server other = mock(Server.class);
+        PredicateBasedRuleSupport support = new PredicateBasedRuleSupport(withPredicates(alwaysTrue(), alwaysTrue()).build());
+        support.setLoadBalancer(loadBalancer);
+        when(loadBalancer.getAllServers()).thenReturn(asList(server, other));
+        Assert.assertThat(support.choose(null), is(server));
+        Assert.assertThat(support.choose(null), is(other));
+        Assert.assertThat(support.choose(null), is(server));
+    }
+
+    @Test
+    public void shouldChooseWithTheChooser() {
+        Server other = mock(Server.class);
+        PredicateBasedRuleSupport support = new PredicateBasedRuleSupport(withPredicates(alwaysTrue()).build());
+        support.setLoadBalancer(loadBalancer);
+        support.setChooser((eligible, lb) -> eligible.get(eligible.size() - 1));
+        when(loadBalancer.getAllServers()).thenReturn(asList(server, other));
+        Assert.assertThat(support.choose(null), is(other));
+        Assert.assertThat(support.choose(null), is(other));
+    }
+
+    @Test
+    public void shouldChooseWithinTheSubset() {
+        List<Server> servers = ServerSubsetTest.servers(10, "zone1");
+        PredicateBasedRuleSupport support = new PredicateBasedRuleSupport(withPredicates(alwaysTrue()).build());
+        support.setLoadBalancer(loadBalancer);
+        support.setSubset(new ServerSubset("caller", "zone1", 2));
+        when(loadBalancer.getAllServers()).thenReturn(servers);
+        List<Server> subset = support.getSubset().subset(servers);
+        Assert.assertThat(support.choose(null), is(subset.get(0)));
+        Assert.assertThat(support.choose(null), is(subset.get(1)));
+        Assert.assertThat(support.choose(null), is(subset.get(0)));
+    }
+
+    @Test
+    public void shouldChooseAnotherServer() {
+        Server other = new Server("other", 80);
+        Server third = new Server("third", 80);
+        Server local = new Server("local", 80);
+        local.setZone("zone1");
+        PredicateBasedRuleSupport support = new PredicateBasedRuleSupport(withPredicates(new ZoneAffinityMatcher("zone1"))
+                .addFallbackPredicate(alwaysTrue())
+                .build());
+        support.setLoadBalancer(loadBalancer);
+        when(loadBalancer.getAllServers()).thenReturn(asList(local, other));
+        Assert.assertThat(support.choose(null, local), is(other));
+        when(loadBalancer.getAllServers()).thenReturn(asList(local));
+        Assert.assertThat(support.choose(null, local), is(nullValue()));
+        third.setZone("zone1");
+        when(loadBalancer.getAllServers()).thenReturn(asList(local, other, third));
+        Assert.assertThat(support.choose(null, local), is(third));
+    }
+
+    @Test
+    public void shouldChooseAnotherServerWhenNotAdmitted() {
+        Server other = mock(Server.class);
+        SlowStart slowStart = mock(SlowStart.class);
+        PredicateBasedRuleSupport support = new PredicateBasedRuleSupport(withPredicates(alwaysTrue()).build());
+        support.setLoadBalancer(loadBalancer);
+        support.setChooser((eligible, lb) -> eligible.get(0));
+        support.setSlowStart(slowStart);
+        when(loadBalancer.getAllServers()).thenReturn(asList(server, other));
+        Assert.assertThat(support.getSlowStart(), is(slowStart));
+        Assert.assertThat(support.choose(null), is(other));
+        when(slowStart.admit(server)).thenReturn(true);
+        Assert.assertThat(support.choose(null), is(server));
+        when(slowStart.admit(server)).thenReturn(false);
+        when(loadBalancer.getAllServers()).thenReturn(asList(server));
         Assert.assertThat(support.choose(null), is(server));
     }
 
@@ -66,7 +146,108 @@ public class PredicateBasedRuleSupportTest {
         support.setLoadBalancer(loadBalancer);
         List<Server> servers = asList(server);
         when(loadBalancer.getAllServers()).thenReturn(servers);
-        when(predicate.chooseRoundRobinAfterFiltering(servers, null)).thenReturn(Optional.fromNullable(null));
+        when(predicate.getEligibleServers(servers, null)).thenReturn(emptyList());
+        support.choose(null);
+    }
+
+    @Test
+    public void shouldFailFastUntilServerListChange() {
+        PredicateBasedRuleSupport support = new PredicateBasedRuleSupport(predicate);
+        support.setLoadBalancer(loadBalancer);
+        support.setDescription(() -> "description");
+        support.setNoEligibleServerCache(new NoEligibleServerCache(emptyList(), 10));
+        List<Server> servers = asList(server);
+        when(loadBalancer.getAllServers()).thenReturn(servers);
+        when(predicate.getEligibleServers(servers, null)).thenReturn(emptyList());
+        ChooseServerException first = chooseFailure(support);
+        Assert.assertThat(first.getMessage(), is("There is no server satisfying rule description."));
+        Assert.assertThat(chooseFailure(support), sameInstance(first));
+        Assert.assertThat(support.getNoEligibleServerCache().getHits(), is(1L));
+        verify(predicate, times(1)).getEligibleServers(servers, null);
+        List<Server> refreshed = asList(server);
+        when(loadBalancer.getAllServers()).thenReturn(refreshed);
+        when(predicate.getEligibleServers(refreshed, null)).thenReturn(refreshed);
+        Assert.assertThat(support.choose(null), is(server));
+    }
+
+    @Test
+    public void shouldChooseFromTheCachedEligibleServers() {
+        Server other = mock(Server.class);
+        PredicateBasedRuleSupport support = new PredicateBasedRuleSupport(predicate);
+        support.setLoadBalancer(loadBalancer);
+        support.setEligibleServerCache(new EligibleServerCache(emptyList(), 10));
+        List<Server> servers = asList(server, other);
+        when(loadBalancer.getAllServers()).thenReturn(servers);
+        when(predicate.getEligibleServers(servers, null)).thenReturn(servers);
+        Assert.assertThat(support.choose(null), is(server));
+        Assert.assertThat(support.choose(null), is(other));
+        Assert.assertThat(support.choose(null), is(server));
+        verify(predicate, times(1)).getEligibleServers(servers, null);
+        Assert.assertThat(support.getEligibleServerCache().getHits(), is(2L));
+        Assert.assertThat(support.getEligibleServerCache().getMisses(), is(1L));
+    }
+
+    @Test
+    public void shouldCacheEligibleServersWithPreparedPredicate() {
+        PredicateBasedRuleSupport support = new PredicateBasedRuleSupport(withPredicates(alwaysTrue(), alwaysTrue()).build());
+        support.setLoadBalancer(loadBalancer);
+        support.setEligibleServerCache(new EligibleServerCache(emptyList(), 10));
+        when(loadBalancer.getAllServers()).thenReturn(asList(server));
+        Assert.assertThat(support.choose(null), is(server));
+        Assert.assertThat(support.choose(null), is(server));
+    }
+
+    @Test(expected = ChooseServerException.class)
+    public void shouldNotChooseFromEmptyCachedEligibleServers() {
+        PredicateBasedRuleSupport support = new PredicateBasedRuleSupport(predicate);
+        support.setLoadBalancer(loadBalancer);
+        support.setEligibleServerCache(new EligibleServerCache(emptyList(), 10));
+        List<Server> servers = asList(server);
+        when(loadBalancer.getAllServers()).thenReturn(servers);
+        when(predicate.getEligibleServers(servers, null)).thenReturn(emptyList());
         support.choose(null);
     }
-}
\ No newline at end of file
+
+    private static ChooseServerException chooseFailure(PredicateBasedRuleSupport support) {
+        try {
+            support.choose(null);
+        } catch (ChooseServerException e) {
+            return e;
+        }
+        throw new AssertionError("ChooseServerException expected");
+    }
+
+    @Test
+    public void shouldRegisterServerListChangeListener() {
+        ListeningPredicate listening = mock(ListeningPredicate.class);
+        BaseLoadBalancer baseLoadBalancer = mock(BaseLoadBalancer.class);
+        PredicateBasedRuleSupport support = new PredicateBasedRuleSupport(listening);
+        support.setLoadBalancer(baseLoadBalancer);
+        verify(baseLoadBalancer).addServerListChangeListener(listening);
+        support.setPredicate(predicate);
+        verify(baseLoadBalancer).removeServerListChangeListener(listening);
+        support.setPredicate(listening);
+        support.setLoadBalancer(loadBalancer);
+        verify(baseLoadBalancer, times(2)).addServerListChangeListener(listening);
+        verify(baseLoadBalancer, times(2)).removeServerListChangeListener(listening);
+    }
+
+    @Test
+    public void shouldRegisterServerListDeltaListener() {
+        SlowStart slowStart = new SlowStart(1000, 0.1);
+        DynamicServerListLoadBalancerSupport<?> dynamicLoadBalancer = mock(DynamicServerListLoadBalancerSupport.class);
+        PredicateBasedRuleSupport support = new PredicateBasedRuleSupport(predicate);
+        support.setSlowStart(slowStart);
+        support.setLoadBalancer(dynamicLoadBalancer);
+        verify(dynamicLoadBalancer).addServerListDeltaListener(slowStart);
+        support.setSlowStart(null);
+        verify(dynamicLoadBalancer).removeServerListDeltaListener(slowStart);
+        support.setSlowStart(slowStart);
+        support.setLoadBalancer(mock(BaseLoadBalancer.class));
+        verify(dynamicLoadBalancer, times(2)).addServerListDeltaListener(slowStart);
+        verify(dynamicLoadBalancer, times(2)).removeServerListDeltaListener(slowStart);
+    }
+
+    abstract static class ListeningPredicate extends AbstractServerPredicate implements ServerListChangeListener {
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import com.netflix.loadbalancer.Server;
+import org.junit.Test;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public class RoundRobinServerChooserTest {
+    Server server1 = new Server("1");
+    Server server2 = new Server("2");
+    List<Server> servers = asList(server1, server2);
+    ServerChooser chooser = ServerSelection.ROUND_ROBIN.create();
+
+    @Test
+    public void shouldCreateFromSelection() {
+        assertThat(chooser, instanceOf(RoundRobinServerChooser.class));
+    }
+
+    @Test
+    public void shouldChooseInTurn() {
+        assertThat(chooser.choose(servers, null), is(server1));
+        assertThat(chooser.choose(servers, null), is(server2));
+        assertThat(chooser.choose(servers, null), is(server1));
+    }
+}
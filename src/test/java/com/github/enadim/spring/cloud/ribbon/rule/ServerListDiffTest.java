@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.loadbalancer.Server;
+import com.netflix.niws.loadbalancer.DiscoveryEnabledServer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ServerListDiffTest {
+    ServerListDiff diff = new ServerListDiff();
+    List<ServerListDelta> deltas = new ArrayList<>();
+    ServerListDeltaListener listener = deltas::add;
+    Server server1 = server("1", "zone1");
+    Server server2 = server("2", "zone1");
+    Server server3 = server("3", "zone2");
+
+    static Server server(String id, String zone) {
+        Server server = new Server(id, 80);
+        server.setZone(zone);
+        return server;
+    }
+
+    static DiscoveryEnabledServer discovered(String instanceId, String host, Map<String, String> metadata) {
+        InstanceInfo instanceInfo = mock(InstanceInfo.class);
+        when(instanceInfo.getId()).thenReturn(instanceId);
+        when(instanceInfo.getHostName()).thenReturn(host);
+        when(instanceInfo.getMetadata()).thenReturn(metadata);
+        return new DiscoveryEnabledServer(instanceInfo, false);
+    }
+
+    @Test
+    public void shouldDiffTheServerLists() {
+        List<Server> servers = asList(server1, null, server2, server1);
+        ServerListDelta delta = diff.update(servers);
+        assertThat(delta.getServers(), sameInstance(servers));
+        assertThat(delta.getAdded(), contains(server1, server2));
+        assertThat(delta.isInitial(), is(true));
+        Server moved = server("2", "zone2");
+        delta = diff.update(asList(server1, moved, server3));
+        assertThat(delta.getAdded(), contains(server3));
+        assertThat(delta.getRemoved(), is(empty()));
+        assertThat(delta.getChanged(), contains(moved));
+        assertThat(delta.getReplaced(), contains(server2));
+        assertThat(delta.isInitial(), is(false));
+        assertThat(delta.toString(), is("ServerListDelta[added=1, removed=0, changed=1]"));
+        delta = diff.update(asList(server("1", "zone1"), server3));
+        assertThat(delta.isEmpty(), is(false));
+        assertThat(delta.getAdded(), is(empty()));
+        assertThat(delta.getRemoved(), contains(moved));
+        assertThat(delta.getChanged(), is(empty()));
+        assertThat(diff.update(asList(server1, server3)).isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldKeyTheServersByInstanceId() {
+        Map<String, String> metadata = new HashMap<>(singletonMap("version", "1"));
+        DiscoveryEnabledServer instance1 = discovered("instance-1", "host1", metadata);
+        DiscoveryEnabledServer unknown = discovered(null, "host2", metadata);
+        diff.update(asList(instance1, unknown));
+        DiscoveryEnabledServer relocated = discovered("instance-1", "host3", metadata);
+        assertThat(diff.update(asList(relocated, unknown)).getChanged(), contains(relocated));
+        DiscoveryEnabledServer upgraded = discovered("instance-1", "host3", singletonMap("version", "2"));
+        assertThat(diff.update(asList(upgraded, unknown)).getChanged(), contains(upgraded));
+        assertThat(diff.update(asList(discovered("instance-1", "host3", singletonMap("version", "2")), unknown)).isEmpty(), is(true));
+        assertThat(ServerListDiff.key(unknown), is(unknown.getId()));
+    }
+
+    @Test
+    public void shouldFlagTheFirstPublishedServersAsInitial() {
+        assertThat(diff.update(emptyList()).isInitial(), is(true));
+        assertThat(diff.update(asList(server1)).isInitial(), is(true));
+        diff.update(emptyList());
+        assertThat(diff.update(asList(server1)).isInitial(), is(false));
+    }
+
+    @Test
+    public void shouldPublishTheDeltas() {
+        List<Server> servers = asList(server1, server2);
+        diff.update(servers);
+        diff.addListener(listener);
+        assertThat(deltas.get(0).getServers(), sameInstance(servers));
+        assertThat(deltas.get(0).getAdded(), containsInAnyOrder(server1, server2));
+        assertThat(deltas.get(0).isInitial(), is(true));
+        diff.update(asList(server1, server2));
+        assertThat(deltas.size(), is(1));
+        diff.update(asList(server1));
+        assertThat(deltas.get(1).getRemoved(), contains(server2));
+        diff.removeListener(listener);
+        diff.update(emptyList());
+        assertThat(deltas.size(), is(2));
+    }
+}
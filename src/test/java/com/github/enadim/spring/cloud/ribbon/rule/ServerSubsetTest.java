@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import com.netflix.loadbalancer.Server;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toSet;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.isIn;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ServerSubsetTest {
+    List<Server> servers = servers(100, "zone1", "zone2");
+
+    static List<Server> servers(int count, String... zones) {
+        List<Server> servers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Server server = new Server("host" + i, 80);
+            server.setZone(zones[i % zones.length]);
+            servers.add(server);
+        }
+        return servers;
+    }
+
+    @Test
+    public void shouldKeepTheServersNotExceedingTheSize() {
+        List<Server> few = servers(3, "zone1");
+        assertThat(new ServerSubset("caller", "zone1", 3).subset(few), sameInstance(few));
+    }
+
+    @Test
+    public void shouldReuseTheSubsetUntilTheServerListChanges() {
+        ServerSubset subset = new ServerSubset("caller", null, 10);
+        List<Server> result = subset.subset(servers);
+        assertThat(result, hasSize(10));
+        assertThat(subset.subset(servers), sameInstance(result));
+        List<Server> copy = new ArrayList<>(servers);
+        assertThat(subset.subset(copy), not(sameInstance(result)));
+        assertThat(subset.subset(copy), is(result));
+        assertThat(new ServerSubset("caller", null, 10).subset(copy), is(result));
+    }
+
+    @Test
+    public void shouldTakeTheCallerZoneFirst() {
+        List<Server> reserved = new ServerSubset("caller", "zone1", 10).subset(servers);
+        assertThat(reserved.subList(0, 9).stream().allMatch(server -> "zone1".equals(server.getZone())), is(true));
+        assertThat(reserved.get(9).getZone(), is("zone2"));
+        List<Server> result = new ServerSubset("caller", "zone1", 60).subset(servers);
+        assertThat(result.subList(0, 50).stream().allMatch(server -> "zone1".equals(server.getZone())), is(true));
+        assertThat(result.subList(50, 60).stream().allMatch(server -> "zone2".equals(server.getZone())), is(true));
+        assertThat(new ServerSubset("caller", "zone3", 10).subset(servers), is(new ServerSubset("caller", null, 10).subset(servers)));
+    }
+
+    @Test
+    public void shouldReserveTheBestServerOfEachZone() {
+        List<Server> many = servers(100, "zone1", "zone2", "zone3");
+        List<Server> result = new ServerSubset("caller", "zone1", 5).subset(many);
+        assertThat(result.subList(0, 3).stream().allMatch(server -> "zone1".equals(server.getZone())), is(true));
+        assertThat(result.subList(3, 5).stream().map(Server::getZone).collect(toSet()), is(new HashSet<>(asList("zone2", "zone3"))));
+        List<Server> zones = servers(10, "zone1", "zone2", "zone3", "zone4", "zone5");
+        result = new ServerSubset("caller", "zone1", 3).subset(zones);
+        assertThat(result.get(0).getZone(), is("zone1"));
+        assertThat(result.stream().map(Server::getZone).distinct().count(), is(3L));
+    }
+
+    @Test
+    public void shouldSpreadTheCallersEvenly() {
+        Map<Server, Integer> counts = new HashMap<>();
+        for (int caller = 0; caller < 1000; caller++) {
+            for (Server server : new ServerSubset("caller" + caller, null, 10).subset(servers)) {
+                counts.merge(server, 1, Integer::sum);
+            }
+        }
+        assertThat(counts.size(), is(100));
+        assertThat(counts.values(), everyItem(greaterThan(50)));
+        assertThat(counts.values(), everyItem(lessThan(150)));
+    }
+
+    @Test
+    public void shouldMoveMinimalAssignmentsOnChurn() {
+        ServerSubset subset = new ServerSubset("caller", null, 10);
+        List<Server> before = subset.subset(servers);
+        List<Server> removed = new ArrayList<>(servers);
+        removed.remove(before.get(0));
+        List<Server> after = subset.subset(removed);
+        assertThat(after.subList(0, 9), is(before.subList(1, 10)));
+        assertThat(after.get(9), not(isIn(before)));
+        List<Server> added = new ArrayList<>(servers);
+        added.add(new Server("host100", 80));
+        List<Server> grown = subset.subset(added);
+        assertThat(grown.stream().filter(before::contains).count() >= 9, is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMissingSeed() {
+        new ServerSubset(null, null, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonPositiveSize() {
+        new ServerSubset("caller", null, 0);
+    }
+
+    @Test
+    public void shouldExposeTheSettings() {
+        ServerSubset subset = new ServerSubset("caller", "zone1", 10);
+        assertThat(asList(subset.getSeed(), subset.getZone(), subset.getSize()), is(asList("caller", "zone1", 10)));
+    }
+}
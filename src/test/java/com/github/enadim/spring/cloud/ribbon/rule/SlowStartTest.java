@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.rule;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.loadbalancer.Server;
+import com.netflix.niws.loadbalancer.DiscoveryEnabledServer;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SlowStartTest {
+    SlowStart slowStart = new SlowStart(1000, 0.2);
+    Server server1 = new Server("1", 80);
+    Server server2 = new Server("2", 80);
+
+    static DiscoveryEnabledServer discovered(LeaseInfo leaseInfo) {
+        InstanceInfo instanceInfo = mock(InstanceInfo.class);
+        when(instanceInfo.getLeaseInfo()).thenReturn(leaseInfo);
+        return new DiscoveryEnabledServer(instanceInfo, true);
+    }
+
+    @Test
+    public void shouldRampUpFromTheServiceUpTimestamp() {
+        DiscoveryEnabledServer server = discovered(LeaseInfo.Builder.newBuilder().setServiceUpTimestamp(10000).build());
+        assertThat(slowStart.getDuration(), is(1000L));
+        assertThat(slowStart.getFloor(), is(0.2));
+        assertThat(slowStart.weight(server, 9000), is(0.2));
+        assertThat(slowStart.weight(server, 10000), is(0.2));
+        assertThat(slowStart.weight(server, 10500), closeTo(0.6, 1e-9));
+        assertThat(slowStart.weight(server, 11000), is(1d));
+    }
+
+    @Test
+    public void shouldConsiderTheUnknownServersWarm() {
+        assertThat(slowStart.weight(server1, 0), is(1d));
+        assertThat(slowStart.weight(discovered(null), 0), is(1d));
+        assertThat(slowStart.weight(discovered(LeaseInfo.Builder.newBuilder().build()), 0), is(1d));
+    }
+
+    @Test
+    public void shouldRampUpFromTheFirstSeenTime() {
+        slowStart.serverListUpdated(new ServerListDelta(emptyList(), asList(server1), emptyList(), emptyList(), emptyList(), true));
+        assertThat(slowStart.weight(server1, 0), is(1d));
+        slowStart.serverListUpdated(new ServerListDelta(emptyList(), asList(server2), emptyList(), emptyList(), emptyList(), false));
+        assertThat(slowStart.weight(server1, 0), is(1d));
+        assertThat(slowStart.weight(server2, 0), is(0.2));
+        slowStart.serverListUpdated(new ServerListDelta(emptyList(), emptyList(), emptyList(), asList(server2), asList(server2), false));
+        assertThat(slowStart.weight(server2, 0), is(0.2));
+        slowStart.serverListUpdated(new ServerListDelta(emptyList(), emptyList(), asList(server2), emptyList(), emptyList(), false));
+        assertThat(slowStart.weight(server2, 0), is(1d));
+    }
+
+    @Test
+    public void shouldForgetTheWarmedUpServers() throws InterruptedException {
+        SlowStart shortSlowStart = new SlowStart(1, 0.2);
+        shortSlowStart.serverListUpdated(new ServerListDelta(emptyList(), asList(server2), emptyList(), emptyList(), emptyList(), false));
+        assertThat(shortSlowStart.weight(server2, 0), is(0.2));
+        Thread.sleep(10);
+        shortSlowStart.serverListUpdated(new ServerListDelta(emptyList(), emptyList(), emptyList(), asList(server2), asList(server2), false));
+        assertThat(shortSlowStart.weight(server2, 0), is(1d));
+    }
+
+    @Test
+    public void shouldAdmitWithTheWeightProbability() {
+        slowStart.serverListUpdated(new ServerListDelta(emptyList(), asList(server2), emptyList(), emptyList(), emptyList(), false));
+        Set<Boolean> admissions = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            assertThat(slowStart.admit(server1), is(true));
+            admissions.add(slowStart.admit(server2));
+        }
+        assertThat(admissions, containsInAnyOrder(true, false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonPositiveDuration() {
+        new SlowStart(0, 0.2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonPositiveFloor() {
+        new SlowStart(1000, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectFloorAboveOne() {
+        new SlowStart(1000, 1.5);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.support;
+
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextHolder;
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextKeys;
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextMergePolicy;
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextStorage;
+import com.github.enadim.spring.cloud.ribbon.context.ExecutionContextType;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+public class ExecutionContextHolderConfigTest {
+
+    @Test
+    public void init() {
+        PropagationProperties properties = new PropagationProperties();
+        properties.getContext().setType(ExecutionContextType.PERSISTENT);
+        properties.getContext().setStorage(ExecutionContextStorage.THREAD_LOCAL);
+        properties.getContext().setMergePolicy(ExecutionContextMergePolicy.FAIL);
+        properties.getKeys().add("config-key");
+        ExecutionContextHolderConfig config = new ExecutionContextHolderConfig();
+        config.setProperties(properties);
+        config.init();
+        assertThat(ExecutionContextHolder.getType(), is(ExecutionContextType.PERSISTENT));
+        assertThat(ExecutionContextHolder.getStorage(), is(ExecutionContextStorage.THREAD_LOCAL));
+        assertThat(ExecutionContextHolder.getMergePolicy(), is(ExecutionContextMergePolicy.FAIL));
+        assertThat(ExecutionContextKeys.find("config-key"), is(notNullValue()));
+        assertThat(ExecutionContextKeys.find(properties.getUpStreamZone().getKey()), is(notNullValue()));
+    }
+
+    @After
+    public void after() {
+        ExecutionContextHolder.setType(ExecutionContextType.DEFAULT);
+        ExecutionContextHolder.setStorage(ExecutionContextStorage.INHERITABLE);
+        ExecutionContextHolder.setMergePolicy(ExecutionContextMergePolicy.LAST_WINS);
+    }
+}
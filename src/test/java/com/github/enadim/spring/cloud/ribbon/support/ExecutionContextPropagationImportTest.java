@@ -19,6 +19,7 @@ import com.github.enadim.spring.cloud.ribbon.support.strategy.PreservesExecution
 import com.github.enadim.spring.cloud.ribbon.support.strategy.PreservesExecutionContextHystrixStrategy;
 import com.github.enadim.spring.cloud.ribbon.support.strategy.PreservesHeadersInboundHttpRequestStrategy;
 import com.github.enadim.spring.cloud.ribbon.support.strategy.PreservesHttpHeadersFeignStrategy;
+import com.github.enadim.spring.cloud.ribbon.support.strategy.PreservesHttpHeadersReactorStrategy;
 import com.github.enadim.spring.cloud.ribbon.support.strategy.PreservesHttpHeadersZuulStrategy;
 import com.github.enadim.spring.cloud.ribbon.support.strategy.PreservesJmsMessagePropertiesStrategy;
 import com.github.enadim.spring.cloud.ribbon.support.strategy.PreservesStompHeadersStrategy;
@@ -56,7 +57,8 @@ public class ExecutionContextPropagationImportTest {
                 PreservesHttpHeadersZuulStrategy.class.getName(),
                 PreservesExecutionContextHystrixStrategy.class.getName(),
                 PreservesJmsMessagePropertiesStrategy.class.getName(),
-                PreservesStompHeadersStrategy.class.getName()
+                PreservesStompHeadersStrategy.class.getName(),
+                PreservesHttpHeadersReactorStrategy.class.getName()
         ));
     }
 
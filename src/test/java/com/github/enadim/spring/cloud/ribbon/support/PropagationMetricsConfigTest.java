@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.support;
+
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimitPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.github.enadim.spring.cloud.ribbon.support.PropagationMetricsConfig.REJECTED_ENTRIES;
+import static com.github.enadim.spring.cloud.ribbon.support.PropagationMetricsConfig.TRUNCATED_ENTRIES;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class PropagationMetricsConfigTest {
+
+    @Test
+    public void shouldPublishTheLimiterCounters() {
+        PropagationProperties properties = new PropagationProperties();
+        properties.getLimits().setMaxEntries(1);
+        properties.getLimits().setMaxValueBytes(2);
+        properties.getLimits().setPolicy(EntriesLimitPolicy.TRUNCATE);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new PropagationMetricsConfig().propagationLimitsMetrics(properties).bindTo(registry);
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("a", "123");
+        entries.put("b", "1");
+        properties.buildEntriesLimiter().limit(entries);
+        assertThat(registry.get(REJECTED_ENTRIES).functionCounter().count(), is(1d));
+        assertThat(registry.get(TRUNCATED_ENTRIES).functionCounter().count(), is(1d));
+    }
+}
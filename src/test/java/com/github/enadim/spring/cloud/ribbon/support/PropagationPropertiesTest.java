@@ -15,10 +15,13 @@
  */
 package com.github.enadim.spring.cloud.ribbon.support;
 
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimitPolicy;
+import com.github.enadim.spring.cloud.ribbon.propagator.EntriesLimiter;
 import org.junit.Test;
 
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 public class PropagationPropertiesTest {
@@ -30,6 +33,26 @@ public class PropagationPropertiesTest {
         assertThat(properties.buildEntriesFilter().accept(""), is(false));
     }
 
+    @Test
+    public void buildUnboundedEntriesLimiterByDefault() throws Exception {
+        assertThat(new PropagationProperties().buildEntriesLimiter().isBounded(), is(false));
+    }
+
+    @Test
+    public void buildEntriesLimiter() throws Exception {
+        PropagationProperties properties = new PropagationProperties();
+        properties.getLimits().setMaxEntries(1);
+        properties.getLimits().setMaxValueBytes(2);
+        properties.getLimits().setMaxTotalBytes(3);
+        properties.getLimits().setPolicy(EntriesLimitPolicy.REJECT);
+        EntriesLimiter limiter = properties.buildEntriesLimiter();
+        assertThat(limiter.getMaxEntries(), is(1));
+        assertThat(limiter.getMaxValueBytes(), is(2));
+        assertThat(limiter.getMaxTotalBytes(), is(3));
+        assertThat(limiter.getPolicy(), is(EntriesLimitPolicy.REJECT));
+        assertThat(properties.buildEntriesLimiter(), is(sameInstance(limiter)));
+    }
+
     @Test
     public void buildExtraStaticEntries() throws Exception {
         PropagationProperties properties = new PropagationProperties();
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.support;
+
+import com.github.enadim.spring.cloud.ribbon.rule.PredicateBasedRuleSupport;
+import com.github.enadim.spring.cloud.ribbon.rule.ServerSelection;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+public class RuleBaseConfigTest {
+    RuleBaseConfig config = new RuleBaseConfig();
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRequireTheRoutingKeysOfTheFastFail() {
+        setField(config, "selection", ServerSelection.ROUND_ROBIN);
+        setField(config, "routingKeys", new String[0]);
+        setField(config, "fastFail", true);
+        config.rule();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRequireTheRoutingKeysOfTheDecisionCache() {
+        setField(config, "selection", ServerSelection.ROUND_ROBIN);
+        setField(config, "routingKeys", new String[0]);
+        setField(config, "decisionCache", true);
+        config.rule();
+    }
+
+    @Test
+    public void shouldRouteOnTheConfiguredKeys() {
+        setField(config, "selection", ServerSelection.ROUND_ROBIN);
+        setField(config, "routingKeys", new String[]{"tenant"});
+        setField(config, "fastFail", true);
+        setField(config, "decisionCache", true);
+        PredicateBasedRuleSupport rule = config.rule();
+        assertThat(rule.getNoEligibleServerCache().getKeys(), contains("tenant"));
+        assertThat(rule.getEligibleServerCache().getKeys(), contains("tenant"));
+    }
+
+    @Test
+    public void shouldDisableTheDecisionCacheWithTheSpillover() {
+        setField(config, "selection", ServerSelection.ROUND_ROBIN);
+        setField(config, "routingKeys", new String[]{"tenant"});
+        setField(config, "decisionCache", true);
+        setField(config, "spillover", true);
+        assertThat(config.rule().getEligibleServerCache(), is(nullValue()));
+    }
+}
@@ -15,7 +15,10 @@
  */
 package com.github.enadim.spring.cloud.ribbon.support.affinity;
 
+import com.github.enadim.spring.cloud.ribbon.predicate.CompositeServerPredicate;
+import com.github.enadim.spring.cloud.ribbon.predicate.SpilloverPolicy;
 import com.github.enadim.spring.cloud.ribbon.propagator.concurrent.ContextAwareExecutorService;
+import com.github.enadim.spring.cloud.ribbon.rule.PredicateBasedRuleSupport;
 import com.github.enadim.spring.cloud.ribbon.support.AbstractSupportTest;
 import com.github.enadim.spring.cloud.ribbon.support.EnableContextPropagation;
 import com.github.enadim.spring.cloud.ribbon.support.EnableHttpLogging;
@@ -28,16 +31,21 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cloud.netflix.ribbon.RibbonClient;
 import org.springframework.cloud.netflix.ribbon.RibbonClients;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import javax.inject.Inject;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.springframework.http.HttpStatus.OK;
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -49,7 +57,14 @@ import static org.springframework.http.HttpStatus.OK;
                 "eureka.client.enabled=false",
                 "eureka.instance.metadataMap.zone=zone1",
                 "ribbon.eager-load.enabled=true",
-                "ribbon.eager-load.clients[0]=application2"}
+                "ribbon.eager-load.clients[0]=application2",
+                "ribbon.extensions.client.application.rule.decision-cache.enabled=true",
+                "ribbon.extensions.client.application.rule.spillover.enabled=true",
+                "ribbon.extensions.client.application.rule.spillover.active-requests-threshold=20",
+                "ribbon.extensions.client.application.rule.spillover.max-share=0.5",
+                "ribbon.extensions.client.application.rule.slow-start.enabled=true",
+                "ribbon.extensions.client.application.rule.slow-start.duration=30000",
+                "ribbon.extensions.client.application.rule.slow-start.floor=0.5"}
 )
 public class ZoneAffinityTest extends AbstractSupportTest {
 
@@ -57,6 +72,27 @@ public class ZoneAffinityTest extends AbstractSupportTest {
         PreservesExecutionContextHystrixStrategy.init();
     }
 
+    @Inject
+    SpringClientFactory clientFactory;
+
+    @Test
+    public void test_spillover_policy() {
+        PredicateBasedRuleSupport rule = clientFactory.getInstance(TestApplicationResource.SERVICE_ID, PredicateBasedRuleSupport.class);
+        assertThat(rule.getEligibleServerCache(), is(nullValue()));
+        SpilloverPolicy spillover = ((CompositeServerPredicate) rule.getPredicate()).getSpillover();
+        assertThat(spillover.getRule(), is(rule));
+        assertThat(spillover.getActiveRequestsThreshold(), is(20d));
+        assertThat(spillover.getFailingShareThreshold(), is(0.5d));
+        assertThat(spillover.getMaxShare(), is(0.5d));
+    }
+
+    @Test
+    public void test_slow_start() {
+        PredicateBasedRuleSupport rule = clientFactory.getInstance(TestApplicationResource.SERVICE_ID, PredicateBasedRuleSupport.class);
+        assertThat(rule.getSlowStart().getDuration(), is(30000L));
+        assertThat(rule.getSlowStart().getFloor(), is(0.5d));
+    }
+
     @Test
     public void test_choose_server1() {
         given().when()
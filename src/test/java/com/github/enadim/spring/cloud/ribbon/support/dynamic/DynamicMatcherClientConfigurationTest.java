@@ -31,7 +31,8 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
                 "ribbon.extensions.propagation.keys[0]=instance-id",
                 "ribbon.extensions.propagation.keys[1]=mykey",
                 "ribbon.extensions.client.application.rule.dynamic-metadata-matcher.key=mykey",
-                "ribbon.extensions.client.application.rule.dynamic-metadata-matcher.accept-when-missing=false"}
+                "ribbon.extensions.client.application.rule.dynamic-metadata-matcher.accept-when-missing=false",
+                "ribbon.extensions.client.application.rule.selection=POWER_OF_TWO_CHOICES"}
 )
 public class DynamicMatcherClientConfigurationTest extends AbstractDynamicMatcherSupportTest {
     public DynamicMatcherClientConfigurationTest() {
@@ -15,10 +15,21 @@
  */
 package com.github.enadim.spring.cloud.ribbon.support.favorite;
 
+import com.github.enadim.spring.cloud.ribbon.rule.PredicateBasedRuleSupport;
+import com.github.enadim.spring.cloud.ribbon.support.AbstractSupportTest.TestApplicationResource;
+import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import javax.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
 @RunWith(SpringJUnit4ClassRunner.class)
 @SpringBootTest(classes = {AbstractFavoriteZoneSupportTest.FavoriteZoneApplication.class},
         webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
@@ -30,11 +41,28 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
                 "ribbon.eager-load.enabled=true",
                 "ribbon.eager-load.clients[0]=application2",
                 "ribbon.extensions.propagation.keys[0]=my-favorite-zone",
-                "ribbon.extensions.rule.favorite-zone.key=my-favorite-zone"}
+                "ribbon.extensions.rule.favorite-zone.key=my-favorite-zone",
+                "ribbon.extensions.client.application.rule.fast-fail.enabled=true",
+                "ribbon.extensions.client.application.rule.decision-cache.enabled=true"}
 )
 public class FavoriteZoneClientConfigurationTest extends AbstractFavoriteZoneSupportTest {
 
+    @Inject
+    SpringClientFactory clientFactory;
+
     public FavoriteZoneClientConfigurationTest() {
         super("favorite-zone");
     }
+
+    @Test
+    public void test_fast_fail_routing_keys() {
+        PredicateBasedRuleSupport rule = clientFactory.getInstance(TestApplicationResource.SERVICE_ID, PredicateBasedRuleSupport.class);
+        assertThat(rule.getNoEligibleServerCache().getKeys(), contains("my-favorite-zone", "upstream-zone"));
+    }
+
+    @Test
+    public void test_decision_cache_disabled_by_the_statistics_tiers() {
+        PredicateBasedRuleSupport rule = clientFactory.getInstance(TestApplicationResource.SERVICE_ID, PredicateBasedRuleSupport.class);
+        assertThat(rule.getEligibleServerCache(), is(nullValue()));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.support.hash;
+
+import com.github.enadim.spring.cloud.ribbon.propagator.concurrent.ContextAwareExecutorService;
+import com.github.enadim.spring.cloud.ribbon.rule.ConsistentHashServerChooser;
+import com.github.enadim.spring.cloud.ribbon.rule.PredicateBasedRuleSupport;
+import com.github.enadim.spring.cloud.ribbon.support.AbstractSupportTest;
+import com.github.enadim.spring.cloud.ribbon.support.EnableContextPropagation;
+import com.github.enadim.spring.cloud.ribbon.support.EnableRibbonConsistentHash;
+import com.github.enadim.spring.cloud.ribbon.support.EnableRibbonZoneAffinity;
+import com.github.enadim.spring.cloud.ribbon.support.hash.ConsistentHashTest.ConsistentHashApplication;
+import com.github.enadim.spring.cloud.ribbon.support.strategy.PreservesExecutionContextHystrixStrategy;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.netflix.ribbon.RibbonClient;
+import org.springframework.cloud.netflix.ribbon.RibbonClients;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.inject.Inject;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.http.HttpStatus.OK;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = {ConsistentHashApplication.class},
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.application.name=consistent-hash-test",
+                "endpoints.enabled=false",
+                "eureka.client.enabled=false",
+                "eureka.instance.metadataMap.zone=zone1",
+                "eureka.instance.metadataMap.instanceId=consistent-hash-test-1",
+                "ribbon.eager-load.enabled=true",
+                "ribbon.eager-load.clients[0]=application2",
+                "ribbon.extensions.propagation.keys[0]=tenant",
+                "ribbon.extensions.client.application.rule.consistent-hash.key=tenant",
+                "ribbon.extensions.client.application.rule.consistent-hash.load-factor=2",
+                "ribbon.extensions.client.application.rule.fast-fail.enabled=true",
+                "ribbon.extensions.client.application.rule.decision-cache.enabled=true",
+                "ribbon.extensions.client.application.rule.routing-keys=tenant,other",
+                "ribbon.extensions.client.application.rule.subset.enabled=true",
+                "ribbon.extensions.client.application.rule.subset.size=10"}
+)
+public class ConsistentHashTest extends AbstractSupportTest {
+
+    static {
+        PreservesExecutionContextHystrixStrategy.init();
+    }
+
+    @Inject
+    SpringClientFactory clientFactory;
+
+    @Test
+    public void test_consistent_hash_chooser() {
+        PredicateBasedRuleSupport rule = clientFactory.getInstance(TestApplicationResource.SERVICE_ID, PredicateBasedRuleSupport.class);
+        assertThat(rule.getNoEligibleServerCache().getKeys(), contains("tenant", "other"));
+        assertThat(rule.getEligibleServerCache(), is(nullValue()));
+        ConsistentHashServerChooser chooser = (ConsistentHashServerChooser) rule.getChooser();
+        assertThat(chooser, instanceOf(ConsistentHashServerChooser.class));
+        assertThat(chooser.getKey(), is("tenant"));
+        assertThat(chooser.getLoadFactor(), is(2d));
+        assertThat(rule.getSubset().getSeed(), is("consistent-hash-test-1"));
+        assertThat(rule.getSubset().getZone(), is("zone1"));
+        assertThat(rule.getSubset().getSize(), is(10));
+    }
+
+    @Test
+    public void test_choose_server_by_tenant() {
+        given().when()
+                .header("tenant", "tenant1")
+                .get(TestApplicationBase.TestControllerConstants.MESSAGE_PATH)
+                .then()
+                .statusCode(OK.value())
+                .body(equalTo(TestApplicationBase.TestControllerConstants.MESSAGE));
+    }
+
+    @Test
+    public void test_choose_server_by_tenant_in_another_zone() {
+        server1.setAlive(false);
+        server1.setReadyToServe(false);
+        given().when()
+                .header("tenant", "tenant1")
+                .get(TestApplicationBase.TestControllerConstants.MESSAGE_PATH)
+                .then()
+                .statusCode(OK.value())
+                .body(equalTo(TestApplicationBase.TestControllerConstants.MESSAGE));
+    }
+
+    @SpringBootApplication
+    @EnableFeignClients(basePackageClasses = TestApplicationResource.class)
+    @EnableContextPropagation
+    @RibbonClients(defaultConfiguration = DefaultRibbonClientsConfig.class,
+            value = {@RibbonClient(name = TestApplicationResource.SERVICE_ID, configuration = ConsistentHashRibbonClientsConfig.class)})
+    public static class ConsistentHashApplication extends TestApplicationBase {
+        @Bean
+        public ExecutorService executorService() {
+            return new ContextAwareExecutorService(Executors.newSingleThreadExecutor());
+        }
+    }
+
+    @Configuration
+    @EnableRibbonZoneAffinity
+    @EnableRibbonConsistentHash
+    public static class ConsistentHashRibbonClientsConfig {
+    }
+
+}
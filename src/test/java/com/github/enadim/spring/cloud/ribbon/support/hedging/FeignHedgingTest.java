@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.support.hedging;
+
+import com.github.enadim.spring.cloud.ribbon.hedging.HedgedFeignClient;
+import com.github.enadim.spring.cloud.ribbon.hedging.HedgingPolicy;
+import com.github.enadim.spring.cloud.ribbon.propagator.concurrent.ContextAwareExecutorService;
+import com.github.enadim.spring.cloud.ribbon.support.AbstractSupportTest;
+import com.github.enadim.spring.cloud.ribbon.support.EnableContextPropagation;
+import com.github.enadim.spring.cloud.ribbon.support.EnableFeignHedging;
+import com.github.enadim.spring.cloud.ribbon.support.EnableRibbonZoneAffinity;
+import com.github.enadim.spring.cloud.ribbon.support.hedging.FeignHedgingTest.FeignHedgingApplication;
+import com.github.enadim.spring.cloud.ribbon.support.strategy.PreservesExecutionContextHystrixStrategy;
+import feign.Client;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.netflix.ribbon.RibbonClient;
+import org.springframework.cloud.netflix.ribbon.RibbonClients;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.inject.Inject;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.http.HttpStatus.OK;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = {FeignHedgingApplication.class},
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.application.name=feign-hedging-test",
+                "endpoints.enabled=false",
+                "eureka.client.enabled=false",
+                "eureka.instance.metadataMap.zone=zone1",
+                "ribbon.eager-load.enabled=true",
+                "ribbon.eager-load.clients[0]=application2",
+                "ribbon.extensions.propagation.keys[0]=tenant",
+                "ribbon.extensions.client.application.hedging.enabled=true",
+                "ribbon.extensions.client.application.hedging.percentile=99",
+                "ribbon.extensions.client.application.hedging.min-delay=0",
+                "ribbon.extensions.client.application.hedging.min-samples=0",
+                "ribbon.extensions.client.application.hedging.max-rate=1"}
+)
+public class FeignHedgingTest extends AbstractSupportTest {
+
+    static {
+        PreservesExecutionContextHystrixStrategy.init();
+    }
+
+    @Inject
+    SpringClientFactory clientFactory;
+
+    @Inject
+    Client feignClient;
+
+    @Test
+    public void test_hedged_requests() {
+        assertThat(feignClient, instanceOf(HedgedFeignClient.class));
+        given().when()
+                .header("tenant", "tenant1")
+                .get(TestApplicationBase.TestControllerConstants.MESSAGE_PATH)
+                .then()
+                .statusCode(OK.value())
+                .body(equalTo(TestApplicationBase.TestControllerConstants.MESSAGE));
+        HedgingPolicy policy = clientFactory.getInstance(TestApplicationResource.SERVICE_ID, HedgingPolicy.class);
+        assertThat(policy.isEnabled(), is(true));
+        assertThat(policy.getPercentile(), is(99d));
+        assertThat(policy.getRequests(), greaterThan(0L));
+        assertThat(policy.getHedges(), greaterThan(0L));
+    }
+
+    @SpringBootApplication
+    @EnableFeignClients(basePackageClasses = TestApplicationResource.class)
+    @EnableContextPropagation
+    @EnableFeignHedging
+    @RibbonClients(defaultConfiguration = DefaultRibbonClientsConfig.class,
+            value = {@RibbonClient(name = TestApplicationResource.SERVICE_ID, configuration = FeignHedgingRibbonClientsConfig.class)})
+    public static class FeignHedgingApplication extends TestApplicationBase {
+        @Bean
+        public ExecutorService executorService() {
+            return new ContextAwareExecutorService(Executors.newSingleThreadExecutor());
+        }
+    }
+
+    @Configuration
+    @EnableRibbonZoneAffinity
+    public static class FeignHedgingRibbonClientsConfig {
+    }
+}
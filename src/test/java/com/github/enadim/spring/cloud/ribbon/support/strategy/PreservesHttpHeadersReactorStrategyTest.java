@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2017 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.enadim.spring.cloud.ribbon.support.strategy;
+
+import com.github.enadim.spring.cloud.ribbon.propagator.reactor.PreservesHttpHeadersExchangeFilter;
+import com.github.enadim.spring.cloud.ribbon.propagator.reactor.PreservesHttpHeadersWebFilter;
+import com.github.enadim.spring.cloud.ribbon.support.EurekaInstanceProperties;
+import com.github.enadim.spring.cloud.ribbon.support.PropagationProperties;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.mockito.Mockito.mock;
+
+public class PreservesHttpHeadersReactorStrategyTest {
+    private PreservesHttpHeadersReactorStrategy strategy = new PreservesHttpHeadersReactorStrategy();
+
+    @Before
+    public void before() {
+        strategy.setProperties(new PropagationProperties());
+        strategy.setEurekaInstanceProperties(new EurekaInstanceProperties());
+    }
+
+    @Test
+    public void testReactorInboundPropagator() {
+        assertThat(strategy.reactorInboundPropagator().getClass(), equalTo(PreservesHttpHeadersWebFilter.class));
+    }
+
+    @Test
+    public void testReactorOutboundPropagator() {
+        List<ExchangeFilterFunction> filters = new ArrayList<>();
+        filters.add(mock(ExchangeFilterFunction.class));
+        WebClient.Builder builder = WebClient.builder().filters(x -> x.addAll(filters));
+        strategy.reactorOutboundPropagator().customize(builder);
+        builder.filters(x -> {
+            assertThat(x.size(), equalTo(2));
+            assertThat(x.get(0), instanceOf(PreservesHttpHeadersExchangeFilter.class));
+        });
+    }
+}